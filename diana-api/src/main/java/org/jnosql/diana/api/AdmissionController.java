@@ -0,0 +1,259 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Bounds the number of async operations in flight. The operations over the {@link ConcurrencyLimit} are
+ * handled by the {@link AdmissionPolicy}: the caller waits, the operation fails at once, or it waits in a
+ * bounded queue where the lowest priority is shed when the queue is full. The queued operations run by
+ * priority, the higher first, and by arrival with the same priority.
+ * The rejected operations fail with {@link ExecuteAsyncQueryException}.
+ */
+public final class AdmissionController {
+
+    private static final Comparator<Pending<?>> ORDER = Comparator.<Pending<?>>comparingInt(p -> -p.priority)
+            .thenComparingLong(p -> p.sequence);
+
+    private final ConcurrencyLimit limit;
+
+    private final AdmissionPolicy policy;
+
+    private final int maxQueue;
+
+    private final NavigableSet<Pending<?>> queue = new TreeSet<>(ORDER);
+
+    private long sequence;
+
+    private int inFlight;
+
+    private int blocked;
+
+    private long completed;
+
+    private long rejected;
+
+    private AdmissionController(ConcurrencyLimit limit, AdmissionPolicy policy, int maxQueue) {
+        this.limit = limit;
+        this.policy = policy;
+        this.maxQueue = maxQueue;
+    }
+
+    /**
+     * Creates an {@link AdmissionController}
+     *
+     * @param limit    the concurrency limit
+     * @param policy   the policy when the limit is reached
+     * @param maxQueue the size of the queue of the {@link AdmissionPolicy#SHED} policy
+     * @return an {@link AdmissionController} instance
+     * @throws NullPointerException     when either limit or policy are null
+     * @throws IllegalArgumentException when maxQueue is negative
+     */
+    public static AdmissionController of(ConcurrencyLimit limit, AdmissionPolicy policy, int maxQueue)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(limit, "limit is required");
+        Objects.requireNonNull(policy, "policy is required");
+        if (maxQueue < 0) {
+            throw new IllegalArgumentException("The max queue cannot be negative");
+        }
+        return new AdmissionController(limit, policy, maxQueue);
+    }
+
+    /**
+     * Submits an operation
+     *
+     * @param priority  the priority, used by the {@link AdmissionPolicy#SHED} policy
+     * @param operation the operation, it is called when the operation is admitted
+     * @param <T>       the result type
+     * @return the future of the operation, it completes exceptionally with {@link ExecuteAsyncQueryException}
+     * when the operation is rejected
+     * @throws NullPointerException when operation is null
+     */
+    public <T> CompletableFuture<T> submit(int priority, Supplier<? extends CompletionStage<T>> operation)
+            throws NullPointerException {
+        Objects.requireNonNull(operation, "operation is required");
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Pending<T> pending;
+        Pending<?> shed = null;
+        boolean start = false;
+        synchronized (this) {
+            pending = new Pending<>(priority, sequence++, operation, future);
+            if (inFlight < limit.getLimit() && queue.isEmpty()) {
+                inFlight++;
+                start = true;
+            } else if (AdmissionPolicy.FAIL_FAST.equals(policy)) {
+                rejected++;
+            } else if (AdmissionPolicy.BLOCK.equals(policy)) {
+                block();
+                start = true;
+            } else if (queue.size() < maxQueue) {
+                queue.add(pending);
+            } else if (!queue.isEmpty() && queue.last().priority < priority) {
+                shed = queue.pollLast();
+                queue.add(pending);
+                rejected++;
+            } else {
+                rejected++;
+                shed = pending;
+            }
+        }
+        if (start) {
+            start(pending);
+        } else if (AdmissionPolicy.FAIL_FAST.equals(policy)) {
+            reject(pending);
+        }
+        if (shed != null) {
+            reject(shed);
+        }
+        return future;
+    }
+
+    private void block() {
+        blocked++;
+        try {
+            while (inFlight >= limit.getLimit()) {
+                wait();
+            }
+            inFlight++;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new ExecuteAsyncQueryException("The thread was interrupted while waiting for admission",
+                    exception);
+        } finally {
+            blocked--;
+        }
+    }
+
+    private <T> void start(Pending<T> pending) {
+        long start = System.nanoTime();
+        CompletionStage<T> stage;
+        try {
+            stage = pending.operation.get();
+        } catch (Exception exception) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(exception);
+            stage = failed;
+        }
+        stage.whenComplete((r, e) -> {
+            release(System.nanoTime() - start, e != null);
+            if (e == null) {
+                pending.future.complete(r);
+            } else {
+                pending.future.completeExceptionally(e);
+            }
+        });
+    }
+
+    private void release(long latency, boolean dropped) {
+        List<Pending<?>> next = new ArrayList<>();
+        synchronized (this) {
+            inFlight--;
+            completed++;
+            limit.onSample(latency, inFlight, dropped);
+            while (inFlight < limit.getLimit() && !queue.isEmpty()) {
+                inFlight++;
+                next.add(queue.pollFirst());
+            }
+            notifyAll();
+        }
+        next.forEach(this::start);
+    }
+
+    private void reject(Pending<?> pending) {
+        pending.future.completeExceptionally(new ExecuteAsyncQueryException(
+                "The operation was rejected, the concurrency limit was reached: " + this));
+    }
+
+    /**
+     * @return the current concurrency limit
+     */
+    public synchronized int getLimit() {
+        return limit.getLimit();
+    }
+
+    /**
+     * @return the number of operations running
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return the number of operations waiting, in the queue or blocked
+     */
+    public synchronized int getQueued() {
+        return queue.size() + blocked;
+    }
+
+    /**
+     * @return the number of operations finished
+     */
+    public synchronized long getCompleted() {
+        return completed;
+    }
+
+    /**
+     * @return the number of operations rejected or shed
+     */
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    @Override
+    public synchronized String toString() {
+        final StringBuilder sb = new StringBuilder("AdmissionController{");
+        sb.append("limit=").append(limit.getLimit());
+        sb.append(", policy=").append(policy);
+        sb.append(", inFlight=").append(inFlight);
+        sb.append(", queued=").append(queue.size() + blocked);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private static final class Pending<T> {
+
+        private final int priority;
+
+        private final long sequence;
+
+        private final Supplier<? extends CompletionStage<T>> operation;
+
+        private final CompletableFuture<T> future;
+
+        private Pending(int priority, long sequence, Supplier<? extends CompletionStage<T>> operation,
+                        CompletableFuture<T> future) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.operation = operation;
+            this.future = future;
+        }
+    }
+}
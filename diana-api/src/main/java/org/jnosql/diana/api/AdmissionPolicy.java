@@ -0,0 +1,40 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+/**
+ * What an {@link AdmissionController} does with an operation when the concurrency limit is reached
+ */
+public enum AdmissionPolicy {
+    /**
+     * The caller thread waits until an operation finishes
+     */
+    BLOCK,
+    /**
+     * The operation fails at once with {@link ExecuteAsyncQueryException}
+     */
+    FAIL_FAST,
+    /**
+     * The operation waits in a bounded queue, when the queue is full the operation with the lowest priority
+     * fails with {@link ExecuteAsyncQueryException}
+     */
+    SHED
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+/**
+ * The additive increase multiplicative decrease {@link ConcurrencyLimit}
+ */
+final class AimdConcurrencyLimit implements ConcurrencyLimit {
+
+    private final int min;
+
+    private final int max;
+
+    private final long threshold;
+
+    private final double backoff;
+
+    private double limit;
+
+    AimdConcurrencyLimit(int initial, int min, int max, long threshold, double backoff) {
+        checkLimits(initial, min, max);
+        if (backoff <= 0 || backoff >= 1) {
+            throw new IllegalArgumentException("The backoff must be between zero and one");
+        }
+        this.min = min;
+        this.max = max;
+        this.threshold = threshold;
+        this.backoff = backoff;
+        this.limit = initial;
+    }
+
+    static void checkLimits(int initial, int min, int max) {
+        if (min < 1 || initial < min || initial > max) {
+            throw new IllegalArgumentException("The limits must follow 0 < min <= initial <= max");
+        }
+    }
+
+    @Override
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    @Override
+    public void onSample(long latency, int inFlight, boolean dropped) {
+        if (dropped || latency > threshold) {
+            limit = Math.max(min, limit * backoff);
+        } else if (inFlight * 2 >= getLimit()) {
+            limit = Math.min(max, limit + 1);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("AimdConcurrencyLimit{");
+        sb.append("limit=").append(getLimit());
+        sb.append(", min=").append(min);
+        sb.append(", max=").append(max);
+        sb.append(", threshold=").append(threshold);
+        sb.append(", backoff=").append(backoff);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs blocking calls, e.g. the operations of a sync manager, in an {@link Executor} and returns them as
+ * {@link CompletableFuture}. It limits how many calls run at the same time, the calls over the limit wait
+ * in a queue without holding a thread, and it can fail the calls that take longer than a timeout.
+ * It also keeps the metrics of the calls.
+ * When the executor is not informed, it uses a virtual thread per task executor, when the JVM supports it,
+ * otherwise a cached pool of daemon threads.
+ */
+public final class AsyncExecutor implements AutoCloseable {
+
+    private final Executor executor;
+
+    private final boolean owned;
+
+    private final int maxConcurrency;
+
+    private final Duration timeout;
+
+    private final Semaphore permits;
+
+    private final Queue<Task<?>> pending = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final LongAdder submitted = new LongAdder();
+
+    private final LongAdder completed = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    private final LongAdder latency = new LongAdder();
+
+    private AsyncExecutor(Executor executor, boolean owned, int maxConcurrency, Duration timeout) {
+        this.executor = executor;
+        this.owned = owned;
+        this.maxConcurrency = maxConcurrency;
+        this.timeout = timeout;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * Creates an {@link AsyncExecutor} with the default executor
+     *
+     * @param maxConcurrency the maximum number of calls running at the same time
+     * @param timeout        the timeout of each call, zero means no timeout
+     * @return an {@link AsyncExecutor} instance
+     * @throws NullPointerException     when timeout is null
+     * @throws IllegalArgumentException when maxConcurrency is lesser than one or timeout is negative
+     */
+    public static AsyncExecutor of(int maxConcurrency, Duration timeout) throws NullPointerException,
+            IllegalArgumentException {
+        check(maxConcurrency, timeout);
+        return new AsyncExecutor(DefaultExecutor.create(), true, maxConcurrency, timeout);
+    }
+
+    /**
+     * Creates an {@link AsyncExecutor}, the executor is not shut down when this instance is closed
+     *
+     * @param executor       the executor that runs the calls
+     * @param maxConcurrency the maximum number of calls running at the same time
+     * @param timeout        the timeout of each call, zero means no timeout
+     * @return an {@link AsyncExecutor} instance
+     * @throws NullPointerException     when either executor or timeout are null
+     * @throws IllegalArgumentException when maxConcurrency is lesser than one or timeout is negative
+     */
+    public static AsyncExecutor of(Executor executor, int maxConcurrency, Duration timeout)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(executor, "executor is required");
+        check(maxConcurrency, timeout);
+        return new AsyncExecutor(executor, false, maxConcurrency, timeout);
+    }
+
+    private static void check(int maxConcurrency, Duration timeout) {
+        Objects.requireNonNull(timeout, "timeout is required");
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("The max concurrency must be greater than zero");
+        }
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("The timeout cannot be negative");
+        }
+    }
+
+    /**
+     * Submits a blocking call. When the returned future is cancelled or times out before the call starts,
+     * the call is not executed; a call already running is not interrupted.
+     *
+     * @param call the call
+     * @param <T>  the result type
+     * @return the future of the call, it completes exceptionally with {@link TimeoutException} on timeout
+     * @throws NullPointerException when call is null
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> call) throws NullPointerException {
+        Objects.requireNonNull(call, "call is required");
+        CompletableFuture<T> future = new CompletableFuture<>();
+        submitted.increment();
+        queued.incrementAndGet();
+        pending.add(new Task<>(call, future));
+        drain();
+        CompletableFutures.timeout(future, timeout).whenComplete((r, e) -> {
+            if (e instanceof TimeoutException) {
+                timeouts.increment();
+            }
+        });
+        return future;
+    }
+
+    private void drain() {
+        while (!pending.isEmpty() && permits.tryAcquire()) {
+            Task<?> task = pending.poll();
+            if (task == null) {
+                permits.release();
+                continue;
+            }
+            queued.decrementAndGet();
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException exception) {
+                permits.release();
+                task.future.completeExceptionally(exception);
+                failed.increment();
+            }
+        }
+    }
+
+    /**
+     * @return the maximum number of calls running at the same time
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return the timeout of each call, zero means no timeout
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @return the number of calls running now
+     */
+    public int getInFlight() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * @return the number of calls waiting for a free slot
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * @return the number of submitted calls
+     */
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    /**
+     * @return the number of calls that returned a result
+     */
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    /**
+     * @return the number of calls that threw an exception or were rejected by the executor
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * @return the number of calls that timed out
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * @return the average time that the executed calls took to run
+     */
+    public Duration getAverageLatency() {
+        long executed = completed.sum() + failed.sum();
+        if (executed == 0) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(latency.sum() / executed);
+    }
+
+    /**
+     * Shuts down the default executor, an informed executor is left as it is
+     */
+    @Override
+    public void close() {
+        if (owned && executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("AsyncExecutor{");
+        sb.append("executor=").append(executor);
+        sb.append(", maxConcurrency=").append(maxConcurrency);
+        sb.append(", timeout=").append(timeout);
+        sb.append(", inFlight=").append(getInFlight());
+        sb.append(", queued=").append(getQueued());
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private final class Task<T> implements Runnable {
+
+        private final Callable<T> call;
+
+        private final CompletableFuture<T> future;
+
+        private Task(Callable<T> call, CompletableFuture<T> future) {
+            this.call = call;
+            this.future = future;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (future.isDone()) {
+                    return;
+                }
+                long start = System.nanoTime();
+                T result;
+                try {
+                    result = call.call();
+                } catch (Exception exception) {
+                    latency.add(System.nanoTime() - start);
+                    failed.increment();
+                    future.completeExceptionally(exception);
+                    return;
+                }
+                latency.add(System.nanoTime() - start);
+                completed.increment();
+                future.complete(result);
+            } finally {
+                permits.release();
+                drain();
+            }
+        }
+    }
+
+    private static final class DefaultExecutor {
+
+        private DefaultExecutor() {
+        }
+
+        static ExecutorService create() {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException exception) {
+                return Executors.newCachedThreadPool(r -> {
+                    Thread thread = new Thread(r, "diana-async");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+    }
+}
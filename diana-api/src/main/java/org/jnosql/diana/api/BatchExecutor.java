@@ -0,0 +1,157 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Runs a batch write splitting the entities in batches of {@link BatchOptions#getBatchSize()}
+ * and sending each batch to a writer, e.g. the {@code save(Iterable)} of a manager, so a backend with
+ * a bulk API does one round-trip to each batch instead of one to each entity.
+ * When a batch fails every entity of this batch gets its error.
+ */
+public final class BatchExecutor {
+
+    private BatchExecutor() {
+    }
+
+    /**
+     * Writes the entities in batches
+     *
+     * @param entities the entities
+     * @param options  the batch options
+     * @param writer   the function that writes a batch and returns the written entities in the same order
+     * @param <T>      the entity type
+     * @return the result of each entity
+     * @throws NullPointerException when there is a null parameter
+     */
+    public static <T> BatchResult<T> execute(Collection<T> entities, BatchOptions options,
+                                             Function<List<T>, Iterable<T>> writer) throws NullPointerException {
+        Objects.requireNonNull(entities, "entities is required");
+        Objects.requireNonNull(options, "options is required");
+        Objects.requireNonNull(writer, "writer is required");
+
+        List<Batch<T>> batches = split(entities, options.getBatchSize());
+        if (options.isOrdered()) {
+            for (Batch<T> batch : batches) {
+                batch.run(writer);
+                if (batch.error != null) {
+                    break;
+                }
+            }
+        } else if (batches.size() == 1) {
+            batches.get(0).run(writer);
+        } else {
+            CompletableFuture<?>[] futures = batches.stream()
+                    .map(b -> CompletableFuture.runAsync(() -> b.run(writer),
+                            options.getExecutor().orElse(ForkJoinPool.commonPool())))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(futures).join();
+        }
+        return toResult(entities.size(), batches);
+    }
+
+    private static <T> List<Batch<T>> split(Collection<T> entities, int batchSize) {
+        List<Batch<T>> batches = new ArrayList<>();
+        List<T> current = new ArrayList<>(Math.min(batchSize, entities.size()));
+        int start = 0;
+        for (T entity : entities) {
+            Objects.requireNonNull(entity, "entity is required");
+            current.add(entity);
+            if (current.size() == batchSize) {
+                batches.add(new Batch<>(start, current));
+                start += batchSize;
+                current = new ArrayList<>(Math.min(batchSize, entities.size() - start));
+            }
+        }
+        if (!current.isEmpty()) {
+            batches.add(new Batch<>(start, current));
+        }
+        return batches;
+    }
+
+    private static <T> BatchResult<T> toResult(int size, List<Batch<T>> batches) {
+        List<T> entities = new ArrayList<>(Arrays.asList(newArray(size)));
+        Map<Integer, Exception> errors = new TreeMap<>();
+        List<Integer> skipped = new ArrayList<>();
+        for (Batch<T> batch : batches) {
+            for (int index = 0; index < batch.entities.size(); index++) {
+                int position = batch.start + index;
+                if (batch.error != null) {
+                    errors.put(position, batch.error);
+                } else if (batch.result == null) {
+                    skipped.add(position);
+                } else if (index < batch.result.size()) {
+                    entities.set(position, batch.result.get(index));
+                }
+            }
+        }
+        return BatchResult.of(entities, errors, skipped);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T[] newArray(int size) {
+        return (T[]) new Object[size];
+    }
+
+    private static final class Batch<T> {
+
+        private final int start;
+
+        private final List<T> entities;
+
+        private volatile List<T> result;
+
+        private volatile Exception error;
+
+        private Batch(int start, List<T> entities) {
+            this.start = start;
+            this.entities = entities;
+        }
+
+        private void run(Function<List<T>, Iterable<T>> writer) {
+            try {
+                List<T> saved = new ArrayList<>(entities.size());
+                Iterable<T> iterable = writer.apply(entities);
+                if (iterable != null) {
+                    Iterator<T> iterator = iterable.iterator();
+                    while (iterator.hasNext()) {
+                        saved.add(iterator.next());
+                    }
+                }
+                this.result = saved;
+            } catch (Exception exception) {
+                this.error = exception;
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Collapses the loads of single keys that happen in the same short window into one load of many keys, in the
+ * dataloader style. The keys are deduplicated, the batch is loaded when the window passes or when it reaches the
+ * max batch size, and the result of each key is sent back to each caller. The callers of the same key share
+ * the same value instance, copy it when it is mutable.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public final class BatchLoader<K, V> {
+
+    private final Function<Set<K>, ? extends CompletionStage<Map<K, V>>> loader;
+
+    private final Duration window;
+
+    private final int maxBatchSize;
+
+    private final Executor executor;
+
+    private final LongAdder loads = new LongAdder();
+
+    private final LongAdder batches = new LongAdder();
+
+    private Map<K, CompletableFuture<Optional<V>>> current = new LinkedHashMap<>();
+
+    private BatchLoader(Function<Set<K>, ? extends CompletionStage<Map<K, V>>> loader, Duration window,
+                        int maxBatchSize, Executor executor) {
+        this.loader = loader;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates a {@link BatchLoader} that loads the batches whose window passed in a shared pool of daemon threads
+     *
+     * @param loader       the function that loads many keys at once, a key missing in the map has no value
+     * @param window       the time that a batch waits for more keys
+     * @param maxBatchSize the maximum number of keys in a batch
+     * @param <K>          the key type
+     * @param <V>          the value type
+     * @return a {@link BatchLoader} instance
+     * @throws NullPointerException     when either loader or window are null
+     * @throws IllegalArgumentException when maxBatchSize is lesser than one or window is negative
+     */
+    public static <K, V> BatchLoader<K, V> of(Function<Set<K>, ? extends CompletionStage<Map<K, V>>> loader,
+                                              Duration window, int maxBatchSize)
+            throws NullPointerException, IllegalArgumentException {
+        return of(loader, window, maxBatchSize, CompletableFutures.workers());
+    }
+
+    /**
+     * Creates a {@link BatchLoader}
+     *
+     * @param loader       the function that loads many keys at once, a key missing in the map has no value
+     * @param window       the time that a batch waits for more keys
+     * @param maxBatchSize the maximum number of keys in a batch
+     * @param executor     the executor that loads the batches whose window passed, the loader might block it
+     * @param <K>          the key type
+     * @param <V>          the value type
+     * @return a {@link BatchLoader} instance
+     * @throws NullPointerException     when either loader, window or executor are null
+     * @throws IllegalArgumentException when maxBatchSize is lesser than one or window is negative
+     */
+    public static <K, V> BatchLoader<K, V> of(Function<Set<K>, ? extends CompletionStage<Map<K, V>>> loader,
+                                              Duration window, int maxBatchSize, Executor executor)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(loader, "loader is required");
+        Objects.requireNonNull(window, "window is required");
+        Objects.requireNonNull(executor, "executor is required");
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("The max batch size must be greater than zero");
+        }
+        if (window.isNegative()) {
+            throw new IllegalArgumentException("The window cannot be negative");
+        }
+        return new BatchLoader<>(loader, window, maxBatchSize, executor);
+    }
+
+    /**
+     * Loads a key in the next batch
+     *
+     * @param key the key
+     * @return the future of the value or {@link Optional#empty()} when the key has no value
+     * @throws NullPointerException when key is null
+     */
+    public CompletableFuture<Optional<V>> load(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        loads.increment();
+        CompletableFuture<Optional<V>> future;
+        Map<K, CompletableFuture<Optional<V>>> full = null;
+        Map<K, CompletableFuture<Optional<V>>> scheduled = null;
+        synchronized (this) {
+            future = current.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                if (current.isEmpty()) {
+                    scheduled = current;
+                }
+                current.put(key, future);
+                if (current.size() >= maxBatchSize) {
+                    full = current;
+                    current = new LinkedHashMap<>();
+                }
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        } else if (scheduled != null) {
+            Map<K, CompletableFuture<Optional<V>>> batch = scheduled;
+            CompletableFutures.schedule(() -> dispatchIfCurrent(batch), window, executor);
+        }
+        return future.thenApply(Function.identity());
+    }
+
+    /**
+     * @return the number of keys requested
+     */
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    /**
+     * @return the number of batches loaded
+     */
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    private void dispatchIfCurrent(Map<K, CompletableFuture<Optional<V>>> batch) {
+        synchronized (this) {
+            if (batch != current) {
+                return;
+            }
+            current = new LinkedHashMap<>();
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Map<K, CompletableFuture<Optional<V>>> batch) {
+        batches.increment();
+        Set<K> keys = new LinkedHashSet<>(batch.keySet());
+        CompletionStage<Map<K, V>> stage;
+        try {
+            stage = loader.apply(keys);
+        } catch (Exception exception) {
+            batch.values().forEach(f -> f.completeExceptionally(exception));
+            return;
+        }
+        stage.whenComplete((values, error) -> batch.forEach((key, future) -> {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(Optional.ofNullable(values.get(key)));
+            }
+        }));
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BatchLoader{");
+        sb.append("window=").append(window);
+        sb.append(", maxBatchSize=").append(maxBatchSize);
+        sb.append(", loads=").append(loads);
+        sb.append(", batches=").append(batches);
+        sb.append('}');
+        return sb.toString();
+    }
+}
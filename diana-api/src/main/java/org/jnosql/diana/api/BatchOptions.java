@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+/**
+ * The options of a batch write, it defines how many entities are sent in each call, the batch size,
+ * and whether the batches must run in order.
+ * An ordered batch runs one batch after another and stops at the first batch that fails,
+ * an unordered batch runs the batches in parallel and keeps going when one of them fails.
+ *
+ * @see BatchResult
+ */
+public final class BatchOptions {
+
+    private final int batchSize;
+
+    private final boolean ordered;
+
+    private final Executor executor;
+
+    private BatchOptions(int batchSize, boolean ordered, Executor executor) {
+        this.batchSize = batchSize;
+        this.ordered = ordered;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates an ordered {@link BatchOptions}
+     *
+     * @param batchSize the number of entities in each batch
+     * @return a {@link BatchOptions} instance
+     * @throws IllegalArgumentException when batchSize is lesser than one
+     */
+    public static BatchOptions ordered(int batchSize) throws IllegalArgumentException {
+        return new BatchOptions(checkSize(batchSize), true, null);
+    }
+
+    /**
+     * Creates an unordered {@link BatchOptions} that runs in the common fork join pool
+     *
+     * @param batchSize the number of entities in each batch
+     * @return a {@link BatchOptions} instance
+     * @throws IllegalArgumentException when batchSize is lesser than one
+     */
+    public static BatchOptions unordered(int batchSize) throws IllegalArgumentException {
+        return new BatchOptions(checkSize(batchSize), false, null);
+    }
+
+    /**
+     * Creates an unordered {@link BatchOptions} that runs in the given executor
+     *
+     * @param batchSize the number of entities in each batch
+     * @param executor  the executor that runs the batches
+     * @return a {@link BatchOptions} instance
+     * @throws IllegalArgumentException when batchSize is lesser than one
+     * @throws NullPointerException     when executor is null
+     */
+    public static BatchOptions unordered(int batchSize, Executor executor) throws IllegalArgumentException,
+            NullPointerException {
+        Objects.requireNonNull(executor, "executor is required");
+        return new BatchOptions(checkSize(batchSize), false, executor);
+    }
+
+    /**
+     * @return the number of entities in each batch
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return true when the batches run one after another and stop at the first failure
+     */
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    /**
+     * @return the executor of an unordered batch, when it is empty the common fork join pool is used
+     */
+    public Optional<Executor> getExecutor() {
+        return Optional.ofNullable(executor);
+    }
+
+    private static int checkSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be greater than zero");
+        }
+        return batchSize;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BatchOptions)) {
+            return false;
+        }
+        BatchOptions that = (BatchOptions) o;
+        return batchSize == that.batchSize &&
+                ordered == that.ordered &&
+                Objects.equals(executor, that.executor);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(batchSize, ordered, executor);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BatchOptions{");
+        sb.append("batchSize=").append(batchSize);
+        sb.append(", ordered=").append(ordered);
+        sb.append(", executor=").append(executor);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The result of a batch write, each entity is identified by its position in the collection that was written.
+ * An entity is either saved, failed, when the batch that contains it failed, or skipped, when an ordered
+ * batch stopped before reaching it.
+ *
+ * @param <T> the entity type
+ * @see BatchOptions
+ */
+public final class BatchResult<T> {
+
+    private final List<T> entities;
+
+    private final Map<Integer, Exception> errors;
+
+    private final List<Integer> skipped;
+
+    private BatchResult(List<T> entities, Map<Integer, Exception> errors, List<Integer> skipped) {
+        this.entities = entities;
+        this.errors = errors;
+        this.skipped = skipped;
+    }
+
+    /**
+     * Creates a {@link BatchResult}
+     *
+     * @param entities the result of each position, null when the position was not saved
+     * @param errors   the error of each failed position
+     * @param skipped  the positions that were not written
+     * @param <T>      the entity type
+     * @return a {@link BatchResult} instance
+     * @throws NullPointerException when there is a null parameter
+     */
+    public static <T> BatchResult<T> of(List<T> entities, Map<Integer, Exception> errors, List<Integer> skipped)
+            throws NullPointerException {
+        Objects.requireNonNull(entities, "entities is required");
+        Objects.requireNonNull(errors, "errors is required");
+        Objects.requireNonNull(skipped, "skipped is required");
+        return new BatchResult<>(Collections.unmodifiableList(entities), Collections.unmodifiableMap(errors),
+                Collections.unmodifiableList(skipped));
+    }
+
+    /**
+     * @return the number of entities in the batch write
+     */
+    public int size() {
+        return entities.size();
+    }
+
+    /**
+     * Returns the entity saved at the given position
+     *
+     * @param index the position of the entity in the written collection
+     * @return the saved entity or {@link Optional#empty()} when the entity failed or was skipped
+     * @throws IndexOutOfBoundsException when index is out of range
+     */
+    public Optional<T> get(int index) throws IndexOutOfBoundsException {
+        return Optional.ofNullable(entities.get(index));
+    }
+
+    /**
+     * Returns the error of the entity at the given position
+     *
+     * @param index the position of the entity in the written collection
+     * @return the error or {@link Optional#empty()} when the entity did not fail
+     */
+    public Optional<Exception> getError(int index) {
+        return Optional.ofNullable(errors.get(index));
+    }
+
+    /**
+     * @return the errors by position of the entities whose batch failed
+     */
+    public Map<Integer, Exception> getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return the positions of the entities that were not written, because an ordered batch stopped before them
+     */
+    public List<Integer> getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * @return true when every entity was saved
+     */
+    public boolean isSuccess() {
+        return errors.isEmpty() && skipped.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BatchResult{");
+        sb.append("size=").append(entities.size());
+        sb.append(", errors=").append(errors);
+        sb.append(", skipped=").append(skipped);
+        sb.append('}');
+        return sb.toString();
+    }
+}
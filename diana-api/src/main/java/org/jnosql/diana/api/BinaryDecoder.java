@@ -0,0 +1,348 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+import org.jnosql.diana.api.column.Column;
+import org.jnosql.diana.api.document.Document;
+
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.jnosql.diana.api.BinaryTags.BIG_DECIMAL;
+import static org.jnosql.diana.api.BinaryTags.BIG_INTEGER;
+import static org.jnosql.diana.api.BinaryTags.BYTE;
+import static org.jnosql.diana.api.BinaryTags.BYTES;
+import static org.jnosql.diana.api.BinaryTags.CHARACTER;
+import static org.jnosql.diana.api.BinaryTags.COLUMN;
+import static org.jnosql.diana.api.BinaryTags.DATE;
+import static org.jnosql.diana.api.BinaryTags.DOCUMENT;
+import static org.jnosql.diana.api.BinaryTags.DOUBLE;
+import static org.jnosql.diana.api.BinaryTags.FALSE;
+import static org.jnosql.diana.api.BinaryTags.FLOAT;
+import static org.jnosql.diana.api.BinaryTags.INSTANT;
+import static org.jnosql.diana.api.BinaryTags.INTEGER;
+import static org.jnosql.diana.api.BinaryTags.LIST;
+import static org.jnosql.diana.api.BinaryTags.LOCAL_DATE;
+import static org.jnosql.diana.api.BinaryTags.LOCAL_DATE_TIME;
+import static org.jnosql.diana.api.BinaryTags.LOCAL_TIME;
+import static org.jnosql.diana.api.BinaryTags.LONG;
+import static org.jnosql.diana.api.BinaryTags.MAP;
+import static org.jnosql.diana.api.BinaryTags.NULL;
+import static org.jnosql.diana.api.BinaryTags.SET;
+import static org.jnosql.diana.api.BinaryTags.SHORT;
+import static org.jnosql.diana.api.BinaryTags.STRING;
+import static org.jnosql.diana.api.BinaryTags.TRUE;
+import static org.jnosql.diana.api.BinaryTags.VALUE;
+
+/**
+ * A compact binary reader of the bytes written by {@link BinaryEncoder}.
+ * All the read methods throw {@link IllegalArgumentException} when the bytes are either truncated or invalid.
+ * It is not thread-safe, it should be used to read a single message.
+ */
+public final class BinaryDecoder {
+
+    private static final Condition[] CONDITIONS = Condition.values();
+
+    private static final Sort.SortType[] SORT_TYPES = Sort.SortType.values();
+
+    private final List<String> strings = new ArrayList<>();
+
+    private final byte[] buffer;
+
+    private int position;
+
+    private BinaryDecoder(byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Creates a {@link BinaryDecoder}
+     *
+     * @param bytes the bytes written by {@link BinaryEncoder}
+     * @return a {@link BinaryDecoder} instance
+     * @throws NullPointerException when bytes is null
+     */
+    public static BinaryDecoder of(byte[] bytes) throws NullPointerException {
+        return new BinaryDecoder(Objects.requireNonNull(bytes, "bytes is required"));
+    }
+
+    /**
+     * Checks if all the bytes were read
+     *
+     * @return true if there is no byte to read
+     */
+    public boolean isFinished() {
+        return position == buffer.length;
+    }
+
+    /**
+     * Reads a single byte
+     *
+     * @return the byte
+     * @throws IllegalArgumentException when there is no byte to read
+     */
+    public byte readByte() throws IllegalArgumentException {
+        check(1);
+        return buffer[position++];
+    }
+
+    /**
+     * Reads a size written by {@link BinaryEncoder#writeSize(int)}
+     *
+     * @return the size
+     * @throws IllegalArgumentException when the bytes are invalid
+     */
+    public int readSize() throws IllegalArgumentException {
+        long size = readVarLong();
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid size: " + size);
+        }
+        return (int) size;
+    }
+
+    /**
+     * Reads a long written by {@link BinaryEncoder#writeLong(long)}
+     *
+     * @return the long
+     * @throws IllegalArgumentException when the bytes are invalid
+     */
+    public long readLong() throws IllegalArgumentException {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads a string written by {@link BinaryEncoder#writeString(String)}
+     *
+     * @return the string
+     * @throws IllegalArgumentException when the bytes are invalid
+     */
+    public String readString() throws IllegalArgumentException {
+        long reference = readVarLong();
+        if (reference > 0) {
+            if (reference > strings.size()) {
+                throw new IllegalArgumentException("Invalid string reference: " + reference);
+            }
+            return strings.get((int) reference - 1);
+        }
+        int size = readSize();
+        check(size);
+        String value = new String(buffer, position, size, StandardCharsets.UTF_8);
+        position += size;
+        strings.add(value);
+        return value;
+    }
+
+    /**
+     * Reads a list of {@link Sort} written by {@link BinaryEncoder#writeSorts(List)}
+     *
+     * @return the sorts
+     * @throws IllegalArgumentException when the bytes are invalid
+     */
+    public List<Sort> readSorts() throws IllegalArgumentException {
+        int size = readSize();
+        List<Sort> sorts = new ArrayList<>(size);
+        for (int index = 0; index < size; index++) {
+            String name = readString();
+            sorts.add(Sort.of(name, SORT_TYPES[ordinal(readByte(), SORT_TYPES.length)]));
+        }
+        return sorts;
+    }
+
+    /**
+     * Reads a {@link Condition} written by {@link BinaryEncoder#writeCondition(Condition)}
+     *
+     * @return the condition
+     * @throws IllegalArgumentException when the bytes are invalid
+     */
+    public Condition readCondition() throws IllegalArgumentException {
+        return CONDITIONS[ordinal(readByte(), CONDITIONS.length)];
+    }
+
+    /**
+     * Reads a {@link Value} written by {@link BinaryEncoder#writeValue(Value)}
+     *
+     * @return the value
+     * @throws IllegalArgumentException when the bytes are invalid or the value is null
+     */
+    public Value readValue() throws IllegalArgumentException {
+        Object value = readObject();
+        if (value == null) {
+            throw new IllegalArgumentException("A value cannot be null");
+        }
+        return Value.of(value);
+    }
+
+    /**
+     * Reads an object written by {@link BinaryEncoder#writeObject(Object)}
+     *
+     * @return the object, it might be null
+     * @throws IllegalArgumentException when the bytes are invalid
+     */
+    public Object readObject() throws IllegalArgumentException {
+        byte tag = readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString();
+            case INTEGER:
+                return (int) readLong();
+            case LONG:
+                return readLong();
+            case DOUBLE:
+                return Double.longBitsToDouble(readFixed(8));
+            case FLOAT:
+                return Float.intBitsToFloat((int) readFixed(4));
+            case SHORT:
+                return (short) readLong();
+            case BYTE:
+                return readByte();
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case CHARACTER:
+                return (char) readVarLong();
+            case BIG_DECIMAL:
+                int scale = (int) readLong();
+                return new BigDecimal(new BigInteger(readByteArray()), scale);
+            case BIG_INTEGER:
+                return new BigInteger(readByteArray());
+            case BYTES:
+                return readByteArray();
+            case VALUE:
+                return Value.of(readObject());
+            case DOCUMENT:
+                String documentName = readString();
+                return Document.of(documentName, readObject());
+            case COLUMN:
+                String columnName = readString();
+                return Column.of(columnName, readObject());
+            case LOCAL_DATE:
+                return LocalDate.ofEpochDay(readLong());
+            case LOCAL_DATE_TIME:
+                LocalDate date = LocalDate.ofEpochDay(readLong());
+                return LocalDateTime.of(date, LocalTime.ofNanoOfDay(readLong()));
+            case LOCAL_TIME:
+                return LocalTime.ofNanoOfDay(readLong());
+            case INSTANT:
+                long seconds = readLong();
+                return Instant.ofEpochSecond(seconds, readLong());
+            case DATE:
+                return new Date(readLong());
+            case LIST:
+                int listSize = readSize();
+                return readElements(new ArrayList<>(Math.min(listSize, 1_024)), listSize);
+            case SET:
+                int setSize = readSize();
+                return readElements(new LinkedHashSet<>(), setSize);
+            case MAP:
+                return readMap();
+            default:
+                throw new IllegalArgumentException("Invalid type tag: " + tag);
+        }
+    }
+
+    private Collection<Object> readElements(Collection<Object> elements, int size) {
+        for (int index = 0; index < size; index++) {
+            elements.add(readObject());
+        }
+        return elements;
+    }
+
+    private Map<Object, Object> readMap() {
+        int size = readSize();
+        Map<Object, Object> map = new LinkedHashMap<>();
+        for (int index = 0; index < size; index++) {
+            Object key = readObject();
+            map.put(key, readObject());
+        }
+        return map;
+    }
+
+    private byte[] readByteArray() {
+        int size = readSize();
+        check(size);
+        byte[] bytes = Arrays.copyOfRange(buffer, position, position + size);
+        position += size;
+        return bytes;
+    }
+
+    private long readFixed(int size) {
+        check(size);
+        long value = 0L;
+        for (int index = 0; index < size; index++) {
+            value = (value << 8) | (buffer[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    private long readVarLong() {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte current = readByte();
+            value |= (long) (current & 0x7F) << shift;
+            if ((current & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Invalid variable length number");
+    }
+
+    private int ordinal(byte value, int size) {
+        if (value < 0 || value >= size) {
+            throw new IllegalArgumentException("Invalid ordinal: " + value);
+        }
+        return value;
+    }
+
+    private void check(int size) {
+        if (size < 0 || size > buffer.length - position) {
+            throw new IllegalArgumentException("The bytes are truncated, it requires " + size
+                    + " bytes at position " + position);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BinaryDecoder{");
+        sb.append("position=").append(position);
+        sb.append(", size=").append(buffer.length);
+        sb.append('}');
+        return sb.toString();
+    }
+}
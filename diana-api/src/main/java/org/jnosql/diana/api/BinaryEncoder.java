@@ -0,0 +1,377 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+import org.jnosql.diana.api.column.Column;
+import org.jnosql.diana.api.document.Document;
+
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.jnosql.diana.api.BinaryTags.BIG_DECIMAL;
+import static org.jnosql.diana.api.BinaryTags.BIG_INTEGER;
+import static org.jnosql.diana.api.BinaryTags.BYTE;
+import static org.jnosql.diana.api.BinaryTags.BYTES;
+import static org.jnosql.diana.api.BinaryTags.CHARACTER;
+import static org.jnosql.diana.api.BinaryTags.COLUMN;
+import static org.jnosql.diana.api.BinaryTags.DATE;
+import static org.jnosql.diana.api.BinaryTags.DOCUMENT;
+import static org.jnosql.diana.api.BinaryTags.DOUBLE;
+import static org.jnosql.diana.api.BinaryTags.FALSE;
+import static org.jnosql.diana.api.BinaryTags.FLOAT;
+import static org.jnosql.diana.api.BinaryTags.INSTANT;
+import static org.jnosql.diana.api.BinaryTags.INTEGER;
+import static org.jnosql.diana.api.BinaryTags.LIST;
+import static org.jnosql.diana.api.BinaryTags.LOCAL_DATE;
+import static org.jnosql.diana.api.BinaryTags.LOCAL_DATE_TIME;
+import static org.jnosql.diana.api.BinaryTags.LOCAL_TIME;
+import static org.jnosql.diana.api.BinaryTags.LONG;
+import static org.jnosql.diana.api.BinaryTags.MAP;
+import static org.jnosql.diana.api.BinaryTags.NULL;
+import static org.jnosql.diana.api.BinaryTags.SET;
+import static org.jnosql.diana.api.BinaryTags.SHORT;
+import static org.jnosql.diana.api.BinaryTags.STRING;
+import static org.jnosql.diana.api.BinaryTags.TRUE;
+import static org.jnosql.diana.api.BinaryTags.VALUE;
+
+/**
+ * A compact binary writer, the counterpart of {@link BinaryDecoder}. Integers are written as variable length
+ * numbers, each string is written once and then referenced by its index in a string table, and each value is
+ * written with a one byte type tag. Only the types listed in {@link #writeObject(Object)} are supported, there is
+ * no fallback to the Java serialization, so decoding bytes from an untrusted source never instantiates other
+ * classes.
+ * It is not thread-safe, it should be used to write a single message.
+ */
+public final class BinaryEncoder {
+
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    private byte[] buffer;
+
+    private int position;
+
+    private BinaryEncoder(int capacity) {
+        this.buffer = new byte[capacity];
+    }
+
+    /**
+     * Creates a {@link BinaryEncoder}
+     *
+     * @return a {@link BinaryEncoder} instance
+     */
+    public static BinaryEncoder of() {
+        return new BinaryEncoder(128);
+    }
+
+    /**
+     * Returns a copy of the written bytes
+     *
+     * @return the bytes
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    /**
+     * Writes a single byte
+     *
+     * @param value the byte
+     * @return this instance
+     */
+    public BinaryEncoder writeByte(int value) {
+        ensure(1);
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * Writes a non negative int as variable length
+     *
+     * @param value the value
+     * @return this instance
+     * @throws IllegalArgumentException when the value is negative
+     */
+    public BinaryEncoder writeSize(int value) throws IllegalArgumentException {
+        if (value < 0) {
+            throw new IllegalArgumentException("The size cannot be negative: " + value);
+        }
+        return writeVarLong(value);
+    }
+
+    /**
+     * Writes a long using zigzag and variable length, so small numbers, either positive or negative,
+     * use few bytes
+     *
+     * @param value the value
+     * @return this instance
+     */
+    public BinaryEncoder writeLong(long value) {
+        return writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Writes a string, a string already written is written as a reference to the previous one
+     *
+     * @param value the string
+     * @return this instance
+     * @throws NullPointerException when value is null
+     */
+    public BinaryEncoder writeString(String value) throws NullPointerException {
+        Integer index = strings.get(value);
+        if (index != null) {
+            return writeVarLong(index + 1L);
+        }
+        strings.put(value, strings.size());
+        writeVarLong(0L);
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeSize(bytes.length);
+        return writeBytes(bytes);
+    }
+
+    /**
+     * Writes a list of {@link Sort}
+     *
+     * @param sorts the sorts
+     * @return this instance
+     * @throws NullPointerException when sorts is null
+     */
+    public BinaryEncoder writeSorts(List<Sort> sorts) throws NullPointerException {
+        writeSize(sorts.size());
+        for (Sort sort : sorts) {
+            writeString(sort.getName());
+            writeByte(sort.getType().ordinal());
+        }
+        return this;
+    }
+
+    /**
+     * Writes a {@link Condition} as its ordinal
+     *
+     * @param condition the condition
+     * @return this instance
+     * @throws NullPointerException when condition is null
+     */
+    public BinaryEncoder writeCondition(Condition condition) throws NullPointerException {
+        return writeByte(condition.ordinal());
+    }
+
+    /**
+     * Writes a {@link Value}
+     *
+     * @param value the value
+     * @return this instance
+     * @throws NullPointerException     when value is null
+     * @throws IllegalArgumentException when the type of the value is not supported
+     */
+    public BinaryEncoder writeValue(Value value) throws NullPointerException, IllegalArgumentException {
+        return writeObject(value.get());
+    }
+
+    /**
+     * Writes an object with its type tag. The supported types are String, the primitive wrappers, BigDecimal,
+     * BigInteger, byte[], {@link Value}, LocalDate, LocalDateTime, LocalTime, Instant, Date, the sub-documents
+     * {@link Document} and {@link Column} and the lists, sets and maps of supported types.
+     *
+     * @param value the object, it might be null
+     * @return this instance
+     * @throws IllegalArgumentException when the type of the object is not supported
+     */
+    public BinaryEncoder writeObject(Object value) throws IllegalArgumentException {
+        if (value == null) {
+            return writeByte(NULL);
+        }
+        if (value instanceof String) {
+            writeByte(STRING);
+            return writeString((String) value);
+        }
+        if (value instanceof Integer) {
+            writeByte(INTEGER);
+            return writeLong((Integer) value);
+        }
+        if (value instanceof Long) {
+            writeByte(LONG);
+            return writeLong((Long) value);
+        }
+        if (value instanceof Double) {
+            writeByte(DOUBLE);
+            return writeFixed(Double.doubleToLongBits((Double) value), 8);
+        }
+        if (value instanceof Float) {
+            writeByte(FLOAT);
+            return writeFixed(Float.floatToIntBits((Float) value), 4);
+        }
+        if (value instanceof Short) {
+            writeByte(SHORT);
+            return writeLong((Short) value);
+        }
+        if (value instanceof Byte) {
+            writeByte(BYTE);
+            return writeByte((Byte) value);
+        }
+        if (value instanceof Boolean) {
+            return writeByte((Boolean) value ? TRUE : FALSE);
+        }
+        if (value instanceof Character) {
+            writeByte(CHARACTER);
+            return writeVarLong((Character) value);
+        }
+        if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            writeByte(BIG_DECIMAL);
+            writeLong(decimal.scale());
+            return writeByteArray(decimal.unscaledValue().toByteArray());
+        }
+        if (value instanceof BigInteger) {
+            writeByte(BIG_INTEGER);
+            return writeByteArray(((BigInteger) value).toByteArray());
+        }
+        if (value instanceof byte[]) {
+            writeByte(BYTES);
+            return writeByteArray((byte[]) value);
+        }
+        if (value instanceof Value) {
+            writeByte(VALUE);
+            return writeObject(((Value) value).get());
+        }
+        if (value instanceof Document) {
+            Document document = (Document) value;
+            writeByte(DOCUMENT);
+            writeString(document.getName());
+            return writeObject(document.getValue().get());
+        }
+        if (value instanceof Column) {
+            Column column = (Column) value;
+            writeByte(COLUMN);
+            writeString(column.getName());
+            return writeObject(column.getValue().get());
+        }
+        if (value instanceof LocalDate) {
+            writeByte(LOCAL_DATE);
+            return writeLong(((LocalDate) value).toEpochDay());
+        }
+        if (value instanceof LocalDateTime) {
+            LocalDateTime dateTime = (LocalDateTime) value;
+            writeByte(LOCAL_DATE_TIME);
+            writeLong(dateTime.toLocalDate().toEpochDay());
+            return writeLong(dateTime.toLocalTime().toNanoOfDay());
+        }
+        if (value instanceof LocalTime) {
+            writeByte(LOCAL_TIME);
+            return writeLong(((LocalTime) value).toNanoOfDay());
+        }
+        if (value instanceof Instant) {
+            Instant instant = (Instant) value;
+            writeByte(INSTANT);
+            writeLong(instant.getEpochSecond());
+            return writeLong(instant.getNano());
+        }
+        if (value.getClass().equals(Date.class)) {
+            writeByte(DATE);
+            return writeLong(((Date) value).getTime());
+        }
+        if (value instanceof Set) {
+            writeByte(SET);
+            return writeElements((Collection<?>) value);
+        }
+        if (value instanceof List) {
+            writeByte(LIST);
+            return writeElements((Collection<?>) value);
+        }
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            writeByte(MAP);
+            writeSize(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeObject(entry.getKey());
+                writeObject(entry.getValue());
+            }
+            return this;
+        }
+        throw new IllegalArgumentException("The type " + value.getClass() + " is not supported");
+    }
+
+    private BinaryEncoder writeElements(Collection<?> values) {
+        writeSize(values.size());
+        for (Object element : values) {
+            writeObject(element);
+        }
+        return this;
+    }
+
+    private BinaryEncoder writeByteArray(byte[] bytes) {
+        writeSize(bytes.length);
+        return writeBytes(bytes);
+    }
+
+    private BinaryEncoder writeBytes(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+        return this;
+    }
+
+    private BinaryEncoder writeFixed(long value, int size) {
+        ensure(size);
+        for (int index = size - 1; index >= 0; index--) {
+            buffer[position++] = (byte) (value >>> (index * 8));
+        }
+        return this;
+    }
+
+    private BinaryEncoder writeVarLong(long value) {
+        ensure(10);
+        long current = value;
+        while ((current & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((current & 0x7F) | 0x80);
+            current >>>= 7;
+        }
+        buffer[position++] = (byte) current;
+        return this;
+    }
+
+    private void ensure(int size) {
+        if (position + size > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + size));
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BinaryEncoder{");
+        sb.append("size=").append(position);
+        sb.append(", strings=").append(strings.size());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+/**
+ * The tags of the values written by {@link BinaryEncoder} and read by {@link BinaryDecoder}
+ */
+final class BinaryTags {
+
+    static final byte NULL = 0;
+    static final byte STRING = 1;
+    static final byte INTEGER = 2;
+    static final byte LONG = 3;
+    static final byte DOUBLE = 4;
+    static final byte FLOAT = 5;
+    static final byte SHORT = 6;
+    static final byte BYTE = 7;
+    static final byte TRUE = 8;
+    static final byte FALSE = 9;
+    static final byte CHARACTER = 10;
+    static final byte BIG_DECIMAL = 11;
+    static final byte BIG_INTEGER = 12;
+    static final byte LIST = 13;
+    static final byte SET = 14;
+    static final byte MAP = 15;
+    static final byte VALUE = 16;
+    static final byte LOCAL_DATE = 17;
+    static final byte LOCAL_DATE_TIME = 18;
+    static final byte LOCAL_TIME = 19;
+    static final byte INSTANT = 20;
+    static final byte DATE = 21;
+    static final byte BYTES = 22;
+    static final byte DOCUMENT = 23;
+    static final byte COLUMN = 24;
+
+    private BinaryTags() {
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Utilities to bridge the callback style of the async managers and {@link CompletableFuture}.
+ * The timeouts share a single daemon scheduler thread, so a timeout does not block a thread while it waits.
+ * A scheduled task that might block is handed off to an executor, so it does not stall the other timers.
+ * The failures that have no error consumer are logged, so they are never dropped silently.
+ */
+public final class CompletableFutures {
+
+    private static final Logger LOGGER = Logger.getLogger(CompletableFutures.class.getName());
+
+    private CompletableFutures() {
+    }
+
+    /**
+     * Runs an operation that delivers its result to a callback and returns it as a {@link CompletableFuture}.
+     * When the operation throws an exception, the future completes exceptionally with it.
+     * When the future is cancelled or completed before, the late callback is ignored.
+     *
+     * @param operation the operation that receives the callback
+     * @param <T>       the result type
+     * @return the future of the callback result
+     * @throws NullPointerException when operation is null
+     */
+    public static <T> CompletableFuture<T> of(Consumer<Consumer<T>> operation) throws NullPointerException {
+        Objects.requireNonNull(operation, "operation is required");
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            operation.accept(future::complete);
+        } catch (Exception exception) {
+            future.completeExceptionally(exception);
+        }
+        return future;
+    }
+
+    /**
+     * Completes the future exceptionally with a {@link TimeoutException} when it does not complete
+     * before the timeout
+     *
+     * @param future  the future
+     * @param timeout the timeout, when it is zero or negative the future is returned as it is
+     * @param <T>     the result type
+     * @return the same future
+     * @throws NullPointerException when either future or timeout are null
+     */
+    public static <T> CompletableFuture<T> timeout(CompletableFuture<T> future, Duration timeout)
+            throws NullPointerException {
+        Objects.requireNonNull(future, "future is required");
+        Objects.requireNonNull(timeout, "timeout is required");
+        if (timeout.isZero() || timeout.isNegative() || future.isDone()) {
+            return future;
+        }
+        ScheduledFuture<?> task = schedule(() -> future.completeExceptionally(
+                new TimeoutException("The operation did not complete in " + timeout)), timeout);
+        future.whenComplete((r, e) -> task.cancel(false));
+        return future;
+    }
+
+    /**
+     * Runs a task after a delay in the shared scheduler, the task must be short and must not block
+     *
+     * @param task  the task
+     * @param delay the delay
+     * @return the scheduled task
+     * @throws NullPointerException when either task or delay are null
+     */
+    public static ScheduledFuture<?> schedule(Runnable task, Duration delay) throws NullPointerException {
+        Objects.requireNonNull(task, "task is required");
+        Objects.requireNonNull(delay, "delay is required");
+        return Scheduler.INSTANCE.schedule(task, delay.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Runs a task after a delay in an executor, the shared scheduler only hands the task off to the executor,
+     * so the task might block. When the executor rejects the task, the rejection is logged.
+     *
+     * @param task     the task
+     * @param delay    the delay
+     * @param executor the executor that runs the task
+     * @return the scheduled hand-off, cancelling it before the delay prevents the task from running
+     * @throws NullPointerException when either task, delay or executor are null
+     */
+    public static ScheduledFuture<?> schedule(Runnable task, Duration delay, Executor executor)
+            throws NullPointerException {
+        Objects.requireNonNull(task, "task is required");
+        Objects.requireNonNull(executor, "executor is required");
+        return schedule(() -> {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException exception) {
+                LOGGER.log(Level.WARNING, "The executor rejected a scheduled task", exception);
+            }
+        }, delay);
+    }
+
+    /**
+     * The shared pool of daemon threads that runs the scheduled tasks that might block, e.g. the calls to a
+     * manager, when the caller does not inform an executor
+     */
+    static Executor workers() {
+        return Workers.INSTANCE;
+    }
+
+    /**
+     * Delivers the result of a {@link CompletionStage} to a callback, the callback is not called
+     * when the stage completes exceptionally, the failure is logged instead
+     *
+     * @param stage    the stage
+     * @param callBack the callback
+     * @param <T>      the result type
+     * @throws NullPointerException when either stage or callBack are null
+     */
+    public static <T> void callBack(CompletionStage<T> stage, Consumer<T> callBack) throws NullPointerException {
+        callBack(stage, callBack, CompletableFutures::log);
+    }
+
+    /**
+     * Delivers the result of a {@link CompletionStage} to a callback or its failure to an error consumer
+     *
+     * @param stage    the stage
+     * @param callBack the callback of the result
+     * @param error    the consumer of the failure, it receives the cause of a {@link CompletionException}
+     * @param <T>      the result type
+     * @throws NullPointerException when either stage, callBack or error are null
+     */
+    public static <T> void callBack(CompletionStage<T> stage, Consumer<T> callBack, Consumer<Throwable> error)
+            throws NullPointerException {
+        Objects.requireNonNull(stage, "stage is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        Objects.requireNonNull(error, "error is required");
+        stage.whenComplete((r, e) -> {
+            if (e == null) {
+                callBack.accept(r);
+            } else {
+                error.accept(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+        });
+    }
+
+    /**
+     * Watches a {@link CompletionStage} whose result is not used, its failure is logged
+     *
+     * @param stage the stage
+     * @throws NullPointerException when stage is null
+     */
+    public static void run(CompletionStage<?> stage) throws NullPointerException {
+        callBack(stage, r -> {
+        });
+    }
+
+    private static void log(Throwable exception) {
+        LOGGER.log(Level.WARNING, "An async operation failed", exception);
+    }
+
+    private static final class Scheduler {
+
+        private static final ScheduledThreadPoolExecutor INSTANCE = create();
+
+        private static ScheduledThreadPoolExecutor create() {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread thread = new Thread(r, "diana-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setRemoveOnCancelPolicy(true);
+            return executor;
+        }
+    }
+
+    private static final class Workers {
+
+        private static final ThreadPoolExecutor INSTANCE = create();
+
+        private static ThreadPoolExecutor create() {
+            int threads = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+            AtomicInteger counter = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "diana-worker-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The concurrency limit of an {@link AdmissionController}, it can be fixed or adapt itself to the latency
+ * observed by the operations. The {@link AdmissionController} calls it from one thread at a time.
+ */
+public interface ConcurrencyLimit {
+
+    /**
+     * @return the current number of operations allowed to run at the same time
+     */
+    int getLimit();
+
+    /**
+     * Receives the sample of a finished operation
+     *
+     * @param latency  the time the operation took, in nanoseconds
+     * @param inFlight the number of operations running when it finished
+     * @param dropped  true when the operation failed
+     */
+    void onSample(long latency, int inFlight, boolean dropped);
+
+    /**
+     * Creates a fixed {@link ConcurrencyLimit}
+     *
+     * @param limit the limit
+     * @return a {@link ConcurrencyLimit} instance
+     * @throws IllegalArgumentException when limit is lesser than one
+     */
+    static ConcurrencyLimit fixed(int limit) throws IllegalArgumentException {
+        return new FixedConcurrencyLimit(limit);
+    }
+
+    /**
+     * Creates an additive increase multiplicative decrease {@link ConcurrencyLimit}, it grows by one while the
+     * operations are fast and the limit is used, and it is multiplied by the backoff when an operation fails
+     * or takes longer than the threshold
+     *
+     * @param initial   the initial limit
+     * @param min       the minimum limit
+     * @param max       the maximum limit
+     * @param threshold the latency that is considered an overload
+     * @param backoff   the ratio applied on overload, between zero and one exclusive
+     * @return a {@link ConcurrencyLimit} instance
+     * @throws NullPointerException     when threshold is null
+     * @throws IllegalArgumentException when the limits or the backoff are invalid
+     */
+    static ConcurrencyLimit aimd(int initial, int min, int max, Duration threshold, double backoff)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(threshold, "threshold is required");
+        return new AimdConcurrencyLimit(initial, min, max, threshold.toNanos(), backoff);
+    }
+
+    /**
+     * Creates a {@link ConcurrencyLimit} based on TCP Vegas, it estimates the queue in the backend
+     * comparing the latency with the minimum latency observed, it grows while the estimated queue is small
+     * and shrinks when it is large
+     *
+     * @param initial the initial limit
+     * @param min     the minimum limit
+     * @param max     the maximum limit
+     * @return a {@link ConcurrencyLimit} instance
+     * @throws IllegalArgumentException when the limits are invalid
+     */
+    static ConcurrencyLimit vegas(int initial, int min, int max) throws IllegalArgumentException {
+        return new VegasConcurrencyLimit(initial, min, max);
+    }
+}
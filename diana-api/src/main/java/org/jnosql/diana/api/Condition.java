@@ -20,7 +20,8 @@
 
 package org.jnosql.diana.api;
 
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -29,6 +30,20 @@ import java.util.Objects;
 public enum Condition {
     EQUALS, GREATER_THAN, GREATER_EQUALS_THAN, LESSER_THAN, LESSER_EQUALS_THAN, IN, LIKE, AND, OR, NOT, BETWEEN,SUBQUERY;
 
+    private static final Map<String, Condition> CONDITIONS = new HashMap<>();
+
+    static {
+        for (Condition condition : values()) {
+            CONDITIONS.put(condition.nameField, condition);
+        }
+    }
+
+    private final String nameField;
+
+    Condition() {
+        this.nameField = '_' + name();
+    }
+
     /**
      * Return tne field as name to both document and column.
      * The goal is the field gonna be a reserved word.
@@ -38,7 +53,7 @@ public enum Condition {
      * @return the keyword to condition
      */
     public String getNameField() {
-        return '_' + this.name();
+        return nameField;
     }
 
     /**
@@ -51,10 +66,10 @@ public enum Condition {
      */
     public static Condition parse(String condition) throws NullPointerException, IllegalArgumentException {
         Objects.requireNonNull(condition, "condition is required");
-        return Arrays.stream(Condition.values())
-                .filter(c -> c.getNameField()
-                        .equals(condition)).findFirst()
-                .orElseThrow(() ->
-                        new IllegalArgumentException(String.format("The condition $s is not found", condition)));
+        Condition result = CONDITIONS.get(condition);
+        if (result == null) {
+            throw new IllegalArgumentException(String.format("The condition %s is not found", condition));
+        }
+        return result;
     }
 }
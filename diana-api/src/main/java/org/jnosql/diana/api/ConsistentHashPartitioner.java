@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The consistent hashing {@link Partitioner}, the ring is kept in two sorted arrays, so a lookup is a binary
+ * search without boxing
+ */
+final class ConsistentHashPartitioner implements Partitioner {
+
+    private final int shards;
+
+    private final int virtualNodes;
+
+    private final long[] ring;
+
+    private final int[] owners;
+
+    ConsistentHashPartitioner(int shards, int virtualNodes) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("The number of shards must be greater than zero");
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("The number of virtual nodes must be greater than zero");
+        }
+        this.shards = shards;
+        this.virtualNodes = virtualNodes;
+        long[][] nodes = new long[shards * virtualNodes][];
+        for (int shard = 0; shard < shards; shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                nodes[shard * virtualNodes + node] = new long[]{PartitionHash.hash("shard-" + shard + "-node-" + node),
+                        shard};
+            }
+        }
+        Arrays.sort(nodes, (a, b) -> Long.compare(a[0], b[0]));
+        this.ring = new long[nodes.length];
+        this.owners = new int[nodes.length];
+        for (int index = 0; index < nodes.length; index++) {
+            ring[index] = nodes[index][0];
+            owners[index] = (int) nodes[index][1];
+        }
+    }
+
+    @Override
+    public int partition(Value key) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(key, "key is required");
+        int index = Arrays.binarySearch(ring, PartitionHash.hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == ring.length ? 0 : index];
+    }
+
+    @Override
+    public int getShards() {
+        return shards;
+    }
+
+    @Override
+    public String toString() {
+        return "ConsistentHashPartitioner{" + "shards=" + shards + ", virtualNodes=" + virtualNodes + '}';
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The position of a keyset pagination, it carries the sorts of a query and the values of these sorts in the
+ * last entity of a page, so the next page starts right after this entity instead of skipping rows as
+ * {@code setStart} does. To keep the position unique, the last sort should be a unique field, e.g. the id.
+ * It can be converted to an opaque token with {@link Cursor#toToken(byte[])} and restored with
+ * {@link Cursor#parse(String, byte[])}. The token is encoded with {@link BinaryEncoder}, so only its types are
+ * supported, and signed with HmacSHA256, so a token changed by a client is rejected instead of being decoded.
+ */
+public final class Cursor {
+
+    private static final int VERSION = 2;
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final int SIGNATURE_LENGTH = 32;
+
+    private static final int MIN_KEY_LENGTH = 16;
+
+    private final List<Sort> sorts;
+
+    private final List<Value> values;
+
+    private Cursor(List<Sort> sorts, List<Value> values) {
+        this.sorts = sorts;
+        this.values = values;
+    }
+
+    /**
+     * Creates a {@link Cursor}
+     *
+     * @param sorts  the sorts of the query
+     * @param values the values of the sorts in the last entity, in the same order
+     * @return a {@link Cursor} instance
+     * @throws NullPointerException     when either sorts or values are null
+     * @throws IllegalArgumentException when sorts is empty or sorts and values do not have the same size
+     */
+    public static Cursor of(List<Sort> sorts, List<Value> values) throws NullPointerException,
+            IllegalArgumentException {
+        Objects.requireNonNull(sorts, "sorts is required");
+        Objects.requireNonNull(values, "values is required");
+        if (sorts.isEmpty()) {
+            throw new IllegalArgumentException("A cursor requires at least one sort");
+        }
+        if (sorts.size() != values.size()) {
+            throw new IllegalArgumentException("A cursor requires a value to each sort");
+        }
+        return new Cursor(Collections.unmodifiableList(new ArrayList<>(sorts)),
+                Collections.unmodifiableList(new ArrayList<>(values)));
+    }
+
+    /**
+     * Restores a {@link Cursor} from a token created by {@link Cursor#toToken(byte[])}. The signature is
+     * checked before anything else in the token is read.
+     *
+     * @param token the token
+     * @param key   the secret key used to sign the token, at least 16 bytes
+     * @return a {@link Cursor} instance
+     * @throws NullPointerException     when either token or key is null
+     * @throws IllegalArgumentException when the key is too short or the token is invalid, was not signed with
+     *                                  this key or has an unknown type
+     */
+    public static Cursor parse(String token, byte[] key) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(token, "token is required");
+        checkKey(key);
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("The cursor token is invalid: " + token, ex);
+        }
+        if (bytes.length <= SIGNATURE_LENGTH) {
+            throw new IllegalArgumentException("The cursor token is invalid: " + token);
+        }
+        byte[] payload = Arrays.copyOf(bytes, bytes.length - SIGNATURE_LENGTH);
+        byte[] signature = Arrays.copyOfRange(bytes, payload.length, bytes.length);
+        if (!MessageDigest.isEqual(signature, sign(payload, key))) {
+            throw new IllegalArgumentException("The cursor token signature is invalid: " + token);
+        }
+        try {
+            BinaryDecoder decoder = BinaryDecoder.of(payload);
+            if (decoder.readByte() != VERSION) {
+                throw new IllegalArgumentException("The cursor token version is not supported");
+            }
+            List<Sort> sorts = decoder.readSorts();
+            int size = decoder.readSize();
+            List<Value> values = new ArrayList<>(size);
+            for (int index = 0; index < size; index++) {
+                values.add(decoder.readValue());
+            }
+            if (!decoder.isFinished()) {
+                throw new IllegalArgumentException("There are unexpected bytes at the end of the cursor token");
+            }
+            return of(sorts, values);
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("The cursor token is invalid: " + token, ex);
+        }
+    }
+
+    /**
+     * The sorts of the query
+     *
+     * @return the sorts
+     */
+    public List<Sort> getSorts() {
+        return sorts;
+    }
+
+    /**
+     * The values of the sorts in the last entity
+     *
+     * @return the values
+     */
+    public List<Value> getValues() {
+        return values;
+    }
+
+    /**
+     * Converts this cursor to an opaque, signed and URL safe token
+     *
+     * @param key the secret key to sign the token, at least 16 bytes
+     * @return the token
+     * @throws NullPointerException     when key is null
+     * @throws IllegalArgumentException when the key is too short or the type of a value is not supported by
+     *                                  {@link BinaryEncoder}
+     */
+    public String toToken(byte[] key) throws NullPointerException, IllegalArgumentException {
+        checkKey(key);
+        BinaryEncoder encoder = BinaryEncoder.of();
+        encoder.writeByte(VERSION);
+        encoder.writeSorts(sorts);
+        encoder.writeSize(values.size());
+        values.forEach(encoder::writeValue);
+        byte[] payload = encoder.toByteArray();
+        byte[] signature = sign(payload, key);
+        byte[] bytes = Arrays.copyOf(payload, payload.length + signature.length);
+        System.arraycopy(signature, 0, bytes, payload.length, signature.length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static void checkKey(byte[] key) {
+        Objects.requireNonNull(key, "key is required");
+        if (key.length < MIN_KEY_LENGTH) {
+            throw new IllegalArgumentException("The cursor key must have at least " + MIN_KEY_LENGTH + " bytes");
+        }
+    }
+
+    private static byte[] sign(byte[] payload, byte[] key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(key, ALGORITHM));
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Error to sign the cursor token", ex);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Cursor cursor = (Cursor) o;
+        return Objects.equals(sorts, cursor.sorts) &&
+                Objects.equals(values, cursor.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sorts, values);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("Cursor{");
+        sb.append("sorts=").append(sorts);
+        sb.append(", values=").append(values);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+/**
+ * A {@link ConcurrencyLimit} that never changes
+ */
+final class FixedConcurrencyLimit implements ConcurrencyLimit {
+
+    private final int limit;
+
+    FixedConcurrencyLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("The limit must be greater than zero");
+        }
+        this.limit = limit;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(long latency, int inFlight, boolean dropped) {
+    }
+
+    @Override
+    public String toString() {
+        return "FixedConcurrencyLimit{" + "limit=" + limit + '}';
+    }
+}
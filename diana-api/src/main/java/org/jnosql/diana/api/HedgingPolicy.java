@@ -0,0 +1,254 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Hedges idempotent reads to cut the tail latency: when a call has not completed after the delay, it sends a
+ * second call and keeps the first one that completes, the other one is cancelled. The delay is a percentile of
+ * the latency of the last calls, so only the slowest calls are hedged, and a budget caps the hedges to a ratio
+ * of the calls, so an overloaded backend does not receive twice the load.
+ * It must be used only with idempotent operations, e.g. find, singleResult and get.
+ */
+public final class HedgingPolicy {
+
+    private static final int SAMPLES = 1024;
+
+    private static final int REFRESH = 64;
+
+    private static final double MAX_TOKENS = 10;
+
+    private final double percentile;
+
+    private final long minDelay;
+
+    private final double budget;
+
+    private final long[] latencies = new long[SAMPLES];
+
+    private int count;
+
+    private int position;
+
+    private long delay;
+
+    private double tokens = MAX_TOKENS;
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LongAdder hedges = new LongAdder();
+
+    private final LongAdder hedgeWins = new LongAdder();
+
+    private final Executor executor;
+
+    private HedgingPolicy(double percentile, long minDelay, double budget, Executor executor) {
+        this.percentile = percentile;
+        this.minDelay = minDelay;
+        this.budget = budget;
+        this.delay = minDelay;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates a {@link HedgingPolicy} that sends the hedges from a shared pool of daemon threads
+     *
+     * @param percentile the latency percentile used as delay, e.g. 0.95
+     * @param minDelay   the minimum delay, it is also the delay until there are enough samples
+     * @param budget     the maximum ratio of hedged calls, e.g. 0.05 to hedge up to five percent of the calls
+     * @return a {@link HedgingPolicy} instance
+     * @throws NullPointerException     when minDelay is null
+     * @throws IllegalArgumentException when the percentile or the budget are not between zero and one or
+     *                                  minDelay is negative
+     */
+    public static HedgingPolicy of(double percentile, Duration minDelay, double budget)
+            throws NullPointerException, IllegalArgumentException {
+        return of(percentile, minDelay, budget, CompletableFutures.workers());
+    }
+
+    /**
+     * Creates a {@link HedgingPolicy}
+     *
+     * @param percentile the latency percentile used as delay, e.g. 0.95
+     * @param minDelay   the minimum delay, it is also the delay until there are enough samples
+     * @param budget     the maximum ratio of hedged calls, e.g. 0.05 to hedge up to five percent of the calls
+     * @param executor   the executor that sends the hedges, the call might block it
+     * @return a {@link HedgingPolicy} instance
+     * @throws NullPointerException     when either minDelay or executor are null
+     * @throws IllegalArgumentException when the percentile or the budget are not between zero and one or
+     *                                  minDelay is negative
+     */
+    public static HedgingPolicy of(double percentile, Duration minDelay, double budget, Executor executor)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(minDelay, "minDelay is required");
+        Objects.requireNonNull(executor, "executor is required");
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("The percentile must be between zero and one");
+        }
+        if (budget <= 0 || budget > 1) {
+            throw new IllegalArgumentException("The budget must be greater than zero and up to one");
+        }
+        if (minDelay.isNegative()) {
+            throw new IllegalArgumentException("The min delay cannot be negative");
+        }
+        return new HedgingPolicy(percentile, minDelay.toNanos(), budget, executor);
+    }
+
+    /**
+     * Executes a call and hedges it when it is slow
+     *
+     * @param call the idempotent call, it might be called twice
+     * @param <T>  the result type
+     * @return the future of the first call that completes normally, it completes exceptionally when
+     * every call fails
+     * @throws NullPointerException when call is null
+     */
+    public <T> CompletableFuture<T> execute(Supplier<? extends CompletionStage<T>> call) throws NullPointerException {
+        Objects.requireNonNull(call, "call is required");
+        calls.increment();
+        deposit();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        AtomicBoolean won = new AtomicBoolean();
+        CompletableFuture<T> primary = attempt(call, result, pending, won, false);
+        ScheduledFuture<?> timer = CompletableFutures.schedule(() -> {
+            if (!result.isDone() && acquire()) {
+                pending.incrementAndGet();
+                hedges.increment();
+                CompletableFuture<T> hedge = attempt(call, result, pending, won, true);
+                result.whenComplete((r, e) -> {
+                    primary.cancel(true);
+                    hedge.cancel(true);
+                });
+            }
+        }, Duration.ofNanos(getDelayNanos()), executor);
+        result.whenComplete((r, e) -> {
+            timer.cancel(false);
+            primary.cancel(true);
+        });
+        return result;
+    }
+
+    private <T> CompletableFuture<T> attempt(Supplier<? extends CompletionStage<T>> call, CompletableFuture<T> result,
+                                             AtomicInteger pending, AtomicBoolean won, boolean hedge) {
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = call.get().toCompletableFuture();
+        } catch (Exception exception) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(exception);
+        }
+        future.whenComplete((r, e) -> {
+            if (e == null) {
+                record(System.nanoTime() - start);
+                if (won.compareAndSet(false, true)) {
+                    if (hedge) {
+                        hedgeWins.increment();
+                    }
+                    result.complete(r);
+                }
+            } else if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    private synchronized void deposit() {
+        tokens = Math.min(MAX_TOKENS, tokens + budget);
+    }
+
+    private synchronized boolean acquire() {
+        if (tokens >= 1) {
+            tokens--;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void record(long latency) {
+        latencies[position] = latency;
+        position = (position + 1) % SAMPLES;
+        count = Math.min(SAMPLES, count + 1);
+        if (count >= REFRESH && position % REFRESH == 0) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            delay = Math.max(minDelay, sorted[(int) Math.min(count - 1, (long) Math.ceil(percentile * count) - 1)]);
+        }
+    }
+
+    /**
+     * @return the current delay before a hedge
+     */
+    public Duration getDelay() {
+        return Duration.ofNanos(getDelayNanos());
+    }
+
+    private synchronized long getDelayNanos() {
+        return delay;
+    }
+
+    /**
+     * @return the number of calls executed
+     */
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    /**
+     * @return the number of hedges sent
+     */
+    public long getHedges() {
+        return hedges.sum();
+    }
+
+    /**
+     * @return the number of hedges that completed before the original call
+     */
+    public long getHedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("HedgingPolicy{");
+        sb.append("percentile=").append(percentile);
+        sb.append(", delay=").append(getDelay());
+        sb.append(", budget=").append(budget);
+        sb.append(", calls=").append(calls);
+        sb.append(", hedges=").append(hedges);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * A compiled pattern of {@link Condition#LIKE}, where {@code %} matches any sequence of characters, {@code _}
+ * matches exactly one character and a backslash escapes the next character. The compiled instances are cached by
+ * pattern, so {@link Like#compile(String)} can be called on each evaluation. The common shapes do not use regex:
+ * <p>{@code abc} is {@link Like.Type#EXACT} and uses {@link String#equals(Object)}</p>
+ * <p>{@code abc%} is {@link Like.Type#PREFIX} and uses {@link String#startsWith(String)}</p>
+ * <p>{@code %abc} is {@link Like.Type#SUFFIX} and uses {@link String#endsWith(String)}</p>
+ * <p>{@code %abc%} is {@link Like.Type#CONTAINS} and uses {@link String#contains(CharSequence)}</p>
+ * <p>{@code %} is {@link Like.Type#ANY} and matches everything</p>
+ * Any other shape is {@link Like.Type#REGEX}. The literal prefix, {@link Like#getPrefix()}, allows databases that
+ * support range scans to convert {@code LIKE 'abc%'} to a range.
+ */
+public final class Like {
+
+    private static final int MAX_CACHE_SIZE = 1_024;
+
+    private static final char ESCAPE = '\\';
+
+    private static final Map<String, Like> CACHE = new ConcurrentHashMap<>();
+
+    private final String pattern;
+
+    private final Type type;
+
+    private final String prefix;
+
+    private final Predicate<String> matcher;
+
+    private Like(String pattern, Type type, String prefix, Predicate<String> matcher) {
+        this.pattern = pattern;
+        this.type = type;
+        this.prefix = prefix;
+        this.matcher = matcher;
+    }
+
+    /**
+     * Compiles a LIKE pattern or returns it from the cache
+     *
+     * @param pattern the LIKE pattern
+     * @return the compiled instance
+     * @throws NullPointerException when pattern is null
+     */
+    public static Like compile(String pattern) throws NullPointerException {
+        Objects.requireNonNull(pattern, "pattern is required");
+        Like like = CACHE.get(pattern);
+        if (like != null) {
+            return like;
+        }
+        if (CACHE.size() >= MAX_CACHE_SIZE) {
+            CACHE.clear();
+        }
+        return CACHE.computeIfAbsent(pattern, Like::parse);
+    }
+
+    /**
+     * The pattern
+     *
+     * @return the pattern
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * The strategy used to match
+     *
+     * @return the type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * The literal text before the first wildcard, e.g. "abc" to {@code abc%d_}
+     *
+     * @return the literal prefix or {@link Optional#empty()} when the pattern starts with a wildcard
+     */
+    public Optional<String> getPrefix() {
+        return Optional.of(prefix).filter(p -> !p.isEmpty());
+    }
+
+    /**
+     * Checks if a text matches this pattern
+     *
+     * @param value the text
+     * @return true if the text matches the pattern
+     * @throws NullPointerException when value is null
+     */
+    public boolean matches(CharSequence value) throws NullPointerException {
+        Objects.requireNonNull(value, "value is required");
+        return matcher.test(value.toString());
+    }
+
+    /**
+     * Checks if a {@link Value}, converted to {@link String} by {@link Value#get(Class)}, matches this pattern
+     *
+     * @param value the value
+     * @return true if the value matches the pattern
+     * @throws NullPointerException when value is null
+     */
+    public boolean matches(Value value) throws NullPointerException {
+        Objects.requireNonNull(value, "value is required");
+        return matches(value.get(String.class));
+    }
+
+    private static Like parse(String pattern) {
+        List<String> literals = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        StringBuilder regex = new StringBuilder();
+        String prefix = null;
+        boolean single = false;
+        boolean leading = false;
+        boolean trailing = false;
+        for (int index = 0; index < pattern.length(); index++) {
+            char current = pattern.charAt(index);
+            if (current == ESCAPE && index + 1 < pattern.length()) {
+                literal.append(pattern.charAt(++index));
+                continue;
+            }
+            if (current != '%' && current != '_') {
+                literal.append(current);
+                continue;
+            }
+            if (prefix == null) {
+                prefix = literal.toString();
+            }
+            if (literal.length() > 0) {
+                literals.add(literal.toString());
+                regex.append(Pattern.quote(literal.toString()));
+                literal.setLength(0);
+            } else if (literals.isEmpty()) {
+                leading = true;
+            }
+            single = single || current == '_';
+            regex.append(current == '%' ? ".*" : ".");
+            trailing = true;
+        }
+        if (literal.length() > 0) {
+            literals.add(literal.toString());
+            regex.append(Pattern.quote(literal.toString()));
+            trailing = false;
+        }
+        if (prefix == null) {
+            String text = literal.toString();
+            return new Like(pattern, Type.EXACT, text, text::equals);
+        }
+        if (!single && literals.isEmpty()) {
+            return new Like(pattern, Type.ANY, prefix, s -> true);
+        }
+        if (!single && literals.size() == 1) {
+            String text = literals.get(0);
+            if (!leading && trailing) {
+                return new Like(pattern, Type.PREFIX, prefix, s -> s.startsWith(text));
+            }
+            if (leading && !trailing) {
+                return new Like(pattern, Type.SUFFIX, prefix, s -> s.endsWith(text));
+            }
+            if (leading) {
+                return new Like(pattern, Type.CONTAINS, prefix, s -> s.contains(text));
+            }
+        }
+        Pattern compiled = Pattern.compile(regex.toString(), Pattern.DOTALL);
+        return new Like(pattern, Type.REGEX, prefix, s -> compiled.matcher(s).matches());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Like like = (Like) o;
+        return Objects.equals(pattern, like.pattern);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(pattern);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("Like{");
+        sb.append("pattern='").append(pattern).append('\'');
+        sb.append(", type=").append(type);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * The strategy used to match a {@link Like}
+     */
+    public enum Type {
+        /**
+         * There is no wildcard, it uses {@link String#equals(Object)}
+         */
+        EXACT,
+        /**
+         * A literal followed by {@code %}, it uses {@link String#startsWith(String)}
+         */
+        PREFIX,
+        /**
+         * {@code %} followed by a literal, it uses {@link String#endsWith(String)}
+         */
+        SUFFIX,
+        /**
+         * A literal between {@code %}, it uses {@link String#contains(CharSequence)}
+         */
+        CONTAINS,
+        /**
+         * Just {@code %}, it matches everything
+         */
+        ANY,
+        /**
+         * Any other pattern, it uses a regular expression
+         */
+        REGEX
+    }
+}
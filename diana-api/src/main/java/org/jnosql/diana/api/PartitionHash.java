@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * The stable 64 bits hash of the partitioners, FNV-1a over the bytes of the key followed by the
+ * MurmurHash3 finalizer to spread the bits. The numbers are hashed by their plain decimal form, the texts,
+ * characters, booleans, enums and UUIDs by their UTF-8, a byte[] by its content and the other keys by the
+ * bytes of {@link BinaryEncoder}, so a key without a stable encoding is rejected instead of hashed by identity.
+ */
+final class PartitionHash {
+
+    private static final long OFFSET = 0xcbf29ce484222325L;
+
+    private static final long PRIME = 0x100000001b3L;
+
+    private PartitionHash() {
+    }
+
+    static long hash(Value key) throws IllegalArgumentException {
+        Object value = key.get();
+        if (value instanceof Number) {
+            try {
+                return hash(new BigDecimal(value.toString()).stripTrailingZeros().toPlainString());
+            } catch (NumberFormatException exception) {
+                return hash(value.toString());
+            }
+        }
+        if (value instanceof CharSequence || value instanceof Character || value instanceof Boolean
+                || value instanceof UUID) {
+            return hash(value.toString());
+        }
+        if (value instanceof Enum) {
+            return hash(((Enum<?>) value).name());
+        }
+        if (value instanceof byte[]) {
+            return hash((byte[]) value);
+        }
+        try {
+            return hash(BinaryEncoder.of().writeObject(value).toByteArray());
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalArgumentException("The key type " + value.getClass()
+                    + " does not have a stable encoding to be partitioned", exception);
+        }
+    }
+
+    static long hash(String text) {
+        return hash(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long hash(byte[] bytes) {
+        long hash = OFFSET;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= PRIME;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
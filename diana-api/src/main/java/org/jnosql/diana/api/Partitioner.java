@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+
+/**
+ * Chooses the shard of a key. The partitioners created here hash the key in a way that is stable across JVMs,
+ * and the numbers are hashed by their numeric value, so the keys 10 and 10L go to the same shard. A byte[] key
+ * is hashed by its content.
+ */
+public interface Partitioner {
+
+    /**
+     * Returns the shard of a key
+     *
+     * @param key the key
+     * @return the shard, between zero and {@link Partitioner#getShards()} exclusive
+     * @throws NullPointerException     when key is null
+     * @throws IllegalArgumentException when the type of the key does not have a stable encoding, see
+     *                                  {@link BinaryEncoder#writeObject(Object)}
+     */
+    int partition(Value key) throws NullPointerException, IllegalArgumentException;
+
+    /**
+     * @return the number of shards
+     */
+    int getShards();
+
+    /**
+     * Creates a {@link Partitioner} that takes the hash of the key modulo the number of shards,
+     * the keys are spread evenly but most of them move when a shard is added
+     *
+     * @param shards the number of shards
+     * @return a {@link Partitioner} instance
+     * @throws IllegalArgumentException when shards is lesser than one
+     */
+    static Partitioner hash(int shards) throws IllegalArgumentException {
+        return new HashPartitioner(shards);
+    }
+
+    /**
+     * Creates a consistent hashing {@link Partitioner}, each shard has many virtual nodes in a hash ring and a key
+     * goes to the next node in the ring, so only about 1/n of the keys move when a shard is added
+     *
+     * @param shards       the number of shards
+     * @param virtualNodes the number of virtual nodes of each shard, e.g. 128
+     * @return a {@link Partitioner} instance
+     * @throws IllegalArgumentException when shards or virtualNodes are lesser than one
+     */
+    static Partitioner consistent(int shards, int virtualNodes) throws IllegalArgumentException {
+        return new ConsistentHashPartitioner(shards, virtualNodes);
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * Balances the reads among replicas with the power of two choices: it picks two healthy replicas at random and
+ * sends the call to the one with the lowest cost, the moving average of its latency, decayed by time, times the
+ * calls in flight plus one. The average jumps to a latency higher than it, so a replica that slows down is
+ * avoided at once, and decays towards zero while it is not called, so a replica that was avoided is tried again;
+ * a failure counts as a call that took the decay time. A replica that fails
+ * {@link ReplicaPolicy#getFailureThreshold()} times in a row is ejected for {@link ReplicaPolicy#getEjection()},
+ * its average is reset so it is tried as soon as it comes back, and then a single failure ejects it again.
+ * A failed call is retried in another replica up to {@link ReplicaPolicy#getMaxAttempts()}. An error that is
+ * not {@link ReplicaPolicy#isRetryable(RuntimeException)}, e.g. an invalid query, is thrown at once and does not
+ * count against the replica.
+ */
+public final class ReplicaBalancer {
+
+    private final List<Replica> replicas;
+
+    private final ReplicaPolicy policy;
+
+    private final LongAdder failovers = new LongAdder();
+
+    private final LongAdder ejections = new LongAdder();
+
+    private ReplicaBalancer(int replicas, ReplicaPolicy policy) {
+        this.policy = policy;
+        this.replicas = new ArrayList<>(replicas);
+        for (int index = 0; index < replicas; index++) {
+            this.replicas.add(new Replica());
+        }
+    }
+
+    /**
+     * Creates a {@link ReplicaBalancer}
+     *
+     * @param replicas the number of replicas
+     * @param policy   the policy
+     * @return a {@link ReplicaBalancer} instance
+     * @throws NullPointerException     when policy is null
+     * @throws IllegalArgumentException when replicas is lesser than one
+     */
+    public static ReplicaBalancer of(int replicas, ReplicaPolicy policy) throws NullPointerException,
+            IllegalArgumentException {
+        Objects.requireNonNull(policy, "policy is required");
+        if (replicas < 1) {
+            throw new IllegalArgumentException("The number of replicas must be greater than zero");
+        }
+        return new ReplicaBalancer(replicas, policy);
+    }
+
+    /**
+     * Executes a read in the best replica, failing over to other replicas when it fails
+     *
+     * @param call the read, it receives the index of the replica
+     * @param <T>  the result type
+     * @return the result of the first replica that succeeds
+     * @throws NullPointerException when call is null
+     * @throws RuntimeException     the error of the first attempt, with the other ones suppressed, when every
+     *                              attempt fails, or the error that is not retryable
+     */
+    public <T> T execute(IntFunction<T> call) throws NullPointerException {
+        Objects.requireNonNull(call, "call is required");
+        boolean[] tried = new boolean[replicas.size()];
+        RuntimeException error = null;
+        int attempts = Math.min(policy.getMaxAttempts(), replicas.size());
+        for (int attempt = 0; attempt < attempts; attempt++) {
+            int index = select(tried);
+            tried[index] = true;
+            if (attempt > 0) {
+                failovers.increment();
+            }
+            Replica replica = replicas.get(index);
+            replica.inFlight.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                T result = call.apply(index);
+                replica.success(System.nanoTime() - start);
+                return result;
+            } catch (RuntimeException exception) {
+                if (!policy.isRetryable(exception)) {
+                    replica.success(System.nanoTime() - start);
+                    if (error != null) {
+                        exception.addSuppressed(error);
+                    }
+                    throw exception;
+                }
+                replica.failure(System.nanoTime() - start);
+                if (error == null) {
+                    error = exception;
+                } else {
+                    error.addSuppressed(exception);
+                }
+            } finally {
+                replica.inFlight.decrementAndGet();
+            }
+        }
+        throw error;
+    }
+
+    /**
+     * Returns whether a replica is in the rotation
+     *
+     * @param replica the index of the replica
+     * @return false when the replica is ejected
+     * @throws IndexOutOfBoundsException when there is no such replica
+     */
+    public boolean isHealthy(int replica) throws IndexOutOfBoundsException {
+        return replicas.get(replica).isHealthy(System.nanoTime());
+    }
+
+    /**
+     * Returns the moving average of the latency of a replica
+     *
+     * @param replica the index of the replica
+     * @return the latency in nanoseconds
+     * @throws IndexOutOfBoundsException when there is no such replica
+     */
+    public double getLatency(int replica) throws IndexOutOfBoundsException {
+        return replicas.get(replica).latency();
+    }
+
+    /**
+     * @return the number of replicas
+     */
+    public int size() {
+        return replicas.size();
+    }
+
+    /**
+     * @return the policy
+     */
+    public ReplicaPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return the number of attempts that went to another replica after a failure
+     */
+    public long getFailovers() {
+        return failovers.sum();
+    }
+
+    /**
+     * @return the number of times that a replica was ejected
+     */
+    public long getEjections() {
+        return ejections.sum();
+    }
+
+    private int select(boolean[] tried) {
+        long now = System.nanoTime();
+        int[] candidates = new int[replicas.size()];
+        int healthy = 0;
+        for (int index = 0; index < replicas.size(); index++) {
+            if (!tried[index] && replicas.get(index).isHealthy(now)) {
+                candidates[healthy++] = index;
+            }
+        }
+        if (healthy == 0) {
+            return soonestBack(tried);
+        }
+        if (healthy == 1) {
+            return candidates[0];
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(healthy);
+        int second = random.nextInt(healthy - 1);
+        if (second >= first) {
+            second++;
+        }
+        int a = candidates[first];
+        int b = candidates[second];
+        return replicas.get(a).cost() <= replicas.get(b).cost() ? a : b;
+    }
+
+    private int soonestBack(boolean[] tried) {
+        int best = -1;
+        for (int index = 0; index < replicas.size(); index++) {
+            if (!tried[index] && (best < 0
+                    || replicas.get(index).ejectedUntil - replicas.get(best).ejectedUntil < 0)) {
+                best = index;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ReplicaBalancer{");
+        sb.append("replicas=").append(replicas.size());
+        sb.append(", policy=").append(policy);
+        sb.append(", failovers=").append(failovers);
+        sb.append(", ejections=").append(ejections);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private final class Replica {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private double latency;
+
+        private long updated = System.nanoTime();
+
+        private int failures;
+
+        private volatile boolean ejected;
+
+        private volatile long ejectedUntil;
+
+        private boolean isHealthy(long now) {
+            return !ejected || now - ejectedUntil >= 0;
+        }
+
+        private double cost() {
+            return (latency() + 1) * (inFlight.get() + 1);
+        }
+
+        private synchronized double latency() {
+            return latency * weight(System.nanoTime());
+        }
+
+        private synchronized void success(long elapsed) {
+            record(elapsed);
+            failures = 0;
+            ejected = false;
+        }
+
+        private synchronized void failure(long elapsed) {
+            record(Math.max(elapsed, policy.getDecay().toNanos()));
+            boolean probing = ejected;
+            failures++;
+            if (probing || failures >= policy.getFailureThreshold()) {
+                ejectedUntil = System.nanoTime() + policy.getEjection().toNanos();
+                ejected = true;
+                failures = 0;
+                latency = 0;
+                ejections.increment();
+            }
+        }
+
+        private void record(long elapsed) {
+            long now = System.nanoTime();
+            double weight = weight(now);
+            double current = latency * weight;
+            latency = elapsed > current ? elapsed : current + elapsed * (1 - weight);
+            updated = now;
+        }
+
+        private double weight(long now) {
+            return Math.exp(-(double) Math.max(now - updated, 0) / policy.getDecay().toNanos());
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+/**
+ * The settings of a {@link ReplicaBalancer}: how fast the latency average forgets old calls, how many
+ * consecutive failures eject a replica, for how long it stays ejected and how many replicas a read tries before
+ * it gives up. Only the errors accepted by {@link #isRetryable(RuntimeException)} count as failures of a replica and
+ * are retried, by default the connectivity and timeout errors, the other ones are thrown at once.
+ */
+public final class ReplicaPolicy {
+
+    private static final Predicate<RuntimeException> CONNECTIVITY = ReplicaPolicy::isConnectivityError;
+
+    private static final ReplicaPolicy DEFAULT = new ReplicaPolicy(Duration.ofSeconds(10), 5,
+            Duration.ofSeconds(30), 2, true, CONNECTIVITY);
+
+    private final Duration decay;
+
+    private final int failureThreshold;
+
+    private final Duration ejection;
+
+    private final int maxAttempts;
+
+    private final boolean fallbackToPrimary;
+
+    private final Predicate<RuntimeException> retryable;
+
+    private ReplicaPolicy(Duration decay, int failureThreshold, Duration ejection, int maxAttempts,
+                          boolean fallbackToPrimary, Predicate<RuntimeException> retryable) {
+        this.decay = decay;
+        this.failureThreshold = failureThreshold;
+        this.ejection = ejection;
+        this.maxAttempts = maxAttempts;
+        this.fallbackToPrimary = fallbackToPrimary;
+        this.retryable = retryable;
+    }
+
+    /**
+     * Returns the default policy: ten seconds of decay, five failures eject a replica for thirty seconds,
+     * two attempts and then the primary
+     *
+     * @return the default {@link ReplicaPolicy}
+     */
+    public static ReplicaPolicy of() {
+        return DEFAULT;
+    }
+
+    /**
+     * Creates a {@link ReplicaPolicy} that retries the connectivity and timeout errors
+     *
+     * @param decay             the time that the latency average takes to forget about two thirds of the old calls
+     * @param failureThreshold  the consecutive failures that eject a replica
+     * @param ejection          the time that an ejected replica stays out of the rotation
+     * @param maxAttempts       the maximum number of replicas that a read tries
+     * @param fallbackToPrimary whether a read goes to the primary when every attempt fails
+     * @return a {@link ReplicaPolicy} instance
+     * @throws NullPointerException     when either decay or ejection are null
+     * @throws IllegalArgumentException when decay is not positive, ejection is negative or either
+     *                                  failureThreshold or maxAttempts are lesser than one
+     */
+    public static ReplicaPolicy of(Duration decay, int failureThreshold, Duration ejection, int maxAttempts,
+                                   boolean fallbackToPrimary) throws NullPointerException,
+            IllegalArgumentException {
+        return of(decay, failureThreshold, ejection, maxAttempts, fallbackToPrimary, CONNECTIVITY);
+    }
+
+    /**
+     * Creates a {@link ReplicaPolicy}
+     *
+     * @param decay             the time that the latency average takes to forget about two thirds of the old calls
+     * @param failureThreshold  the consecutive failures that eject a replica
+     * @param ejection          the time that an ejected replica stays out of the rotation
+     * @param maxAttempts       the maximum number of replicas that a read tries
+     * @param fallbackToPrimary whether a read goes to the primary when every attempt fails
+     * @param retryable         the errors that count as failures of a replica and are retried
+     * @return a {@link ReplicaPolicy} instance
+     * @throws NullPointerException     when either decay, ejection or retryable are null
+     * @throws IllegalArgumentException when decay is not positive, ejection is negative or either
+     *                                  failureThreshold or maxAttempts are lesser than one
+     */
+    public static ReplicaPolicy of(Duration decay, int failureThreshold, Duration ejection, int maxAttempts,
+                                   boolean fallbackToPrimary, Predicate<RuntimeException> retryable)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(decay, "decay is required");
+        Objects.requireNonNull(retryable, "retryable is required");
+        Objects.requireNonNull(ejection, "ejection is required");
+        if (decay.isNegative() || decay.isZero()) {
+            throw new IllegalArgumentException("The decay must be positive");
+        }
+        if (ejection.isNegative()) {
+            throw new IllegalArgumentException("The ejection cannot be negative");
+        }
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("The failure threshold must be greater than zero");
+        }
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("The max attempts must be greater than zero");
+        }
+        return new ReplicaPolicy(decay, failureThreshold, ejection, maxAttempts, fallbackToPrimary, retryable);
+    }
+
+    /**
+     * Returns whether an error is a connectivity or timeout error, an {@link IOException} or a
+     * {@link TimeoutException} in the error or in its causes
+     *
+     * @param error the error
+     * @return true when it is a connectivity or timeout error
+     */
+    public static boolean isConnectivityError(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the decay of the latency average
+     */
+    public Duration getDecay() {
+        return decay;
+    }
+
+    /**
+     * @return the consecutive failures that eject a replica
+     */
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    /**
+     * @return the time that an ejected replica stays out of the rotation
+     */
+    public Duration getEjection() {
+        return ejection;
+    }
+
+    /**
+     * @return the maximum number of replicas that a read tries
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @return true when a read goes to the primary after every attempt fails
+     */
+    public boolean isFallbackToPrimary() {
+        return fallbackToPrimary;
+    }
+
+    /**
+     * Returns whether an error of a replica is retried in another replica
+     *
+     * @param error the error
+     * @return true when the error counts as a failure of the replica
+     */
+    public boolean isRetryable(RuntimeException error) {
+        return retryable.test(error);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReplicaPolicy)) {
+            return false;
+        }
+        ReplicaPolicy that = (ReplicaPolicy) o;
+        return failureThreshold == that.failureThreshold
+                && maxAttempts == that.maxAttempts
+                && fallbackToPrimary == that.fallbackToPrimary
+                && Objects.equals(decay, that.decay)
+                && Objects.equals(ejection, that.ejection)
+                && Objects.equals(retryable, that.retryable);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(decay, failureThreshold, ejection, maxAttempts, fallbackToPrimary, retryable);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ReplicaPolicy{");
+        sb.append("decay=").append(decay);
+        sb.append(", failureThreshold=").append(failureThreshold);
+        sb.append(", ejection=").append(ejection);
+        sb.append(", maxAttempts=").append(maxAttempts);
+        sb.append(", fallbackToPrimary=").append(fallbackToPrimary);
+        sb.append('}');
+        return sb.toString();
+    }
+}
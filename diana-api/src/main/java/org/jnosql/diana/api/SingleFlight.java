@@ -0,0 +1,175 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates identical calls in flight: while a call with a key is running, the calls with an equal key do not
+ * reach the backend, they wait for the running call and share its result or its error. The key is released when
+ * the call finishes, so it is not a cache, a call after that goes to the backend again.
+ * The keys must be immutable, e.g. the encoded bytes of a query.
+ *
+ * @param <K> the key type
+ */
+public final class SingleFlight<K> {
+
+    private final ConcurrentMap<K, CompletableFuture<?>> calls = new ConcurrentHashMap<>();
+
+    private final LongAdder executed = new LongAdder();
+
+    private final LongAdder collapsed = new LongAdder();
+
+    private SingleFlight() {
+    }
+
+    /**
+     * Creates a {@link SingleFlight}
+     *
+     * @param <K> the key type
+     * @return a {@link SingleFlight} instance
+     */
+    public static <K> SingleFlight<K> of() {
+        return new SingleFlight<>();
+    }
+
+    /**
+     * Executes a blocking call or waits for the identical call in flight
+     *
+     * @param key  the key of the call
+     * @param call the call
+     * @param <T>  the result type
+     * @return the result of the call
+     * @throws NullPointerException when either key or call are null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(K key, Supplier<T> call) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(call, "call is required");
+        CompletableFuture<T> future = new CompletableFuture<>();
+        CompletableFuture<T> running = (CompletableFuture<T>) calls.putIfAbsent(key, future);
+        if (running != null) {
+            collapsed.increment();
+            try {
+                return running.join();
+            } catch (CompletionException exception) {
+                throw unwrap(exception);
+            }
+        }
+        executed.increment();
+        try {
+            T result = call.get();
+            future.complete(result);
+            return result;
+        } catch (RuntimeException | Error exception) {
+            future.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            calls.remove(key, future);
+        }
+    }
+
+    /**
+     * Executes an async call or returns the identical call in flight
+     *
+     * @param key  the key of the call
+     * @param call the call
+     * @param <T>  the result type
+     * @return the future of the call result, cancelling it does not cancel the shared call
+     * @throws NullPointerException when either key or call are null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(K key, Supplier<? extends CompletionStage<T>> call)
+            throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(call, "call is required");
+        CompletableFuture<T> future = new CompletableFuture<>();
+        CompletableFuture<T> running = (CompletableFuture<T>) calls.putIfAbsent(key, future);
+        if (running != null) {
+            collapsed.increment();
+            return running.thenApply(r -> r);
+        }
+        executed.increment();
+        try {
+            call.get().whenComplete((r, e) -> {
+                calls.remove(key, future);
+                if (e == null) {
+                    future.complete(r);
+                } else {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException exception) {
+            calls.remove(key, future);
+            future.completeExceptionally(exception);
+        }
+        return future.thenApply(r -> r);
+    }
+
+    /**
+     * @return the number of calls that reached the backend
+     */
+    public long getExecuted() {
+        return executed.sum();
+    }
+
+    /**
+     * @return the number of calls that shared the result of an identical call in flight
+     */
+    public long getCollapsed() {
+        return collapsed.sum();
+    }
+
+    /**
+     * @return the number of calls in flight
+     */
+    public int getInFlight() {
+        return calls.size();
+    }
+
+    private static RuntimeException unwrap(CompletionException exception) {
+        Throwable cause = exception.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return exception;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SingleFlight{");
+        sb.append("executed=").append(executed);
+        sb.append(", collapsed=").append(collapsed);
+        sb.append(", inFlight=").append(calls.size());
+        sb.append('}');
+        return sb.toString();
+    }
+}
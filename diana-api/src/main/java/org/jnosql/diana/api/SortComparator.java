@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+/**
+ * A {@link Comparator} of entities driven by a {@link List} of {@link Sort}. The first sort is the primary key,
+ * the next ones are used only as tie-breakers. Each value is compared by {@link ValueComparator}, and an
+ * entity that does not have the field is considered greater than any value, so it comes last in
+ * {@link Sort.SortType#ASC} and first in {@link Sort.SortType#DESC}.
+ *
+ * @param <T> the entity type
+ */
+public final class SortComparator<T> implements Comparator<T> {
+
+    private final List<Sort> sorts;
+
+    private final BiFunction<T, String, Optional<Value>> extractor;
+
+    private SortComparator(List<Sort> sorts, BiFunction<T, String, Optional<Value>> extractor) {
+        this.sorts = sorts;
+        this.extractor = extractor;
+    }
+
+    /**
+     * Creates a {@link SortComparator}
+     *
+     * @param sorts     the sorts, in priority order
+     * @param extractor the function that finds the value of a field name in an entity
+     * @param <T>       the entity type
+     * @return a {@link SortComparator} instance
+     * @throws NullPointerException when either sorts or extractor are null
+     */
+    public static <T> SortComparator<T> of(List<Sort> sorts, BiFunction<T, String, Optional<Value>> extractor)
+            throws NullPointerException {
+        Objects.requireNonNull(sorts, "sorts is required");
+        Objects.requireNonNull(extractor, "extractor is required");
+        return new SortComparator<>(Collections.unmodifiableList(new ArrayList<>(sorts)), extractor);
+    }
+
+    /**
+     * The sorts used by this comparator
+     *
+     * @return the sorts
+     */
+    public List<Sort> getSorts() {
+        return sorts;
+    }
+
+    /**
+     * Returns the value of a field in the entity
+     *
+     * @param entity the entity
+     * @param name   the field name
+     * @return the value or {@link Optional#empty()} when the entity does not have the field
+     */
+    public Optional<Value> getValue(T entity, String name) {
+        return extractor.apply(entity, name);
+    }
+
+    @Override
+    public int compare(T entity, T other) {
+        for (Sort sort : sorts) {
+            int result = compare(extractor.apply(entity, sort.getName()), extractor.apply(other, sort.getName()));
+            if (result != 0) {
+                return Sort.SortType.DESC.equals(sort.getType()) ? -result : result;
+            }
+        }
+        return 0;
+    }
+
+    private int compare(Optional<Value> value, Optional<Value> other) {
+        if (value.isPresent() && other.isPresent()) {
+            return ValueComparator.getInstance().compare(value.get(), other.get());
+        }
+        if (value.isPresent()) {
+            return -1;
+        }
+        return other.isPresent() ? 1 : 0;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SortComparator{");
+        sb.append("sorts=").append(sorts);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts entities in the client side honoring the start and the limit of a query. When the page fits in the memory
+ * budget, it keeps a bounded heap with at most start plus limit entities, so only the requested page is kept in
+ * memory no matter the input size. Otherwise, it runs an external merge sort that spills sorted runs to temporary
+ * files whenever the input exceeds the memory budget and merges them at the end.
+ * The entities should be {@link Serializable} to be spilled.
+ *
+ * @param <T> the entity type
+ */
+public final class SortExecutor<T extends Serializable> {
+
+    /**
+     * The default number of entities kept in memory before spilling to disk
+     */
+    public static final int DEFAULT_MAX_IN_MEMORY = 100_000;
+
+    private final Comparator<T> comparator;
+
+    private final long start;
+
+    private final long limit;
+
+    private final int maxInMemory;
+
+    private SortExecutor(Comparator<T> comparator, long start, long limit, int maxInMemory) {
+        this.comparator = comparator;
+        this.start = Math.max(start, 0L);
+        this.limit = limit;
+        this.maxInMemory = maxInMemory;
+    }
+
+    /**
+     * Creates a {@link SortExecutor} using {@link SortExecutor#DEFAULT_MAX_IN_MEMORY} as memory budget
+     *
+     * @param comparator the comparator
+     * @param start      the first position to return, negative values are ignored
+     * @param limit      the max number of entities to return, if negative there is no limit
+     * @param <T>        the entity type
+     * @return a {@link SortExecutor} instance
+     * @throws NullPointerException when comparator is null
+     */
+    public static <T extends Serializable> SortExecutor<T> of(Comparator<T> comparator, long start, long limit)
+            throws NullPointerException {
+        return of(comparator, start, limit, DEFAULT_MAX_IN_MEMORY);
+    }
+
+    /**
+     * Creates a {@link SortExecutor}
+     *
+     * @param comparator  the comparator
+     * @param start       the first position to return, negative values are ignored
+     * @param limit       the max number of entities to return, if negative there is no limit
+     * @param maxInMemory the max number of entities kept in memory before spilling to disk
+     * @param <T>         the entity type
+     * @return a {@link SortExecutor} instance
+     * @throws NullPointerException     when comparator is null
+     * @throws IllegalArgumentException when maxInMemory is not positive
+     */
+    public static <T extends Serializable> SortExecutor<T> of(Comparator<T> comparator, long start, long limit,
+                                                              int maxInMemory)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(comparator, "comparator is required");
+        if (maxInMemory <= 0) {
+            throw new IllegalArgumentException("maxInMemory must be positive");
+        }
+        return new SortExecutor<>(comparator, start, limit, maxInMemory);
+    }
+
+    /**
+     * Sorts the entities and returns just the page defined by start and limit
+     *
+     * @param entities the entities to be sorted
+     * @return the sorted page
+     * @throws NullPointerException when entities is null
+     * @throws UncheckedIOException when there is an error to spill the entities to disk
+     */
+    public List<T> sort(Iterable<T> entities) throws NullPointerException, UncheckedIOException {
+        Objects.requireNonNull(entities, "entities is required");
+        if (limit == 0) {
+            return Collections.emptyList();
+        }
+        if (limit > 0 && start + limit <= maxInMemory) {
+            return topK(entities.iterator(), (int) (start + limit));
+        }
+        return externalSort(entities.iterator());
+    }
+
+    private List<T> topK(Iterator<T> entities, int size) {
+        PriorityQueue<T> heap = new PriorityQueue<>(Math.min(size, 1024) + 1, comparator.reversed());
+        while (entities.hasNext()) {
+            T entity = entities.next();
+            if (heap.size() < size) {
+                heap.offer(entity);
+            } else if (comparator.compare(entity, heap.peek()) < 0) {
+                heap.poll();
+                heap.offer(entity);
+            }
+        }
+        List<T> result = new ArrayList<>(heap);
+        result.sort(comparator);
+        return page(result.iterator());
+    }
+
+    private List<T> externalSort(Iterator<T> entities) {
+        List<Path> runs = new ArrayList<>();
+        try {
+            List<T> buffer = new ArrayList<>();
+            while (entities.hasNext()) {
+                buffer.add(entities.next());
+                if (buffer.size() >= maxInMemory) {
+                    runs.add(spill(buffer));
+                    buffer.clear();
+                }
+            }
+            buffer.sort(comparator);
+            if (runs.isEmpty()) {
+                return page(buffer.iterator());
+            }
+            List<RunIterator<T>> readers = new ArrayList<>();
+            try {
+                for (Path run : runs) {
+                    readers.add(new RunIterator<>(run));
+                }
+                List<Iterator<T>> iterators = new ArrayList<>();
+                iterators.add(buffer.iterator());
+                iterators.addAll(readers);
+                return page(new MergeIterator<>(iterators, comparator));
+            } finally {
+                close(readers);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Error to spill entities on sort", ex);
+        } finally {
+            runs.forEach(SortExecutor::delete);
+        }
+    }
+
+    private static <T> void close(List<RunIterator<T>> readers) {
+        RuntimeException error = null;
+        for (RunIterator<T> reader : readers) {
+            try {
+                reader.close();
+            } catch (RuntimeException ex) {
+                if (error == null) {
+                    error = ex;
+                } else {
+                    error.addSuppressed(ex);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private Path spill(List<T> buffer) throws IOException {
+        buffer.sort(comparator);
+        Path run = Files.createTempFile("diana-sort", ".run");
+        try (ObjectOutputStream output = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+            for (int index = 0; index < buffer.size(); index++) {
+                output.writeObject(buffer.get(index));
+                if (index % 1_000 == 0) {
+                    output.reset();
+                }
+            }
+        }
+        return run;
+    }
+
+    private List<T> page(Iterator<T> sorted) {
+        List<T> result = new ArrayList<>();
+        long position = 0L;
+        while (sorted.hasNext()) {
+            T entity = sorted.next();
+            if (position++ < start) {
+                continue;
+            }
+            if (limit >= 0 && result.size() >= limit) {
+                break;
+            }
+            result.add(entity);
+        }
+        return result;
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            path.toFile().deleteOnExit();
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SortExecutor{");
+        sb.append("comparator=").append(comparator);
+        sb.append(", start=").append(start);
+        sb.append(", limit=").append(limit);
+        sb.append(", maxInMemory=").append(maxInMemory);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * Reads a sorted run back from disk, one entity at a time.
+     */
+    private static final class RunIterator<T> implements Iterator<T>, AutoCloseable {
+
+        private final ObjectInputStream input;
+
+        private T next;
+
+        private RunIterator(Path run) throws IOException {
+            InputStream stream = Files.newInputStream(run);
+            try {
+                this.input = new ObjectInputStream(new BufferedInputStream(stream));
+                this.next = read();
+            } catch (IOException | RuntimeException ex) {
+                stream.close();
+                throw ex;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private T read() {
+            try {
+                return (T) input.readObject();
+            } catch (EOFException ex) {
+                return null;
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Error to read a sorted run", ex);
+            } catch (ClassNotFoundException ex) {
+                throw new IllegalStateException("Error to read a sorted run", ex);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            T current = next;
+            next = read();
+            return current;
+        }
+
+        @Override
+        public void close() {
+            try {
+                input.close();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    /**
+     * A k-way merge of sorted iterators.
+     */
+    private static final class MergeIterator<T> implements Iterator<T> {
+
+        private final PriorityQueue<Head<T>> heads;
+
+        private MergeIterator(List<Iterator<T>> iterators, Comparator<T> comparator) {
+            this.heads = new PriorityQueue<>(iterators.size(), (a, b) -> comparator.compare(a.value, b.value));
+            iterators.stream().filter(Iterator::hasNext).map(Head::new).forEach(heads::add);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            Head<T> head = heads.poll();
+            T value = head.value;
+            if (head.iterator.hasNext()) {
+                head.value = head.iterator.next();
+                heads.offer(head);
+            }
+            return value;
+        }
+    }
+
+    private static final class Head<T> {
+
+        private final Iterator<T> iterator;
+
+        private T value;
+
+        private Head(Iterator<T> iterator) {
+            this.iterator = iterator;
+            this.value = iterator.next();
+        }
+    }
+}
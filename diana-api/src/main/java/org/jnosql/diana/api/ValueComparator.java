@@ -0,0 +1,161 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Comparator} of {@link Value} that compares the instance inside {@link Value#get()} with a total order.
+ * The values are first ranked by kind: numbers, then texts, then booleans, then the other {@link Comparable}
+ * instances, then any other object and at last null, so a null value, or a null {@link Value}, comes after every
+ * other one. Inside a kind, the numbers are compared by their exact value, whatever their type, the texts and the
+ * booleans by their natural order, and the other instances by the name of their class and then by
+ * {@link Comparable#compareTo(Object)} or, when they are not comparable, by {@link Object#toString()}.
+ * Values of different kinds are never converted to each other, so the order is consistent in both directions.
+ */
+@SuppressWarnings("unchecked")
+public final class ValueComparator implements Comparator<Value> {
+
+    private static final ValueComparator INSTANCE = new ValueComparator();
+
+    private static final int NUMBER = 0;
+
+    private static final int TEXT = 1;
+
+    private static final int BOOLEAN = 2;
+
+    private static final int COMPARABLE = 3;
+
+    private static final int OTHER = 4;
+
+    private static final int NULL = 5;
+
+    private ValueComparator() {
+    }
+
+    public static ValueComparator getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public int compare(Value value, Value other) {
+        Object first = value == null ? null : value.get();
+        Object second = other == null ? null : other.get();
+        int rank = rank(first);
+        int result = Integer.compare(rank, rank(second));
+        if (result != 0) {
+            return result;
+        }
+        switch (rank) {
+            case NUMBER:
+                return compareNumber((Number) first, (Number) second);
+            case TEXT:
+                return first.toString().compareTo(second.toString());
+            case BOOLEAN:
+                return Boolean.compare((Boolean) first, (Boolean) second);
+            case NULL:
+                return 0;
+            default:
+                result = first.getClass().getName().compareTo(second.getClass().getName());
+                if (result != 0) {
+                    return result;
+                }
+                if (rank == COMPARABLE) {
+                    return ((Comparable<Object>) first).compareTo(second);
+                }
+                return first.toString().compareTo(second.toString());
+        }
+    }
+
+    private int rank(Object value) {
+        if (value == null) {
+            return NULL;
+        }
+        if (value instanceof Number) {
+            return NUMBER;
+        }
+        if (value instanceof CharSequence || value instanceof Character) {
+            return TEXT;
+        }
+        if (value instanceof Boolean) {
+            return BOOLEAN;
+        }
+        return value instanceof Comparable ? COMPARABLE : OTHER;
+    }
+
+    private int compareNumber(Number first, Number second) {
+        if (isIntegral(first) && isIntegral(second)) {
+            return Long.compare(first.longValue(), second.longValue());
+        }
+        int special = special(first);
+        int otherSpecial = special(second);
+        if (special != 0 || otherSpecial != 0) {
+            return Integer.compare(special, otherSpecial);
+        }
+        return toBigDecimal(first).compareTo(toBigDecimal(second));
+    }
+
+    /**
+     * The position of a number that has no exact value: the negative infinity comes before every number, the
+     * positive infinity after them and NaN at last; zero means a finite number
+     */
+    private int special(Number number) {
+        if (isIntegral(number) || number instanceof BigDecimal || number instanceof BigInteger) {
+            return 0;
+        }
+        double value = number.doubleValue();
+        if (Double.isNaN(value)) {
+            return 2;
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? 1 : -1;
+        }
+        return 0;
+    }
+
+    private BigDecimal toBigDecimal(Number number) {
+        if (isIntegral(number)) {
+            return BigDecimal.valueOf(number.longValue());
+        }
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        }
+        if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        }
+        return new BigDecimal(number.doubleValue());
+    }
+
+    private boolean isIntegral(Number number) {
+        return number instanceof Long || number instanceof Integer || number instanceof Short
+                || number instanceof Byte || number instanceof AtomicLong || number instanceof AtomicInteger;
+    }
+
+    @Override
+    public String toString() {
+        return "ValueComparator{}";
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+/**
+ * The {@link ConcurrencyLimit} based on TCP Vegas. The estimated queue is
+ * {@code limit * (1 - minLatency / latency)}, the limit grows by one when it is lesser than alpha,
+ * shrinks by one when it is greater than beta and is halved when an operation fails.
+ */
+final class VegasConcurrencyLimit implements ConcurrencyLimit {
+
+    private static final int ALPHA = 3;
+
+    private static final int BETA = 6;
+
+    private final int min;
+
+    private final int max;
+
+    private long minLatency = Long.MAX_VALUE;
+
+    private int limit;
+
+    VegasConcurrencyLimit(int initial, int min, int max) {
+        AimdConcurrencyLimit.checkLimits(initial, min, max);
+        this.min = min;
+        this.max = max;
+        this.limit = initial;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(long latency, int inFlight, boolean dropped) {
+        if (dropped) {
+            limit = Math.max(min, limit / 2);
+            return;
+        }
+        long sample = Math.max(1L, latency);
+        minLatency = Math.min(minLatency, sample);
+        double queue = limit * (1 - (double) minLatency / sample);
+        if (queue < ALPHA && inFlight * 2 >= limit) {
+            limit = Math.min(max, limit + 1);
+        } else if (queue > BETA) {
+            limit = Math.max(min, limit - 1);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("VegasConcurrencyLimit{");
+        sb.append("limit=").append(limit);
+        sb.append(", min=").append(min);
+        sb.append(", max=").append(max);
+        sb.append(", minLatency=").append(minLatency);
+        sb.append('}');
+        return sb.toString();
+    }
+}
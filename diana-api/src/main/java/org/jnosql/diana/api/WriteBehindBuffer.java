@@ -0,0 +1,441 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api;
+
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A write-behind buffer, it keeps the writes in memory and sends them to a writer in batches.
+ * Writes to the same key are coalesced and, by default, the last write wins, so an entity updated many times
+ * between two flushes is written once. The buffer flushes when it reaches the batch size or when the flush interval
+ * passes, whatever happens first.
+ * The capacity bounds the entities in the buffer, including the ones being flushed, when it is full
+ * the writer of a new key waits until a flush finishes, that is the backpressure.
+ * The batches reach the writer one at a time and in the order they were taken from the buffer, so two writes
+ * of the same key in different batches are never reordered.
+ * The callbacks of a write are called with the written entity after its flush completes normally, the future
+ * of the flush is completed before them and a callback that fails does not stop the other ones.
+ * A batch that fails is logged and counted in {@link #getFailed()}.
+ * The flushes by time run in an executor, not in the shared scheduler thread, since the writer might block.
+ *
+ * @param <K> the key type
+ * @param <T> the entity type
+ */
+public final class WriteBehindBuffer<K, T> implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(WriteBehindBuffer.class.getName());
+
+    private final Function<T, K> key;
+
+    private final Function<List<T>, CompletionStage<?>> writer;
+
+    private final BinaryOperator<T> merge;
+
+    private final int batchSize;
+
+    private final Duration flushInterval;
+
+    private final Semaphore slots;
+
+    private final Executor executor;
+
+    private final Set<CompletableFuture<Void>> flushing = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder written = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private Map<K, Entry<T>> pending = new LinkedHashMap<>();
+
+    private CompletableFuture<?> last = CompletableFuture.completedFuture(null);
+
+    private boolean closed;
+
+    private WriteBehindBuffer(Function<T, K> key, Function<List<T>, CompletionStage<?>> writer,
+                              BinaryOperator<T> merge, int batchSize, int capacity, Duration flushInterval,
+                              Executor executor) {
+        this.key = key;
+        this.writer = writer;
+        this.merge = merge;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.slots = new Semaphore(capacity);
+        this.executor = executor;
+    }
+
+    /**
+     * Creates a {@link WriteBehindBuffer}
+     *
+     * @param key           the function that returns the key of an entity, the writes with the same key are coalesced
+     * @param writer        the function that writes a batch
+     * @param batchSize     the number of entities that starts a flush
+     * @param capacity      the maximum number of entities in the buffer, it must not be lesser than batchSize
+     * @param flushInterval the interval between the flushes by time, zero means only by size
+     * @param <K>           the key type
+     * @param <T>           the entity type
+     * @return a {@link WriteBehindBuffer} instance
+     * @throws NullPointerException     when either key, writer or flushInterval are null
+     * @throws IllegalArgumentException when batchSize is lesser than one, capacity is lesser than batchSize or
+     *                                  flushInterval is negative
+     */
+    public static <K, T> WriteBehindBuffer<K, T> of(Function<T, K> key, Function<List<T>, CompletionStage<?>> writer,
+                                                    int batchSize, int capacity, Duration flushInterval)
+            throws NullPointerException, IllegalArgumentException {
+        return of(key, writer, (previous, next) -> next, batchSize, capacity, flushInterval);
+    }
+
+    /**
+     * Creates a {@link WriteBehindBuffer} whose coalesced writes are combined by a merge function, the flushes
+     * by time run in a shared pool of daemon threads
+     *
+     * @param key           the function that returns the key of an entity, the writes with the same key are coalesced
+     * @param writer        the function that writes a batch
+     * @param merge         the function that combines the buffered entity and a new write of the same key
+     * @param batchSize     the number of entities that starts a flush
+     * @param capacity      the maximum number of entities in the buffer, it must not be lesser than batchSize
+     * @param flushInterval the interval between the flushes by time, zero means only by size
+     * @param <K>           the key type
+     * @param <T>           the entity type
+     * @return a {@link WriteBehindBuffer} instance
+     * @throws NullPointerException     when either key, writer, merge or flushInterval are null
+     * @throws IllegalArgumentException when batchSize is lesser than one, capacity is lesser than batchSize or
+     *                                  flushInterval is negative
+     */
+    public static <K, T> WriteBehindBuffer<K, T> of(Function<T, K> key, Function<List<T>, CompletionStage<?>> writer,
+                                                    BinaryOperator<T> merge, int batchSize, int capacity,
+                                                    Duration flushInterval)
+            throws NullPointerException, IllegalArgumentException {
+        return of(key, writer, merge, batchSize, capacity, flushInterval, CompletableFutures.workers());
+    }
+
+    /**
+     * Creates a {@link WriteBehindBuffer} whose coalesced writes are combined by a merge function
+     *
+     * @param key           the function that returns the key of an entity, the writes with the same key are coalesced
+     * @param writer        the function that writes a batch
+     * @param merge         the function that combines the buffered entity and a new write of the same key
+     * @param batchSize     the number of entities that starts a flush
+     * @param capacity      the maximum number of entities in the buffer, it must not be lesser than batchSize
+     * @param flushInterval the interval between the flushes by time, zero means only by size
+     * @param executor      the executor that runs the flushes by time, the writer might block it
+     * @param <K>           the key type
+     * @param <T>           the entity type
+     * @return a {@link WriteBehindBuffer} instance
+     * @throws NullPointerException     when either key, writer, merge, flushInterval or executor are null
+     * @throws IllegalArgumentException when batchSize is lesser than one, capacity is lesser than batchSize or
+     *                                  flushInterval is negative
+     */
+    public static <K, T> WriteBehindBuffer<K, T> of(Function<T, K> key, Function<List<T>, CompletionStage<?>> writer,
+                                                    BinaryOperator<T> merge, int batchSize, int capacity,
+                                                    Duration flushInterval, Executor executor)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(writer, "writer is required");
+        Objects.requireNonNull(merge, "merge is required");
+        Objects.requireNonNull(flushInterval, "flushInterval is required");
+        Objects.requireNonNull(executor, "executor is required");
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be greater than zero");
+        }
+        if (capacity < batchSize) {
+            throw new IllegalArgumentException("The capacity must not be lesser than the batch size");
+        }
+        if (flushInterval.isNegative()) {
+            throw new IllegalArgumentException("The flush interval cannot be negative");
+        }
+        WriteBehindBuffer<K, T> buffer = new WriteBehindBuffer<>(key, writer, merge, batchSize, capacity,
+                flushInterval, executor);
+        buffer.scheduleFlush();
+        return buffer;
+    }
+
+    /**
+     * Adds an entity to the buffer
+     *
+     * @param entity the entity
+     * @throws NullPointerException  when entity is null
+     * @throws IllegalStateException when the buffer is closed or the thread is interrupted while it waits
+     */
+    public void add(T entity) throws NullPointerException, IllegalStateException {
+        add(entity, null);
+    }
+
+    /**
+     * Adds an entity to the buffer, the callback receives the written entity after the flush,
+     * it might be a later write of the same key
+     *
+     * @param entity   the entity
+     * @param callBack the callback, it might be null
+     * @throws NullPointerException  when entity is null
+     * @throws IllegalStateException when the buffer is closed or the thread is interrupted while it waits
+     */
+    public void add(T entity, Consumer<T> callBack) throws NullPointerException, IllegalStateException {
+        Objects.requireNonNull(entity, "entity is required");
+        K id = Objects.requireNonNull(key.apply(entity), "key is required");
+        if (coalesce(id, entity, callBack)) {
+            return;
+        }
+        if (!slots.tryAcquire()) {
+            flush();
+            try {
+                slots.acquire();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("The thread was interrupted while waiting for the buffer",
+                        exception);
+            }
+        }
+        Batch<T> batch = null;
+        synchronized (this) {
+            if (closed) {
+                slots.release();
+                throw closedError();
+            }
+            Entry<T> current = pending.get(id);
+            if (current == null) {
+                pending.put(id, new Entry<>(entity, callBack));
+                if (pending.size() >= batchSize) {
+                    batch = swap();
+                }
+            } else {
+                current.replace(merge.apply(current.entity, entity), callBack);
+                coalesced.increment();
+                slots.release();
+            }
+        }
+        if (batch != null) {
+            write(batch);
+        }
+    }
+
+    private synchronized boolean coalesce(K id, T entity, Consumer<T> callBack) {
+        if (closed) {
+            throw closedError();
+        }
+        Entry<T> current = pending.get(id);
+        if (current == null) {
+            return false;
+        }
+        current.replace(merge.apply(current.entity, entity), callBack);
+        coalesced.increment();
+        return true;
+    }
+
+    /**
+     * Writes the entities in the buffer now
+     *
+     * @return the future that completes when every flush that is running finishes
+     */
+    public CompletableFuture<Void> flush() {
+        Batch<T> batch = null;
+        synchronized (this) {
+            if (!pending.isEmpty()) {
+                batch = swap();
+            }
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>(flushing);
+        if (batch != null) {
+            futures.add(write(batch));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]));
+    }
+
+    /**
+     * @return the number of entities waiting for a flush
+     */
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    /**
+     * @return the number of entities written
+     */
+    public long getWritten() {
+        return written.sum();
+    }
+
+    /**
+     * @return the number of writes replaced by a later write of the same key
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * @return the number of entities whose flush failed
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * Flushes the buffer and waits for the flushes to finish, the buffer does not accept writes after it
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        flush().exceptionally(e -> null).join();
+    }
+
+    private static IllegalStateException closedError() {
+        return new IllegalStateException("The write-behind buffer is closed");
+    }
+
+    /**
+     * Takes the pending entries as a batch that runs after the previous one, it must hold the lock,
+     * so the batches are chained in the same order they are taken.
+     */
+    private Batch<T> swap() {
+        Batch<T> batch = new Batch<>(new ArrayList<>(pending.values()), last);
+        pending = new LinkedHashMap<>();
+        flushing.add(batch.future);
+        last = batch.future;
+        return batch;
+    }
+
+    private CompletableFuture<Void> write(Batch<T> batch) {
+        batch.previous.whenComplete((r, e) -> send(batch));
+        return batch.future;
+    }
+
+    private void send(Batch<T> batch) {
+        List<Entry<T>> entries = batch.entries;
+        List<T> entities = new ArrayList<>(entries.size());
+        entries.forEach(e -> entities.add(e.entity));
+        CompletionStage<?> stage;
+        try {
+            stage = writer.apply(entities);
+        } catch (Exception exception) {
+            stage = failedStage(exception);
+        }
+        stage.whenComplete((r, e) -> {
+            slots.release(entries.size());
+            flushing.remove(batch.future);
+            if (e == null) {
+                written.add(entries.size());
+                batch.future.complete(null);
+                entries.forEach(Entry::callBack);
+            } else {
+                failed.add(entries.size());
+                LOGGER.log(Level.WARNING, "A write-behind batch of " + entries.size() + " entities failed", e);
+                batch.future.completeExceptionally(e);
+            }
+        });
+    }
+
+    private static CompletionStage<?> failedStage(Exception exception) {
+        CompletableFuture<?> future = new CompletableFuture<>();
+        future.completeExceptionally(exception);
+        return future;
+    }
+
+    private void scheduleFlush() {
+        synchronized (this) {
+            if (flushInterval.isZero() || closed) {
+                return;
+            }
+        }
+        CompletableFutures.schedule(() -> {
+            try {
+                flush();
+            } finally {
+                scheduleFlush();
+            }
+        }, flushInterval, executor);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("WriteBehindBuffer{");
+        sb.append("batchSize=").append(batchSize);
+        sb.append(", flushInterval=").append(flushInterval);
+        sb.append(", size=").append(size());
+        sb.append(", written=").append(written);
+        sb.append(", coalesced=").append(coalesced);
+        sb.append(", failed=").append(failed);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private static final class Batch<T> {
+
+        private final List<Entry<T>> entries;
+
+        private final CompletableFuture<?> previous;
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Batch(List<Entry<T>> entries, CompletableFuture<?> previous) {
+            this.entries = entries;
+            this.previous = previous;
+        }
+    }
+
+    private static final class Entry<T> {
+
+        private T entity;
+
+        private final List<Consumer<T>> callBacks = new ArrayList<>(1);
+
+        private Entry(T entity, Consumer<T> callBack) {
+            replace(entity, callBack);
+        }
+
+        private void replace(T entity, Consumer<T> callBack) {
+            this.entity = entity;
+            if (callBack != null) {
+                callBacks.add(callBack);
+            }
+        }
+
+        private void callBack() {
+            for (Consumer<T> callBack : callBacks) {
+                try {
+                    callBack.accept(entity);
+                } catch (RuntimeException exception) {
+                    LOGGER.log(Level.WARNING, "A write-behind callback failed", exception);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.column;
+
+
+import org.jnosql.diana.api.AdmissionController;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A {@link CompletableColumnFamilyManager} that submits each operation to an {@link AdmissionController},
+ * so the number of operations in flight is bounded. The rejected operations complete exceptionally with
+ * {@link org.jnosql.diana.api.ExecuteAsyncQueryException}.
+ * A {@link ColumnFamilyManagerAsync} can be decorated with
+ * {@code AdmissionColumnFamilyManager.of(CompletableColumnFamilyManager.of(async, timeout), controller)},
+ * the timeout releases the slots of the callbacks that are never called.
+ */
+public final class AdmissionColumnFamilyManager implements CompletableColumnFamilyManager {
+
+    private final CompletableColumnFamilyManager manager;
+
+    private final AdmissionController controller;
+
+    private final int priority;
+
+    private AdmissionColumnFamilyManager(CompletableColumnFamilyManager manager, AdmissionController controller,
+                                         int priority) {
+        this.manager = manager;
+        this.controller = controller;
+        this.priority = priority;
+    }
+
+    /**
+     * Creates an {@link AdmissionColumnFamilyManager} with priority zero
+     *
+     * @param manager    the manager
+     * @param controller the admission controller
+     * @return an {@link AdmissionColumnFamilyManager} instance
+     * @throws NullPointerException when either manager or controller are null
+     */
+    public static AdmissionColumnFamilyManager of(CompletableColumnFamilyManager manager,
+                                                  AdmissionController controller) throws NullPointerException {
+        Objects.requireNonNull(manager, "manager is required");
+        Objects.requireNonNull(controller, "controller is required");
+        return new AdmissionColumnFamilyManager(manager, controller, 0);
+    }
+
+    /**
+     * Returns a view of this manager whose operations have the given priority,
+     * it shares the manager and the admission controller
+     *
+     * @param priority the priority, the higher one is shed last
+     * @return an {@link AdmissionColumnFamilyManager} instance
+     */
+    public AdmissionColumnFamilyManager priority(int priority) {
+        return new AdmissionColumnFamilyManager(manager, controller, priority);
+    }
+
+    @Override
+    public CompletionStage<ColumnEntity> save(ColumnEntity entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        return controller.submit(priority, () -> manager.save(entity));
+    }
+
+    @Override
+    public CompletionStage<ColumnEntity> save(ColumnEntity entity, Duration ttl) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        return controller.submit(priority, () -> manager.save(entity, ttl));
+    }
+
+    @Override
+    public CompletionStage<List<ColumnEntity>> save(Iterable<ColumnEntity> entities) throws NullPointerException {
+        Objects.requireNonNull(entities, "entities is required");
+        return controller.submit(priority, () -> manager.save(entities));
+    }
+
+    @Override
+    public CompletionStage<List<ColumnEntity>> save(Iterable<ColumnEntity> entities, Duration ttl)
+            throws NullPointerException {
+        Objects.requireNonNull(entities, "entities is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        return controller.submit(priority, () -> manager.save(entities, ttl));
+    }
+
+    @Override
+    public CompletionStage<ColumnEntity> update(ColumnEntity entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        return controller.submit(priority, () -> manager.update(entity));
+    }
+
+    @Override
+    public CompletionStage<Void> delete(ColumnDeleteQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        return controller.submit(priority, () -> manager.delete(query));
+    }
+
+    @Override
+    public CompletionStage<List<ColumnEntity>> find(ColumnQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        return controller.submit(priority, () -> manager.find(query));
+    }
+
+    /**
+     * @return the admission controller, e.g. to read its metrics
+     */
+    public AdmissionController getController() {
+        return controller;
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("AdmissionColumnFamilyManager{");
+        sb.append("manager=").append(manager);
+        sb.append(", controller=").append(controller);
+        sb.append(", priority=").append(priority);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.column;
+
+
+import org.jnosql.diana.api.BatchLoader;
+import org.jnosql.diana.api.Condition;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link CompletableColumnFamilyManager} that collapses the concurrent equality queries on the same column
+ * family and column into one {@link Condition#IN} query with a {@link BatchLoader}, the entities found are sent
+ * back to each query, as copies of its own, by the value of the column. Only the queries with a single
+ * {@link Condition#EQUALS} condition, without sorts, start or limit, and whose projection keeps the
+ * column are collapsed, the other operations go straight to the manager.
+ */
+public final class BatchingColumnFamilyManager implements CompletableColumnFamilyManager {
+
+    private final CompletableColumnFamilyManager manager;
+
+    private final Duration window;
+
+    private final int maxBatchSize;
+
+    private final ConcurrentMap<List<Object>, BatchLoader<Object, List<ColumnEntity>>> loaders =
+            new ConcurrentHashMap<>();
+
+    private BatchingColumnFamilyManager(CompletableColumnFamilyManager manager, Duration window,
+                                        int maxBatchSize) {
+        this.manager = manager;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Creates a {@link BatchingColumnFamilyManager}
+     *
+     * @param manager      the manager
+     * @param window       the time that a batch waits for more queries
+     * @param maxBatchSize the maximum number of values in an {@link Condition#IN} query
+     * @return a {@link BatchingColumnFamilyManager} instance
+     * @throws NullPointerException     when either manager or window are null
+     * @throws IllegalArgumentException when maxBatchSize is lesser than one or window is negative
+     */
+    public static BatchingColumnFamilyManager of(CompletableColumnFamilyManager manager, Duration window,
+                                                 int maxBatchSize) throws NullPointerException,
+            IllegalArgumentException {
+        Objects.requireNonNull(manager, "manager is required");
+        Objects.requireNonNull(window, "window is required");
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("The max batch size must be greater than zero");
+        }
+        if (window.isNegative()) {
+            throw new IllegalArgumentException("The window cannot be negative");
+        }
+        return new BatchingColumnFamilyManager(manager, window, maxBatchSize);
+    }
+
+    @Override
+    public CompletionStage<ColumnEntity> save(ColumnEntity entity) throws NullPointerException {
+        return manager.save(entity);
+    }
+
+    @Override
+    public CompletionStage<ColumnEntity> save(ColumnEntity entity, Duration ttl) throws NullPointerException {
+        return manager.save(entity, ttl);
+    }
+
+    @Override
+    public CompletionStage<List<ColumnEntity>> save(Iterable<ColumnEntity> entities) throws NullPointerException {
+        return manager.save(entities);
+    }
+
+    @Override
+    public CompletionStage<List<ColumnEntity>> save(Iterable<ColumnEntity> entities, Duration ttl)
+            throws NullPointerException {
+        return manager.save(entities, ttl);
+    }
+
+    @Override
+    public CompletionStage<ColumnEntity> update(ColumnEntity entity) throws NullPointerException {
+        return manager.update(entity);
+    }
+
+    @Override
+    public CompletionStage<Void> delete(ColumnDeleteQuery query) throws NullPointerException {
+        return manager.delete(query);
+    }
+
+    @Override
+    public CompletionStage<List<ColumnEntity>> find(ColumnQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        if (!isBatchable(query)) {
+            return manager.find(query);
+        }
+        Column column = query.getCondition().get().getColumn();
+        String family = query.getColumnFamily();
+        List<String> columns = new ArrayList<>(query.getColumns());
+        BatchLoader<Object, List<ColumnEntity>> loader = loaders.computeIfAbsent(
+                Arrays.asList(family, column.getName(), columns),
+                k -> BatchLoader.of(values -> load(family, column.getName(), columns, values), window, maxBatchSize));
+        return loader.load(column.get()).thenApply(e -> e.orElse(Collections.emptyList())
+                .stream().map(ColumnEntity::copy).collect(Collectors.toList()));
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    private CompletionStage<Map<Object, List<ColumnEntity>>> load(String family, String name, List<String> columns,
+                                                                  Set<Object> values) {
+        ColumnQuery query = ColumnQuery.of(family);
+        columns.forEach(query::addColumn);
+        query.and(ColumnCondition.in(Column.of(name, new ArrayList<>(values))));
+        return manager.find(query).thenApply(entities -> {
+            Map<Object, List<Object>> keys = new HashMap<>();
+            values.forEach(v -> keys.computeIfAbsent(normalize(v), k -> new ArrayList<>()).add(v));
+            Map<Object, List<ColumnEntity>> result = new HashMap<>();
+            for (ColumnEntity entity : entities) {
+                entity.find(name).map(c -> keys.get(normalize(c.get())))
+                        .ifPresent(k -> k.forEach(v -> result.computeIfAbsent(v, x -> new ArrayList<>()).add(entity)));
+            }
+            return result;
+        });
+    }
+
+    private static boolean isBatchable(ColumnQuery query) {
+        if (!query.getCondition().isPresent() || !query.getSorts().isEmpty() || query.getStart() != 0
+                || query.getLimit() > 0) {
+            return false;
+        }
+        ColumnCondition condition = query.getCondition().get();
+        if (!Condition.EQUALS.equals(condition.getCondition())) {
+            return false;
+        }
+        Column column = condition.getColumn();
+        Object value = column.get();
+        return value != null && !(value instanceof Iterable) && (query.getColumns().isEmpty()
+                || query.getColumns().contains(column.getName()));
+    }
+
+    private static Object normalize(Object value) {
+        if (value instanceof Number) {
+            try {
+                return new BigDecimal(value.toString()).stripTrailingZeros();
+            } catch (NumberFormatException exception) {
+                return value;
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BatchingColumnFamilyManager{");
+        sb.append("manager=").append(manager);
+        sb.append(", window=").append(window);
+        sb.append(", maxBatchSize=").append(maxBatchSize);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.column;
+
+
+import org.jnosql.diana.api.Cursor;
+import org.jnosql.diana.api.Sort;
+import org.jnosql.diana.api.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Utilitarian class to the keyset pagination of {@link ColumnFamilyManager#page(ColumnQuery, Cursor)}.
+ * Given the sorts a, b and c, the next page of a cursor with the values x, y and z is:
+ * {@code (a > x) OR (a = x AND b > y) OR (a = x AND b = y AND c > z)}, where a descending sort uses lesser than.
+ */
+final class ColumnCursors {
+
+    private ColumnCursors() {
+    }
+
+    private static void checkQuery(ColumnQuery query) {
+        Objects.requireNonNull(query, "query is required");
+        if (query.getSorts().isEmpty()) {
+            throw new IllegalArgumentException("The keyset pagination requires at least one sort, query: " + query);
+        }
+        if (query.getLimit() <= 0) {
+            throw new IllegalArgumentException("The keyset pagination requires a positive limit, query: " + query);
+        }
+    }
+
+    static ColumnQuery first(ColumnQuery query) {
+        checkQuery(query);
+        ColumnQuery first = ColumnQuery.of(query.getColumnFamily());
+        query.getCondition().ifPresent(first::and);
+        query.getColumns().forEach(first::addColumn);
+        query.getSorts().forEach(first::addSort);
+        first.setLimit(query.getLimit());
+        return first;
+    }
+
+    static ColumnQuery next(ColumnQuery query, Cursor cursor) {
+        Objects.requireNonNull(cursor, "cursor is required");
+        ColumnQuery next = first(query);
+        if (!query.getSorts().equals(cursor.getSorts())) {
+            throw new IllegalArgumentException("The cursor sorts " + cursor.getSorts()
+                    + " are not the same of the query " + query.getSorts());
+        }
+        return next.and(after(cursor));
+    }
+
+    static ColumnPage page(ColumnQuery query, List<ColumnEntity> entities) {
+        if (entities.size() < query.getLimit()) {
+            return ColumnPage.of(entities, null);
+        }
+        ColumnEntity last = entities.get(entities.size() - 1);
+        List<Value> values = new ArrayList<>();
+        for (Sort sort : query.getSorts()) {
+            Column column = last.find(sort.getName()).orElseThrow(() -> new IllegalStateException(
+                    "The entity does not have the sort column " + sort.getName()
+                            + ", it is required to the keyset pagination: " + last));
+            values.add(column.getValue());
+        }
+        return ColumnPage.of(entities, Cursor.of(query.getSorts(), values));
+    }
+
+    private static ColumnCondition after(Cursor cursor) {
+        List<Sort> sorts = cursor.getSorts();
+        List<Value> values = cursor.getValues();
+        ColumnCondition[] branches = new ColumnCondition[sorts.size()];
+        for (int index = 0; index < sorts.size(); index++) {
+            ColumnCondition branch = null;
+            for (int previous = 0; previous < index; previous++) {
+                ColumnCondition eq = ColumnCondition.eq(Column.of(sorts.get(previous).getName(), values.get(previous)));
+                branch = branch == null ? eq : branch.and(eq);
+            }
+            ColumnCondition range = range(sorts.get(index), values.get(index));
+            branches[index] = branch == null ? range : branch.and(range);
+        }
+        return branches.length == 1 ? branches[0] : ColumnCondition.or(branches);
+    }
+
+    private static ColumnCondition range(Sort sort, Value value) {
+        Column column = Column.of(sort.getName(), value);
+        if (Sort.SortType.DESC.equals(sort.getType())) {
+            return ColumnCondition.lt(column);
+        }
+        return ColumnCondition.gt(column);
+    }
+}
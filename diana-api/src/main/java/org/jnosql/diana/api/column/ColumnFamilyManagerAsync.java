@@ -21,6 +21,7 @@
 package org.jnosql.diana.api.column;
 
 
+import org.jnosql.diana.api.AsyncExecutor;
 import org.jnosql.diana.api.ExecuteAsyncQueryException;
 import org.jnosql.diana.api.NonUniqueResultException;
 
@@ -29,6 +30,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 /**
@@ -185,6 +187,27 @@ public interface ColumnFamilyManagerAsync extends AutoCloseable {
     void find(ColumnQuery query, Consumer<List<ColumnEntity>> callBack) throws ExecuteAsyncQueryException,
             UnsupportedOperationException, NullPointerException;
 
+    /**
+     * Finds {@link ColumnEntity} from query asynchronously as a {@link Stream}. The stream is pulled by the
+     * callback, so the database can fetch the result lazily at the pace the callback consumes it.
+     * The stream might hold database resources, such as a cursor, so the callback should close it after use.
+     * By default it's just a stream of {@link ColumnFamilyManagerAsync#find(ColumnQuery, Consumer)},
+     * each NoSQL vendor might replace to a more appropriate one.
+     *
+     * @param query    query to find entities
+     * @param callBack the callback, when the result is ready will call this instance returning the
+     *                 stream of the result within parameters
+     * @throws ExecuteAsyncQueryException    when there is a async error
+     * @throws UnsupportedOperationException when the database does not support this feature
+     * @throws NullPointerException          when either query or callback are null
+     */
+    default void select(ColumnQuery query, Consumer<Stream<ColumnEntity>> callBack) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        find(query, entities -> callBack.accept(entities.stream()));
+    }
+
     /**
      * Returns a single entity from query
      *
@@ -212,4 +235,19 @@ public interface ColumnFamilyManagerAsync extends AutoCloseable {
      */
     void close();
 
+    /**
+     * Creates a {@link ColumnFamilyManagerAsync} that runs each operation of a sync {@link ColumnFamilyManager}
+     * in an {@link AsyncExecutor}, the callbacks are not called when the operation fails.
+     *
+     * @param manager  the sync manager
+     * @param executor the executor that runs the blocking calls
+     * @return a {@link ColumnFamilyManagerAsync} instance
+     * @throws NullPointerException when either manager or executor are null
+     * @see CompletableColumnFamilyManager#of(ColumnFamilyManager, AsyncExecutor)
+     */
+    static ColumnFamilyManagerAsync of(ColumnFamilyManager manager, AsyncExecutor executor)
+            throws NullPointerException {
+        return CompletableColumnFamilyManager.of(manager, executor).toAsync();
+    }
+
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.column;
+
+
+import org.jnosql.diana.api.Cursor;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A page of a keyset pagination, it has the entities found and the {@link Cursor} to the next page.
+ *
+ * @see ColumnFamilyManager#page(ColumnQuery)
+ * @see ColumnFamilyManager#page(ColumnQuery, Cursor)
+ */
+public interface ColumnPage {
+
+    /**
+     * The entities in this page
+     *
+     * @return the entities
+     */
+    List<ColumnEntity> getEntities();
+
+    /**
+     * The cursor to the next page, when the page is not full there is no next page
+     * and it returns {@link Optional#empty()}
+     *
+     * @return the cursor to the next page
+     */
+    Optional<Cursor> getNext();
+
+    /**
+     * Creates a {@link ColumnPage}
+     *
+     * @param entities the entities
+     * @param next     the cursor to the next page, it might be null when it is the last page
+     * @return a {@link ColumnPage} instance
+     * @throws NullPointerException when entities is null
+     */
+    static ColumnPage of(List<ColumnEntity> entities, Cursor next) throws NullPointerException {
+        return new DefaultColumnPage(entities, next);
+    }
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.column;
+
+
+import org.jnosql.diana.api.BinaryDecoder;
+import org.jnosql.diana.api.BinaryEncoder;
+import org.jnosql.diana.api.Condition;
+import org.jnosql.diana.api.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A compact binary codec to {@link ColumnQuery}, {@link ColumnDeleteQuery}, {@link ColumnCondition} and
+ * {@link Sort} lists, so they can be sent between processes without Java serialization.
+ * The conditions are written as their ordinal, so decoding a condition is an array access, the names are
+ * written once in a string table and the values are written with their types, see {@link BinaryEncoder}.
+ */
+public final class ColumnQueryCodec {
+
+    private static final byte QUERY = 'Q';
+
+    private static final byte DELETE_QUERY = 'D';
+
+    private static final byte CONDITION = 'C';
+
+    private static final byte SORTS = 'S';
+
+    private static final byte VERSION = 1;
+
+    private static final byte ABSENT = 0;
+
+    private static final byte PRESENT = 1;
+
+    private ColumnQueryCodec() {
+    }
+
+    /**
+     * Encodes a {@link ColumnQuery}
+     *
+     * @param query the query
+     * @return the bytes
+     * @throws NullPointerException     when query is null
+     * @throws IllegalArgumentException when the type of a value is not supported by {@link BinaryEncoder}
+     */
+    public static byte[] encode(ColumnQuery query) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(query, "query is required");
+        BinaryEncoder encoder = header(QUERY);
+        writeQuery(encoder, query);
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Encodes a {@link ColumnDeleteQuery}
+     *
+     * @param query the query
+     * @return the bytes
+     * @throws NullPointerException     when query is null
+     * @throws IllegalArgumentException when the type of a value is not supported by {@link BinaryEncoder}
+     */
+    public static byte[] encode(ColumnDeleteQuery query) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(query, "query is required");
+        BinaryEncoder encoder = header(DELETE_QUERY);
+        encoder.writeString(query.getColumnFamily());
+        writeColumns(encoder, query.getColumns());
+        writeCondition(encoder, query.getCondition().orElse(null));
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Encodes a {@link ColumnCondition}
+     *
+     * @param condition the condition
+     * @return the bytes
+     * @throws NullPointerException     when condition is null
+     * @throws IllegalArgumentException when the type of a value is not supported by {@link BinaryEncoder}
+     */
+    public static byte[] encode(ColumnCondition condition) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(condition, "condition is required");
+        BinaryEncoder encoder = header(CONDITION);
+        writeCondition(encoder, condition);
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Encodes a list of {@link Sort}
+     *
+     * @param sorts the sorts
+     * @return the bytes
+     * @throws NullPointerException when sorts is null
+     */
+    public static byte[] encode(List<Sort> sorts) throws NullPointerException {
+        Objects.requireNonNull(sorts, "sorts is required");
+        return header(SORTS).writeSorts(sorts).toByteArray();
+    }
+
+    /**
+     * Decodes a {@link ColumnQuery} encoded by {@link ColumnQueryCodec#encode(ColumnQuery)}
+     *
+     * @param bytes the bytes
+     * @return the query
+     * @throws NullPointerException     when bytes is null
+     * @throws IllegalArgumentException when the bytes are invalid
+     */
+    public static ColumnQuery decodeQuery(byte[] bytes) throws NullPointerException, IllegalArgumentException {
+        BinaryDecoder decoder = header(bytes, QUERY);
+        ColumnQuery query = readQuery(decoder);
+        return finish(decoder, query);
+    }
+
+    /**
+     * Decodes a {@link ColumnDeleteQuery} encoded by {@link ColumnQueryCodec#encode(ColumnDeleteQuery)}
+     *
+     * @param bytes the bytes
+     * @return the query
+     * @throws NullPointerException     when bytes is null
+     * @throws IllegalArgumentException when the bytes are invalid
+     */
+    public static ColumnDeleteQuery decodeDeleteQuery(byte[] bytes) throws NullPointerException,
+            IllegalArgumentException {
+        BinaryDecoder decoder = header(bytes, DELETE_QUERY);
+        ColumnDeleteQuery query = ColumnDeleteQuery.of(decoder.readString());
+        query.addAll(readColumns(decoder));
+        ColumnCondition condition = readCondition(decoder);
+        if (condition != null) {
+            query.and(condition);
+        }
+        return finish(decoder, query);
+    }
+
+    /**
+     * Decodes a {@link ColumnCondition} encoded by {@link ColumnQueryCodec#encode(ColumnCondition)}
+     *
+     * @param bytes the bytes
+     * @return the condition
+     * @throws NullPointerException     when bytes is null
+     * @throws IllegalArgumentException when the bytes are invalid
+     */
+    public static ColumnCondition decodeCondition(byte[] bytes) throws NullPointerException,
+            IllegalArgumentException {
+        BinaryDecoder decoder = header(bytes, CONDITION);
+        ColumnCondition condition = readCondition(decoder);
+        if (condition == null) {
+            throw new IllegalArgumentException("The condition is missing");
+        }
+        return finish(decoder, condition);
+    }
+
+    /**
+     * Decodes a list of {@link Sort} encoded by {@link ColumnQueryCodec#encode(List)}
+     *
+     * @param bytes the bytes
+     * @return the sorts
+     * @throws NullPointerException     when bytes is null
+     * @throws IllegalArgumentException when the bytes are invalid
+     */
+    public static List<Sort> decodeSorts(byte[] bytes) throws NullPointerException, IllegalArgumentException {
+        BinaryDecoder decoder = header(bytes, SORTS);
+        return finish(decoder, decoder.readSorts());
+    }
+
+    private static BinaryEncoder header(byte type) {
+        return BinaryEncoder.of().writeByte(type).writeByte(VERSION);
+    }
+
+    private static BinaryDecoder header(byte[] bytes, byte type) {
+        BinaryDecoder decoder = BinaryDecoder.of(bytes);
+        if (decoder.readByte() != type || decoder.readByte() != VERSION) {
+            throw new IllegalArgumentException("The bytes are not a valid message to this type");
+        }
+        return decoder;
+    }
+
+    private static <T> T finish(BinaryDecoder decoder, T value) {
+        if (!decoder.isFinished()) {
+            throw new IllegalArgumentException("There are unexpected bytes at the end of the message");
+        }
+        return value;
+    }
+
+    private static void writeQuery(BinaryEncoder encoder, ColumnQuery query) {
+        encoder.writeString(query.getColumnFamily());
+        writeColumns(encoder, query.getColumns());
+        writeCondition(encoder, query.getCondition().orElse(null));
+        encoder.writeSorts(query.getSorts());
+        encoder.writeLong(query.getStart());
+        encoder.writeLong(query.getLimit());
+    }
+
+    private static ColumnQuery readQuery(BinaryDecoder decoder) {
+        ColumnQuery query = ColumnQuery.of(decoder.readString());
+        readColumns(decoder).forEach(query::addColumn);
+        ColumnCondition condition = readCondition(decoder);
+        if (condition != null) {
+            query.and(condition);
+        }
+        decoder.readSorts().forEach(query::addSort);
+        query.setStart(decoder.readLong());
+        query.setLimit(decoder.readLong());
+        return query;
+    }
+
+    private static void writeColumns(BinaryEncoder encoder, List<String> columns) {
+        encoder.writeSize(columns.size());
+        columns.forEach(encoder::writeString);
+    }
+
+    private static List<String> readColumns(BinaryDecoder decoder) {
+        int size = decoder.readSize();
+        List<String> columns = new ArrayList<>(size);
+        for (int index = 0; index < size; index++) {
+            columns.add(decoder.readString());
+        }
+        return columns;
+    }
+
+    private static void writeCondition(BinaryEncoder encoder, ColumnCondition condition) {
+        if (condition == null) {
+            encoder.writeByte(ABSENT);
+            return;
+        }
+        encoder.writeByte(PRESENT);
+        Condition type = condition.getCondition();
+        Column column = condition.getColumn();
+        encoder.writeCondition(type);
+        switch (type) {
+            case AND:
+            case OR:
+                List<ColumnCondition> conditions = conditions(column.get());
+                encoder.writeSize(conditions.size());
+                conditions.forEach(c -> writeCondition(encoder, c));
+                return;
+            case NOT:
+                writeCondition(encoder, column.get(ColumnCondition.class));
+                return;
+            case SUBQUERY:
+                writeQuery(encoder, column.get(ColumnQuery.class));
+                return;
+            default:
+                encoder.writeString(column.getName());
+                encoder.writeValue(column.getValue());
+        }
+    }
+
+    private static ColumnCondition readCondition(BinaryDecoder decoder) {
+        byte presence = decoder.readByte();
+        if (presence == ABSENT) {
+            return null;
+        } else if (presence != PRESENT) {
+            throw new IllegalArgumentException("Invalid condition marker: " + presence);
+        }
+        Condition type = decoder.readCondition();
+        switch (type) {
+            case AND:
+            case OR:
+                int size = decoder.readSize();
+                ColumnCondition[] conditions = new ColumnCondition[size];
+                for (int index = 0; index < size; index++) {
+                    conditions[index] = required(readCondition(decoder));
+                }
+                return Condition.AND.equals(type) ? ColumnCondition.and(conditions) : ColumnCondition.or(conditions);
+            case NOT:
+                Column negated = Column.of(Condition.NOT.getNameField(), required(readCondition(decoder)));
+                return DefaultColumnCondition.of(negated, Condition.NOT);
+            case SUBQUERY:
+                return ColumnCondition.subquery(readQuery(decoder));
+            case BETWEEN:
+                String betweenName = decoder.readString();
+                return ColumnCondition.between(Column.of(betweenName, decoder.readValue()));
+            default:
+                String name = decoder.readString();
+                return DefaultColumnCondition.of(Column.of(name, decoder.readValue()), type);
+        }
+    }
+
+    private static ColumnCondition required(ColumnCondition condition) {
+        if (condition == null) {
+            throw new IllegalArgumentException("A nested condition cannot be null");
+        }
+        return condition;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<ColumnCondition> conditions(Object value) {
+        List<ColumnCondition> conditions = new ArrayList<>();
+        ((Iterable<ColumnCondition>) value).forEach(conditions::add);
+        return conditions;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.column;
+
+
+import org.jnosql.diana.api.AsyncExecutor;
+import org.jnosql.diana.api.NonUniqueResultException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * The asynchronous column family manager whose operations return a {@link CompletionStage}, so they can be
+ * composed, awaited, cancelled and fail with an exception instead of a callback that is never called.
+ * It can be created from a {@link ColumnFamilyManagerAsync} with {@link CompletableColumnFamilyManager#of},
+ * and turned back to the callback style with {@link CompletableColumnFamilyManager#toAsync()}.
+ */
+public interface CompletableColumnFamilyManager extends AutoCloseable {
+
+    /**
+     * Saves a Column family entity
+     *
+     * @param entity entity to be saved
+     * @return the stage of the saved entity
+     * @throws NullPointerException when entity is null
+     */
+    CompletionStage<ColumnEntity> save(ColumnEntity entity) throws NullPointerException;
+
+    /**
+     * Saves a Column family entity with time to live
+     *
+     * @param entity entity to be saved
+     * @param ttl    time to live
+     * @return the stage of the saved entity
+     * @throws NullPointerException when either entity or ttl are null
+     */
+    CompletionStage<ColumnEntity> save(ColumnEntity entity, Duration ttl) throws NullPointerException;
+
+    /**
+     * Saves Column family entities, by default it saves each entity using
+     * {@link CompletableColumnFamilyManager#save(ColumnEntity)} concurrently.
+     *
+     * @param entities entities to be saved
+     * @return the stage of the saved entities, in the same order
+     * @throws NullPointerException when entities is null
+     */
+    default CompletionStage<List<ColumnEntity>> save(Iterable<ColumnEntity> entities) throws NullPointerException {
+        Objects.requireNonNull(entities, "entities is required");
+        List<CompletableFuture<ColumnEntity>> futures = StreamSupport.stream(entities.spliterator(), false)
+                .map(e -> save(e).toCompletableFuture()).collect(Collectors.toList());
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]))
+                .thenApply(v -> futures.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+    }
+
+    /**
+     * Saves Column family entities with time to live, by default it saves each entity using
+     * {@link CompletableColumnFamilyManager#save(ColumnEntity, Duration)} concurrently.
+     *
+     * @param entities entities to be saved
+     * @param ttl      time to live
+     * @return the stage of the saved entities, in the same order
+     * @throws NullPointerException when either entities or ttl are null
+     */
+    default CompletionStage<List<ColumnEntity>> save(Iterable<ColumnEntity> entities, Duration ttl)
+            throws NullPointerException {
+        Objects.requireNonNull(entities, "entities is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        List<CompletableFuture<ColumnEntity>> futures = StreamSupport.stream(entities.spliterator(), false)
+                .map(e -> save(e, ttl).toCompletableFuture()).collect(Collectors.toList());
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]))
+                .thenApply(v -> futures.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+    }
+
+    /**
+     * Updates a Column family entity
+     *
+     * @param entity entity to be updated
+     * @return the stage of the updated entity
+     * @throws NullPointerException when entity is null
+     */
+    CompletionStage<ColumnEntity> update(ColumnEntity entity) throws NullPointerException;
+
+    /**
+     * Deletes an entity
+     *
+     * @param query query to delete an entity
+     * @return the stage that completes when the deletion is done
+     * @throws NullPointerException when query is null
+     */
+    CompletionStage<Void> delete(ColumnDeleteQuery query) throws NullPointerException;
+
+    /**
+     * Finds {@link ColumnEntity} from query
+     *
+     * @param query query to figure out entities
+     * @return the stage of the entities found by query
+     * @throws NullPointerException when query is null
+     */
+    CompletionStage<List<ColumnEntity>> find(ColumnQuery query) throws NullPointerException;
+
+    /**
+     * Returns a single entity from query, the stage completes exceptionally with
+     * {@link NonUniqueResultException} when the query returns more than one entity
+     *
+     * @param query query to figure out entities
+     * @return the stage of the entity or {@link Optional#empty()} when there is no entity
+     * @throws NullPointerException when query is null
+     */
+    default CompletionStage<Optional<ColumnEntity>> singleResult(ColumnQuery query) throws NullPointerException {
+        return find(query).thenApply(entities -> {
+            if (entities.isEmpty()) {
+                return Optional.empty();
+            } else if (entities.size() == 1) {
+                return Optional.of(entities.get(0));
+            }
+            throw new NonUniqueResultException("The query returns more than one entity, query: " + query);
+        });
+    }
+
+    /**
+     * Returns this manager as a {@link ColumnFamilyManagerAsync}, the callbacks are not called when
+     * the operation fails, the failure is logged instead
+     *
+     * @return a {@link ColumnFamilyManagerAsync} instance
+     */
+    default ColumnFamilyManagerAsync toAsync() {
+        return new CompletableColumnFamilyManagerAsync(this);
+    }
+
+    /**
+     * closes a resource
+     */
+    void close();
+
+    /**
+     * Creates a {@link CompletableColumnFamilyManager} from a {@link ColumnFamilyManagerAsync} whose stages
+     * time out after 30 seconds, the callbacks of a failed operation are never called, so a stage without a
+     * timeout could wait forever
+     *
+     * @param manager the callback based manager
+     * @return a {@link CompletableColumnFamilyManager} instance
+     * @throws NullPointerException when manager is null
+     */
+    static CompletableColumnFamilyManager of(ColumnFamilyManagerAsync manager) throws NullPointerException {
+        return of(manager, DefaultCompletableColumnFamilyManager.DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Creates a {@link CompletableColumnFamilyManager} from a {@link ColumnFamilyManagerAsync} whose stages
+     * complete exceptionally with {@link java.util.concurrent.TimeoutException} when the callback is not
+     * called before the timeout
+     *
+     * @param manager the callback based manager
+     * @param timeout the timeout of each operation
+     * @return a {@link CompletableColumnFamilyManager} instance
+     * @throws NullPointerException     when either manager or timeout are null
+     * @throws IllegalArgumentException when timeout is zero or negative
+     */
+    static CompletableColumnFamilyManager of(ColumnFamilyManagerAsync manager, Duration timeout)
+            throws NullPointerException, IllegalArgumentException {
+        return new DefaultCompletableColumnFamilyManager(manager, timeout);
+    }
+
+    /**
+     * Creates a {@link CompletableColumnFamilyManager} that runs each operation of a sync
+     * {@link ColumnFamilyManager} in an {@link AsyncExecutor}
+     *
+     * @param manager  the sync manager
+     * @param executor the executor that runs the blocking calls
+     * @return a {@link CompletableColumnFamilyManager} instance
+     * @throws NullPointerException when either manager or executor are null
+     */
+    static CompletableColumnFamilyManager of(ColumnFamilyManager manager, AsyncExecutor executor)
+            throws NullPointerException {
+        return new ExecutorCompletableColumnFamilyManager(manager, executor);
+    }
+}
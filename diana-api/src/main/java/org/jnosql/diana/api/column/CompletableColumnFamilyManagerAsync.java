@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.column;
+
+
+import org.jnosql.diana.api.CompletableFutures;
+import org.jnosql.diana.api.ExecuteAsyncQueryException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * A {@link ColumnFamilyManagerAsync} over a {@link CompletableColumnFamilyManager},
+ * the callbacks are called when the stages complete normally, the failures are logged.
+ */
+class CompletableColumnFamilyManagerAsync implements ColumnFamilyManagerAsync {
+
+    private final CompletableColumnFamilyManager manager;
+
+    CompletableColumnFamilyManagerAsync(CompletableColumnFamilyManager manager) {
+        this.manager = Objects.requireNonNull(manager, "manager is required");
+    }
+
+    @Override
+    public void save(ColumnEntity entity) throws ExecuteAsyncQueryException, UnsupportedOperationException,
+            NullPointerException {
+        CompletableFutures.run(manager.save(entity));
+    }
+
+    @Override
+    public void save(ColumnEntity entity, Duration ttl) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        CompletableFutures.run(manager.save(entity, ttl));
+    }
+
+    @Override
+    public void save(ColumnEntity entity, Consumer<ColumnEntity> callBack) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        CompletableFutures.callBack(manager.save(entity), callBack);
+    }
+
+    @Override
+    public void save(Iterable<ColumnEntity> entities) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        CompletableFutures.run(manager.save(entities));
+    }
+
+    @Override
+    public void save(Iterable<ColumnEntity> entities, Duration ttl) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        CompletableFutures.run(manager.save(entities, ttl));
+    }
+
+    @Override
+    public void save(ColumnEntity entity, Duration ttl, Consumer<ColumnEntity> callBack) throws
+            ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        CompletableFutures.callBack(manager.save(entity, ttl), callBack);
+    }
+
+    @Override
+    public void update(ColumnEntity entity) throws ExecuteAsyncQueryException, UnsupportedOperationException,
+            NullPointerException {
+        CompletableFutures.run(manager.update(entity));
+    }
+
+    @Override
+    public void update(ColumnEntity entity, Consumer<ColumnEntity> callBack) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        CompletableFutures.callBack(manager.update(entity), callBack);
+    }
+
+    @Override
+    public void delete(ColumnDeleteQuery query) throws ExecuteAsyncQueryException, UnsupportedOperationException,
+            NullPointerException {
+        CompletableFutures.run(manager.delete(query));
+    }
+
+    @Override
+    public void delete(ColumnDeleteQuery query, Consumer<Void> callBack) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        CompletableFutures.callBack(manager.delete(query), callBack);
+    }
+
+    @Override
+    public void find(ColumnQuery query, Consumer<List<ColumnEntity>> callBack) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        CompletableFutures.callBack(manager.find(query), callBack);
+    }
+
+    @Override
+    public void singleResult(ColumnQuery query, Consumer<Optional<ColumnEntity>> callBack) throws
+            NullPointerException {
+        CompletableFutures.callBack(manager.singleResult(query), callBack);
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+}
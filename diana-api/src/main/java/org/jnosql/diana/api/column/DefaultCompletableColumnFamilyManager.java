@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.column;
+
+
+import org.jnosql.diana.api.CompletableFutures;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+
+/**
+ * The default {@link CompletableColumnFamilyManager}, it adapts the callbacks of a
+ * {@link ColumnFamilyManagerAsync} to {@link CompletableFuture}
+ */
+class DefaultCompletableColumnFamilyManager implements CompletableColumnFamilyManager {
+
+    static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    private final ColumnFamilyManagerAsync manager;
+
+    private final Duration timeout;
+
+    DefaultCompletableColumnFamilyManager(ColumnFamilyManagerAsync manager, Duration timeout) {
+        this.manager = Objects.requireNonNull(manager, "manager is required");
+        this.timeout = Objects.requireNonNull(timeout, "timeout is required");
+        if (timeout.isZero() || timeout.isNegative()) {
+            throw new IllegalArgumentException("The timeout must be positive");
+        }
+    }
+
+    @Override
+    public CompletionStage<ColumnEntity> save(ColumnEntity entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        return execute(c -> manager.save(entity, c));
+    }
+
+    @Override
+    public CompletionStage<ColumnEntity> save(ColumnEntity entity, Duration ttl) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        return execute(c -> manager.save(entity, ttl, c));
+    }
+
+    @Override
+    public CompletionStage<ColumnEntity> update(ColumnEntity entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        return execute(c -> manager.update(entity, c));
+    }
+
+    @Override
+    public CompletionStage<Void> delete(ColumnDeleteQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        return execute(c -> manager.delete(query, c));
+    }
+
+    @Override
+    public CompletionStage<List<ColumnEntity>> find(ColumnQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        return execute(c -> manager.find(query, c));
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    private <T> CompletableFuture<T> execute(Consumer<Consumer<T>> operation) {
+        return CompletableFutures.timeout(CompletableFutures.of(operation), timeout);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DefaultCompletableColumnFamilyManager{");
+        sb.append("manager=").append(manager);
+        sb.append(", timeout=").append(timeout);
+        sb.append('}');
+        return sb.toString();
+    }
+}
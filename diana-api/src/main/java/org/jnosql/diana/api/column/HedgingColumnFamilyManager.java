@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.column;
+
+
+import org.jnosql.diana.api.HedgingPolicy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A {@link CompletableColumnFamilyManager} that hedges the queries with a {@link HedgingPolicy}:
+ * {@link CompletableColumnFamilyManager#find(ColumnQuery)} and
+ * {@link CompletableColumnFamilyManager#singleResult(ColumnQuery)} send a second query when the first one is
+ * slow and keep the first result. The writes are not idempotent, so they are never hedged.
+ * A {@link ColumnFamilyManagerAsync} can be decorated with
+ * {@code HedgingColumnFamilyManager.of(CompletableColumnFamilyManager.of(async), policy).toAsync()}.
+ */
+public final class HedgingColumnFamilyManager implements CompletableColumnFamilyManager {
+
+    private final CompletableColumnFamilyManager manager;
+
+    private final HedgingPolicy policy;
+
+    private HedgingColumnFamilyManager(CompletableColumnFamilyManager manager, HedgingPolicy policy) {
+        this.manager = manager;
+        this.policy = policy;
+    }
+
+    /**
+     * Creates a {@link HedgingColumnFamilyManager}
+     *
+     * @param manager the manager
+     * @param policy  the hedging policy
+     * @return a {@link HedgingColumnFamilyManager} instance
+     * @throws NullPointerException when either manager or policy are null
+     */
+    public static HedgingColumnFamilyManager of(CompletableColumnFamilyManager manager, HedgingPolicy policy)
+            throws NullPointerException {
+        Objects.requireNonNull(manager, "manager is required");
+        Objects.requireNonNull(policy, "policy is required");
+        return new HedgingColumnFamilyManager(manager, policy);
+    }
+
+    @Override
+    public CompletionStage<ColumnEntity> save(ColumnEntity entity) throws NullPointerException {
+        return manager.save(entity);
+    }
+
+    @Override
+    public CompletionStage<ColumnEntity> save(ColumnEntity entity, Duration ttl) throws NullPointerException {
+        return manager.save(entity, ttl);
+    }
+
+    @Override
+    public CompletionStage<List<ColumnEntity>> save(Iterable<ColumnEntity> entities) throws NullPointerException {
+        return manager.save(entities);
+    }
+
+    @Override
+    public CompletionStage<List<ColumnEntity>> save(Iterable<ColumnEntity> entities, Duration ttl)
+            throws NullPointerException {
+        return manager.save(entities, ttl);
+    }
+
+    @Override
+    public CompletionStage<ColumnEntity> update(ColumnEntity entity) throws NullPointerException {
+        return manager.update(entity);
+    }
+
+    @Override
+    public CompletionStage<Void> delete(ColumnDeleteQuery query) throws NullPointerException {
+        return manager.delete(query);
+    }
+
+    @Override
+    public CompletionStage<List<ColumnEntity>> find(ColumnQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        return policy.execute(() -> manager.find(query));
+    }
+
+    /**
+     * @return the hedging policy, e.g. to read its metrics
+     */
+    public HedgingPolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("HedgingColumnFamilyManager{");
+        sb.append("manager=").append(manager);
+        sb.append(", policy=").append(policy);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.column;
+
+
+import org.jnosql.diana.api.ReplicaPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The {@link ColumnFamilyManagerFactory} of {@link ReplicaColumnFamilyManager}, each database gets the manager
+ * of the primary factory and the managers of the replica factories, and its own {@link
+ * org.jnosql.diana.api.ReplicaBalancer}.
+ */
+public final class ReplicaColumnFamilyManagerFactory implements
+        ColumnFamilyManagerFactory<ReplicaColumnFamilyManager> {
+
+    private final ColumnFamilyManagerFactory<?> primary;
+
+    private final List<ColumnFamilyManagerFactory<?>> replicas;
+
+    private final ReplicaPolicy policy;
+
+    private ReplicaColumnFamilyManagerFactory(ColumnFamilyManagerFactory<?> primary,
+                                              List<ColumnFamilyManagerFactory<?>> replicas, ReplicaPolicy policy) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.policy = policy;
+    }
+
+    /**
+     * Creates a {@link ReplicaColumnFamilyManagerFactory}
+     *
+     * @param primary  the factory of the primary
+     * @param replicas the factories of the replicas
+     * @param policy   the policy of the balancers
+     * @return a {@link ReplicaColumnFamilyManagerFactory} instance
+     * @throws NullPointerException     when either primary, replicas, a replica or policy are null
+     * @throws IllegalArgumentException when replicas is empty
+     */
+    public static ReplicaColumnFamilyManagerFactory of(ColumnFamilyManagerFactory<?> primary,
+                                                       List<? extends ColumnFamilyManagerFactory<?>> replicas,
+                                                       ReplicaPolicy policy) throws NullPointerException,
+            IllegalArgumentException {
+        Objects.requireNonNull(primary, "primary is required");
+        Objects.requireNonNull(replicas, "replicas is required");
+        Objects.requireNonNull(policy, "policy is required");
+        replicas.forEach(r -> Objects.requireNonNull(r, "replica is required"));
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("There must be at least one replica");
+        }
+        return new ReplicaColumnFamilyManagerFactory(primary, new ArrayList<>(replicas), policy);
+    }
+
+    @Override
+    public ReplicaColumnFamilyManager get(String database) throws UnsupportedOperationException,
+            NullPointerException {
+        Objects.requireNonNull(database, "database is required");
+        List<ColumnFamilyManager> managers = new ArrayList<>(replicas.size());
+        replicas.forEach(r -> managers.add(r.get(database)));
+        return ReplicaColumnFamilyManager.of(primary.get(database), managers, policy);
+    }
+
+    @Override
+    public void close() {
+        RuntimeException error = null;
+        List<ColumnFamilyManagerFactory<?>> factories = new ArrayList<>(replicas);
+        factories.add(0, primary);
+        for (ColumnFamilyManagerFactory<?> factory : factories) {
+            try {
+                factory.close();
+            } catch (RuntimeException exception) {
+                if (error == null) {
+                    error = exception;
+                } else {
+                    error.addSuppressed(exception);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ReplicaColumnFamilyManagerFactory{");
+        sb.append("primary=").append(primary);
+        sb.append(", replicas=").append(replicas);
+        sb.append(", policy=").append(policy);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.column;
+
+
+import org.jnosql.diana.api.SingleFlight;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A {@link ColumnFamilyManager} decorator that deduplicates identical queries in flight with a
+ * {@link SingleFlight}: while a query runs, the equal queries from other threads wait for it and share its result.
+ * The queries are compared by their canonical form, the bytes of {@link ColumnQueryCodec}, a query whose values
+ * cannot be encoded goes straight to the manager. Each caller receives its own copies of the entities.
+ * The writes and {@link ColumnFamilyManager#select(ColumnQuery)} go straight to the manager.
+ */
+public final class SingleFlightColumnFamilyManager implements ColumnFamilyManager {
+
+    private final ColumnFamilyManager manager;
+
+    private final SingleFlight<ByteBuffer> flight = SingleFlight.of();
+
+    private SingleFlightColumnFamilyManager(ColumnFamilyManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Creates a {@link SingleFlightColumnFamilyManager}
+     *
+     * @param manager the manager
+     * @return a {@link SingleFlightColumnFamilyManager} instance
+     * @throws NullPointerException when manager is null
+     */
+    public static SingleFlightColumnFamilyManager of(ColumnFamilyManager manager) throws NullPointerException {
+        Objects.requireNonNull(manager, "manager is required");
+        return new SingleFlightColumnFamilyManager(manager);
+    }
+
+    @Override
+    public ColumnEntity save(ColumnEntity entity) throws NullPointerException {
+        return manager.save(entity);
+    }
+
+    @Override
+    public ColumnEntity update(ColumnEntity entity) throws NullPointerException {
+        return manager.update(entity);
+    }
+
+    @Override
+    public ColumnEntity save(ColumnEntity entity, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        return manager.save(entity, ttl);
+    }
+
+    @Override
+    public Iterable<ColumnEntity> save(Iterable<ColumnEntity> entities) throws NullPointerException {
+        return manager.save(entities);
+    }
+
+    @Override
+    public Iterable<ColumnEntity> save(Iterable<ColumnEntity> entities, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        return manager.save(entities, ttl);
+    }
+
+    @Override
+    public void delete(ColumnDeleteQuery query) throws NullPointerException {
+        manager.delete(query);
+    }
+
+    @Override
+    public List<ColumnEntity> find(ColumnQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        Optional<ByteBuffer> key = key(query);
+        if (!key.isPresent()) {
+            return manager.find(query);
+        }
+        return flight.execute(key.get(), () -> manager.find(query)).stream().map(ColumnEntity::copy)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<ColumnEntity> select(ColumnQuery query) throws NullPointerException {
+        return manager.select(query);
+    }
+
+    /**
+     * @return the single flight, e.g. to read its metrics
+     */
+    public SingleFlight<ByteBuffer> getFlight() {
+        return flight;
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    static Optional<ByteBuffer> key(ColumnQuery query) {
+        try {
+            return Optional.of(ByteBuffer.wrap(ColumnQueryCodec.encode(query)));
+        } catch (IllegalArgumentException exception) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SingleFlightColumnFamilyManager{");
+        sb.append("manager=").append(manager);
+        sb.append(", flight=").append(flight);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.column;
+
+
+import org.jnosql.diana.api.SingleFlight;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+
+/**
+ * The {@link CompletableColumnFamilyManager} version of {@link SingleFlightColumnFamilyManager}, the equal
+ * queries in flight share one call to the manager.
+ * A {@link ColumnFamilyManagerAsync} can be decorated with
+ * {@code SingleFlightCompletableColumnFamilyManager.of(CompletableColumnFamilyManager.of(async)).toAsync()}.
+ */
+public final class SingleFlightCompletableColumnFamilyManager implements CompletableColumnFamilyManager {
+
+    private final CompletableColumnFamilyManager manager;
+
+    private final SingleFlight<ByteBuffer> flight = SingleFlight.of();
+
+    private SingleFlightCompletableColumnFamilyManager(CompletableColumnFamilyManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Creates a {@link SingleFlightCompletableColumnFamilyManager}
+     *
+     * @param manager the manager
+     * @return a {@link SingleFlightCompletableColumnFamilyManager} instance
+     * @throws NullPointerException when manager is null
+     */
+    public static SingleFlightCompletableColumnFamilyManager of(CompletableColumnFamilyManager manager)
+            throws NullPointerException {
+        Objects.requireNonNull(manager, "manager is required");
+        return new SingleFlightCompletableColumnFamilyManager(manager);
+    }
+
+    @Override
+    public CompletionStage<ColumnEntity> save(ColumnEntity entity) throws NullPointerException {
+        return manager.save(entity);
+    }
+
+    @Override
+    public CompletionStage<ColumnEntity> save(ColumnEntity entity, Duration ttl) throws NullPointerException {
+        return manager.save(entity, ttl);
+    }
+
+    @Override
+    public CompletionStage<List<ColumnEntity>> save(Iterable<ColumnEntity> entities) throws NullPointerException {
+        return manager.save(entities);
+    }
+
+    @Override
+    public CompletionStage<List<ColumnEntity>> save(Iterable<ColumnEntity> entities, Duration ttl)
+            throws NullPointerException {
+        return manager.save(entities, ttl);
+    }
+
+    @Override
+    public CompletionStage<ColumnEntity> update(ColumnEntity entity) throws NullPointerException {
+        return manager.update(entity);
+    }
+
+    @Override
+    public CompletionStage<Void> delete(ColumnDeleteQuery query) throws NullPointerException {
+        return manager.delete(query);
+    }
+
+    @Override
+    public CompletionStage<List<ColumnEntity>> find(ColumnQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        Optional<ByteBuffer> key = SingleFlightColumnFamilyManager.key(query);
+        if (!key.isPresent()) {
+            return manager.find(query);
+        }
+        return flight.executeAsync(key.get(), () -> manager.find(query))
+                .thenApply(entities -> entities.stream().map(ColumnEntity::copy).collect(Collectors.toList()));
+    }
+
+    /**
+     * @return the single flight, e.g. to read its metrics
+     */
+    public SingleFlight<ByteBuffer> getFlight() {
+        return flight;
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SingleFlightCompletableColumnFamilyManager{");
+        sb.append("manager=").append(manager);
+        sb.append(", flight=").append(flight);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.column;
+
+
+import org.jnosql.diana.api.Sort;
+import org.jnosql.diana.api.SortComparator;
+import org.jnosql.diana.api.SortExecutor;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A {@link ColumnFamilyManager} decorator to databases that cannot sort. When a query has
+ * {@link ColumnQuery#getSorts()}, it sends the query without sort, start and limit to the decorated manager
+ * and then sorts the result in the client using {@link SortExecutor}, reading it from
+ * {@link ColumnFamilyManager#select(ColumnQuery)} as a stream, so just the page defined by
+ * {@link ColumnQuery#getStart()} and {@link ColumnQuery#getLimit()} is kept in memory.
+ * Queries without sort are sent straight to the decorated manager. A sorted {@code select} is not lazy, it
+ * returns the sorted page once it is built. When the query selects some columns, the sort columns are selected too
+ * and removed from the page.
+ */
+public final class SortColumnFamilyManager implements ColumnFamilyManager {
+
+    private final ColumnFamilyManager manager;
+
+    private final int maxInMemory;
+
+    private SortColumnFamilyManager(ColumnFamilyManager manager, int maxInMemory) {
+        this.manager = manager;
+        this.maxInMemory = maxInMemory;
+    }
+
+    /**
+     * Creates a {@link SortColumnFamilyManager} using {@link SortExecutor#DEFAULT_MAX_IN_MEMORY} as memory budget
+     *
+     * @param manager the manager that does not support sort
+     * @return a {@link SortColumnFamilyManager} instance
+     * @throws NullPointerException when manager is null
+     */
+    public static SortColumnFamilyManager of(ColumnFamilyManager manager) throws NullPointerException {
+        return of(manager, SortExecutor.DEFAULT_MAX_IN_MEMORY);
+    }
+
+    /**
+     * Creates a {@link SortColumnFamilyManager}
+     *
+     * @param manager     the manager that does not support sort
+     * @param maxInMemory the max number of entities kept in memory before spilling to disk
+     * @return a {@link SortColumnFamilyManager} instance
+     * @throws NullPointerException     when manager is null
+     * @throws IllegalArgumentException when maxInMemory is not positive
+     */
+    public static SortColumnFamilyManager of(ColumnFamilyManager manager, int maxInMemory)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(manager, "manager is required");
+        if (maxInMemory <= 0) {
+            throw new IllegalArgumentException("maxInMemory must be positive");
+        }
+        return new SortColumnFamilyManager(manager, maxInMemory);
+    }
+
+    @Override
+    public ColumnEntity save(ColumnEntity entity) throws NullPointerException {
+        return manager.save(entity);
+    }
+
+    @Override
+    public ColumnEntity update(ColumnEntity entity) throws NullPointerException {
+        return manager.update(entity);
+    }
+
+    @Override
+    public ColumnEntity save(ColumnEntity entity, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        return manager.save(entity, ttl);
+    }
+
+    @Override
+    public Iterable<ColumnEntity> save(Iterable<ColumnEntity> entities) throws NullPointerException {
+        return manager.save(entities);
+    }
+
+    @Override
+    public Iterable<ColumnEntity> save(Iterable<ColumnEntity> entities, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        return manager.save(entities, ttl);
+    }
+
+    @Override
+    public void delete(ColumnDeleteQuery query) throws NullPointerException {
+        manager.delete(query);
+    }
+
+    @Override
+    public List<ColumnEntity> find(ColumnQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        if (query.getSorts().isEmpty()) {
+            return manager.find(query);
+        }
+        SortComparator<ColumnEntity> comparator = SortComparator.of(query.getSorts(),
+                (entity, name) -> entity.find(name).map(Column::getValue));
+        SortExecutor<ColumnEntity> executor = SortExecutor.of(comparator, query.getStart(), query.getLimit(),
+                maxInMemory);
+        List<String> hidden = hidden(query);
+        List<ColumnEntity> page;
+        try (Stream<ColumnEntity> entities = manager.select(unsorted(query, hidden))) {
+            page = executor.sort(entities::iterator);
+        }
+        for (ColumnEntity entity : page) {
+            hidden.forEach(entity::remove);
+        }
+        return page;
+    }
+
+    /**
+     * Selects the entities of a query. With sorts the source is still read as a stream, but the page has to be
+     * sorted before its first entity is known, so the returned stream is over the sorted page held in memory,
+     * as in {@link #find(ColumnQuery)}; without sorts it is the stream of the decorated manager.
+     *
+     * @param query the query
+     * @return the entities of the query
+     * @throws NullPointerException when query is null
+     */
+    @Override
+    public Stream<ColumnEntity> select(ColumnQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        if (query.getSorts().isEmpty()) {
+            return manager.select(query);
+        }
+        return find(query).stream();
+    }
+
+    private ColumnQuery unsorted(ColumnQuery query, List<String> hidden) {
+        ColumnQuery unsorted = ColumnQuery.of(query.getColumnFamily());
+        query.getCondition().ifPresent(unsorted::and);
+        query.getColumns().forEach(unsorted::addColumn);
+        hidden.forEach(unsorted::addColumn);
+        return unsorted;
+    }
+
+    /**
+     * The sort names missing from a projection: the client sorts on them, so they are selected too and then
+     * removed from the page.
+     */
+    private static List<String> hidden(ColumnQuery query) {
+        if (query.getColumns().isEmpty()) {
+            return Collections.emptyList();
+        }
+        return query.getSorts().stream().map(Sort::getName)
+                .filter(name -> !query.getColumns().contains(name))
+                .distinct().collect(Collectors.toList());
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SortColumnFamilyManager{");
+        sb.append("manager=").append(manager);
+        sb.append(", maxInMemory=").append(maxInMemory);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.column;
+
+
+import org.jnosql.diana.api.CompletableFutures;
+import org.jnosql.diana.api.ExecuteAsyncQueryException;
+import org.jnosql.diana.api.WriteBehindBuffer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A write-behind {@link ColumnFamilyManagerAsync}, the saves and updates are kept in a {@link WriteBehindBuffer}
+ * and written in batches, the saves with {@link CompletableColumnFamilyManager#save(Iterable)}, one batch to each
+ * column family, and the updates with {@link CompletableColumnFamilyManager#update(ColumnEntity)}.
+ * The writes of the same column family and key are coalesced and the last one wins, an update that replaces a
+ * buffered save is still written as a save.
+ * The saves with time to live and the deletes wait for the buffer to flush before they run, so a buffered write
+ * does not overwrite them, and they run even when the flush fails. The failures are logged.
+ * The queries read from the database, they do not see the writes that were not flushed yet.
+ * The entities must not be changed after they are saved.
+ */
+public final class WriteBehindColumnFamilyManagerAsync implements ColumnFamilyManagerAsync {
+
+    private final CompletableColumnFamilyManager manager;
+
+    private final WriteBehindBuffer<List<Object>, Write> buffer;
+
+    private WriteBehindColumnFamilyManagerAsync(CompletableColumnFamilyManager manager,
+                                                Function<ColumnEntity, Object> key, int batchSize,
+                                                int capacity, Duration flushInterval) {
+        this.manager = manager;
+        this.buffer = WriteBehindBuffer.of(w -> Arrays.asList(w.entity.getName(), key.apply(w.entity)), this::write,
+                Write::merge, batchSize, capacity, flushInterval);
+    }
+
+    /**
+     * Creates a {@link WriteBehindColumnFamilyManagerAsync}
+     *
+     * @param manager       the manager that writes the batches
+     * @param key           the function that returns the key of an entity in its column family
+     * @param batchSize     the number of entities that starts a flush
+     * @param capacity      the maximum number of buffered entities, a new key waits when it is full
+     * @param flushInterval the interval between the flushes by time, zero means only by size
+     * @return a {@link WriteBehindColumnFamilyManagerAsync} instance
+     * @throws NullPointerException     when either manager, key or flushInterval are null
+     * @throws IllegalArgumentException when the sizes or the interval are invalid
+     * @see WriteBehindBuffer#of
+     */
+    public static WriteBehindColumnFamilyManagerAsync of(CompletableColumnFamilyManager manager,
+                                                         Function<ColumnEntity, Object> key, int batchSize,
+                                                         int capacity, Duration flushInterval)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(manager, "manager is required");
+        Objects.requireNonNull(key, "key is required");
+        return new WriteBehindColumnFamilyManagerAsync(manager, key, batchSize, capacity, flushInterval);
+    }
+
+    @Override
+    public void save(ColumnEntity entity) throws ExecuteAsyncQueryException, UnsupportedOperationException,
+            NullPointerException {
+        add(entity, false, null);
+    }
+
+    @Override
+    public void save(ColumnEntity entity, Consumer<ColumnEntity> callBack) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        Objects.requireNonNull(callBack, "callBack is required");
+        add(entity, false, callBack);
+    }
+
+    @Override
+    public void save(ColumnEntity entity, Duration ttl) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        save(entity, ttl, e -> {
+        });
+    }
+
+    @Override
+    public void save(ColumnEntity entity, Duration ttl, Consumer<ColumnEntity> callBack) throws
+            ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        CompletableFutures.callBack(afterFlush().thenCompose(v -> manager.save(entity, ttl)), callBack);
+    }
+
+    @Override
+    public void update(ColumnEntity entity) throws ExecuteAsyncQueryException, UnsupportedOperationException,
+            NullPointerException {
+        add(entity, true, null);
+    }
+
+    @Override
+    public void update(ColumnEntity entity, Consumer<ColumnEntity> callBack) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        Objects.requireNonNull(callBack, "callBack is required");
+        add(entity, true, callBack);
+    }
+
+    @Override
+    public void delete(ColumnDeleteQuery query) throws ExecuteAsyncQueryException, UnsupportedOperationException,
+            NullPointerException {
+        delete(query, v -> {
+        });
+    }
+
+    @Override
+    public void delete(ColumnDeleteQuery query, Consumer<Void> callBack) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        CompletableFutures.callBack(afterFlush().thenCompose(v -> manager.delete(query)), callBack);
+    }
+
+    @Override
+    public void find(ColumnQuery query, Consumer<List<ColumnEntity>> callBack) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        CompletableFutures.callBack(manager.find(query), callBack);
+    }
+
+    /**
+     * Writes the buffered entities now
+     *
+     * @return the future that completes when the flushes finish
+     */
+    public CompletableFuture<Void> flush() {
+        return buffer.flush();
+    }
+
+    /**
+     * @return the buffer of this manager, e.g. to read its metrics
+     */
+    public WriteBehindBuffer<List<Object>, ?> getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Flushes the buffer, waits for it and closes the manager
+     */
+    @Override
+    public void close() {
+        try {
+            buffer.close();
+        } finally {
+            manager.close();
+        }
+    }
+
+    private void add(ColumnEntity entity, boolean update, Consumer<ColumnEntity> callBack) {
+        Objects.requireNonNull(entity, "entity is required");
+        buffer.add(new Write(entity, update), callBack == null ? null : w -> callBack.accept(w.entity));
+    }
+
+    private CompletableFuture<Void> afterFlush() {
+        return buffer.flush().handle((v, e) -> null);
+    }
+
+    private CompletableFuture<Void> write(List<Write> writes) {
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        Map<String, List<ColumnEntity>> families = writes.stream().filter(w -> !w.update).map(w -> w.entity)
+                .collect(Collectors.groupingBy(ColumnEntity::getName, LinkedHashMap::new, Collectors.toList()));
+        families.values().forEach(f -> futures.add(manager.save(f).toCompletableFuture()));
+        writes.stream().filter(w -> w.update).forEach(w -> futures.add(manager.update(w.entity).toCompletableFuture()));
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]));
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("WriteBehindColumnFamilyManagerAsync{");
+        sb.append("manager=").append(manager);
+        sb.append(", buffer=").append(buffer);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private static final class Write {
+
+        private final ColumnEntity entity;
+
+        private final boolean update;
+
+        private Write(ColumnEntity entity, boolean update) {
+            this.entity = entity;
+            this.update = update;
+        }
+
+        private static Write merge(Write previous, Write next) {
+            if (next.update && !previous.update) {
+                return new Write(next.entity, false);
+            }
+            return next;
+        }
+    }
+}
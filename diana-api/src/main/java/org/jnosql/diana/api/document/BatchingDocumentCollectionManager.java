@@ -0,0 +1,196 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.document;
+
+
+import org.jnosql.diana.api.BatchLoader;
+import org.jnosql.diana.api.Condition;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link CompletableDocumentCollectionManager} that collapses the concurrent equality queries on the same
+ * collection and document into one {@link Condition#IN} query with a {@link BatchLoader}, the entities found are sent
+ * back to each query, as copies of its own, by the value of the document. Only the queries with a single
+ * {@link Condition#EQUALS} condition, without sorts, start or limit, and whose projection keeps the
+ * document are collapsed, the other operations go straight to the manager.
+ */
+public final class BatchingDocumentCollectionManager implements CompletableDocumentCollectionManager {
+
+    private final CompletableDocumentCollectionManager manager;
+
+    private final Duration window;
+
+    private final int maxBatchSize;
+
+    private final ConcurrentMap<List<Object>, BatchLoader<Object, List<DocumentEntity>>> loaders =
+            new ConcurrentHashMap<>();
+
+    private BatchingDocumentCollectionManager(CompletableDocumentCollectionManager manager, Duration window,
+                                        int maxBatchSize) {
+        this.manager = manager;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Creates a {@link BatchingDocumentCollectionManager}
+     *
+     * @param manager      the manager
+     * @param window       the time that a batch waits for more queries
+     * @param maxBatchSize the maximum number of values in an {@link Condition#IN} query
+     * @return a {@link BatchingDocumentCollectionManager} instance
+     * @throws NullPointerException     when either manager or window are null
+     * @throws IllegalArgumentException when maxBatchSize is lesser than one or window is negative
+     */
+    public static BatchingDocumentCollectionManager of(CompletableDocumentCollectionManager manager, Duration window,
+                                                 int maxBatchSize) throws NullPointerException,
+            IllegalArgumentException {
+        Objects.requireNonNull(manager, "manager is required");
+        Objects.requireNonNull(window, "window is required");
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("The max batch size must be greater than zero");
+        }
+        if (window.isNegative()) {
+            throw new IllegalArgumentException("The window cannot be negative");
+        }
+        return new BatchingDocumentCollectionManager(manager, window, maxBatchSize);
+    }
+
+    @Override
+    public CompletionStage<DocumentEntity> save(DocumentEntity entity) throws NullPointerException {
+        return manager.save(entity);
+    }
+
+    @Override
+    public CompletionStage<DocumentEntity> save(DocumentEntity entity, Duration ttl) throws NullPointerException {
+        return manager.save(entity, ttl);
+    }
+
+    @Override
+    public CompletionStage<List<DocumentEntity>> save(Iterable<DocumentEntity> entities) throws NullPointerException {
+        return manager.save(entities);
+    }
+
+    @Override
+    public CompletionStage<List<DocumentEntity>> save(Iterable<DocumentEntity> entities, Duration ttl)
+            throws NullPointerException {
+        return manager.save(entities, ttl);
+    }
+
+    @Override
+    public CompletionStage<DocumentEntity> update(DocumentEntity entity) throws NullPointerException {
+        return manager.update(entity);
+    }
+
+    @Override
+    public CompletionStage<Void> delete(DocumentDeleteQuery query) throws NullPointerException {
+        return manager.delete(query);
+    }
+
+    @Override
+    public CompletionStage<List<DocumentEntity>> find(DocumentQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        if (!isBatchable(query)) {
+            return manager.find(query);
+        }
+        Document document = query.getCondition().get().getDocument();
+        String collection = query.getCollection();
+        List<String> documents = new ArrayList<>(query.getDocuments());
+        BatchLoader<Object, List<DocumentEntity>> loader = loaders.computeIfAbsent(
+                Arrays.asList(collection, document.getName(), documents),
+                k -> BatchLoader.of(values -> load(collection, document.getName(), documents, values), window,
+                        maxBatchSize));
+        return loader.load(document.get()).thenApply(e -> e.orElse(Collections.emptyList())
+                .stream().map(DocumentEntity::copy).collect(Collectors.toList()));
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    private CompletionStage<Map<Object, List<DocumentEntity>>> load(String collection, String name,
+                                                                    List<String> documents, Set<Object> values) {
+        DocumentQuery query = DocumentQuery.of(collection);
+        documents.forEach(query::addColumn);
+        query.and(DocumentCondition.in(Document.of(name, new ArrayList<>(values))));
+        return manager.find(query).thenApply(entities -> {
+            Map<Object, List<Object>> keys = new HashMap<>();
+            values.forEach(v -> keys.computeIfAbsent(normalize(v), k -> new ArrayList<>()).add(v));
+            Map<Object, List<DocumentEntity>> result = new HashMap<>();
+            for (DocumentEntity entity : entities) {
+                entity.find(name).map(c -> keys.get(normalize(c.get())))
+                        .ifPresent(k -> k.forEach(v -> result.computeIfAbsent(v, x -> new ArrayList<>()).add(entity)));
+            }
+            return result;
+        });
+    }
+
+    private static boolean isBatchable(DocumentQuery query) {
+        if (!query.getCondition().isPresent() || !query.getSorts().isEmpty() || query.getStart() != 0
+                || query.getLimit() > 0) {
+            return false;
+        }
+        DocumentCondition condition = query.getCondition().get();
+        if (!Condition.EQUALS.equals(condition.getCondition())) {
+            return false;
+        }
+        Document document = condition.getDocument();
+        Object value = document.get();
+        return value != null && !(value instanceof Iterable) && (query.getDocuments().isEmpty()
+                || query.getDocuments().contains(document.getName()));
+    }
+
+    private static Object normalize(Object value) {
+        if (value instanceof Number) {
+            try {
+                return new BigDecimal(value.toString()).stripTrailingZeros();
+            } catch (NumberFormatException exception) {
+                return value;
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BatchingDocumentCollectionManager{");
+        sb.append("manager=").append(manager);
+        sb.append(", window=").append(window);
+        sb.append(", maxBatchSize=").append(maxBatchSize);
+        sb.append('}');
+        return sb.toString();
+    }
+}
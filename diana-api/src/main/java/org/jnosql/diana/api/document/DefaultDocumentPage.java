@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.document;
+
+
+import org.jnosql.diana.api.Cursor;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The default implementation of {@link DocumentPage}
+ */
+final class DefaultDocumentPage implements DocumentPage {
+
+    private final List<DocumentEntity> entities;
+
+    private final Cursor next;
+
+    DefaultDocumentPage(List<DocumentEntity> entities, Cursor next) {
+        this.entities = Collections.unmodifiableList(Objects.requireNonNull(entities, "entities is required"));
+        this.next = next;
+    }
+
+    @Override
+    public List<DocumentEntity> getEntities() {
+        return entities;
+    }
+
+    @Override
+    public Optional<Cursor> getNext() {
+        return Optional.ofNullable(next);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DocumentPage)) {
+            return false;
+        }
+        DocumentPage that = (DocumentPage) o;
+        return Objects.equals(entities, that.getEntities()) &&
+                Objects.equals(getNext(), that.getNext());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(entities, next);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DefaultDocumentPage{");
+        sb.append("entities=").append(entities);
+        sb.append(", next=").append(next);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -21,13 +21,19 @@
 package org.jnosql.diana.api.document;
 
 
+import org.jnosql.diana.api.BatchExecutor;
+import org.jnosql.diana.api.BatchOptions;
+import org.jnosql.diana.api.BatchResult;
+import org.jnosql.diana.api.Cursor;
 import org.jnosql.diana.api.NonUniqueResultException;
 
 import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 /**
@@ -91,6 +97,21 @@ public interface DocumentCollectionManager extends AutoCloseable {
         return StreamSupport.stream(entities.spliterator(), false).map(d -> save(d, ttl)).collect(Collectors.toList());
     }
 
+    /**
+     * Saves document collection entities in batches, each batch is sent to {@link DocumentCollectionManager#save(Iterable)}, so a NoSQL vendor that
+     * replaces it with a bulk operation does one round-trip to each batch.
+     * An ordered batch stops at the first batch that fails, an unordered one runs the batches in parallel.
+     *
+     * @param entities the entities to be saved
+     * @param options  the batch options
+     * @return the result of each entity, by its position in entities
+     * @throws NullPointerException when either entities or options are null
+     * @see BatchExecutor
+     */
+    default BatchResult<DocumentEntity> saveAll(Collection<DocumentEntity> entities, BatchOptions options) throws NullPointerException {
+        return BatchExecutor.execute(entities, options, batch -> save(batch));
+    }
+
 
     /**
      * Updates a entity
@@ -120,6 +141,57 @@ public interface DocumentCollectionManager extends AutoCloseable {
      */
     List<DocumentEntity> find(DocumentQuery query) throws NullPointerException;
 
+    /**
+     * Finds {@link DocumentEntity} from query as a {@link Stream}, so the result can be consumed without
+     * being fully materialized in memory. The returned stream might hold database resources, such as a cursor,
+     * so it should be closed after use, e.g. in a try-with-resources statement.
+     * By default it's just a stream of {@link DocumentCollectionManager#find(DocumentQuery)},
+     * each NoSQL vendor might replace to a more appropriate one.
+     *
+     * @param query - query to figure out entities
+     * @return a stream of entities found by query
+     * @throws NullPointerException when query is null
+     */
+    default Stream<DocumentEntity> select(DocumentQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        return find(query).stream();
+    }
+
+    /**
+     * Returns the first page of a keyset pagination. Instead of skipping rows as {@link DocumentQuery#setStart(long)},
+     * each page returns a {@link org.jnosql.diana.api.Cursor} to fetch the next one using
+     * {@link DocumentCollectionManager#page(DocumentQuery, Cursor)}. The query must have at least one sort, where the
+     * last one should be unique, and a positive limit; {@link DocumentQuery#getStart()} is ignored.
+     *
+     * @param query - query with the sorts and the page size as limit
+     * @return the first page
+     * @throws NullPointerException     when query is null
+     * @throws IllegalArgumentException when the query has either no sort or no limit
+     * @throws IllegalStateException    when an entity found does not have a sort document
+     */
+    default DocumentPage page(DocumentQuery query) throws NullPointerException, IllegalArgumentException,
+            IllegalStateException {
+        return DocumentCursors.page(query, find(DocumentCursors.first(query)));
+    }
+
+    /**
+     * Returns the page after the cursor of a keyset pagination. By default, it rewrites the query appending
+     * {@link DocumentCondition#gt(Document)} conditions to ascending sorts and {@link DocumentCondition#lt(Document)}
+     * to descending ones using the cursor values, each NoSQL vendor might replace to a more appropriate one.
+     *
+     * @param query  - the same query used in the previous page
+     * @param cursor - the cursor returned by the previous page
+     * @return the next page
+     * @throws NullPointerException     when either query or cursor are null
+     * @throws IllegalArgumentException when the query has either no sort or no limit, or when the cursor
+     *                                  sorts are not the query sorts
+     * @throws IllegalStateException    when an entity found does not have a sort document
+     */
+    default DocumentPage page(DocumentQuery query, Cursor cursor) throws NullPointerException,
+            IllegalArgumentException, IllegalStateException {
+        return DocumentCursors.page(query, find(DocumentCursors.next(query, cursor)));
+    }
+
     /**
      * Returns a single entity from query
      *
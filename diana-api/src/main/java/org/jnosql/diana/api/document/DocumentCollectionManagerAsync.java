@@ -21,6 +21,7 @@
 package org.jnosql.diana.api.document;
 
 
+import org.jnosql.diana.api.AsyncExecutor;
 import org.jnosql.diana.api.ExecuteAsyncQueryException;
 import org.jnosql.diana.api.NonUniqueResultException;
 
@@ -29,6 +30,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 /**
@@ -181,6 +183,27 @@ public interface DocumentCollectionManagerAsync extends AutoCloseable {
     void find(DocumentQuery query, Consumer<List<DocumentEntity>> callBack) throws
             ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException;
 
+    /**
+     * Finds {@link DocumentEntity} from query asynchronously as a {@link Stream}. The stream is pulled by the
+     * callback, so the database can fetch the result lazily at the pace the callback consumes it.
+     * The stream might hold database resources, such as a cursor, so the callback should close it after use.
+     * By default it's just a stream of {@link DocumentCollectionManagerAsync#find(DocumentQuery, Consumer)},
+     * each NoSQL vendor might replace to a more appropriate one.
+     *
+     * @param query    query to find entities
+     * @param callBack the callback, when the result is ready will call this instance returning the
+     *                 stream of the result within parameters
+     * @throws ExecuteAsyncQueryException    when there is a async error
+     * @throws UnsupportedOperationException when the database does not support this feature
+     * @throws NullPointerException          when either query or callback are null
+     */
+    default void select(DocumentQuery query, Consumer<Stream<DocumentEntity>> callBack) throws
+            ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        find(query, entities -> callBack.accept(entities.stream()));
+    }
+
     /**
      * Returns a single entity from query
      *
@@ -210,4 +233,20 @@ public interface DocumentCollectionManagerAsync extends AutoCloseable {
      */
     void close();
 
+    /**
+     * Creates a {@link DocumentCollectionManagerAsync} that runs each operation of a sync
+     * {@link DocumentCollectionManager} in an {@link AsyncExecutor}, the callbacks are not called when
+     * the operation fails.
+     *
+     * @param manager  the sync manager
+     * @param executor the executor that runs the blocking calls
+     * @return a {@link DocumentCollectionManagerAsync} instance
+     * @throws NullPointerException when either manager or executor are null
+     * @see CompletableDocumentCollectionManager#of(DocumentCollectionManager, AsyncExecutor)
+     */
+    static DocumentCollectionManagerAsync of(DocumentCollectionManager manager, AsyncExecutor executor)
+            throws NullPointerException {
+        return CompletableDocumentCollectionManager.of(manager, executor).toAsync();
+    }
+
 }
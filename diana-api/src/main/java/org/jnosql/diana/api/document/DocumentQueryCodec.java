@@ -0,0 +1,309 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.document;
+
+
+import org.jnosql.diana.api.BinaryDecoder;
+import org.jnosql.diana.api.BinaryEncoder;
+import org.jnosql.diana.api.Condition;
+import org.jnosql.diana.api.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A compact binary codec to {@link DocumentQuery}, {@link DocumentDeleteQuery}, {@link DocumentCondition} and
+ * {@link Sort} lists, so they can be sent between processes without Java serialization.
+ * The conditions are written as their ordinal, so decoding a condition is an array access, the names are
+ * written once in a string table and the values are written with their types, see {@link BinaryEncoder}.
+ */
+public final class DocumentQueryCodec {
+
+    private static final byte QUERY = 'Q';
+
+    private static final byte DELETE_QUERY = 'D';
+
+    private static final byte CONDITION = 'C';
+
+    private static final byte SORTS = 'S';
+
+    private static final byte VERSION = 1;
+
+    private static final byte ABSENT = 0;
+
+    private static final byte PRESENT = 1;
+
+    private DocumentQueryCodec() {
+    }
+
+    /**
+     * Encodes a {@link DocumentQuery}
+     *
+     * @param query the query
+     * @return the bytes
+     * @throws NullPointerException     when query is null
+     * @throws IllegalArgumentException when the type of a value is not supported by {@link BinaryEncoder}
+     */
+    public static byte[] encode(DocumentQuery query) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(query, "query is required");
+        BinaryEncoder encoder = header(QUERY);
+        writeQuery(encoder, query);
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Encodes a {@link DocumentDeleteQuery}
+     *
+     * @param query the query
+     * @return the bytes
+     * @throws NullPointerException     when query is null
+     * @throws IllegalArgumentException when the type of a value is not supported by {@link BinaryEncoder}
+     */
+    public static byte[] encode(DocumentDeleteQuery query) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(query, "query is required");
+        BinaryEncoder encoder = header(DELETE_QUERY);
+        encoder.writeString(query.getCollection());
+        writeDocuments(encoder, query.getDocuments());
+        writeCondition(encoder, query.getCondition().orElse(null));
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Encodes a {@link DocumentCondition}
+     *
+     * @param condition the condition
+     * @return the bytes
+     * @throws NullPointerException     when condition is null
+     * @throws IllegalArgumentException when the type of a value is not supported by {@link BinaryEncoder}
+     */
+    public static byte[] encode(DocumentCondition condition) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(condition, "condition is required");
+        BinaryEncoder encoder = header(CONDITION);
+        writeCondition(encoder, condition);
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Encodes a list of {@link Sort}
+     *
+     * @param sorts the sorts
+     * @return the bytes
+     * @throws NullPointerException when sorts is null
+     */
+    public static byte[] encode(List<Sort> sorts) throws NullPointerException {
+        Objects.requireNonNull(sorts, "sorts is required");
+        return header(SORTS).writeSorts(sorts).toByteArray();
+    }
+
+    /**
+     * Decodes a {@link DocumentQuery} encoded by {@link DocumentQueryCodec#encode(DocumentQuery)}
+     *
+     * @param bytes the bytes
+     * @return the query
+     * @throws NullPointerException     when bytes is null
+     * @throws IllegalArgumentException when the bytes are invalid
+     */
+    public static DocumentQuery decodeQuery(byte[] bytes) throws NullPointerException, IllegalArgumentException {
+        BinaryDecoder decoder = header(bytes, QUERY);
+        DocumentQuery query = readQuery(decoder);
+        return finish(decoder, query);
+    }
+
+    /**
+     * Decodes a {@link DocumentDeleteQuery} encoded by {@link DocumentQueryCodec#encode(DocumentDeleteQuery)}
+     *
+     * @param bytes the bytes
+     * @return the query
+     * @throws NullPointerException     when bytes is null
+     * @throws IllegalArgumentException when the bytes are invalid
+     */
+    public static DocumentDeleteQuery decodeDeleteQuery(byte[] bytes) throws NullPointerException,
+            IllegalArgumentException {
+        BinaryDecoder decoder = header(bytes, DELETE_QUERY);
+        DocumentDeleteQuery query = DocumentDeleteQuery.of(decoder.readString());
+        query.addAll(readDocuments(decoder));
+        DocumentCondition condition = readCondition(decoder);
+        if (condition != null) {
+            query.and(condition);
+        }
+        return finish(decoder, query);
+    }
+
+    /**
+     * Decodes a {@link DocumentCondition} encoded by {@link DocumentQueryCodec#encode(DocumentCondition)}
+     *
+     * @param bytes the bytes
+     * @return the condition
+     * @throws NullPointerException     when bytes is null
+     * @throws IllegalArgumentException when the bytes are invalid
+     */
+    public static DocumentCondition decodeCondition(byte[] bytes) throws NullPointerException,
+            IllegalArgumentException {
+        BinaryDecoder decoder = header(bytes, CONDITION);
+        DocumentCondition condition = readCondition(decoder);
+        if (condition == null) {
+            throw new IllegalArgumentException("The condition is missing");
+        }
+        return finish(decoder, condition);
+    }
+
+    /**
+     * Decodes a list of {@link Sort} encoded by {@link DocumentQueryCodec#encode(List)}
+     *
+     * @param bytes the bytes
+     * @return the sorts
+     * @throws NullPointerException     when bytes is null
+     * @throws IllegalArgumentException when the bytes are invalid
+     */
+    public static List<Sort> decodeSorts(byte[] bytes) throws NullPointerException, IllegalArgumentException {
+        BinaryDecoder decoder = header(bytes, SORTS);
+        return finish(decoder, decoder.readSorts());
+    }
+
+    private static BinaryEncoder header(byte type) {
+        return BinaryEncoder.of().writeByte(type).writeByte(VERSION);
+    }
+
+    private static BinaryDecoder header(byte[] bytes, byte type) {
+        BinaryDecoder decoder = BinaryDecoder.of(bytes);
+        if (decoder.readByte() != type || decoder.readByte() != VERSION) {
+            throw new IllegalArgumentException("The bytes are not a valid message to this type");
+        }
+        return decoder;
+    }
+
+    private static <T> T finish(BinaryDecoder decoder, T value) {
+        if (!decoder.isFinished()) {
+            throw new IllegalArgumentException("There are unexpected bytes at the end of the message");
+        }
+        return value;
+    }
+
+    private static void writeQuery(BinaryEncoder encoder, DocumentQuery query) {
+        encoder.writeString(query.getCollection());
+        writeDocuments(encoder, query.getDocuments());
+        writeCondition(encoder, query.getCondition().orElse(null));
+        encoder.writeSorts(query.getSorts());
+        encoder.writeLong(query.getStart());
+        encoder.writeLong(query.getLimit());
+    }
+
+    private static DocumentQuery readQuery(BinaryDecoder decoder) {
+        DocumentQuery query = DocumentQuery.of(decoder.readString());
+        readDocuments(decoder).forEach(query::addColumn);
+        DocumentCondition condition = readCondition(decoder);
+        if (condition != null) {
+            query.and(condition);
+        }
+        decoder.readSorts().forEach(query::addSort);
+        query.setStart(decoder.readLong());
+        query.setLimit(decoder.readLong());
+        return query;
+    }
+
+    private static void writeDocuments(BinaryEncoder encoder, List<String> documents) {
+        encoder.writeSize(documents.size());
+        documents.forEach(encoder::writeString);
+    }
+
+    private static List<String> readDocuments(BinaryDecoder decoder) {
+        int size = decoder.readSize();
+        List<String> documents = new ArrayList<>(size);
+        for (int index = 0; index < size; index++) {
+            documents.add(decoder.readString());
+        }
+        return documents;
+    }
+
+    private static void writeCondition(BinaryEncoder encoder, DocumentCondition condition) {
+        if (condition == null) {
+            encoder.writeByte(ABSENT);
+            return;
+        }
+        encoder.writeByte(PRESENT);
+        Condition type = condition.getCondition();
+        Document document = condition.getDocument();
+        encoder.writeCondition(type);
+        switch (type) {
+            case AND:
+            case OR:
+                List<DocumentCondition> conditions = conditions(document.get());
+                encoder.writeSize(conditions.size());
+                conditions.forEach(c -> writeCondition(encoder, c));
+                return;
+            case NOT:
+                writeCondition(encoder, document.get(DocumentCondition.class));
+                return;
+            case SUBQUERY:
+                writeQuery(encoder, document.get(DocumentQuery.class));
+                return;
+            default:
+                encoder.writeString(document.getName());
+                encoder.writeValue(document.getValue());
+        }
+    }
+
+    private static DocumentCondition readCondition(BinaryDecoder decoder) {
+        byte presence = decoder.readByte();
+        if (presence == ABSENT) {
+            return null;
+        } else if (presence != PRESENT) {
+            throw new IllegalArgumentException("Invalid condition marker: " + presence);
+        }
+        Condition type = decoder.readCondition();
+        switch (type) {
+            case AND:
+            case OR:
+                int size = decoder.readSize();
+                DocumentCondition[] conditions = new DocumentCondition[size];
+                for (int index = 0; index < size; index++) {
+                    conditions[index] = required(readCondition(decoder));
+                }
+                return Condition.AND.equals(type) ? DocumentCondition.and(conditions) : DocumentCondition.or(conditions);
+            case NOT:
+                Document negated = Document.of(Condition.NOT.getNameField(), required(readCondition(decoder)));
+                return DefaultDocumentCondition.of(negated, Condition.NOT);
+            case SUBQUERY:
+                return DocumentCondition.subquery(readQuery(decoder));
+            case BETWEEN:
+                String betweenName = decoder.readString();
+                return DocumentCondition.between(Document.of(betweenName, decoder.readValue()));
+            default:
+                String name = decoder.readString();
+                return DefaultDocumentCondition.of(Document.of(name, decoder.readValue()), type);
+        }
+    }
+
+    private static DocumentCondition required(DocumentCondition condition) {
+        if (condition == null) {
+            throw new IllegalArgumentException("A nested condition cannot be null");
+        }
+        return condition;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<DocumentCondition> conditions(Object value) {
+        List<DocumentCondition> conditions = new ArrayList<>();
+        ((Iterable<DocumentCondition>) value).forEach(conditions::add);
+        return conditions;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.document;
+
+
+import org.jnosql.diana.api.AsyncExecutor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A {@link CompletableDocumentCollectionManager} that runs the operations of a sync {@link DocumentCollectionManager}
+ * in an {@link AsyncExecutor}
+ */
+class ExecutorCompletableDocumentCollectionManager implements CompletableDocumentCollectionManager {
+
+    private final DocumentCollectionManager manager;
+
+    private final AsyncExecutor executor;
+
+    ExecutorCompletableDocumentCollectionManager(DocumentCollectionManager manager, AsyncExecutor executor) {
+        this.manager = Objects.requireNonNull(manager, "manager is required");
+        this.executor = Objects.requireNonNull(executor, "executor is required");
+    }
+
+    @Override
+    public CompletionStage<DocumentEntity> save(DocumentEntity entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        return executor.submit(() -> manager.save(entity));
+    }
+
+    @Override
+    public CompletionStage<DocumentEntity> save(DocumentEntity entity, Duration ttl) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        return executor.submit(() -> manager.save(entity, ttl));
+    }
+
+    @Override
+    public CompletionStage<List<DocumentEntity>> save(Iterable<DocumentEntity> entities) throws NullPointerException {
+        Objects.requireNonNull(entities, "entities is required");
+        return executor.submit(() -> toList(manager.save(entities)));
+    }
+
+    @Override
+    public CompletionStage<List<DocumentEntity>> save(Iterable<DocumentEntity> entities, Duration ttl)
+            throws NullPointerException {
+        Objects.requireNonNull(entities, "entities is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        return executor.submit(() -> toList(manager.save(entities, ttl)));
+    }
+
+    @Override
+    public CompletionStage<DocumentEntity> update(DocumentEntity entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        return executor.submit(() -> manager.update(entity));
+    }
+
+    @Override
+    public CompletionStage<Void> delete(DocumentDeleteQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        return executor.submit(() -> {
+            manager.delete(query);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletionStage<List<DocumentEntity>> find(DocumentQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        return executor.submit(() -> manager.find(query));
+    }
+
+    @Override
+    public CompletionStage<Optional<DocumentEntity>> singleResult(DocumentQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        return executor.submit(() -> manager.singleResult(query));
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    private static List<DocumentEntity> toList(Iterable<DocumentEntity> entities) {
+        List<DocumentEntity> list = new ArrayList<>();
+        entities.forEach(list::add);
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ExecutorCompletableDocumentCollectionManager{");
+        sb.append("manager=").append(manager);
+        sb.append(", executor=").append(executor);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.document;
+
+
+import org.jnosql.diana.api.HedgingPolicy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A {@link CompletableDocumentCollectionManager} that hedges the queries with a {@link HedgingPolicy}:
+ * {@link CompletableDocumentCollectionManager#find(DocumentQuery)} and
+ * {@link CompletableDocumentCollectionManager#singleResult(DocumentQuery)} send a second query when the first one is
+ * slow and keep the first result. The writes are not idempotent, so they are never hedged.
+ * A {@link DocumentCollectionManagerAsync} can be decorated with
+ * {@code HedgingDocumentCollectionManager.of(CompletableDocumentCollectionManager.of(async), policy).toAsync()}.
+ */
+public final class HedgingDocumentCollectionManager implements CompletableDocumentCollectionManager {
+
+    private final CompletableDocumentCollectionManager manager;
+
+    private final HedgingPolicy policy;
+
+    private HedgingDocumentCollectionManager(CompletableDocumentCollectionManager manager, HedgingPolicy policy) {
+        this.manager = manager;
+        this.policy = policy;
+    }
+
+    /**
+     * Creates a {@link HedgingDocumentCollectionManager}
+     *
+     * @param manager the manager
+     * @param policy  the hedging policy
+     * @return a {@link HedgingDocumentCollectionManager} instance
+     * @throws NullPointerException when either manager or policy are null
+     */
+    public static HedgingDocumentCollectionManager of(CompletableDocumentCollectionManager manager, HedgingPolicy policy)
+            throws NullPointerException {
+        Objects.requireNonNull(manager, "manager is required");
+        Objects.requireNonNull(policy, "policy is required");
+        return new HedgingDocumentCollectionManager(manager, policy);
+    }
+
+    @Override
+    public CompletionStage<DocumentEntity> save(DocumentEntity entity) throws NullPointerException {
+        return manager.save(entity);
+    }
+
+    @Override
+    public CompletionStage<DocumentEntity> save(DocumentEntity entity, Duration ttl) throws NullPointerException {
+        return manager.save(entity, ttl);
+    }
+
+    @Override
+    public CompletionStage<List<DocumentEntity>> save(Iterable<DocumentEntity> entities) throws NullPointerException {
+        return manager.save(entities);
+    }
+
+    @Override
+    public CompletionStage<List<DocumentEntity>> save(Iterable<DocumentEntity> entities, Duration ttl)
+            throws NullPointerException {
+        return manager.save(entities, ttl);
+    }
+
+    @Override
+    public CompletionStage<DocumentEntity> update(DocumentEntity entity) throws NullPointerException {
+        return manager.update(entity);
+    }
+
+    @Override
+    public CompletionStage<Void> delete(DocumentDeleteQuery query) throws NullPointerException {
+        return manager.delete(query);
+    }
+
+    @Override
+    public CompletionStage<List<DocumentEntity>> find(DocumentQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        return policy.execute(() -> manager.find(query));
+    }
+
+    /**
+     * @return the hedging policy, e.g. to read its metrics
+     */
+    public HedgingPolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("HedgingDocumentCollectionManager{");
+        sb.append("manager=").append(manager);
+        sb.append(", policy=").append(policy);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.document;
+
+
+import org.jnosql.diana.api.ReplicaBalancer;
+import org.jnosql.diana.api.ReplicaPolicy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * A {@link DocumentCollectionManager} over a primary and its replicas: the writes and deletes go to the primary and
+ * the reads are balanced among the replicas by a {@link ReplicaBalancer}, which avoids the slow replicas,
+ * ejects the failing ones and fails over to another replica. When every attempt fails the read goes to the
+ * primary, unless {@link ReplicaPolicy#isFallbackToPrimary()} is false; an error that is not retryable is thrown
+ * as it is.
+ * As the replicas are updated asynchronously, a read might not see a write that has just been done.
+ */
+public final class ReplicaDocumentCollectionManager implements DocumentCollectionManager {
+
+    private final DocumentCollectionManager primary;
+
+    private final List<DocumentCollectionManager> replicas;
+
+    private final ReplicaBalancer balancer;
+
+    private ReplicaDocumentCollectionManager(DocumentCollectionManager primary,
+                                             List<DocumentCollectionManager> replicas, ReplicaBalancer balancer) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.balancer = balancer;
+    }
+
+    /**
+     * Creates a {@link ReplicaDocumentCollectionManager} with {@link ReplicaPolicy#of()}
+     *
+     * @param primary  the manager of the primary
+     * @param replicas the managers of the replicas
+     * @return a {@link ReplicaDocumentCollectionManager} instance
+     * @throws NullPointerException     when either primary, replicas or a replica are null
+     * @throws IllegalArgumentException when replicas is empty
+     */
+    public static ReplicaDocumentCollectionManager of(DocumentCollectionManager primary,
+                                                      List<DocumentCollectionManager> replicas)
+            throws NullPointerException, IllegalArgumentException {
+        return of(primary, replicas, ReplicaPolicy.of());
+    }
+
+    /**
+     * Creates a {@link ReplicaDocumentCollectionManager}
+     *
+     * @param primary  the manager of the primary
+     * @param replicas the managers of the replicas
+     * @param policy   the policy of the {@link ReplicaBalancer}
+     * @return a {@link ReplicaDocumentCollectionManager} instance
+     * @throws NullPointerException     when either primary, replicas, a replica or policy are null
+     * @throws IllegalArgumentException when replicas is empty
+     */
+    public static ReplicaDocumentCollectionManager of(DocumentCollectionManager primary,
+                                                      List<DocumentCollectionManager> replicas,
+                                                      ReplicaPolicy policy) throws NullPointerException,
+            IllegalArgumentException {
+        Objects.requireNonNull(primary, "primary is required");
+        Objects.requireNonNull(replicas, "replicas is required");
+        replicas.forEach(r -> Objects.requireNonNull(r, "replica is required"));
+        return new ReplicaDocumentCollectionManager(primary, new ArrayList<>(replicas),
+                ReplicaBalancer.of(replicas.size(), policy));
+    }
+
+    @Override
+    public DocumentEntity save(DocumentEntity entity) throws NullPointerException {
+        return primary.save(entity);
+    }
+
+    @Override
+    public DocumentEntity update(DocumentEntity entity) throws NullPointerException {
+        return primary.update(entity);
+    }
+
+    @Override
+    public DocumentEntity save(DocumentEntity entity, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        return primary.save(entity, ttl);
+    }
+
+    @Override
+    public Iterable<DocumentEntity> save(Iterable<DocumentEntity> entities) throws NullPointerException {
+        return primary.save(entities);
+    }
+
+    @Override
+    public Iterable<DocumentEntity> save(Iterable<DocumentEntity> entities, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        return primary.save(entities, ttl);
+    }
+
+    @Override
+    public void delete(DocumentDeleteQuery query) throws NullPointerException {
+        primary.delete(query);
+    }
+
+    @Override
+    public List<DocumentEntity> find(DocumentQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        try {
+            return balancer.execute(index -> replicas.get(index).find(query));
+        } catch (RuntimeException exception) {
+            ReplicaPolicy policy = balancer.getPolicy();
+            if (!policy.isFallbackToPrimary() || !policy.isRetryable(exception)) {
+                throw exception;
+            }
+            return primary.find(query);
+        }
+    }
+
+    @Override
+    public Stream<DocumentEntity> select(DocumentQuery query) throws NullPointerException {
+        return find(query).stream();
+    }
+
+    /**
+     * @return the balancer of the replicas, with the health and latency of each one
+     */
+    public ReplicaBalancer getBalancer() {
+        return balancer;
+    }
+
+    @Override
+    public void close() {
+        RuntimeException error = null;
+        List<DocumentCollectionManager> managers = new ArrayList<>(replicas);
+        managers.add(0, primary);
+        for (DocumentCollectionManager manager : managers) {
+            try {
+                manager.close();
+            } catch (RuntimeException exception) {
+                if (error == null) {
+                    error = exception;
+                } else {
+                    error.addSuppressed(exception);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ReplicaDocumentCollectionManager{");
+        sb.append("primary=").append(primary);
+        sb.append(", replicas=").append(replicas);
+        sb.append(", balancer=").append(balancer);
+        sb.append('}');
+        return sb.toString();
+    }
+}
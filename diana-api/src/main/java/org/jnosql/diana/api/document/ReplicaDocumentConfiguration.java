@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.document;
+
+
+import org.jnosql.diana.api.ReplicaPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The {@link DocumentConfiguration} of a primary and its replicas, it reads the configuration of each one and
+ * creates a {@link ReplicaDocumentCollectionManagerFactory}.
+ */
+public final class ReplicaDocumentConfiguration implements
+        DocumentConfiguration<ReplicaDocumentCollectionManagerFactory> {
+
+    private final DocumentConfiguration<?> primary;
+
+    private final List<DocumentConfiguration<?>> replicas;
+
+    private final ReplicaPolicy policy;
+
+    private ReplicaDocumentConfiguration(DocumentConfiguration<?> primary, List<DocumentConfiguration<?>> replicas,
+                                         ReplicaPolicy policy) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.policy = policy;
+    }
+
+    /**
+     * Creates a {@link ReplicaDocumentConfiguration} with {@link ReplicaPolicy#of()}
+     *
+     * @param primary  the configuration of the primary
+     * @param replicas the configurations of the replicas
+     * @return a {@link ReplicaDocumentConfiguration} instance
+     * @throws NullPointerException     when either primary, replicas or a replica are null
+     * @throws IllegalArgumentException when replicas is empty
+     */
+    public static ReplicaDocumentConfiguration of(DocumentConfiguration<?> primary,
+                                                  List<? extends DocumentConfiguration<?>> replicas)
+            throws NullPointerException, IllegalArgumentException {
+        return of(primary, replicas, ReplicaPolicy.of());
+    }
+
+    /**
+     * Creates a {@link ReplicaDocumentConfiguration}
+     *
+     * @param primary  the configuration of the primary
+     * @param replicas the configurations of the replicas
+     * @param policy   the policy of the balancers
+     * @return a {@link ReplicaDocumentConfiguration} instance
+     * @throws NullPointerException     when either primary, replicas, a replica or policy are null
+     * @throws IllegalArgumentException when replicas is empty
+     */
+    public static ReplicaDocumentConfiguration of(DocumentConfiguration<?> primary,
+                                                  List<? extends DocumentConfiguration<?>> replicas,
+                                                  ReplicaPolicy policy) throws NullPointerException,
+            IllegalArgumentException {
+        Objects.requireNonNull(primary, "primary is required");
+        Objects.requireNonNull(replicas, "replicas is required");
+        Objects.requireNonNull(policy, "policy is required");
+        replicas.forEach(r -> Objects.requireNonNull(r, "replica is required"));
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("There must be at least one replica");
+        }
+        return new ReplicaDocumentConfiguration(primary, new ArrayList<>(replicas), policy);
+    }
+
+    @Override
+    public ReplicaDocumentCollectionManagerFactory get() {
+        List<DocumentCollectionManagerFactory<?>> factories = new ArrayList<>(replicas.size());
+        replicas.forEach(r -> factories.add(r.get()));
+        return ReplicaDocumentCollectionManagerFactory.of(primary.get(), factories, policy);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ReplicaDocumentConfiguration{");
+        sb.append("primary=").append(primary);
+        sb.append(", replicas=").append(replicas);
+        sb.append(", policy=").append(policy);
+        sb.append('}');
+        return sb.toString();
+    }
+}
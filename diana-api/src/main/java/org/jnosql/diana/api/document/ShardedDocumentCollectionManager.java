@@ -0,0 +1,429 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.document;
+
+
+import org.jnosql.diana.api.Partitioner;
+import org.jnosql.diana.api.SortComparator;
+import org.jnosql.diana.api.Value;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A {@link DocumentCollectionManager} over many shards, each entity lives in the shard that the {@link Partitioner}
+ * chooses from the value of the key field. A query whose condition restricts the key field with
+ * {@link DocumentCondition#eq(Document)} or {@link DocumentCondition#in(Document)} goes only to the shards of
+ * those keys, the other queries are sent to every shard in parallel. The shards receive the query from the first entity
+ * until start plus limit, and the results are merged by {@link DocumentQuery#getSorts()} in a k-way merge that
+ * stops as soon as the page is complete.
+ */
+public final class ShardedDocumentCollectionManager implements DocumentCollectionManager {
+
+    private final List<DocumentCollectionManager> shards;
+
+    private final String keyField;
+
+    private final Partitioner partitioner;
+
+    private final Executor executor;
+
+    private final ExecutorService owned;
+
+    private ShardedDocumentCollectionManager(List<DocumentCollectionManager> shards, String keyField,
+                                             Partitioner partitioner, Executor executor, ExecutorService owned) {
+        this.shards = shards;
+        this.keyField = keyField;
+        this.partitioner = partitioner;
+        this.executor = executor;
+        this.owned = owned;
+    }
+
+    /**
+     * Creates a {@link ShardedDocumentCollectionManager} that scatters the queries on its own pool of daemon threads,
+     * bounded by the number of shards and of processors, that {@link #close()} shuts down
+     *
+     * @param shards      the managers of each shard
+     * @param keyField   the name of the document that decides the shard
+     * @param partitioner the partitioner
+     * @return a {@link ShardedDocumentCollectionManager} instance
+     * @throws NullPointerException     when any parameter is null
+     * @throws IllegalArgumentException when the number of shards is not the one of the partitioner
+     */
+    public static ShardedDocumentCollectionManager of(List<DocumentCollectionManager> shards, String keyField,
+                                                      Partitioner partitioner) throws NullPointerException,
+            IllegalArgumentException {
+        validate(shards, keyField, partitioner);
+        int threads = Math.min(shards.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "diana-shards");
+            thread.setDaemon(true);
+            return thread;
+        });
+        return new ShardedDocumentCollectionManager(new ArrayList<>(shards), keyField, partitioner, pool, pool);
+    }
+
+    /**
+     * Creates a {@link ShardedDocumentCollectionManager}
+     *
+     * @param shards      the managers of each shard
+     * @param keyField   the name of the document that decides the shard
+     * @param partitioner the partitioner
+     * @param executor    the executor that runs the queries sent to many shards, the caller keeps owning it
+     * @return a {@link ShardedDocumentCollectionManager} instance
+     * @throws NullPointerException     when any parameter is null
+     * @throws IllegalArgumentException when the number of shards is not the one of the partitioner
+     */
+    public static ShardedDocumentCollectionManager of(List<DocumentCollectionManager> shards, String keyField,
+                                                      Partitioner partitioner, Executor executor)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(executor, "executor is required");
+        validate(shards, keyField, partitioner);
+        return new ShardedDocumentCollectionManager(new ArrayList<>(shards), keyField, partitioner, executor, null);
+    }
+
+    private static void validate(List<DocumentCollectionManager> shards, String keyField, Partitioner partitioner) {
+        Objects.requireNonNull(shards, "shards is required");
+        Objects.requireNonNull(keyField, "keyField is required");
+        Objects.requireNonNull(partitioner, "partitioner is required");
+        shards.forEach(s -> Objects.requireNonNull(s, "shard is required"));
+        if (shards.size() != partitioner.getShards()) {
+            throw new IllegalArgumentException("The partitioner has " + partitioner.getShards()
+                    + " shards but there are " + shards.size() + " managers");
+        }
+    }
+
+    @Override
+    public DocumentEntity save(DocumentEntity entity) throws NullPointerException {
+        return shard(entity).save(entity);
+    }
+
+    @Override
+    public DocumentEntity update(DocumentEntity entity) throws NullPointerException {
+        return shard(entity).update(entity);
+    }
+
+    @Override
+    public DocumentEntity save(DocumentEntity entity, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        Objects.requireNonNull(ttl, "ttl is required");
+        return shard(entity).save(entity, ttl);
+    }
+
+    @Override
+    public Iterable<DocumentEntity> save(Iterable<DocumentEntity> entities) throws NullPointerException {
+        return saveAll(entities, DocumentCollectionManager::save);
+    }
+
+    @Override
+    public Iterable<DocumentEntity> save(Iterable<DocumentEntity> entities, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        Objects.requireNonNull(ttl, "ttl is required");
+        return saveAll(entities, (shard, group) -> shard.save(group, ttl));
+    }
+
+    @Override
+    public void delete(DocumentDeleteQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        scatter(targets(query.getCondition()), shard -> {
+            shards.get(shard).delete(query);
+            return null;
+        });
+    }
+
+    @Override
+    public List<DocumentEntity> find(DocumentQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        Set<Integer> targets = targets(query.getCondition());
+        if (targets.size() == 1) {
+            return shards.get(targets.iterator().next()).find(query);
+        }
+        DocumentQuery shardQuery = shardQuery(query);
+        List<List<DocumentEntity>> results = scatter(targets, shard -> shards.get(shard).find(shardQuery));
+        return merge(results, query);
+    }
+
+    /**
+     * @return the number of shards
+     */
+    public int getShards() {
+        return shards.size();
+    }
+
+    /**
+     * Returns the shard of a key
+     *
+     * @param key the value of the key field
+     * @return the shard
+     * @throws NullPointerException     when key is null
+     * @throws IllegalArgumentException when the type of the key does not have a stable encoding
+     */
+    public int partition(Object key) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(key, "key is required");
+        return partitioner.partition(Value.of(key));
+    }
+
+    @Override
+    public void close() {
+        RuntimeException error = null;
+        if (owned != null) {
+            owned.shutdown();
+        }
+        for (DocumentCollectionManager shard : shards) {
+            try {
+                shard.close();
+            } catch (RuntimeException exception) {
+                if (error == null) {
+                    error = exception;
+                } else {
+                    error.addSuppressed(exception);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private DocumentCollectionManager shard(DocumentEntity entity) {
+        Objects.requireNonNull(entity, "entity is required");
+        return shards.get(partition(entity));
+    }
+
+    private int partition(DocumentEntity entity) {
+        Document key = entity.find(keyField).orElseThrow(() ->
+                new IllegalArgumentException("The entity does not have the key field " + keyField));
+        return partitioner.partition(key.getValue());
+    }
+
+    private Iterable<DocumentEntity> saveAll(Iterable<DocumentEntity> entities, ShardWriter writer) {
+        Objects.requireNonNull(entities, "entities is required");
+        List<List<DocumentEntity>> groups = new ArrayList<>();
+        List<List<Integer>> positions = new ArrayList<>();
+        shards.forEach(s -> {
+            groups.add(new ArrayList<>());
+            positions.add(new ArrayList<>());
+        });
+        int position = 0;
+        for (DocumentEntity entity : entities) {
+            Objects.requireNonNull(entity, "entity is required");
+            int shard = partition(entity);
+            groups.get(shard).add(entity);
+            positions.get(shard).add(position++);
+        }
+        Set<Integer> targets = IntStream.range(0, shards.size()).filter(i -> !groups.get(i).isEmpty()).boxed()
+                .collect(Collectors.toCollection(TreeSet::new));
+        List<Integer> order = new ArrayList<>(targets);
+        List<Iterable<DocumentEntity>> saved = scatter(targets, s -> writer.save(shards.get(s), groups.get(s)));
+        DocumentEntity[] result = new DocumentEntity[position];
+        List<DocumentEntity> unordered = new ArrayList<>();
+        for (int index = 0; index < order.size(); index++) {
+            List<Integer> shardPositions = positions.get(order.get(index));
+            Iterator<DocumentEntity> iterator = saved.get(index).iterator();
+            for (int shardPosition : shardPositions) {
+                if (!iterator.hasNext()) {
+                    break;
+                }
+                result[shardPosition] = iterator.next();
+                unordered.add(result[shardPosition]);
+            }
+        }
+        if (unordered.size() == position) {
+            List<DocumentEntity> ordered = new ArrayList<>(position);
+            Collections.addAll(ordered, result);
+            return ordered;
+        }
+        return unordered;
+    }
+
+    private Set<Integer> targets(Optional<DocumentCondition> condition) {
+        return condition.flatMap(this::targets).orElseGet(() -> IntStream.range(0, shards.size()).boxed()
+                .collect(Collectors.toCollection(TreeSet::new)));
+    }
+
+    private Optional<Set<Integer>> targets(DocumentCondition condition) {
+        Document document = condition.getDocument();
+        switch (condition.getCondition()) {
+            case EQUALS:
+                if (keyField.equals(document.getName())) {
+                    int shard = partitioner.partition(document.getValue());
+                    return Optional.of(new TreeSet<>(Collections.singleton(shard)));
+                }
+                return Optional.empty();
+            case IN:
+                if (keyField.equals(document.getName()) && document.get() instanceof Iterable) {
+                    Set<Integer> targets = new TreeSet<>();
+                    ((Iterable<?>) document.get()).forEach(v -> targets.add(partitioner.partition(Value.of(v))));
+                    return Optional.of(targets);
+                }
+                return Optional.empty();
+            case AND:
+                Set<Integer> intersection = null;
+                for (DocumentCondition child : conditions(document)) {
+                    Optional<Set<Integer>> targets = targets(child);
+                    if (targets.isPresent()) {
+                        if (intersection == null) {
+                            intersection = targets.get();
+                        } else {
+                            intersection.retainAll(targets.get());
+                        }
+                    }
+                }
+                return Optional.ofNullable(intersection);
+            case OR:
+                Set<Integer> union = new TreeSet<>();
+                for (DocumentCondition child : conditions(document)) {
+                    Optional<Set<Integer>> targets = targets(child);
+                    if (!targets.isPresent()) {
+                        return Optional.empty();
+                    }
+                    union.addAll(targets.get());
+                }
+                return Optional.of(union);
+            default:
+                return Optional.empty();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Iterable<DocumentCondition> conditions(Document document) {
+        return (Iterable<DocumentCondition>) document.get();
+    }
+
+    private <T> List<T> scatter(Set<Integer> targets, IntFunction<T> operation) {
+        if (targets.size() == 1) {
+            return Collections.singletonList(operation.apply(targets.iterator().next()));
+        }
+        List<CompletableFuture<T>> futures = targets.stream()
+                .map(i -> CompletableFuture.supplyAsync(() -> operation.apply(i), executor))
+                .collect(Collectors.toList());
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw exception;
+        }
+        return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    }
+
+    private DocumentQuery shardQuery(DocumentQuery query) {
+        DocumentQuery shardQuery = DocumentQuery.of(query.getCollection());
+        query.getCondition().ifPresent(shardQuery::and);
+        query.getDocuments().forEach(shardQuery::addColumn);
+        query.getSorts().forEach(shardQuery::addSort);
+        if (query.getLimit() > 0) {
+            shardQuery.setLimit(Math.max(query.getStart(), 0) + query.getLimit());
+        }
+        return shardQuery;
+    }
+
+    private List<DocumentEntity> merge(List<List<DocumentEntity>> results, DocumentQuery query) {
+        long skip = Math.max(query.getStart(), 0);
+        long limit = query.getLimit() > 0 ? query.getLimit() : Long.MAX_VALUE;
+        List<DocumentEntity> merged = new ArrayList<>();
+        if (query.getSorts().isEmpty()) {
+            for (List<DocumentEntity> result : results) {
+                for (DocumentEntity entity : result) {
+                    if (merged.size() == limit) {
+                        return merged;
+                    }
+                    if (skip > 0) {
+                        skip--;
+                    } else {
+                        merged.add(entity);
+                    }
+                }
+            }
+            return merged;
+        }
+        SortComparator<DocumentEntity> comparator = SortComparator.of(query.getSorts(),
+                (entity, name) -> entity.find(name).map(Document::getValue));
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(results.size(), 1),
+                Comparator.comparing((Head h) -> h.entity, comparator).thenComparingInt(h -> h.shard));
+        for (int shard = 0; shard < results.size(); shard++) {
+            Iterator<DocumentEntity> iterator = results.get(shard).iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Head(shard, iterator));
+            }
+        }
+        while (!heads.isEmpty() && merged.size() < limit) {
+            Head head = heads.poll();
+            if (skip > 0) {
+                skip--;
+            } else {
+                merged.add(head.entity);
+            }
+            if (head.iterator.hasNext()) {
+                heads.add(new Head(head.shard, head.iterator));
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ShardedDocumentCollectionManager{");
+        sb.append("shards=").append(shards);
+        sb.append(", keyField='").append(keyField).append('\'');
+        sb.append(", partitioner=").append(partitioner);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private interface ShardWriter {
+
+        Iterable<DocumentEntity> save(DocumentCollectionManager shard, List<DocumentEntity> entities);
+    }
+
+    private static final class Head {
+
+        private final int shard;
+
+        private final Iterator<DocumentEntity> iterator;
+
+        private final DocumentEntity entity;
+
+        private Head(int shard, Iterator<DocumentEntity> iterator) {
+            this.shard = shard;
+            this.iterator = iterator;
+            this.entity = iterator.next();
+        }
+    }
+}
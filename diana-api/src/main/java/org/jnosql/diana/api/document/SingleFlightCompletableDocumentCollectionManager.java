@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.document;
+
+
+import org.jnosql.diana.api.SingleFlight;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+
+/**
+ * The {@link CompletableDocumentCollectionManager} version of {@link SingleFlightDocumentCollectionManager}, the equal
+ * queries in flight share one call to the manager.
+ * A {@link DocumentCollectionManagerAsync} can be decorated with
+ * {@code SingleFlightCompletableDocumentCollectionManager.of(CompletableDocumentCollectionManager.of(async)).toAsync()}.
+ */
+public final class SingleFlightCompletableDocumentCollectionManager implements CompletableDocumentCollectionManager {
+
+    private final CompletableDocumentCollectionManager manager;
+
+    private final SingleFlight<ByteBuffer> flight = SingleFlight.of();
+
+    private SingleFlightCompletableDocumentCollectionManager(CompletableDocumentCollectionManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Creates a {@link SingleFlightCompletableDocumentCollectionManager}
+     *
+     * @param manager the manager
+     * @return a {@link SingleFlightCompletableDocumentCollectionManager} instance
+     * @throws NullPointerException when manager is null
+     */
+    public static SingleFlightCompletableDocumentCollectionManager of(CompletableDocumentCollectionManager manager)
+            throws NullPointerException {
+        Objects.requireNonNull(manager, "manager is required");
+        return new SingleFlightCompletableDocumentCollectionManager(manager);
+    }
+
+    @Override
+    public CompletionStage<DocumentEntity> save(DocumentEntity entity) throws NullPointerException {
+        return manager.save(entity);
+    }
+
+    @Override
+    public CompletionStage<DocumentEntity> save(DocumentEntity entity, Duration ttl) throws NullPointerException {
+        return manager.save(entity, ttl);
+    }
+
+    @Override
+    public CompletionStage<List<DocumentEntity>> save(Iterable<DocumentEntity> entities) throws NullPointerException {
+        return manager.save(entities);
+    }
+
+    @Override
+    public CompletionStage<List<DocumentEntity>> save(Iterable<DocumentEntity> entities, Duration ttl)
+            throws NullPointerException {
+        return manager.save(entities, ttl);
+    }
+
+    @Override
+    public CompletionStage<DocumentEntity> update(DocumentEntity entity) throws NullPointerException {
+        return manager.update(entity);
+    }
+
+    @Override
+    public CompletionStage<Void> delete(DocumentDeleteQuery query) throws NullPointerException {
+        return manager.delete(query);
+    }
+
+    @Override
+    public CompletionStage<List<DocumentEntity>> find(DocumentQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        Optional<ByteBuffer> key = SingleFlightDocumentCollectionManager.key(query);
+        if (!key.isPresent()) {
+            return manager.find(query);
+        }
+        return flight.executeAsync(key.get(), () -> manager.find(query))
+                .thenApply(entities -> entities.stream().map(DocumentEntity::copy).collect(Collectors.toList()));
+    }
+
+    /**
+     * @return the single flight, e.g. to read its metrics
+     */
+    public SingleFlight<ByteBuffer> getFlight() {
+        return flight;
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SingleFlightCompletableDocumentCollectionManager{");
+        sb.append("manager=").append(manager);
+        sb.append(", flight=").append(flight);
+        sb.append('}');
+        return sb.toString();
+    }
+}
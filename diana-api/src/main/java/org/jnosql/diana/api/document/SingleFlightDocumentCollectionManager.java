@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.document;
+
+
+import org.jnosql.diana.api.SingleFlight;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A {@link DocumentCollectionManager} decorator that deduplicates identical queries in flight with a
+ * {@link SingleFlight}: while a query runs, the equal queries from other threads wait for it and share its result.
+ * The queries are compared by their canonical form, the bytes of {@link DocumentQueryCodec}, a query whose values
+ * cannot be encoded goes straight to the manager. Each caller receives its own copies of the entities.
+ * The writes and {@link DocumentCollectionManager#select(DocumentQuery)} go straight to the manager.
+ */
+public final class SingleFlightDocumentCollectionManager implements DocumentCollectionManager {
+
+    private final DocumentCollectionManager manager;
+
+    private final SingleFlight<ByteBuffer> flight = SingleFlight.of();
+
+    private SingleFlightDocumentCollectionManager(DocumentCollectionManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Creates a {@link SingleFlightDocumentCollectionManager}
+     *
+     * @param manager the manager
+     * @return a {@link SingleFlightDocumentCollectionManager} instance
+     * @throws NullPointerException when manager is null
+     */
+    public static SingleFlightDocumentCollectionManager of(DocumentCollectionManager manager)
+            throws NullPointerException {
+        Objects.requireNonNull(manager, "manager is required");
+        return new SingleFlightDocumentCollectionManager(manager);
+    }
+
+    @Override
+    public DocumentEntity save(DocumentEntity entity) throws NullPointerException {
+        return manager.save(entity);
+    }
+
+    @Override
+    public DocumentEntity update(DocumentEntity entity) throws NullPointerException {
+        return manager.update(entity);
+    }
+
+    @Override
+    public DocumentEntity save(DocumentEntity entity, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        return manager.save(entity, ttl);
+    }
+
+    @Override
+    public Iterable<DocumentEntity> save(Iterable<DocumentEntity> entities) throws NullPointerException {
+        return manager.save(entities);
+    }
+
+    @Override
+    public Iterable<DocumentEntity> save(Iterable<DocumentEntity> entities, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        return manager.save(entities, ttl);
+    }
+
+    @Override
+    public void delete(DocumentDeleteQuery query) throws NullPointerException {
+        manager.delete(query);
+    }
+
+    @Override
+    public List<DocumentEntity> find(DocumentQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        Optional<ByteBuffer> key = key(query);
+        if (!key.isPresent()) {
+            return manager.find(query);
+        }
+        return flight.execute(key.get(), () -> manager.find(query)).stream().map(DocumentEntity::copy)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<DocumentEntity> select(DocumentQuery query) throws NullPointerException {
+        return manager.select(query);
+    }
+
+    /**
+     * @return the single flight, e.g. to read its metrics
+     */
+    public SingleFlight<ByteBuffer> getFlight() {
+        return flight;
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    static Optional<ByteBuffer> key(DocumentQuery query) {
+        try {
+            return Optional.of(ByteBuffer.wrap(DocumentQueryCodec.encode(query)));
+        } catch (IllegalArgumentException exception) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SingleFlightDocumentCollectionManager{");
+        sb.append("manager=").append(manager);
+        sb.append(", flight=").append(flight);
+        sb.append('}');
+        return sb.toString();
+    }
+}
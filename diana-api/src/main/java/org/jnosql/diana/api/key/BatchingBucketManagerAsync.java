@@ -0,0 +1,152 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.key;
+
+
+import org.jnosql.diana.api.BatchLoader;
+import org.jnosql.diana.api.Value;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A {@link BucketManagerAsync} that collapses the concurrent gets of single keys into one
+ * {@link BucketManagerAsync#getAll(Iterable)} with a {@link BatchLoader}, the other operations go straight
+ * to the manager. The gets are only collapsed when {@link BucketManagerAsync#isBulkGet()} of the manager is
+ * true, otherwise its getAll runs one get per key and a batch would still make a call to the database for each
+ * key.
+ */
+public final class BatchingBucketManagerAsync implements BucketManagerAsync {
+
+    private final BucketManagerAsync manager;
+
+    private final BatchLoader<Object, Value> loader;
+
+    private final boolean batching;
+
+    private BatchingBucketManagerAsync(BucketManagerAsync manager, Duration window, int maxBatchSize) {
+        this.manager = manager;
+        this.loader = BatchLoader.of(manager::getAll, window, maxBatchSize);
+        this.batching = manager.isBulkGet();
+    }
+
+    /**
+     * Creates a {@link BatchingBucketManagerAsync}
+     *
+     * @param manager      the manager
+     * @param window       the time that a batch waits for more keys
+     * @param maxBatchSize the maximum number of keys in a batch
+     * @return a {@link BatchingBucketManagerAsync} instance
+     * @throws NullPointerException     when either manager or window are null
+     * @throws IllegalArgumentException when maxBatchSize is lesser than one or window is negative
+     */
+    public static BatchingBucketManagerAsync of(BucketManagerAsync manager, Duration window, int maxBatchSize)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(manager, "manager is required");
+        return new BatchingBucketManagerAsync(manager, window, maxBatchSize);
+    }
+
+    @Override
+    public <K, V> CompletionStage<Void> put(K key, V value) throws NullPointerException {
+        return manager.put(key, value);
+    }
+
+    @Override
+    public <K> CompletionStage<Void> put(KeyValueEntity<K> entity) throws NullPointerException {
+        return manager.put(entity);
+    }
+
+    @Override
+    public <K> CompletionStage<Void> put(KeyValueEntity<K> entity, Duration ttl) throws NullPointerException {
+        return manager.put(entity, ttl);
+    }
+
+    @Override
+    public <K> CompletionStage<Void> put(Iterable<KeyValueEntity<K>> entities) throws NullPointerException {
+        return manager.put(entities);
+    }
+
+    @Override
+    public <K> CompletionStage<Void> put(Iterable<KeyValueEntity<K>> entities, Duration ttl)
+            throws NullPointerException {
+        return manager.put(entities, ttl);
+    }
+
+    @Override
+    public <K> CompletionStage<Optional<Value>> get(K key) throws NullPointerException {
+        if (!batching) {
+            return manager.get(key);
+        }
+        return loader.load(key);
+    }
+
+    @Override
+    public <K> CompletionStage<Iterable<Value>> get(Iterable<K> keys) throws NullPointerException {
+        return manager.get(keys);
+    }
+
+    @Override
+    public <K> CompletionStage<Void> remove(K key) throws NullPointerException {
+        return manager.remove(key);
+    }
+
+    @Override
+    public <K> CompletionStage<Void> remove(Iterable<K> keys) throws NullPointerException {
+        return manager.remove(keys);
+    }
+
+    /**
+     * @return the batch loader, e.g. to read its metrics
+     */
+    public BatchLoader<Object, Value> getLoader() {
+        return loader;
+    }
+
+    /**
+     * @return true when the gets are collapsed, that is when {@link BucketManagerAsync#isBulkGet()} of the
+     * manager is true
+     */
+    public boolean isBatching() {
+        return batching;
+    }
+
+    @Override
+    public boolean isBulkGet() {
+        return manager.isBulkGet();
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BatchingBucketManagerAsync{");
+        sb.append("manager=").append(manager);
+        sb.append(", loader=").append(loader);
+        sb.append(", batching=").append(batching);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.key;
+
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * A {@link java.util.List} stored in a {@link BucketManager}, a reference implementation of
+ * {@link BucketManagerFactory#getList(String, Class)}. The elements are stored in chunks under their own keys,
+ * so adding to the end or removing the first element reads and writes a single chunk whatever the size of the
+ * list; a get reads a chunk, and the iterator reads each chunk once. Adding or removing in the middle shifts the
+ * elements after the index a chunk at a time.
+ * <p>It is thread safe and does not accept null elements. The list lives in the bucket, so opening it again
+ * with the same name and manager, e.g. after a restart of a durable manager, returns the same elements; it must
+ * not be used through two instances at the same time.</p>
+ *
+ * @param <T> the type of the elements
+ */
+public final class BucketList<T> extends AbstractList<T> {
+
+    private final BucketSequence<T> sequence;
+
+    private final String name;
+
+    private BucketList(BucketManager manager, String name, Class<T> clazz) {
+        this.sequence = new BucketSequence<>(manager, "list:" + name, clazz);
+        this.name = name;
+    }
+
+    /**
+     * Opens a {@link BucketList}
+     *
+     * @param manager the manager where the list is stored
+     * @param name    the name of the list
+     * @param clazz   the type of the elements
+     * @param <T>     the type of the elements
+     * @return a {@link BucketList} instance
+     * @throws NullPointerException when either manager, name or clazz are null
+     */
+    public static <T> BucketList<T> of(BucketManager manager, String name, Class<T> clazz)
+            throws NullPointerException {
+        Objects.requireNonNull(manager, "manager is required");
+        Objects.requireNonNull(name, "name is required");
+        Objects.requireNonNull(clazz, "clazz is required");
+        return new BucketList<>(manager, name, clazz);
+    }
+
+    @Override
+    public T get(int index) {
+        return sequence.get(index);
+    }
+
+    @Override
+    public T set(int index, T element) {
+        return sequence.set(index, element);
+    }
+
+    @Override
+    public boolean add(T element) {
+        sequence.addLast(element);
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> elements) {
+        return sequence.addLast(new ArrayList<>(elements)) > 0;
+    }
+
+    @Override
+    public void add(int index, T element) {
+        if (index == size()) {
+            sequence.addLast(element);
+        } else {
+            sequence.add(index, element);
+        }
+    }
+
+    @Override
+    public T remove(int index) {
+        return sequence.remove(index);
+    }
+
+    @Override
+    public void clear() {
+        sequence.clear();
+    }
+
+    @Override
+    public int size() {
+        return sequence.size();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return sequence.iterator();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BucketList{");
+        sb.append("name='").append(name).append('\'');
+        sb.append(", size=").append(size());
+        sb.append('}');
+        return sb.toString();
+    }
+}
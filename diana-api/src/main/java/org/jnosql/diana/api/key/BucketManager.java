@@ -24,7 +24,11 @@ package org.jnosql.diana.api.key;
 import org.jnosql.diana.api.Value;
 
 import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * Interface used to interact with the persistence context to {@link KeyValueEntity}
@@ -45,7 +49,22 @@ public interface BucketManager extends AutoCloseable {
     <K, V> void put(K key, V value) throws NullPointerException;
 
     /**
-     * Saves the {@link KeyValueEntity}
+     * Associates the specified value with the long key, without boxing it when the engine supports primitive keys.
+     * By default it boxes the key and calls {@link BucketManager#put(Object, Object)},
+     * each NoSQL vendor might replace to a more appropriate one.
+     *
+     * @param key   the key
+     * @param value the value
+     * @param <V>   the value type
+     * @throws NullPointerException when value is null
+     */
+    default <V> void putLong(long key, V value) throws NullPointerException {
+        put(Long.valueOf(key), value);
+    }
+
+    /**
+     * Saves the {@link KeyValueEntity}, a {@link LongKeyValueEntity} saves a long key without boxing it when the
+     * engine supports primitive keys
      *
      * @param entity the entity to be save
      * @param <K>      the key type
@@ -94,6 +113,36 @@ public interface BucketManager extends AutoCloseable {
      */
     <K> Optional<Value> get(K key) throws NullPointerException;
 
+    /**
+     * Finds the Value from a long key, without boxing it when the engine supports primitive keys.
+     * By default it boxes the key and calls {@link BucketManager#get(Object)},
+     * each NoSQL vendor might replace to a more appropriate one.
+     *
+     * @param key the key
+     * @return the {@link Optional} when is not found will return a {@link Optional#empty()}
+     */
+    default Optional<Value> getLong(long key) {
+        return get(Long.valueOf(key));
+    }
+
+    /**
+     * Finds the values from long keys, by position so the missing keys can be told apart.
+     * By default it's just run for each key using {@link BucketManager#getLong(long)},
+     * each NoSQL vendor might replace to a more appropriate one.
+     *
+     * @param keys the keys to be used in this query
+     * @return an array with the value of the key at the same index, or null when it is not found
+     * @throws NullPointerException when keys is null
+     */
+    default Value[] getLong(long[] keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        Value[] values = new Value[keys.length];
+        for (int index = 0; index < keys.length; index++) {
+            values[index] = getLong(keys[index]).orElse(null);
+        }
+        return values;
+    }
+
     /**
      * Finds a list of values from keys
      *
@@ -104,6 +153,133 @@ public interface BucketManager extends AutoCloseable {
      */
     <K> Iterable<Value> get(Iterable<K> keys) throws NullPointerException;
 
+    /**
+     * Finds the values from keys and returns them by key, so the missing keys can be told apart.
+     * By default it's just run for each key using {@link BucketManager#get(Object)},
+     * each NoSQL vendor might replace to a more appropriate one.
+     *
+     * @param keys the keys to be used in this query
+     * @param <K>  the key type
+     * @return the values found by key, a missing key has no entry
+     * @throws NullPointerException when the keys is null
+     */
+    default <K> Map<K, Value> getAll(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        Map<K, Value> values = new LinkedHashMap<>();
+        for (K key : keys) {
+            get(key).ifPresent(v -> values.put(key, v));
+        }
+        return values;
+    }
+
+    /**
+     * Returns whether {@link BucketManager#getAll(Iterable)} reads the keys in a single call to the database,
+     * so the gets of many keys can be collapsed into it. False by default, since the default getAll runs
+     * {@link BucketManager#get(Object)} for each key; a NoSQL vendor that replaces it with a bulk read returns true.
+     *
+     * @return true when getAll is a bulk read
+     */
+    default boolean isBulkGet() {
+        return false;
+    }
+
+    /**
+     * Saves the value when the key has none.
+     * By default it's a {@link BucketManager#get(Object)} followed by a {@link BucketManager#put(Object, Object)},
+     * so it is not atomic: a concurrent write between them is overwritten;
+     * each NoSQL vendor might replace to an atomic operation.
+     *
+     * @param key   the key
+     * @param value the value
+     * @param <K>   the key type
+     * @param <V>   the value type
+     * @return the current value, or {@link Optional#empty()} when the value was saved
+     * @throws NullPointerException when either key or value are null
+     */
+    default <K, V> Optional<Value> putIfAbsent(K key, V value) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(value, "value is required");
+        Optional<Value> current = get(key);
+        if (!current.isPresent()) {
+            put(key, value);
+        }
+        return current;
+    }
+
+    /**
+     * Saves the value when the current value of the key is equal to the expected one, a compare-and-set.
+     * By default it's a {@link BucketManager#get(Object)} followed by a {@link BucketManager#put(Object, Object)},
+     * so it is not atomic: a concurrent write between them is overwritten;
+     * each NoSQL vendor might replace to an atomic operation.
+     *
+     * @param key      the key
+     * @param expected the value the key must have, either a {@link Value} or the object it holds
+     * @param value    the new value
+     * @param <K>      the key type
+     * @param <V>      the value type
+     * @return true when the value was saved
+     * @throws NullPointerException when either key, expected or value are null
+     */
+    default <K, V> boolean replace(K key, V expected, V value) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(expected, "expected is required");
+        Objects.requireNonNull(value, "value is required");
+        Object current = get(key).map(Value::get).orElse(null);
+        if (current != null && current.equals(expected instanceof Value ? ((Value) expected).get() : expected)) {
+            put(key, value);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Computes the new value of the key from its current one, a null new value removes the key.
+     * By default it's a {@link BucketManager#get(Object)} followed by a {@link BucketManager#put(KeyValueEntity)}
+     * or a {@link BucketManager#remove(Object)}, so it is not atomic: a concurrent write between them is
+     * overwritten; each NoSQL vendor might replace to an atomic operation, which may run the function while it
+     * holds a lock, so the function must be short and must not use this manager.
+     *
+     * @param key       the key
+     * @param remapping the function from the current value, or {@link Optional#empty()}, to the new value
+     * @param <K>       the key type
+     * @return the new value, or {@link Optional#empty()} when the key was removed
+     * @throws NullPointerException when either key or remapping are null
+     */
+    default <K> Optional<Value> compute(K key, Function<Optional<Value>, ?> remapping) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(remapping, "remapping is required");
+        Object result = remapping.apply(get(key));
+        if (result == null) {
+            remove(key);
+            return Optional.empty();
+        }
+        Value value = result instanceof Value ? (Value) result : Value.of(result);
+        put(KeyValueEntity.of(key, value));
+        return Optional.of(value);
+    }
+
+    /**
+     * Adds the delta to the long value of the key, a missing key counts as zero.
+     * By default it's a {@link BucketManager#get(Object)} followed by a {@link BucketManager#put(Object, Object)},
+     * so it is not atomic: a concurrent increment between them is lost;
+     * each NoSQL vendor might replace to an atomic operation.
+     *
+     * @param key   the key
+     * @param delta the amount to add, negative to subtract
+     * @param <K>   the key type
+     * @return the new value
+     * @throws NullPointerException          when key is null
+     * @throws UnsupportedOperationException when the current value cannot be read as a {@link Long}
+     * @throws ArithmeticException           when the new value overflows a long
+     */
+    default <K> long increment(K key, long delta) throws NullPointerException, UnsupportedOperationException,
+            ArithmeticException {
+        Objects.requireNonNull(key, "key is required");
+        long value = Math.addExact(get(key).map(v -> v.get(Long.class)).orElse(0L), delta);
+        put(key, value);
+        return value;
+    }
+
     /**
      * Removes an entity from key
      *
@@ -113,6 +289,17 @@ public interface BucketManager extends AutoCloseable {
      */
     <K> void remove(K key) throws NullPointerException;
 
+    /**
+     * Removes an entity from a long key, without boxing it when the engine supports primitive keys.
+     * By default it boxes the key and calls {@link BucketManager#remove(Object)},
+     * each NoSQL vendor might replace to a more appropriate one.
+     *
+     * @param key the key bo be used
+     */
+    default void removeLong(long key) {
+        remove(Long.valueOf(key));
+    }
+
     /**
      * Removes entities from keys
      *
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.key;
+
+
+import org.jnosql.diana.api.AsyncExecutor;
+import org.jnosql.diana.api.Value;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * The asynchronous version of {@link BucketManager}, each operation returns a {@link CompletionStage}
+ * that completes when the operation is done or completes exceptionally when it fails.
+ *
+ * @see BucketManager
+ */
+public interface BucketManagerAsync extends AutoCloseable {
+
+    /**
+     * Associates the specified value with the specified key and than storage
+     *
+     * @param key   the key
+     * @param value the value
+     * @param <K>   the key type
+     * @param <V>   the value type
+     * @return the stage that completes when the value is stored
+     * @throws NullPointerException when either key or value are null
+     */
+    <K, V> CompletionStage<Void> put(K key, V value) throws NullPointerException;
+
+    /**
+     * Saves the {@link KeyValueEntity}
+     *
+     * @param entity the entity to be save
+     * @param <K>    the key type
+     * @return the stage that completes when the entity is stored
+     * @throws NullPointerException when entity is null
+     */
+    <K> CompletionStage<Void> put(KeyValueEntity<K> entity) throws NullPointerException;
+
+    /**
+     * Saves the {@link KeyValueEntity} with time to live
+     *
+     * @param entity the entity to be save
+     * @param ttl    the defined time to live
+     * @param <K>    the key type
+     * @return the stage that completes when the entity is stored
+     * @throws NullPointerException when entity is null
+     */
+    <K> CompletionStage<Void> put(KeyValueEntity<K> entity, Duration ttl) throws NullPointerException;
+
+    /**
+     * Saves the {@link Iterable} of keys
+     *
+     * @param entities keys to be save
+     * @param <K>      the key type
+     * @return the stage that completes when the entities are stored
+     * @throws NullPointerException when the iterable is null
+     */
+    <K> CompletionStage<Void> put(Iterable<KeyValueEntity<K>> entities) throws NullPointerException;
+
+    /**
+     * Saves the {@link Iterable} of keys with a defined time to live
+     *
+     * @param entities keys to be save
+     * @param ttl      the time to entity expire
+     * @param <K>      the key type
+     * @return the stage that completes when the entities are stored
+     * @throws NullPointerException when the iterable is null
+     */
+    <K> CompletionStage<Void> put(Iterable<KeyValueEntity<K>> entities, Duration ttl) throws NullPointerException;
+
+    /**
+     * Finds the Value from a key
+     *
+     * @param key the key
+     * @param <K> the key type
+     * @return the stage of the value or {@link Optional#empty()} when it is not found
+     * @throws NullPointerException when the key is null
+     */
+    <K> CompletionStage<Optional<Value>> get(K key) throws NullPointerException;
+
+    /**
+     * Finds a list of values from keys
+     *
+     * @param keys the keys to be used in this query
+     * @param <K>  the key type
+     * @return the stage of the values found
+     * @throws NullPointerException when either the keys or the entities values are null
+     */
+    <K> CompletionStage<Iterable<Value>> get(Iterable<K> keys) throws NullPointerException;
+
+    /**
+     * Finds the values from keys and returns them by key, by default it runs
+     * {@link BucketManagerAsync#get(Object)} for each key concurrently
+     *
+     * @param keys the keys to be used in this query
+     * @param <K>  the key type
+     * @return the stage of the values found by key, a missing key has no entry
+     * @throws NullPointerException when the keys is null
+     * @see BucketManager#getAll(Iterable)
+     */
+    default <K> CompletionStage<Map<K, Value>> getAll(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        Map<K, CompletableFuture<Optional<Value>>> futures = new LinkedHashMap<>();
+        for (K key : keys) {
+            futures.put(key, get(key).toCompletableFuture());
+        }
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[futures.size()]))
+                .thenApply(v -> {
+                    Map<K, Value> values = new LinkedHashMap<>();
+                    futures.forEach((key, value) -> value.join().ifPresent(e -> values.put(key, e)));
+                    return values;
+                });
+    }
+
+    /**
+     * Returns whether {@link BucketManagerAsync#getAll(Iterable)} reads the keys in a single call to the database,
+     * so the gets of many keys can be collapsed into it. False by default, since the default getAll runs
+     * {@link BucketManagerAsync#get(Object)} for each key; a NoSQL vendor that replaces it with a bulk read returns
+     * true.
+     *
+     * @return true when getAll is a bulk read
+     * @see BucketManager#isBulkGet()
+     */
+    default boolean isBulkGet() {
+        return false;
+    }
+
+    /**
+     * Removes an entity from key
+     *
+     * @param key the key bucket name
+     * @param <K> the key type
+     * @return the stage that completes when the key is removed
+     * @throws NullPointerException when the key is null
+     */
+    <K> CompletionStage<Void> remove(K key) throws NullPointerException;
+
+    /**
+     * Removes entities from keys
+     *
+     * @param keys the keys to be removed
+     * @param <K>  the key type
+     * @return the stage that completes when the keys are removed
+     * @throws NullPointerException when the key is null
+     */
+    <K> CompletionStage<Void> remove(Iterable<K> keys) throws NullPointerException;
+
+    /**
+     * closes a resource
+     */
+    void close();
+
+    /**
+     * Creates a {@link BucketManagerAsync} that runs each operation of a {@link BucketManager}
+     * in an {@link AsyncExecutor}
+     *
+     * @param manager  the sync manager
+     * @param executor the executor that runs the blocking calls
+     * @return a {@link BucketManagerAsync} instance
+     * @throws NullPointerException when either manager or executor are null
+     */
+    static BucketManagerAsync of(BucketManager manager, AsyncExecutor executor) throws NullPointerException {
+        return new ExecutorBucketManagerAsync(manager, executor);
+    }
+}
@@ -0,0 +1,433 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.key;
+
+
+import org.jnosql.diana.api.Value;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A {@link Map} stored in a {@link BucketManager}, a reference implementation of
+ * {@link BucketManagerFactory#getMap(String, Class, Class)}. The entries are spread by the hash of the key among
+ * partitions stored under their own keys, and the partitions grow by linear hashing: when the map has more than
+ * {@link #LOAD} entries by partition, a put splits a single partition in two. So a get reads one partition and a
+ * put or a remove writes one partition and the counters, whatever the size of the map.
+ * <p>The writes lock the stripe of their partition, so the writes to other partitions run in parallel, and a split
+ * locks the whole map. The iterators read a partition at a time and are weakly consistent.</p>
+ * <p>It does not accept null keys or values. The partition of a key is persisted, so the hash code of the keys
+ * must be computed from their value and be the same in every JVM, as the one of strings, numbers and dates; keys
+ * that use the identity hash code of {@link Object} or a hash code that changes between runs would be looked for in
+ * the wrong partition after a restart. A split writes the new partition, the counters and the old partition in a
+ * single {@link BucketManager#put(Iterable)}, in this order. The map must not be used through two instances at
+ * the same time.</p>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public final class BucketMap<K, V> extends AbstractMap<K, V> {
+
+    static final int LOAD = 32;
+
+    private static final int INITIAL = 4;
+
+    private static final int STRIPES = 64;
+
+    private static final String META = "meta";
+
+    private final BucketManager manager;
+
+    private final String name;
+
+    private final Class<K> keyClass;
+
+    private final Class<V> valueClass;
+
+    private final ReentrantReadWriteLock structure = new ReentrantReadWriteLock();
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    private final Object metaLock = new Object();
+
+    private final AtomicLong size;
+
+    private volatile int level;
+
+    private volatile long split;
+
+    BucketMap(BucketManager manager, String name, Class<K> keyClass, Class<V> valueClass) {
+        this.manager = manager;
+        this.name = name;
+        this.keyClass = keyClass;
+        this.valueClass = valueClass;
+        for (int index = 0; index < STRIPES; index++) {
+            stripes[index] = new ReentrantLock();
+        }
+        List<Object> meta = manager.get(key(META)).map(BucketMap::entries).orElse(Collections.emptyList());
+        this.level = meta.isEmpty() ? 0 : Value.of(meta.get(0)).get(Integer.class);
+        this.split = meta.isEmpty() ? 0 : Value.of(meta.get(1)).get(Long.class);
+        this.size = new AtomicLong(meta.isEmpty() ? 0 : Value.of(meta.get(2)).get(Long.class));
+    }
+
+    /**
+     * Opens a {@link BucketMap}
+     *
+     * @param manager    the manager where the map is stored
+     * @param name       the name of the map
+     * @param keyClass   the type of the keys
+     * @param valueClass the type of the values
+     * @param <K>        the type of the keys
+     * @param <V>        the type of the values
+     * @return a {@link BucketMap} instance
+     * @throws NullPointerException when either manager, name, keyClass or valueClass are null
+     */
+    public static <K, V> BucketMap<K, V> of(BucketManager manager, String name, Class<K> keyClass,
+                                            Class<V> valueClass) throws NullPointerException {
+        Objects.requireNonNull(manager, "manager is required");
+        Objects.requireNonNull(name, "name is required");
+        Objects.requireNonNull(keyClass, "keyClass is required");
+        Objects.requireNonNull(valueClass, "valueClass is required");
+        return new BucketMap<>(manager, "map:" + name, keyClass, valueClass);
+    }
+
+    @Override
+    public V get(Object key) {
+        if (key == null) {
+            return null;
+        }
+        structure.readLock().lock();
+        try {
+            List<Object> entries = load(partition(key));
+            int index = indexOf(entries, key);
+            return index < 0 ? null : convert(entries.get(index + 1), valueClass);
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return put(key, value, false);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return put(key, value, true);
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (key == null) {
+            return null;
+        }
+        V removed;
+        structure.readLock().lock();
+        try {
+            long partition = partition(key);
+            ReentrantLock stripe = stripe(partition);
+            stripe.lock();
+            try {
+                List<Object> entries = load(partition);
+                int index = indexOf(entries, key);
+                if (index < 0) {
+                    return null;
+                }
+                removed = convert(entries.get(index + 1), valueClass);
+                entries.subList(index, index + 2).clear();
+                store(partition, entries);
+            } finally {
+                stripe.unlock();
+            }
+        } finally {
+            structure.readLock().unlock();
+        }
+        size.decrementAndGet();
+        writeMeta();
+        return removed;
+    }
+
+    @Override
+    public int size() {
+        long current = size.get();
+        return current > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) current;
+    }
+
+    @Override
+    public void clear() {
+        structure.writeLock().lock();
+        try {
+            List<String> keys = new ArrayList<>();
+            for (long partition = 0; partition < partitions(); partition++) {
+                keys.add(key(partition));
+            }
+            manager.remove(keys);
+            level = 0;
+            split = 0;
+            size.set(0);
+            manager.remove(key(META));
+        } finally {
+            structure.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new Entries();
+            }
+
+            @Override
+            public int size() {
+                return BucketMap.this.size();
+            }
+
+            @Override
+            public void clear() {
+                BucketMap.this.clear();
+            }
+        };
+    }
+
+    private V put(K key, V value, boolean onlyIfAbsent) {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(value, "value is required");
+        V old;
+        structure.readLock().lock();
+        try {
+            long partition = partition(key);
+            ReentrantLock stripe = stripe(partition);
+            stripe.lock();
+            try {
+                List<Object> entries = load(partition);
+                int index = indexOf(entries, key);
+                old = index < 0 ? null : convert(entries.get(index + 1), valueClass);
+                if (old != null && onlyIfAbsent) {
+                    return old;
+                }
+                if (index < 0) {
+                    entries.add(key);
+                    entries.add(value);
+                } else {
+                    entries.set(index + 1, value);
+                }
+                store(partition, entries);
+            } finally {
+                stripe.unlock();
+            }
+        } finally {
+            structure.readLock().unlock();
+        }
+        if (old == null) {
+            size.incrementAndGet();
+            writeMeta();
+            if (size.get() > partitions() * LOAD) {
+                split();
+            }
+        }
+        return old;
+    }
+
+    /**
+     * Splits the next partition of the round in two, the entries whose hash with the double of the partitions of
+     * the round is greater move to the new partition
+     */
+    private void split() {
+        structure.writeLock().lock();
+        try {
+            if (size.get() <= partitions() * LOAD) {
+                return;
+            }
+            long round = (long) INITIAL << level;
+            long source = split;
+            long target = source + round;
+            List<Object> entries = load(source);
+            List<Object> kept = new ArrayList<>();
+            List<Object> moved = new ArrayList<>();
+            for (int index = 0; index < entries.size(); index += 2) {
+                long hash = hash(convert(entries.get(index), keyClass));
+                List<Object> destination = Math.floorMod(hash, round * 2) == source ? kept : moved;
+                destination.add(entries.get(index));
+                destination.add(entries.get(index + 1));
+            }
+            synchronized (metaLock) {
+                if (source + 1 == round) {
+                    level = level + 1;
+                    split = 0;
+                } else {
+                    split = source + 1;
+                }
+                manager.put(Arrays.asList(KeyValueEntity.of(key(target), moved), KeyValueEntity.of(key(META), meta()),
+                        KeyValueEntity.of(key(source), kept)));
+            }
+        } finally {
+            structure.writeLock().unlock();
+        }
+    }
+
+    private long partitions() {
+        return ((long) INITIAL << level) + split;
+    }
+
+    private long partition(Object key) {
+        long round = (long) INITIAL << level;
+        long hash = hash(key);
+        long partition = Math.floorMod(hash, round);
+        return partition < split ? Math.floorMod(hash, round * 2) : partition;
+    }
+
+    private ReentrantLock stripe(long partition) {
+        return stripes[(int) (partition % STRIPES)];
+    }
+
+    private int indexOf(List<Object> entries, Object key) {
+        for (int index = 0; index < entries.size(); index += 2) {
+            if (key.equals(entries.get(index)) || key.equals(convert(entries.get(index), keyClass))) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private List<Object> load(long partition) {
+        return manager.get(key(partition)).map(BucketMap::entries).orElse(new ArrayList<>());
+    }
+
+    private void store(long partition, List<Object> entries) {
+        if (entries.isEmpty()) {
+            manager.remove(key(partition));
+        } else {
+            manager.put(key(partition), new ArrayList<>(entries));
+        }
+    }
+
+    /**
+     * Writes the counters, the last writer reads them inside the lock, so the stored ones are never older than
+     * the ones of a finished write
+     */
+    private void writeMeta() {
+        synchronized (metaLock) {
+            manager.put(key(META), meta());
+        }
+    }
+
+    private List<Object> meta() {
+        return Arrays.asList((long) level, split, size.get());
+    }
+
+    private String key(Object suffix) {
+        return name + '#' + suffix;
+    }
+
+    private static long hash(Object key) {
+        int hash = key.hashCode() * 0x9e3779b9;
+        return (hash ^ (hash >>> 16)) & 0xffffffffL;
+    }
+
+    private static <T> T convert(Object value, Class<T> clazz) {
+        return clazz.isInstance(value) ? clazz.cast(value) : Value.of(value).get(clazz);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> entries(Value value) {
+        return new ArrayList<>((List<Object>) value.get());
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BucketMap{");
+        sb.append("name='").append(name).append('\'');
+        sb.append(", size=").append(size);
+        sb.append(", partitions=").append(partitions());
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private final class Entries implements Iterator<Entry<K, V>> {
+
+        private long partition = -1;
+
+        private List<Object> entries = Collections.emptyList();
+
+        private int index;
+
+        private K last;
+
+        @Override
+        public boolean hasNext() {
+            while (index >= entries.size()) {
+                if (partition + 1 >= partitions()) {
+                    return false;
+                }
+                partition++;
+                entries = load(partition);
+                index = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K key = convert(entries.get(index), keyClass);
+            V value = convert(entries.get(index + 1), valueClass);
+            index += 2;
+            last = key;
+            return new SimpleEntry<K, V>(key, value) {
+                @Override
+                public V setValue(V value) {
+                    put(getKey(), value);
+                    return super.setValue(value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            BucketMap.this.remove(last);
+            last = null;
+        }
+    }
+}
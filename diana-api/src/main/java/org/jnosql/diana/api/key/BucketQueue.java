@@ -0,0 +1,243 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.key;
+
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A FIFO {@link BlockingQueue} stored in a {@link BucketManager}, a reference implementation of
+ * {@link BucketManagerFactory#getQueue(String, Class)}. The elements are stored in chunks under their own keys,
+ * so an offer or a poll reads and writes a single chunk and a pointer whatever the size of the queue. The producers
+ * and the consumers have their own lock, so an offer does not wait for a poll, and {@link #addAll(Collection)},
+ * {@link #offerAll(Collection)} and {@link #drainTo(Collection, int)} move a batch with one write of each chunk
+ * and of the pointer. The size is the distance between the pointers, so it costs nothing to monitor.
+ * <p>It is thread safe and does not accept null elements. The queue lives in the bucket, so opening it again
+ * with the same name and manager returns the same elements; it must not be used through two instances at the same
+ * time.</p>
+ *
+ * @param <T> the type of the elements
+ */
+public final class BucketQueue<T> extends AbstractQueue<T> implements BlockingQueue<T> {
+
+    private final BucketSequence<T> sequence;
+
+    private final String name;
+
+    private BucketQueue(BucketManager manager, String name, Class<T> clazz, int capacity) {
+        this.sequence = new BucketSequence<>(manager, "queue:" + name, clazz, capacity);
+        this.name = name;
+    }
+
+    /**
+     * Opens an unbounded {@link BucketQueue}
+     *
+     * @param manager the manager where the queue is stored
+     * @param name    the name of the queue
+     * @param clazz   the type of the elements
+     * @param <T>     the type of the elements
+     * @return a {@link BucketQueue} instance
+     * @throws NullPointerException when either manager, name or clazz are null
+     */
+    public static <T> BucketQueue<T> of(BucketManager manager, String name, Class<T> clazz)
+            throws NullPointerException {
+        return of(manager, name, clazz, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Opens a {@link BucketQueue} bounded by the capacity, the producers wait or fail when it is full
+     *
+     * @param manager  the manager where the queue is stored
+     * @param name     the name of the queue
+     * @param clazz    the type of the elements
+     * @param capacity the maximum number of elements
+     * @param <T>      the type of the elements
+     * @return a {@link BucketQueue} instance
+     * @throws NullPointerException     when either manager, name or clazz are null
+     * @throws IllegalArgumentException when capacity is not positive
+     */
+    public static <T> BucketQueue<T> of(BucketManager manager, String name, Class<T> clazz, int capacity)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(manager, "manager is required");
+        Objects.requireNonNull(name, "name is required");
+        Objects.requireNonNull(clazz, "clazz is required");
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+        }
+        return new BucketQueue<>(manager, name, clazz, capacity);
+    }
+
+    @Override
+    public boolean offer(T element) {
+        return sequence.addLast(element);
+    }
+
+    @Override
+    public boolean offer(T element, long timeout, TimeUnit unit) throws InterruptedException {
+        Objects.requireNonNull(unit, "unit is required");
+        return sequence.addLast(Collections.singletonList(element), unit.toNanos(timeout)) == 1;
+    }
+
+    @Override
+    public void put(T element) throws InterruptedException {
+        sequence.addLast(Collections.singletonList(element), Long.MAX_VALUE);
+    }
+
+    /**
+     * Appends the elements that fit in the remaining capacity, in a single write
+     *
+     * @param elements the elements to append in order
+     * @return the number of elements appended, the first ones of the collection
+     * @throws NullPointerException when elements or any element is null
+     */
+    public int offerAll(Collection<? extends T> elements) throws NullPointerException {
+        Objects.requireNonNull(elements, "elements is required");
+        return sequence.addLast(new ArrayList<>(elements));
+    }
+
+    /**
+     * Appends the elements in a single write
+     *
+     * @param elements the elements to append in order
+     * @return true when any element was appended
+     * @throws NullPointerException  when elements or any element is null
+     * @throws IllegalStateException when the capacity does not have room for every element, the first ones that
+     *                               fit are appended
+     */
+    @Override
+    public boolean addAll(Collection<? extends T> elements) throws NullPointerException, IllegalStateException {
+        Objects.requireNonNull(elements, "elements is required");
+        if (elements == this) {
+            throw new IllegalArgumentException("The queue cannot be added to itself");
+        }
+        int count = offerAll(elements);
+        if (count < elements.size()) {
+            throw new IllegalStateException("Queue full, " + count + " of " + elements.size() + " were added");
+        }
+        return count > 0;
+    }
+
+    @Override
+    public T poll() {
+        return sequence.removeFirst();
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        Objects.requireNonNull(unit, "unit is required");
+        List<T> elements = new ArrayList<>(1);
+        return sequence.removeFirst(elements, 1, unit.toNanos(timeout)) == 0 ? null : elements.get(0);
+    }
+
+    @Override
+    public T take() throws InterruptedException {
+        List<T> elements = new ArrayList<>(1);
+        sequence.removeFirst(elements, 1, Long.MAX_VALUE);
+        return elements.get(0);
+    }
+
+    /**
+     * Waits up to the timeout for an element, then moves up to maxElements to the target in a single write
+     *
+     * @param target      the collection to transfer the elements to
+     * @param maxElements the maximum number of elements to transfer
+     * @param timeout     how long to wait for the first element
+     * @param unit        the unit of the timeout
+     * @return the number of elements transferred, zero when it timed out
+     * @throws InterruptedException     if interrupted while waiting
+     * @throws NullPointerException     when either target or unit are null
+     * @throws IllegalArgumentException when target is this queue
+     */
+    public int drainTo(Collection<? super T> target, int maxElements, long timeout, TimeUnit unit)
+            throws InterruptedException, NullPointerException, IllegalArgumentException {
+        checkTarget(target);
+        Objects.requireNonNull(unit, "unit is required");
+        return sequence.removeFirst(target, maxElements, unit.toNanos(timeout));
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> target) {
+        return drainTo(target, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> target, int maxElements) {
+        checkTarget(target);
+        return sequence.removeFirst(target, maxElements);
+    }
+
+    @Override
+    public T peek() {
+        return sequence.peekFirst();
+    }
+
+    @Override
+    public int size() {
+        return sequence.size();
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return sequence.remainingCapacity();
+    }
+
+    /**
+     * @return the maximum number of elements, {@link Integer#MAX_VALUE} when it is unbounded
+     */
+    public int getCapacity() {
+        return sequence.getCapacity();
+    }
+
+    @Override
+    public void clear() {
+        sequence.clear();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return sequence.iterator();
+    }
+
+    private void checkTarget(Collection<? super T> target) {
+        Objects.requireNonNull(target, "target is required");
+        if (target == this) {
+            throw new IllegalArgumentException("The queue cannot be drained to itself");
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BucketQueue{");
+        sb.append("name='").append(name).append('\'');
+        sb.append(", size=").append(size());
+        sb.append(", capacity=").append(getCapacity());
+        sb.append('}');
+        return sb.toString();
+    }
+}
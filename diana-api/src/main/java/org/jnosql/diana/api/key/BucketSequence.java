@@ -0,0 +1,538 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.key;
+
+
+import org.jnosql.diana.api.Value;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The storage of {@link BucketList} and {@link BucketQueue}: the elements have consecutive positions from the
+ * head to the tail, and are stored in chunks of {@link #CHUNK} positions, each one a list under its own key, so
+ * adding to the tail or removing from the head reads and writes a single chunk and a pointer whatever the size,
+ * and a batch writes each chunk it touches and the pointer once.
+ * <p>The head and the tail have their own lock and pointer key, as in a two-lock queue: a poll only advances the
+ * head and deletes the chunks it leaves, it never writes a chunk the tail may be appending to. Every chunk but the
+ * last one has {@link #CHUNK} elements, the first one keeps the elements already polled before the head. As in
+ * {@link java.util.concurrent.LinkedBlockingQueue}, the head lock has the not empty condition and the tail lock
+ * the not full one of the optional capacity, a side only takes the other lock to wake it up. The
+ * operations in the middle take both locks and shift the elements after the index a chunk at a time. The locks
+ * are in this instance, so a structure must be used through a single instance.</p>
+ */
+final class BucketSequence<T> {
+
+    /**
+     * The elements of a chunk, a power of two so the offset is a mask
+     */
+    static final int CHUNK = 128;
+
+    private static final String HEAD = "head";
+
+    private static final String TAIL = "tail";
+
+    private final BucketManager manager;
+
+    private final String name;
+
+    private final Class<T> clazz;
+
+    private final ReentrantLock headLock = new ReentrantLock();
+
+    private final ReentrantLock tailLock = new ReentrantLock();
+
+    private final Condition notEmpty = headLock.newCondition();
+
+    private final Condition notFull = tailLock.newCondition();
+
+    private final int capacity;
+
+    private volatile long head;
+
+    private volatile long tail;
+
+    private long tailChunk = Long.MIN_VALUE;
+
+    private List<Object> tailElements;
+
+    private long headChunk = Long.MIN_VALUE;
+
+    private List<Object> headElements;
+
+    BucketSequence(BucketManager manager, String name, Class<T> clazz) {
+        this(manager, name, clazz, Integer.MAX_VALUE);
+    }
+
+    BucketSequence(BucketManager manager, String name, Class<T> clazz, int capacity) {
+        this.manager = manager;
+        this.name = name;
+        this.clazz = clazz;
+        this.capacity = capacity;
+        this.head = manager.get(key(HEAD)).map(v -> v.get(Long.class)).orElse(0L);
+        this.tail = manager.get(key(TAIL)).map(v -> v.get(Long.class)).orElse(head);
+    }
+
+    int size() {
+        long size = tail - head;
+        return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) Math.max(size, 0);
+    }
+
+    int remainingCapacity() {
+        return Math.max(capacity - size(), 0);
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    boolean addLast(T element) {
+        return addLast(Collections.singletonList(element)) == 1;
+    }
+
+    /**
+     * Appends as many elements as the capacity allows, in a single write of the chunks and the tail pointer
+     *
+     * @return the number of elements appended
+     */
+    int addLast(List<? extends T> elements) {
+        elements.forEach(element -> Objects.requireNonNull(element, "element is required"));
+        long position;
+        int count;
+        tailLock.lock();
+        try {
+            position = tail;
+            count = appendLocked(elements);
+        } finally {
+            tailLock.unlock();
+        }
+        signalNotEmpty(position);
+        return count;
+    }
+
+    /**
+     * Waits up to nanos for room, then appends as many elements as the capacity allows
+     *
+     * @return the number of elements appended, zero when it timed out
+     */
+    int addLast(List<? extends T> elements, long nanos) throws InterruptedException {
+        elements.forEach(element -> Objects.requireNonNull(element, "element is required"));
+        long position;
+        int count;
+        tailLock.lockInterruptibly();
+        try {
+            while (remainingCapacity() == 0) {
+                if (nanos <= 0) {
+                    return 0;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            position = tail;
+            count = appendLocked(elements);
+        } finally {
+            tailLock.unlock();
+        }
+        signalNotEmpty(position);
+        return count;
+    }
+
+    T removeFirst() {
+        List<T> elements = new ArrayList<>(1);
+        return removeFirst(elements, 1) == 0 ? null : elements.get(0);
+    }
+
+    /**
+     * Removes up to max elements from the head into the target, writing the head pointer once
+     *
+     * @return the number of elements removed
+     */
+    int removeFirst(Collection<? super T> target, int max) {
+        long position;
+        int count;
+        headLock.lock();
+        try {
+            position = head;
+            count = removeLocked(target, max);
+        } finally {
+            headLock.unlock();
+        }
+        signalNotFull(position);
+        return count;
+    }
+
+    /**
+     * Waits up to nanos for an element, then removes up to max elements from the head into the target
+     *
+     * @return the number of elements removed, zero when it timed out
+     */
+    int removeFirst(Collection<? super T> target, int max, long nanos) throws InterruptedException {
+        long position;
+        int count;
+        headLock.lockInterruptibly();
+        try {
+            while (head >= tail) {
+                if (nanos <= 0) {
+                    return 0;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            position = head;
+            count = removeLocked(target, max);
+        } finally {
+            headLock.unlock();
+        }
+        signalNotFull(position);
+        return count;
+    }
+
+    T peekFirst() {
+        headLock.lock();
+        try {
+            return head >= tail ? null : read(head);
+        } finally {
+            headLock.unlock();
+        }
+    }
+
+    T get(int index) {
+        headLock.lock();
+        try {
+            return read(position(index));
+        } finally {
+            headLock.unlock();
+        }
+    }
+
+    T set(int index, T element) {
+        Objects.requireNonNull(element, "element is required");
+        lockBoth();
+        try {
+            long position = position(index);
+            List<Object> elements = load(chunk(position));
+            T old = convert(elements.get(offset(position)));
+            elements.set(offset(position), element);
+            store(chunk(position), elements);
+            return old;
+        } finally {
+            unlockBoth();
+        }
+    }
+
+    /**
+     * Inserts at the index, the elements after it are shifted one position to the tail, chunk by chunk
+     */
+    void add(int index, T element) {
+        Objects.requireNonNull(element, "element is required");
+        lockBoth();
+        try {
+            if (index < 0 || index > size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            Object carried = element;
+            long position = head + index;
+            while (true) {
+                long chunk = chunk(position);
+                List<Object> elements = position == tail && offset(position) == 0 ? new ArrayList<>() : load(chunk);
+                elements.add(offset(position), carried);
+                if (elements.size() <= CHUNK) {
+                    store(chunk, elements);
+                    break;
+                }
+                carried = elements.remove(CHUNK);
+                store(chunk, elements);
+                position = (chunk + 1) * CHUNK;
+            }
+            tail = tail + 1;
+            manager.put(key(TAIL), tail);
+        } finally {
+            unlockBoth();
+        }
+    }
+
+    /**
+     * Removes at the index, the elements after it are shifted one position to the head, chunk by chunk
+     */
+    T remove(int index) {
+        lockBoth();
+        try {
+            long position = position(index);
+            if (position == head) {
+                return removeFirst();
+            }
+            long chunk = chunk(position);
+            List<Object> elements = load(chunk);
+            T removed = convert(elements.remove(offset(position)));
+            while ((chunk + 1) * CHUNK < tail) {
+                List<Object> next = load(chunk + 1);
+                elements.add(next.remove(0));
+                store(chunk, elements);
+                elements = next;
+                chunk++;
+            }
+            tail = tail - 1;
+            if (offset(tail) == 0) {
+                manager.remove(key(chunk));
+                clearCache();
+            } else {
+                store(chunk, elements);
+            }
+            manager.put(key(TAIL), tail);
+            notFull.signal();
+            return removed;
+        } finally {
+            unlockBoth();
+        }
+    }
+
+    void clear() {
+        lockBoth();
+        try {
+            List<String> keys = new ArrayList<>();
+            for (long chunk = chunk(head); head < tail && chunk <= chunk(tail - 1); chunk++) {
+                keys.add(key(chunk));
+            }
+            manager.remove(keys);
+            head = 0;
+            tail = 0;
+            manager.remove(Arrays.asList(key(HEAD), key(TAIL)));
+            clearCache();
+            notFull.signalAll();
+        } finally {
+            unlockBoth();
+        }
+    }
+
+    /**
+     * Returns an iterator that reads a chunk at a time, it sees the elements appended while it iterates; its
+     * remove removes by index, so it must not run with concurrent polls
+     */
+    Iterator<T> iterator() {
+        return new Iterator<T>() {
+
+            private long position = head;
+
+            private long chunk = Long.MIN_VALUE;
+
+            private List<Object> elements = Collections.emptyList();
+
+            private long last = Long.MIN_VALUE;
+
+            @Override
+            public boolean hasNext() {
+                position = Math.max(position, head);
+                return position < tail;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (chunk != chunk(position) || elements.size() <= offset(position)) {
+                    chunk = chunk(position);
+                    elements = manager.get(key(chunk)).map(BucketSequence::elements).orElse(Collections.emptyList());
+                }
+                if (elements.size() <= offset(position)) {
+                    throw new ConcurrentModificationException();
+                }
+                last = position;
+                return convert(elements.get(offset(position++)));
+            }
+
+            @Override
+            public void remove() {
+                if (last == Long.MIN_VALUE) {
+                    throw new IllegalStateException();
+                }
+                BucketSequence.this.remove((int) (last - head));
+                position = last;
+                last = Long.MIN_VALUE;
+                chunk = Long.MIN_VALUE;
+            }
+        };
+    }
+
+    private int appendLocked(List<? extends T> elements) {
+        int count = Math.min(elements.size(), remainingCapacity());
+        if (count == 0) {
+            return 0;
+        }
+        List<KeyValueEntity<String>> entities = new ArrayList<>();
+        long position = tail;
+        long end = position + count;
+        try {
+            for (int index = 0; position < end; ) {
+                long chunk = chunk(position);
+                List<Object> values = tailChunk(position);
+                int length = (int) Math.min(end - position, CHUNK - offset(position));
+                values.addAll(elements.subList(index, index + length));
+                entities.add(KeyValueEntity.of(key(chunk), new ArrayList<>(values)));
+                index += length;
+                position += length;
+            }
+            entities.add(KeyValueEntity.of(key(TAIL), end));
+            manager.put(entities);
+        } catch (RuntimeException exception) {
+            tailChunk = Long.MIN_VALUE;
+            throw exception;
+        }
+        tail = end;
+        if (remainingCapacity() > 0) {
+            notFull.signal();
+        }
+        return count;
+    }
+
+    private int removeLocked(Collection<? super T> target, int max) {
+        int count = (int) Math.min(max, tail - head);
+        if (count <= 0) {
+            return 0;
+        }
+        long position = head;
+        long end = position + count;
+        List<T> elements = new ArrayList<>(count);
+        for (long index = position; index < end; index++) {
+            elements.add(read(index));
+        }
+        manager.put(key(HEAD), end);
+        head = end;
+        List<String> keys = new ArrayList<>();
+        for (long chunk = chunk(position); chunk < chunk(end); chunk++) {
+            keys.add(key(chunk));
+        }
+        if (!keys.isEmpty()) {
+            manager.remove(keys);
+            headChunk = Long.MIN_VALUE;
+        }
+        if (head < tail) {
+            notEmpty.signal();
+        }
+        target.addAll(elements);
+        return count;
+    }
+
+    /**
+     * Wakes a consumer when the head had reached the position the tail had before the append
+     */
+    private void signalNotEmpty(long position) {
+        if (head >= position) {
+            headLock.lock();
+            try {
+                notEmpty.signal();
+            } finally {
+                headLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Wakes a producer when the sequence was full before the removal from the position
+     */
+    private void signalNotFull(long position) {
+        if (tail - position >= capacity) {
+            tailLock.lock();
+            try {
+                notFull.signal();
+            } finally {
+                tailLock.unlock();
+            }
+        }
+    }
+
+    private T read(long position) {
+        long chunk = chunk(position);
+        if (headChunk != chunk || headElements.size() <= offset(position)) {
+            headElements = manager.get(key(chunk)).map(BucketSequence::elements).orElse(new ArrayList<>());
+            headChunk = chunk;
+        }
+        return convert(headElements.get(offset(position)));
+    }
+
+    private List<Object> tailChunk(long position) {
+        long chunk = chunk(position);
+        if (tailChunk != chunk) {
+            tailElements = offset(position) == 0 ? new ArrayList<>() : load(chunk);
+            tailChunk = chunk;
+        }
+        return tailElements;
+    }
+
+    private List<Object> load(long chunk) {
+        return manager.get(key(chunk)).map(BucketSequence::elements).orElse(new ArrayList<>());
+    }
+
+    private void store(long chunk, List<Object> elements) {
+        manager.put(key(chunk), new ArrayList<>(elements));
+        clearCache();
+    }
+
+    private void clearCache() {
+        headChunk = Long.MIN_VALUE;
+        tailChunk = Long.MIN_VALUE;
+    }
+
+    private long position(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        return head + index;
+    }
+
+    private void lockBoth() {
+        headLock.lock();
+        tailLock.lock();
+    }
+
+    private void unlockBoth() {
+        tailLock.unlock();
+        headLock.unlock();
+    }
+
+    private T convert(Object value) {
+        return clazz.isInstance(value) ? clazz.cast(value) : Value.of(value).get(clazz);
+    }
+
+    private String key(Object suffix) {
+        return name + '#' + suffix;
+    }
+
+    private static long chunk(long position) {
+        return Math.floorDiv(position, CHUNK);
+    }
+
+    private static int offset(long position) {
+        return (int) (position & (CHUNK - 1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> elements(Value value) {
+        return new ArrayList<>((List<Object>) value.get());
+    }
+}
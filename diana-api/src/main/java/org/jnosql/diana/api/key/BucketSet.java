@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.key;
+
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * A {@link java.util.Set} stored in a {@link BucketManager}, a reference implementation of
+ * {@link BucketManagerFactory#getSet(String, Class)}: the keys of a {@link BucketMap}, so an add, a remove or a
+ * contains reads or writes a single partition whatever the size of the set, and an add is atomic.
+ * <p>It is thread safe and does not accept null elements; the hash code of the elements must be the same in every
+ * JVM, as the one of strings and numbers. It must not be used through two instances at the same time.</p>
+ *
+ * @param <T> the type of the elements
+ */
+public final class BucketSet<T> extends AbstractSet<T> {
+
+    private final BucketMap<T, Boolean> map;
+
+    private final String name;
+
+    private BucketSet(BucketManager manager, String name, Class<T> clazz) {
+        this.map = new BucketMap<>(manager, "set:" + name, clazz, Boolean.class);
+        this.name = name;
+    }
+
+    /**
+     * Opens a {@link BucketSet}
+     *
+     * @param manager the manager where the set is stored
+     * @param name    the name of the set
+     * @param clazz   the type of the elements
+     * @param <T>     the type of the elements
+     * @return a {@link BucketSet} instance
+     * @throws NullPointerException when either manager, name or clazz are null
+     */
+    public static <T> BucketSet<T> of(BucketManager manager, String name, Class<T> clazz)
+            throws NullPointerException {
+        Objects.requireNonNull(manager, "manager is required");
+        Objects.requireNonNull(name, "name is required");
+        Objects.requireNonNull(clazz, "clazz is required");
+        return new BucketSet<>(manager, name, clazz);
+    }
+
+    @Override
+    public boolean add(T element) {
+        return map.putIfAbsent(element, Boolean.TRUE) == null;
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        return map.remove(element) != null;
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return map.containsKey(element);
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return map.keySet().iterator();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BucketSet{");
+        sb.append("name='").append(name).append('\'');
+        sb.append(", size=").append(size());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.key;
+
+
+import org.jnosql.diana.api.AsyncExecutor;
+import org.jnosql.diana.api.Value;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A {@link BucketManagerAsync} that runs the operations of a {@link BucketManager} in an {@link AsyncExecutor}
+ */
+class ExecutorBucketManagerAsync implements BucketManagerAsync {
+
+    private final BucketManager manager;
+
+    private final AsyncExecutor executor;
+
+    ExecutorBucketManagerAsync(BucketManager manager, AsyncExecutor executor) {
+        this.manager = Objects.requireNonNull(manager, "manager is required");
+        this.executor = Objects.requireNonNull(executor, "executor is required");
+    }
+
+    @Override
+    public <K, V> CompletionStage<Void> put(K key, V value) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(value, "value is required");
+        return run(() -> manager.put(key, value));
+    }
+
+    @Override
+    public <K> CompletionStage<Void> put(KeyValueEntity<K> entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        return run(() -> manager.put(entity));
+    }
+
+    @Override
+    public <K> CompletionStage<Void> put(KeyValueEntity<K> entity, Duration ttl) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        return run(() -> manager.put(entity, ttl));
+    }
+
+    @Override
+    public <K> CompletionStage<Void> put(Iterable<KeyValueEntity<K>> entities) throws NullPointerException {
+        Objects.requireNonNull(entities, "entities is required");
+        return run(() -> manager.put(entities));
+    }
+
+    @Override
+    public <K> CompletionStage<Void> put(Iterable<KeyValueEntity<K>> entities, Duration ttl)
+            throws NullPointerException {
+        Objects.requireNonNull(entities, "entities is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        return run(() -> manager.put(entities, ttl));
+    }
+
+    @Override
+    public <K> CompletionStage<Optional<Value>> get(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        return executor.submit(() -> manager.get(key));
+    }
+
+    @Override
+    public <K> CompletionStage<Iterable<Value>> get(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        return executor.submit(() -> manager.get(keys));
+    }
+
+    @Override
+    public <K> CompletionStage<Map<K, Value>> getAll(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        return executor.submit(() -> manager.getAll(keys));
+    }
+
+    @Override
+    public <K> CompletionStage<Void> remove(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        return run(() -> manager.remove(key));
+    }
+
+    @Override
+    public <K> CompletionStage<Void> remove(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        return run(() -> manager.remove(keys));
+    }
+
+    @Override
+    public boolean isBulkGet() {
+        return manager.isBulkGet();
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    private CompletionStage<Void> run(Runnable operation) {
+        return executor.submit(() -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ExecutorBucketManagerAsync{");
+        sb.append("manager=").append(manager);
+        sb.append(", executor=").append(executor);
+        sb.append('}');
+        return sb.toString();
+    }
+}
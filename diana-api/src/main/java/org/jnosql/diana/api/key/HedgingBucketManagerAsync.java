@@ -0,0 +1,142 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.key;
+
+
+import org.jnosql.diana.api.HedgingPolicy;
+import org.jnosql.diana.api.Value;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A {@link BucketManagerAsync} that hedges the gets with a {@link HedgingPolicy}, the puts and removes
+ * are never hedged.
+ */
+public final class HedgingBucketManagerAsync implements BucketManagerAsync {
+
+    private final BucketManagerAsync manager;
+
+    private final HedgingPolicy policy;
+
+    private HedgingBucketManagerAsync(BucketManagerAsync manager, HedgingPolicy policy) {
+        this.manager = manager;
+        this.policy = policy;
+    }
+
+    /**
+     * Creates a {@link HedgingBucketManagerAsync}
+     *
+     * @param manager the manager
+     * @param policy  the hedging policy
+     * @return a {@link HedgingBucketManagerAsync} instance
+     * @throws NullPointerException when either manager or policy are null
+     */
+    public static HedgingBucketManagerAsync of(BucketManagerAsync manager, HedgingPolicy policy)
+            throws NullPointerException {
+        Objects.requireNonNull(manager, "manager is required");
+        Objects.requireNonNull(policy, "policy is required");
+        return new HedgingBucketManagerAsync(manager, policy);
+    }
+
+    @Override
+    public <K, V> CompletionStage<Void> put(K key, V value) throws NullPointerException {
+        return manager.put(key, value);
+    }
+
+    @Override
+    public <K> CompletionStage<Void> put(KeyValueEntity<K> entity) throws NullPointerException {
+        return manager.put(entity);
+    }
+
+    @Override
+    public <K> CompletionStage<Void> put(KeyValueEntity<K> entity, Duration ttl) throws NullPointerException {
+        return manager.put(entity, ttl);
+    }
+
+    @Override
+    public <K> CompletionStage<Void> put(Iterable<KeyValueEntity<K>> entities) throws NullPointerException {
+        return manager.put(entities);
+    }
+
+    @Override
+    public <K> CompletionStage<Void> put(Iterable<KeyValueEntity<K>> entities, Duration ttl)
+            throws NullPointerException {
+        return manager.put(entities, ttl);
+    }
+
+    @Override
+    public <K> CompletionStage<Optional<Value>> get(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        return policy.execute(() -> manager.get(key));
+    }
+
+    @Override
+    public <K> CompletionStage<Iterable<Value>> get(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        return policy.execute(() -> manager.get(keys));
+    }
+
+    @Override
+    public <K> CompletionStage<Map<K, Value>> getAll(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        return policy.execute(() -> manager.getAll(keys));
+    }
+
+    @Override
+    public <K> CompletionStage<Void> remove(K key) throws NullPointerException {
+        return manager.remove(key);
+    }
+
+    @Override
+    public <K> CompletionStage<Void> remove(Iterable<K> keys) throws NullPointerException {
+        return manager.remove(keys);
+    }
+
+    /**
+     * @return the hedging policy, e.g. to read its metrics
+     */
+    public HedgingPolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public boolean isBulkGet() {
+        return manager.isBulkGet();
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("HedgingBucketManagerAsync{");
+        sb.append("manager=").append(manager);
+        sb.append(", policy=").append(policy);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.key;
+
+import org.jnosql.diana.api.TypeSupplier;
+import org.jnosql.diana.api.Value;
+
+import java.util.Objects;
+
+/**
+ * A {@link KeyValueEntity} with a primitive long key, so an engine that reads {@link #getLongKey()} stores it
+ * without creating a {@link Long}; {@link #getKey()} boxes the key for the engines that do not.
+ */
+public final class LongKeyValueEntity implements KeyValueEntity<Long> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long key;
+
+    private final Value value;
+
+    private LongKeyValueEntity(long key, Value value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    /**
+     * Creates a {@link LongKeyValueEntity}
+     *
+     * @param key   the key
+     * @param value the value
+     * @return a {@link LongKeyValueEntity} instance
+     * @throws NullPointerException when value is null
+     */
+    public static LongKeyValueEntity of(long key, Value value) throws NullPointerException {
+        Objects.requireNonNull(value, "value is required");
+        return new LongKeyValueEntity(key, value);
+    }
+
+    /**
+     * Creates a {@link LongKeyValueEntity}
+     *
+     * @param key   the key
+     * @param value the value
+     * @return a {@link LongKeyValueEntity} instance
+     * @throws NullPointerException when value is null
+     */
+    public static LongKeyValueEntity of(long key, Object value) throws NullPointerException {
+        return of(key, Value.of(value));
+    }
+
+    /**
+     * @return the key without boxing it
+     */
+    public long getLongKey() {
+        return key;
+    }
+
+    @Override
+    public Long getKey() {
+        return key;
+    }
+
+    @Override
+    public Value getValue() {
+        return value;
+    }
+
+    @Override
+    public <T> T get(Class<T> clazz) throws NullPointerException, UnsupportedOperationException {
+        return value.get(clazz);
+    }
+
+    @Override
+    public <T> T get(TypeSupplier<T> typeSupplier) throws NullPointerException, UnsupportedOperationException {
+        return value.get(typeSupplier);
+    }
+
+    @Override
+    public Object get() {
+        return value.get();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        LongKeyValueEntity that = (LongKeyValueEntity) o;
+        return key == that.key && Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(key, value);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("LongKeyValueEntity{");
+        sb.append("key=").append(key);
+        sb.append(", value=").append(value);
+        sb.append('}');
+        return sb.toString();
+    }
+}
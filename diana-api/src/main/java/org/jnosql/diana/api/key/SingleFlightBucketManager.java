@@ -0,0 +1,178 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.key;
+
+
+import org.jnosql.diana.api.SingleFlight;
+import org.jnosql.diana.api.Value;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * A {@link BucketManager} decorator that deduplicates identical gets in flight with a {@link SingleFlight}:
+ * while a get runs, the gets of the same keys from other threads wait for it and share its result.
+ * The keys must be immutable. The puts and removes go straight to the manager.
+ */
+public final class SingleFlightBucketManager implements BucketManager {
+
+    private final BucketManager manager;
+
+    private final SingleFlight<List<Object>> flight = SingleFlight.of();
+
+    private SingleFlightBucketManager(BucketManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Creates a {@link SingleFlightBucketManager}
+     *
+     * @param manager the manager
+     * @return a {@link SingleFlightBucketManager} instance
+     * @throws NullPointerException when manager is null
+     */
+    public static SingleFlightBucketManager of(BucketManager manager) throws NullPointerException {
+        Objects.requireNonNull(manager, "manager is required");
+        return new SingleFlightBucketManager(manager);
+    }
+
+    @Override
+    public <K, V> void put(K key, V value) throws NullPointerException {
+        manager.put(key, value);
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity) throws NullPointerException {
+        manager.put(entity);
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        manager.put(entity, ttl);
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities) throws NullPointerException {
+        manager.put(entities);
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        manager.put(entities, ttl);
+    }
+
+    @Override
+    public <K> Optional<Value> get(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        return flight.execute(Arrays.asList(Operation.GET, key), () -> manager.get(key));
+    }
+
+    @Override
+    public <K> Iterable<Value> get(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        List<K> copy = toList(keys);
+        return flight.execute(Arrays.asList(Operation.GET_ITERABLE, copy), () -> toList(manager.get(copy)));
+    }
+
+    @Override
+    public <K> Map<K, Value> getAll(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        List<K> copy = toList(keys);
+        return new LinkedHashMap<>(flight.execute(Arrays.asList(Operation.GET_ALL, copy),
+                () -> manager.getAll(copy)));
+    }
+
+    @Override
+    public <K> void remove(K key) throws NullPointerException {
+        manager.remove(key);
+    }
+
+    @Override
+    public <K> void remove(Iterable<K> keys) throws NullPointerException {
+        manager.remove(keys);
+    }
+
+    @Override
+    public <K, V> Optional<Value> putIfAbsent(K key, V value) throws NullPointerException {
+        return manager.putIfAbsent(key, value);
+    }
+
+    @Override
+    public <K, V> boolean replace(K key, V expected, V value) throws NullPointerException {
+        return manager.replace(key, expected, value);
+    }
+
+    @Override
+    public <K> Optional<Value> compute(K key, Function<Optional<Value>, ?> remapping) throws NullPointerException {
+        return manager.compute(key, remapping);
+    }
+
+    @Override
+    public <K> long increment(K key, long delta) throws NullPointerException, UnsupportedOperationException,
+            ArithmeticException {
+        return manager.increment(key, delta);
+    }
+
+    /**
+     * @return the single flight, e.g. to read its metrics
+     */
+    public SingleFlight<List<Object>> getFlight() {
+        return flight;
+    }
+
+    @Override
+    public boolean isBulkGet() {
+        return manager.isBulkGet();
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    static <T> List<T> toList(Iterable<T> iterable) {
+        List<T> list = new ArrayList<>();
+        iterable.forEach(list::add);
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SingleFlightBucketManager{");
+        sb.append("manager=").append(manager);
+        sb.append(", flight=").append(flight);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    enum Operation {
+        GET, GET_ITERABLE, GET_ALL
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.api.key;
+
+
+import org.jnosql.diana.api.SingleFlight;
+import org.jnosql.diana.api.Value;
+import org.jnosql.diana.api.key.SingleFlightBucketManager.Operation;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+import static org.jnosql.diana.api.key.SingleFlightBucketManager.toList;
+
+/**
+ * The {@link BucketManagerAsync} version of {@link SingleFlightBucketManager}, the identical gets in flight share
+ * one call to the manager.
+ */
+public final class SingleFlightBucketManagerAsync implements BucketManagerAsync {
+
+    private final BucketManagerAsync manager;
+
+    private final SingleFlight<List<Object>> flight = SingleFlight.of();
+
+    private SingleFlightBucketManagerAsync(BucketManagerAsync manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Creates a {@link SingleFlightBucketManagerAsync}
+     *
+     * @param manager the manager
+     * @return a {@link SingleFlightBucketManagerAsync} instance
+     * @throws NullPointerException when manager is null
+     */
+    public static SingleFlightBucketManagerAsync of(BucketManagerAsync manager) throws NullPointerException {
+        Objects.requireNonNull(manager, "manager is required");
+        return new SingleFlightBucketManagerAsync(manager);
+    }
+
+    @Override
+    public <K, V> CompletionStage<Void> put(K key, V value) throws NullPointerException {
+        return manager.put(key, value);
+    }
+
+    @Override
+    public <K> CompletionStage<Void> put(KeyValueEntity<K> entity) throws NullPointerException {
+        return manager.put(entity);
+    }
+
+    @Override
+    public <K> CompletionStage<Void> put(KeyValueEntity<K> entity, Duration ttl) throws NullPointerException {
+        return manager.put(entity, ttl);
+    }
+
+    @Override
+    public <K> CompletionStage<Void> put(Iterable<KeyValueEntity<K>> entities) throws NullPointerException {
+        return manager.put(entities);
+    }
+
+    @Override
+    public <K> CompletionStage<Void> put(Iterable<KeyValueEntity<K>> entities, Duration ttl)
+            throws NullPointerException {
+        return manager.put(entities, ttl);
+    }
+
+    @Override
+    public <K> CompletionStage<Optional<Value>> get(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        return flight.executeAsync(Arrays.asList(Operation.GET, key), () -> manager.get(key));
+    }
+
+    @Override
+    public <K> CompletionStage<Iterable<Value>> get(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        List<K> copy = toList(keys);
+        return flight.executeAsync(Arrays.asList(Operation.GET_ITERABLE, copy),
+                () -> manager.get(copy).thenApply(SingleFlightBucketManager::toList));
+    }
+
+    @Override
+    public <K> CompletionStage<Map<K, Value>> getAll(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        List<K> copy = toList(keys);
+        return flight.executeAsync(Arrays.asList(Operation.GET_ALL, copy), () -> manager.getAll(copy))
+                .thenApply(LinkedHashMap::new);
+    }
+
+    @Override
+    public <K> CompletionStage<Void> remove(K key) throws NullPointerException {
+        return manager.remove(key);
+    }
+
+    @Override
+    public <K> CompletionStage<Void> remove(Iterable<K> keys) throws NullPointerException {
+        return manager.remove(keys);
+    }
+
+    /**
+     * @return the single flight, e.g. to read its metrics
+     */
+    public SingleFlight<List<Object>> getFlight() {
+        return flight;
+    }
+
+    @Override
+    public boolean isBulkGet() {
+        return manager.isBulkGet();
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SingleFlightBucketManagerAsync{");
+        sb.append("manager=").append(manager);
+        sb.append(", flight=").append(flight);
+        sb.append('}');
+        return sb.toString();
+    }
+}
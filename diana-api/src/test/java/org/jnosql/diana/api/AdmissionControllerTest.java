@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class AdmissionControllerTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenLimitIsInvalid() {
+        ConcurrencyLimit.aimd(10, 1, 5, Duration.ofMillis(10), 0.5);
+    }
+
+    @Test
+    public void shouldFailFastWhenLimitIsReached() {
+        AdmissionController controller = AdmissionController.of(ConcurrencyLimit.fixed(1),
+                AdmissionPolicy.FAIL_FAST, 0);
+        CompletableFuture<String> running = new CompletableFuture<>();
+        CompletableFuture<String> first = controller.submit(0, () -> running);
+        CompletableFuture<String> second = controller.submit(0, () -> CompletableFuture.completedFuture("b"));
+
+        assertFalse(first.isDone());
+        try {
+            second.join();
+            fail("It should be rejected");
+        } catch (CompletionException exception) {
+            assertTrue(exception.getCause() instanceof ExecuteAsyncQueryException);
+        }
+        running.complete("a");
+        assertEquals("a", first.join());
+        assertEquals(0, controller.getInFlight());
+        assertEquals(1L, controller.getRejected());
+    }
+
+    @Test
+    public void shouldShedLowestPriority() {
+        AdmissionController controller = AdmissionController.of(ConcurrencyLimit.fixed(1),
+                AdmissionPolicy.SHED, 2);
+        List<Integer> order = new ArrayList<>();
+        CompletableFuture<Integer> running = new CompletableFuture<>();
+        controller.submit(0, () -> running);
+        CompletableFuture<Integer> low = controller.submit(1, () -> run(order, 1));
+        CompletableFuture<Integer> medium = controller.submit(5, () -> run(order, 5));
+        CompletableFuture<Integer> high = controller.submit(9, () -> run(order, 9));
+        CompletableFuture<Integer> lowest = controller.submit(0, () -> run(order, 0));
+
+        assertTrue(low.isCompletedExceptionally());
+        assertTrue(lowest.isCompletedExceptionally());
+        assertEquals(2, controller.getQueued());
+
+        running.complete(0);
+        assertEquals(Integer.valueOf(9), high.join());
+        assertEquals(Integer.valueOf(5), medium.join());
+        assertEquals(2, order.size());
+        assertEquals(Integer.valueOf(9), order.get(0));
+    }
+
+    @Test
+    public void shouldDecreaseAimdLimitOnFailure() {
+        ConcurrencyLimit limit = ConcurrencyLimit.aimd(10, 1, 20, Duration.ofSeconds(1), 0.5);
+        limit.onSample(1000L, 9, false);
+        assertEquals(11, limit.getLimit());
+        limit.onSample(1000L, 9, true);
+        assertEquals(5, limit.getLimit());
+        limit.onSample(Duration.ofSeconds(2).toNanos(), 1, false);
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    public void shouldAdaptVegasLimitToLatency() {
+        ConcurrencyLimit limit = ConcurrencyLimit.vegas(10, 1, 20);
+        limit.onSample(1000L, 10, false);
+        assertEquals(11, limit.getLimit());
+        limit.onSample(10000L, 10, false);
+        assertEquals(10, limit.getLimit());
+        limit.onSample(1000L, 10, true);
+        assertEquals(5, limit.getLimit());
+    }
+
+    private CompletableFuture<Integer> run(List<Integer> order, int value) {
+        order.add(value);
+        return CompletableFuture.completedFuture(value);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class AsyncExecutorTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenMaxConcurrencyIsInvalid() {
+        AsyncExecutor.of(0, Duration.ZERO);
+    }
+
+    @Test
+    public void shouldLimitConcurrency() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        AsyncExecutor executor = AsyncExecutor.of(pool, 2, Duration.ZERO);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger max = new AtomicInteger();
+        try {
+            List<CompletableFuture<Integer>> futures = IntStream.range(0, 20).mapToObj(i -> executor.submit(() -> {
+                max.accumulateAndGet(running.incrementAndGet(), Math::max);
+                TimeUnit.MILLISECONDS.sleep(2);
+                running.decrementAndGet();
+                return i;
+            })).collect(Collectors.toList());
+
+            assertEquals(IntStream.range(0, 20).boxed().collect(Collectors.toList()),
+                    futures.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+            assertTrue(max.get() <= 2);
+            assertEquals(20L, executor.getSubmitted());
+            assertEquals(20L, executor.getCompleted());
+            assertEquals(0, executor.getQueued());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldCompleteExceptionallyWhenCallFails() {
+        try (AsyncExecutor executor = AsyncExecutor.of(1, Duration.ZERO)) {
+            CompletableFuture<Object> future = executor.submit(() -> {
+                throw new IllegalStateException("error");
+            });
+            try {
+                future.join();
+                fail("It should fail");
+            } catch (CompletionException exception) {
+                assertTrue(exception.getCause() instanceof IllegalStateException);
+            }
+            assertEquals(1L, executor.getFailed());
+        }
+    }
+
+    @Test
+    public void shouldTimeoutAndSkipQueuedCall() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        try (AsyncExecutor executor = AsyncExecutor.of(1, Duration.ofMillis(20))) {
+            CompletableFuture<Boolean> blocked = executor.submit(() -> latch.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Integer> queued = executor.submit(calls::incrementAndGet);
+            try {
+                queued.join();
+                fail("It should time out");
+            } catch (CompletionException exception) {
+                assertTrue(exception.getCause() instanceof TimeoutException);
+            }
+            latch.countDown();
+            blocked.exceptionally(e -> true).join();
+            assertEquals(0, calls.get());
+            assertTrue(executor.getTimeouts() >= 1L);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+
+public class BatchExecutorTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenBatchSizeIsInvalid() {
+        BatchOptions.ordered(0);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenOptionsIsNull() {
+        BatchExecutor.execute(Collections.singletonList(1), null, b -> b);
+    }
+
+    @Test
+    public void shouldSaveInBatches() {
+        List<List<Integer>> calls = new ArrayList<>();
+        BatchResult<Integer> result = BatchExecutor.execute(numbers(10), BatchOptions.ordered(4), b -> {
+            calls.add(new ArrayList<>(b));
+            return b.stream().map(i -> i * 10).collect(Collectors.toList());
+        });
+
+        assertEquals(3, calls.size());
+        assertThat(calls.get(2), contains(8, 9));
+        assertTrue(result.isSuccess());
+        assertEquals(10, result.size());
+        assertEquals(Integer.valueOf(90), result.get(9).get());
+    }
+
+    @Test
+    public void shouldStopOrderedBatchAtFirstFailure() {
+        BatchResult<Integer> result = BatchExecutor.execute(numbers(10), BatchOptions.ordered(4), b -> {
+            if (b.contains(5)) {
+                throw new IllegalStateException("failure");
+            }
+            return b;
+        });
+
+        assertFalse(result.isSuccess());
+        assertEquals(Integer.valueOf(3), result.get(3).get());
+        assertFalse(result.get(4).isPresent());
+        assertEquals(Arrays.asList(4, 5, 6, 7), new ArrayList<>(result.getErrors().keySet()));
+        assertTrue(result.getError(7).get() instanceof IllegalStateException);
+        assertEquals(Arrays.asList(8, 9), result.getSkipped());
+    }
+
+    @Test
+    public void shouldKeepGoingWhenUnorderedBatchFails() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            BatchResult<Integer> result = BatchExecutor.execute(numbers(10), BatchOptions.unordered(3, executor), b -> {
+                if (b.contains(0)) {
+                    throw new IllegalStateException("failure");
+                }
+                return b;
+            });
+
+            assertEquals(Arrays.asList(0, 1, 2), new ArrayList<>(result.getErrors().keySet()));
+            assertTrue(result.getSkipped().isEmpty());
+            IntStream.range(3, 10).forEach(i -> assertEquals(Integer.valueOf(i), result.get(i).get()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private List<Integer> numbers(int size) {
+        return IntStream.range(0, size).boxed().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class BatchLoaderTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenMaxBatchSizeIsInvalid() {
+        BatchLoader.of(k -> CompletableFuture.completedFuture(new HashMap<>()), Duration.ZERO, 0);
+    }
+
+    @Test
+    public void shouldLoadTheBatchInTheExecutorWhenTheWindowPasses() {
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "loader"));
+        try {
+            List<String> threads = new CopyOnWriteArrayList<>();
+            BatchLoader<Integer, String> loader = BatchLoader.of(keys -> {
+                threads.add(Thread.currentThread().getName());
+                Map<Integer, String> values = new HashMap<>();
+                keys.forEach(k -> values.put(k, "value-" + k));
+                return CompletableFuture.completedFuture(values);
+            }, Duration.ofMillis(5), 10, executor);
+
+            assertEquals("value-1", loader.load(1).join().get());
+            assertEquals(Arrays.asList("loader"), threads);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldCollapseLoadsInTheWindow() {
+        List<Set<Integer>> batches = new CopyOnWriteArrayList<>();
+        BatchLoader<Integer, String> loader = BatchLoader.of(keys -> {
+            batches.add(new LinkedHashSet<>(keys));
+            Map<Integer, String> values = new HashMap<>();
+            keys.stream().filter(k -> k != 3).forEach(k -> values.put(k, "v" + k));
+            return CompletableFuture.completedFuture(values);
+        }, Duration.ofMillis(20), 100);
+
+        CompletableFuture<Optional<String>> one = loader.load(1);
+        CompletableFuture<Optional<String>> two = loader.load(2);
+        CompletableFuture<Optional<String>> duplicated = loader.load(1);
+        CompletableFuture<Optional<String>> three = loader.load(3);
+
+        assertEquals("v1", one.join().get());
+        assertEquals("v2", two.join().get());
+        assertEquals("v1", duplicated.join().get());
+        assertFalse(three.join().isPresent());
+        assertEquals(1, batches.size());
+        assertEquals(new LinkedHashSet<>(Arrays.asList(1, 2, 3)), batches.get(0));
+        assertEquals(4L, loader.getLoads());
+    }
+
+    @Test
+    public void shouldLoadWhenBatchIsFull() {
+        List<Set<Integer>> batches = new ArrayList<>();
+        BatchLoader<Integer, Integer> loader = BatchLoader.of(keys -> {
+            batches.add(keys);
+            Map<Integer, Integer> values = new HashMap<>();
+            keys.forEach(k -> values.put(k, k));
+            return CompletableFuture.completedFuture(values);
+        }, Duration.ofSeconds(10), 2);
+
+        CompletableFuture<Optional<Integer>> one = loader.load(1);
+        CompletableFuture<Optional<Integer>> two = loader.load(2);
+
+        assertTrue(one.isDone());
+        assertEquals(Integer.valueOf(2), two.join().get());
+        assertEquals(1L, loader.getBatches());
+    }
+
+    @Test
+    public void shouldFailEveryKeyWhenLoadFails() {
+        CompletableFuture<Map<Integer, Integer>> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("error"));
+        BatchLoader<Integer, Integer> loader = BatchLoader.of(keys -> failed, Duration.ofSeconds(10), 2);
+
+        CompletableFuture<Optional<Integer>> one = loader.load(1);
+        CompletableFuture<Optional<Integer>> two = loader.load(2);
+        assertTrue(one.isCompletedExceptionally());
+        assertTrue(two.isCompletedExceptionally());
+    }
+}
@@ -56,4 +56,9 @@ public class ConditionTest {
         assertEquals(LESSER_THAN,Condition.parse("_LESSER_THAN"));
 
     }
-}
\ No newline at end of file
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenConditionIsNotFound() {
+        Condition.parse("_UNKNOWN");
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api;
+
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+
+import static org.jnosql.diana.api.Sort.SortType.ASC;
+import static org.jnosql.diana.api.Sort.SortType.DESC;
+import static org.junit.Assert.assertEquals;
+
+
+public class CursorTest {
+
+    private static final byte[] KEY = "a-secret-key-to-sign-cursors".getBytes(StandardCharsets.UTF_8);
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenSortsIsNull() {
+        Cursor.of(null, Collections.emptyList());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenSortsIsEmpty() {
+        Cursor.of(Collections.emptyList(), Collections.emptyList());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenSizeIsDifferent() {
+        Cursor.of(Collections.singletonList(Sort.of("name", ASC)), Collections.emptyList());
+    }
+
+    @Test
+    public void shouldConvertToToken() {
+        Cursor cursor = Cursor.of(Arrays.asList(Sort.of("birthday", DESC), Sort.of("id", ASC)),
+                Arrays.asList(Value.of(LocalDate.of(2017, 1, 10)), Value.of(10L)));
+        String token = cursor.toToken(KEY);
+        assertEquals(cursor, Cursor.parse(token, KEY));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenTokenIsInvalid() {
+        Cursor.parse("invalid", KEY);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenKeyIsTooShort() {
+        cursor().toToken(new byte[8]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenKeyIsDifferent() {
+        String token = cursor().toToken(KEY);
+        Cursor.parse(token, "another-secret-key-to-sign".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenTokenIsChanged() {
+        byte[] bytes = Base64.getUrlDecoder().decode(cursor().toToken(KEY));
+        bytes[bytes.length - 40] ^= 1;
+        Cursor.parse(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes), KEY);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenTypeIsNotSupported() {
+        Cursor.of(Collections.singletonList(Sort.of("name", ASC)), Collections.singletonList(Value.of(new Name())))
+                .toToken(KEY);
+    }
+
+    private Cursor cursor() {
+        return Cursor.of(Collections.singletonList(Sort.of("id", ASC)), Collections.singletonList(Value.of(10L)));
+    }
+
+    private static class Name implements Serializable {
+    }
+}
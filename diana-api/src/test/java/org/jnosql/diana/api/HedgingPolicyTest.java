@@ -0,0 +1,123 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class HedgingPolicyTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenPercentileIsInvalid() {
+        HedgingPolicy.of(1.5, Duration.ofMillis(10), 0.1);
+    }
+
+    @Test
+    public void shouldNotHedgeFastCall() {
+        HedgingPolicy policy = HedgingPolicy.of(0.95, Duration.ofMillis(50), 1);
+        assertEquals("a", policy.execute(() -> CompletableFuture.completedFuture("a")).join());
+        assertEquals(0L, policy.getHedges());
+    }
+
+    @Test
+    public void shouldHedgeSlowCallAndCancelTheLoser() {
+        HedgingPolicy policy = HedgingPolicy.of(0.95, Duration.ofMillis(5), 1);
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        CompletableFuture<String> result = policy.execute(() -> {
+            CompletableFuture<String> call = new CompletableFuture<>();
+            if (calls.size() == 1) {
+                call.complete("hedge");
+            }
+            calls.add(call);
+            return call;
+        });
+
+        assertEquals("hedge", result.join());
+        assertEquals(1L, policy.getHedges());
+        assertEquals(1L, policy.getHedgeWins());
+        assertTrue(calls.get(0).isCancelled());
+    }
+
+    @Test
+    public void shouldSendTheHedgeFromTheExecutor() {
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "hedge"));
+        try {
+            HedgingPolicy policy = HedgingPolicy.of(0.95, Duration.ofMillis(5), 1, executor);
+            List<String> threads = new CopyOnWriteArrayList<>();
+            CompletableFuture<String> result = policy.execute(() -> {
+                threads.add(Thread.currentThread().getName());
+                CompletableFuture<String> call = new CompletableFuture<>();
+                if (threads.size() == 2) {
+                    call.complete("hedge");
+                }
+                return call;
+            });
+
+            assertEquals("hedge", result.join());
+            assertEquals("hedge", threads.get(1));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldRespectBudget() {
+        HedgingPolicy policy = HedgingPolicy.of(0.95, Duration.ZERO, 0.01);
+        for (int index = 0; index < 20; index++) {
+            policy.execute(CompletableFuture::new);
+        }
+        sleep();
+        assertTrue(policy.getHedges() <= 10L);
+    }
+
+    @Test
+    public void shouldFailWhenEveryCallFails() {
+        HedgingPolicy policy = HedgingPolicy.of(0.95, Duration.ofMillis(5), 1);
+        CompletableFuture<String> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("error"));
+        try {
+            policy.execute(() -> failed).join();
+            fail("It should fail");
+        } catch (CompletionException exception) {
+            assertTrue(exception.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+public class LikeTest {
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenPatternIsNull() {
+        Like.compile(null);
+    }
+
+    @Test
+    public void shouldCache() {
+        assertSame(Like.compile("Ada%"), Like.compile("Ada%"));
+    }
+
+    @Test
+    public void shouldMatchExact() {
+        Like like = Like.compile("Ada");
+        assertEquals(Like.Type.EXACT, like.getType());
+        assertTrue(like.matches("Ada"));
+        assertFalse(like.matches("Ada Lovelace"));
+        assertEquals("Ada", like.getPrefix().get());
+    }
+
+    @Test
+    public void shouldMatchPrefix() {
+        Like like = Like.compile("Ada%");
+        assertEquals(Like.Type.PREFIX, like.getType());
+        assertTrue(like.matches("Ada Lovelace"));
+        assertTrue(like.matches("Ada"));
+        assertFalse(like.matches("Lovelace"));
+        assertEquals("Ada", like.getPrefix().get());
+    }
+
+    @Test
+    public void shouldMatchSuffix() {
+        Like like = Like.compile("%lace");
+        assertEquals(Like.Type.SUFFIX, like.getType());
+        assertTrue(like.matches("Ada Lovelace"));
+        assertFalse(like.matches("Ada"));
+        assertFalse(like.getPrefix().isPresent());
+    }
+
+    @Test
+    public void shouldMatchContains() {
+        Like like = Like.compile("%Love%");
+        assertEquals(Like.Type.CONTAINS, like.getType());
+        assertTrue(like.matches("Ada Lovelace"));
+        assertFalse(like.matches("Ada"));
+    }
+
+    @Test
+    public void shouldMatchAny() {
+        Like like = Like.compile("%");
+        assertEquals(Like.Type.ANY, like.getType());
+        assertTrue(like.matches(""));
+        assertTrue(like.matches("Ada"));
+    }
+
+    @Test
+    public void shouldMatchRegex() {
+        Like like = Like.compile("A_a%lace");
+        assertEquals(Like.Type.REGEX, like.getType());
+        assertTrue(like.matches("Ada Lovelace"));
+        assertTrue(like.matches("Ana\nWallace"));
+        assertFalse(like.matches("Adda Lovelace"));
+        assertEquals("A", like.getPrefix().get());
+    }
+
+    @Test
+    public void shouldQuoteRegexCharacters() {
+        Like like = Like.compile("a.b_[c]%");
+        assertTrue(like.matches("a.b-[c]d"));
+        assertFalse(like.matches("axb-[c]d"));
+    }
+
+    @Test
+    public void shouldEscapeWildcards() {
+        Like like = Like.compile("100\\%");
+        assertEquals(Like.Type.EXACT, like.getType());
+        assertTrue(like.matches("100%"));
+        assertFalse(like.matches("1000"));
+    }
+
+    @Test
+    public void shouldMatchValue() {
+        assertTrue(Like.compile("10%").matches(Value.of(1024)));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class SingleFlightTest {
+
+    @Test
+    public void shouldShareTheCallInFlight() throws Exception {
+        SingleFlight<String> flight = SingleFlight.of();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<Integer> leader = executor.submit(() -> flight.execute("key", () -> {
+                started.countDown();
+                await(release);
+                return calls.incrementAndGet();
+            }));
+            started.await(5, TimeUnit.SECONDS);
+            List<Future<Integer>> followers = IntStream.range(0, 3)
+                    .mapToObj(i -> executor.submit(() -> flight.execute("key", calls::incrementAndGet)))
+                    .collect(Collectors.toList());
+            while (flight.getCollapsed() < 3) {
+                Thread.yield();
+            }
+            release.countDown();
+
+            assertEquals(Integer.valueOf(1), leader.get(5, TimeUnit.SECONDS));
+            for (Future<Integer> follower : followers) {
+                assertEquals(Integer.valueOf(1), follower.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+            assertEquals(1L, flight.getExecuted());
+            assertEquals(0, flight.getInFlight());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldCallAgainAfterTheCallFinishes() {
+        SingleFlight<String> flight = SingleFlight.of();
+        AtomicInteger calls = new AtomicInteger();
+        flight.execute("key", calls::incrementAndGet);
+        flight.execute("key", calls::incrementAndGet);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void shouldShareAsyncCallAndError() {
+        SingleFlight<String> flight = SingleFlight.of();
+        CompletableFuture<String> call = new CompletableFuture<>();
+        CompletableFuture<String> first = flight.executeAsync("key", () -> call);
+        CompletableFuture<String> second = flight.executeAsync("key", () -> CompletableFuture.completedFuture("b"));
+
+        call.completeExceptionally(new IllegalStateException("error"));
+        assertTrue(first.isCompletedExceptionally());
+        assertTrue(second.isCompletedExceptionally());
+        assertEquals(1L, flight.getCollapsed());
+    }
+
+    @Test
+    public void shouldPropagateErrorToTheCaller() {
+        SingleFlight<String> flight = SingleFlight.of();
+        try {
+            flight.execute("key", () -> {
+                throw new IllegalStateException("error");
+            });
+            fail("It should fail");
+        } catch (IllegalStateException exception) {
+            assertEquals(0, flight.getInFlight());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
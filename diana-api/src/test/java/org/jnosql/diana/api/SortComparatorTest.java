@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.contains;
+import static org.jnosql.diana.api.Sort.SortType.ASC;
+import static org.jnosql.diana.api.Sort.SortType.DESC;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+
+public class SortComparatorTest {
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenSortsIsNull() {
+        SortComparator.<Map<String, Object>>of(null, (m, n) -> Optional.empty());
+    }
+
+    @Test
+    public void shouldSortByMultipleKeys() {
+        Map<String, Object> ada = person("Ada", 30);
+        Map<String, Object> bob = person("Bob", 30);
+        Map<String, Object> carl = person("Carl", 25);
+        SortComparator<Map<String, Object>> comparator = SortComparator.of(
+                Arrays.asList(Sort.of("age", DESC), Sort.of("name", ASC)),
+                (m, n) -> Optional.ofNullable(m.get(n)).map(Value::of));
+
+        List<Map<String, Object>> people = Arrays.asList(carl, bob, ada);
+        people.sort(comparator);
+        assertThat(people, contains(ada, bob, carl));
+    }
+
+    @Test
+    public void shouldCompareDifferentNumbers() {
+        SortComparator<Map<String, Object>> comparator = SortComparator.of(
+                Collections.singletonList(Sort.of("age", ASC)),
+                (m, n) -> Optional.ofNullable(m.get(n)).map(Value::of));
+        assertTrue(comparator.compare(person("Ada", 10L), person("Bob", 11)) < 0);
+        assertTrue(comparator.compare(person("Ada", 10.5D), person("Bob", 10)) > 0);
+        assertTrue(comparator.compare(person("Ada", BigDecimal.TEN), person("Bob", 9)) > 0);
+        assertTrue(comparator.compare(person("Ada", 9), person("Bob", "10")) < 0);
+    }
+
+    @Test
+    public void shouldReturnMissingValueAsLast() {
+        SortComparator<Map<String, Object>> comparator = SortComparator.of(
+                Collections.singletonList(Sort.of("age", ASC)),
+                (m, n) -> Optional.ofNullable(m.get(n)).map(Value::of));
+        Map<String, Object> withoutAge = new HashMap<>();
+        assertTrue(comparator.compare(person("Ada", 10), withoutAge) < 0);
+    }
+
+    private Map<String, Object> person(String name, Object age) {
+        Map<String, Object> person = new HashMap<>();
+        person.put("name", name);
+        person.put("age", age);
+        return person;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+
+public class SortExecutorTest {
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenComparatorIsNull() {
+        SortExecutor.of(null, 0, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenMemoryIsInvalid() {
+        SortExecutor.of(Comparator.<Integer>naturalOrder(), 0, 10, 0);
+    }
+
+    @Test
+    public void shouldReturnTopK() {
+        SortExecutor<Integer> executor = SortExecutor.of(Comparator.<Integer>naturalOrder(), 0, 3);
+        List<Integer> result = executor.sort(Arrays.asList(9, 4, 7, 1, 8, 2));
+        assertThat(result, contains(1, 2, 4));
+    }
+
+    @Test
+    public void shouldReturnPage() {
+        SortExecutor<Integer> executor = SortExecutor.of(Comparator.<Integer>reverseOrder(), 2, 2);
+        List<Integer> result = executor.sort(Arrays.asList(9, 4, 7, 1, 8, 2));
+        assertThat(result, contains(7, 4));
+    }
+
+    @Test
+    public void shouldReturnEmptyWhenLimitIsZero() {
+        SortExecutor<Integer> executor = SortExecutor.of(Comparator.<Integer>naturalOrder(), 0, 0);
+        assertTrue(executor.sort(Arrays.asList(9, 4, 7)).isEmpty());
+    }
+
+    @Test
+    public void shouldSortWithoutLimit() {
+        SortExecutor<Integer> executor = SortExecutor.of(Comparator.<Integer>naturalOrder(), 1, -1);
+        List<Integer> result = executor.sort(Arrays.asList(9, 4, 7, 1));
+        assertThat(result, contains(4, 7, 9));
+    }
+
+    @Test
+    public void shouldSpillWhenExceedsMemory() {
+        List<Integer> numbers = IntStream.range(0, 1_000).boxed().collect(Collectors.toList());
+        Collections.shuffle(numbers, new Random(42));
+        SortExecutor<Integer> executor = SortExecutor.of(Comparator.<Integer>naturalOrder(), 10, 500, 64);
+
+        List<Integer> result = executor.sort(numbers);
+
+        List<Integer> expected = IntStream.range(10, 510).boxed().collect(Collectors.toList());
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void shouldSpillWithoutLimit() {
+        List<Integer> numbers = new ArrayList<>(IntStream.range(0, 300).boxed().collect(Collectors.toList()));
+        Collections.shuffle(numbers, new Random(7));
+        SortExecutor<Integer> executor = SortExecutor.of(Comparator.<Integer>reverseOrder(), 0, -1, 50);
+
+        List<Integer> result = executor.sort(numbers);
+
+        assertEquals(300, result.size());
+        assertEquals(Integer.valueOf(299), result.get(0));
+        assertEquals(Integer.valueOf(0), result.get(299));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class ValueComparatorTest {
+
+    private final ValueComparator comparator = ValueComparator.getInstance();
+
+    @Test
+    public void shouldCompareNumbersByExactValue() {
+        assertTrue(comparator.compare(Value.of(10L), Value.of(11)) < 0);
+        assertTrue(comparator.compare(Value.of(10.5D), Value.of(10)) > 0);
+        assertTrue(comparator.compare(Value.of(BigDecimal.TEN), Value.of(9)) > 0);
+        assertEquals(0, comparator.compare(Value.of(new BigInteger("10")), Value.of(10.0F)));
+        assertTrue(comparator.compare(Value.of(Long.MAX_VALUE), Value.of((double) Long.MAX_VALUE)) < 0);
+    }
+
+    @Test
+    public void shouldSortInfinityAndNaNAfterNumbers() {
+        assertTrue(comparator.compare(Value.of(Double.NEGATIVE_INFINITY), Value.of(Long.MIN_VALUE)) < 0);
+        assertTrue(comparator.compare(Value.of(Double.POSITIVE_INFINITY), Value.of(new BigDecimal("1e400"))) > 0);
+        assertTrue(comparator.compare(Value.of(Double.NaN), Value.of(Double.POSITIVE_INFINITY)) > 0);
+    }
+
+    @Test
+    public void shouldRankDifferentKinds() {
+        assertTrue(comparator.compare(Value.of(9), Value.of("10")) < 0);
+        assertTrue(comparator.compare(Value.of("10"), Value.of(9)) > 0);
+        assertTrue(comparator.compare(Value.of("true"), Value.of(false)) < 0);
+        assertTrue(comparator.compare(Value.of(true), Value.of(LocalDate.of(2017, 1, 1))) < 0);
+    }
+
+    @Test
+    public void shouldSortNullLast() {
+        assertTrue(comparator.compare(Value.of("a"), null) < 0);
+        assertTrue(comparator.compare(null, Value.of(1)) > 0);
+        assertEquals(0, comparator.compare(null, null));
+    }
+
+    @Test
+    public void shouldBeAntisymmetricAndTransitive() {
+        List<Value> values = Arrays.asList(Value.of(1), Value.of("1"), Value.of(2.5D), Value.of("abc"),
+                Value.of(LocalDate.of(2017, 1, 1)), Value.of(true), Value.of(BigDecimal.ONE), Value.of(Double.NaN),
+                Value.of(Arrays.asList(1, 2)), null);
+        for (Value a : values) {
+            for (Value b : values) {
+                assertEquals(Integer.signum(comparator.compare(a, b)), -Integer.signum(comparator.compare(b, a)));
+                for (Value c : values) {
+                    if (comparator.compare(a, b) <= 0 && comparator.compare(b, c) <= 0) {
+                        assertTrue(comparator.compare(a, c) <= 0);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class WriteBehindBufferTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenCapacityIsLesserThanBatchSize() {
+        WriteBehindBuffer.of(s -> s, this::complete, 10, 5, Duration.ZERO);
+    }
+
+    @Test
+    public void shouldCoalesceWritesToTheSameKey() {
+        List<List<String>> batches = new ArrayList<>();
+        WriteBehindBuffer<Character, String> buffer = WriteBehindBuffer.of(s -> s.charAt(0), b -> {
+            batches.add(b);
+            return complete(b);
+        }, 10, 10, Duration.ZERO);
+
+        List<String> callBacks = new ArrayList<>();
+        buffer.add("a1", callBacks::add);
+        buffer.add("b1");
+        buffer.add("a2", callBacks::add);
+        assertEquals(2, buffer.size());
+        assertTrue(batches.isEmpty());
+
+        buffer.flush().join();
+        assertEquals(Arrays.asList(Arrays.asList("a2", "b1")), batches);
+        assertEquals(Arrays.asList("a2", "a2"), callBacks);
+        assertEquals(1L, buffer.getCoalesced());
+        assertEquals(2L, buffer.getWritten());
+    }
+
+    @Test
+    public void shouldFlushBySize() {
+        List<List<String>> batches = new ArrayList<>();
+        WriteBehindBuffer<String, String> buffer = WriteBehindBuffer.of(s -> s, b -> {
+            batches.add(b);
+            return complete(b);
+        }, 2, 4, Duration.ZERO);
+
+        buffer.add("a");
+        buffer.add("b");
+        buffer.add("c");
+        assertEquals(Arrays.asList(Arrays.asList("a", "b")), batches);
+        assertEquals(1, buffer.size());
+    }
+
+    @Test
+    public void shouldFlushByTime() throws InterruptedException {
+        List<List<String>> batches = new CopyOnWriteArrayList<>();
+        WriteBehindBuffer<String, String> buffer = WriteBehindBuffer.of(s -> s, b -> {
+            batches.add(b);
+            return complete(b);
+        }, 100, 100, Duration.ofMillis(10));
+        buffer.add("a");
+        for (int index = 0; index < 100 && batches.isEmpty(); index++) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        buffer.close();
+        assertEquals(Arrays.asList(Arrays.asList("a")), batches);
+    }
+
+    @Test
+    public void shouldFlushByTimeInTheExecutor() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "flusher"));
+        try {
+            List<String> threads = new CopyOnWriteArrayList<>();
+            WriteBehindBuffer<String, String> buffer = WriteBehindBuffer.of(s -> s, b -> {
+                threads.add(Thread.currentThread().getName());
+                return complete(b);
+            }, (previous, next) -> next, 100, 100, Duration.ofMillis(10), executor);
+            buffer.add("a");
+            for (int index = 0; index < 100 && threads.isEmpty(); index++) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+            buffer.close();
+            assertEquals(Arrays.asList("flusher"), threads);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldReturnErrorWhenBufferIsClosed() {
+        WriteBehindBuffer<String, String> buffer = WriteBehindBuffer.of(s -> s, this::complete, 10, 10,
+                Duration.ZERO);
+        buffer.close();
+        buffer.add("a");
+    }
+
+    @Test
+    public void shouldWaitWhenBufferIsFull() throws InterruptedException {
+        CompletableFuture<Void> write = new CompletableFuture<>();
+        WriteBehindBuffer<String, String> buffer = WriteBehindBuffer.of(s -> s, b -> write, 1, 1, Duration.ZERO);
+        buffer.add("a");
+
+        AtomicBoolean added = new AtomicBoolean();
+        Thread thread = new Thread(() -> {
+            buffer.add("b");
+            added.set(true);
+        });
+        thread.start();
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertFalse(added.get());
+
+        write.complete(null);
+        thread.join(5000);
+        assertTrue(added.get());
+    }
+
+    @Test
+    public void shouldNotCallBackWhenFlushFails() {
+        List<String> callBacks = new ArrayList<>();
+        WriteBehindBuffer<String, String> buffer = WriteBehindBuffer.of(s -> s, b -> {
+            throw new IllegalStateException("error");
+        }, 10, 10, Duration.ZERO);
+        buffer.add("a", callBacks::add);
+
+        assertTrue(buffer.flush().isCompletedExceptionally());
+        assertTrue(callBacks.isEmpty());
+        assertEquals(1L, buffer.getFailed());
+    }
+
+    @Test
+    public void shouldWriteBatchesInOrder() {
+        List<List<String>> batches = new ArrayList<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        WriteBehindBuffer<String, String> buffer = WriteBehindBuffer.of(s -> s, b -> {
+            batches.add(b);
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            futures.add(future);
+            return future;
+        }, 1, 10, Duration.ZERO);
+
+        buffer.add("a");
+        buffer.add("b");
+        buffer.add("c");
+        assertEquals(Arrays.asList(Arrays.asList("a")), batches);
+
+        futures.get(0).completeExceptionally(new IllegalStateException("error"));
+        assertEquals(Arrays.asList(Arrays.asList("a"), Arrays.asList("b")), batches);
+        futures.get(1).complete(null);
+        assertEquals(Arrays.asList(Arrays.asList("a"), Arrays.asList("b"), Arrays.asList("c")), batches);
+        futures.get(2).complete(null);
+        assertEquals(2L, buffer.getWritten());
+        assertEquals(1L, buffer.getFailed());
+    }
+
+    @Test
+    public void shouldCompleteFlushWhenCallBackFails() {
+        List<String> callBacks = new ArrayList<>();
+        WriteBehindBuffer<String, String> buffer = WriteBehindBuffer.of(s -> s, this::complete, 10, 10,
+                Duration.ZERO);
+        buffer.add("a", a -> {
+            throw new IllegalStateException("error");
+        });
+        buffer.add("b", callBacks::add);
+
+        CompletableFuture<Void> flush = buffer.flush();
+        assertTrue(flush.isDone());
+        assertFalse(flush.isCompletedExceptionally());
+        assertEquals(Arrays.asList("b"), callBacks);
+    }
+
+    private CompletableFuture<Void> complete(List<String> batch) {
+        return CompletableFuture.completedFuture(null);
+    }
+}
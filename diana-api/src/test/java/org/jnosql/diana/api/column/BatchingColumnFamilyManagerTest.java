@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api.column;
+
+import org.jnosql.diana.api.Condition;
+import org.jnosql.diana.api.Sort;
+import org.jnosql.diana.api.TypeReference;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class BatchingColumnFamilyManagerTest {
+
+    private final List<ColumnEntity> entities = Arrays.asList(person(1L, "Ada"), person(2L, "Grace"),
+            person(3L, "Ada"));
+
+    @Test
+    public void shouldCollapseEqualityQueriesIntoIn() {
+        InMemoryManager memory = new InMemoryManager();
+        BatchingColumnFamilyManager manager = BatchingColumnFamilyManager.of(memory, Duration.ofMillis(20), 100);
+
+        CompletableFuture<List<ColumnEntity>> ada = manager.find(query("name", "Ada")).toCompletableFuture();
+        CompletableFuture<List<ColumnEntity>> grace = manager.find(query("name", "Grace")).toCompletableFuture();
+        CompletableFuture<List<ColumnEntity>> linus = manager.find(query("name", "Linus")).toCompletableFuture();
+
+        assertEquals(2, ada.join().size());
+        assertEquals(1, grace.join().size());
+        assertTrue(linus.join().isEmpty());
+        assertEquals(1, memory.queries.size());
+        assertEquals(Condition.IN, memory.queries.get(0).getCondition().get().getCondition());
+    }
+
+    @Test
+    public void shouldReturnCopiesToEachQuery() {
+        InMemoryManager memory = new InMemoryManager();
+        BatchingColumnFamilyManager manager = BatchingColumnFamilyManager.of(memory, Duration.ofMillis(20), 100);
+
+        CompletableFuture<List<ColumnEntity>> first = manager.find(query("name", "Grace")).toCompletableFuture();
+        CompletableFuture<List<ColumnEntity>> second = manager.find(query("name", "Grace")).toCompletableFuture();
+
+        first.join().get(0).add(Column.of("age", 30));
+        assertEquals(1, memory.queries.size());
+        assertFalse(second.join().get(0).find("age").isPresent());
+        assertEquals(2, entities.get(1).size());
+    }
+
+    @Test
+    public void shouldMatchNumbersOfDifferentTypes() {
+        InMemoryManager memory = new InMemoryManager();
+        BatchingColumnFamilyManager manager = BatchingColumnFamilyManager.of(memory, Duration.ofMillis(5), 100);
+
+        List<ColumnEntity> result = manager.find(query("id", 2)).toCompletableFuture().join();
+        assertEquals(1, result.size());
+        assertEquals("Grace", result.get(0).find("name").get().get());
+    }
+
+    @Test
+    public void shouldNotCollapseSortedQuery() {
+        InMemoryManager memory = new InMemoryManager();
+        BatchingColumnFamilyManager manager = BatchingColumnFamilyManager.of(memory, Duration.ofMillis(5), 100);
+        ColumnQuery query = query("name", "Ada");
+        query.addSort(Sort.of("id", Sort.SortType.ASC));
+
+        manager.find(query).toCompletableFuture().join();
+        assertEquals(Condition.EQUALS, memory.queries.get(0).getCondition().get().getCondition());
+    }
+
+    private ColumnQuery query(String name, Object value) {
+        ColumnQuery query = ColumnQuery.of("person");
+        query.and(ColumnCondition.eq(Column.of(name, value)));
+        return query;
+    }
+
+    private static ColumnEntity person(long id, String name) {
+        return ColumnEntity.of("person", Arrays.asList(Column.of("id", id), Column.of("name", name)));
+    }
+
+    private class InMemoryManager implements CompletableColumnFamilyManager {
+
+        private final List<ColumnQuery> queries = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletionStage<List<ColumnEntity>> find(ColumnQuery query) {
+            queries.add(query);
+            ColumnCondition condition = query.getCondition().get();
+            Column column = condition.getColumn();
+            List<Object> values = Condition.IN.equals(condition.getCondition()) ?
+                    column.get(new TypeReference<List<Object>>() {
+                    }) : Arrays.asList(column.get());
+            List<ColumnEntity> result = entities.stream()
+                    .filter(e -> values.stream().map(Object::toString).anyMatch(v -> v.equals(e.find(column.getName())
+                            .get().get().toString())))
+                    .collect(Collectors.toList());
+            return CompletableFuture.completedFuture(new ArrayList<>(result));
+        }
+
+        @Override
+        public CompletionStage<ColumnEntity> save(ColumnEntity entity) {
+            return CompletableFuture.completedFuture(entity);
+        }
+
+        @Override
+        public CompletionStage<ColumnEntity> save(ColumnEntity entity, Duration ttl) {
+            return save(entity);
+        }
+
+        @Override
+        public CompletionStage<ColumnEntity> update(ColumnEntity entity) {
+            return save(entity);
+        }
+
+        @Override
+        public CompletionStage<Void> delete(ColumnDeleteQuery query) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
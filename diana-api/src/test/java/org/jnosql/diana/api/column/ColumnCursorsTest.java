@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api.column;
+
+import org.jnosql.diana.api.Condition;
+import org.jnosql.diana.api.Cursor;
+import org.jnosql.diana.api.Sort;
+import org.jnosql.diana.api.TypeReference;
+import org.jnosql.diana.api.Value;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.jnosql.diana.api.Sort.SortType.ASC;
+import static org.jnosql.diana.api.Sort.SortType.DESC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class ColumnCursorsTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenThereIsNoSort() {
+        ColumnQuery query = ColumnQuery.of("person");
+        query.setLimit(10);
+        ColumnCursors.first(query);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenThereIsNoLimit() {
+        ColumnQuery query = ColumnQuery.of("person");
+        query.addSort(Sort.of("id", ASC));
+        ColumnCursors.first(query);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenSortsAreDifferent() {
+        ColumnQuery query = ColumnQuery.of("person");
+        query.addSort(Sort.of("id", ASC));
+        query.setLimit(10);
+        ColumnCursors.next(query, Cursor.of(Collections.singletonList(Sort.of("id", DESC)),
+                Collections.singletonList(Value.of(10))));
+    }
+
+    @Test
+    public void shouldRewriteWithOneSort() {
+        ColumnQuery query = ColumnQuery.of("person");
+        query.addSort(Sort.of("id", DESC));
+        query.setLimit(10);
+        query.setStart(30);
+
+        ColumnQuery next = ColumnCursors.next(query, Cursor.of(query.getSorts(),
+                Collections.singletonList(Value.of(10))));
+
+        assertEquals(0L, next.getStart());
+        assertEquals(10L, next.getLimit());
+        assertEquals(query.getSorts(), next.getSorts());
+        assertEquals(ColumnCondition.lt(Column.of("id", 10)), next.getCondition().get());
+    }
+
+    @Test
+    public void shouldRewriteWithManySorts() {
+        ColumnQuery query = ColumnQuery.of("person");
+        query.and(ColumnCondition.eq(Column.of("country", "BR")));
+        query.addSort(Sort.of("age", ASC));
+        query.addSort(Sort.of("id", DESC));
+        query.setLimit(2);
+
+        ColumnQuery next = ColumnCursors.next(query, Cursor.of(query.getSorts(),
+                Arrays.asList(Value.of(26), Value.of(3))));
+
+        ColumnCondition condition = next.getCondition().get();
+        assertEquals(Condition.AND, condition.getCondition());
+        List<ColumnCondition> conditions = condition.getColumn().get(new TypeReference<List<ColumnCondition>>() {
+        });
+        assertEquals(ColumnCondition.eq(Column.of("country", "BR")), conditions.get(0));
+        ColumnCondition expected = ColumnCondition.or(ColumnCondition.gt(Column.of("age", 26)),
+                ColumnCondition.eq(Column.of("age", 26)).and(ColumnCondition.lt(Column.of("id", 3))));
+        assertEquals(expected, conditions.get(1));
+    }
+
+    @Test
+    public void shouldCreatePageWithCursor() {
+        ColumnQuery query = ColumnQuery.of("person");
+        query.addSort(Sort.of("id", ASC));
+        query.setLimit(2);
+        List<ColumnEntity> entities = Arrays.asList(person(1), person(2));
+
+        ColumnPage page = ColumnCursors.page(query, entities);
+
+        assertEquals(entities, page.getEntities());
+        assertTrue(page.getNext().isPresent());
+        assertEquals(Value.of(2), page.getNext().get().getValues().get(0));
+    }
+
+    @Test
+    public void shouldCreateLastPage() {
+        ColumnQuery query = ColumnQuery.of("person");
+        query.addSort(Sort.of("id", ASC));
+        query.setLimit(2);
+
+        ColumnPage page = ColumnCursors.page(query, Collections.singletonList(person(1)));
+
+        assertFalse(page.getNext().isPresent());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldReturnErrorWhenEntityDoesNotHaveSortColumn() {
+        ColumnQuery query = ColumnQuery.of("person");
+        query.addSort(Sort.of("name", ASC));
+        query.setLimit(1);
+        ColumnCursors.page(query, Collections.singletonList(person(1)));
+    }
+
+    private ColumnEntity person(int id) {
+        ColumnEntity entity = ColumnEntity.of("person");
+        entity.add(Column.of("id", id));
+        return entity;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api.column;
+
+import org.jnosql.diana.api.Condition;
+import org.jnosql.diana.api.Sort;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.jnosql.diana.api.Sort.SortType.ASC;
+import static org.jnosql.diana.api.Sort.SortType.DESC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+
+public class ColumnQueryCodecTest {
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenQueryIsNull() {
+        ColumnQueryCodec.encode((ColumnQuery) null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenBytesAreInvalid() {
+        ColumnQueryCodec.decodeQuery(new byte[]{1, 2, 3});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenTypeIsDifferent() {
+        ColumnQueryCodec.decodeQuery(ColumnQueryCodec.encode(ColumnDeleteQuery.of("person")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenBytesAreTruncated() {
+        ColumnQuery query = ColumnQuery.of("person");
+        query.and(ColumnCondition.eq(Column.of("name", "Ada")));
+        byte[] bytes = ColumnQueryCodec.encode(query);
+        ColumnQueryCodec.decodeQuery(Arrays.copyOf(bytes, bytes.length - 3));
+    }
+
+    @Test
+    public void shouldEncodeQuery() {
+        ColumnQuery query = ColumnQuery.of("person");
+        query.addColumn("name").addColumn("age");
+        query.and(ColumnCondition.eq(Column.of("name", "Ada")))
+                .and(ColumnCondition.gte(Column.of("age", 10)))
+                .or(ColumnCondition.in(Column.of("city", Arrays.asList("Salvador", "Lisbon"))));
+        query.addSort(Sort.of("name", ASC)).addSort(Sort.of("age", DESC));
+        query.setStart(10);
+        query.setLimit(20);
+
+        ColumnQuery decoded = ColumnQueryCodec.decodeQuery(ColumnQueryCodec.encode(query));
+
+        assertEquals(query.getColumnFamily(), decoded.getColumnFamily());
+        assertEquals(query.getColumns(), decoded.getColumns());
+        assertEquals(query.getCondition(), decoded.getCondition());
+        assertEquals(query.getSorts(), decoded.getSorts());
+        assertEquals(10L, decoded.getStart());
+        assertEquals(20L, decoded.getLimit());
+    }
+
+    @Test
+    public void shouldEncodeQueryWithoutCondition() {
+        ColumnQuery decoded = ColumnQueryCodec.decodeQuery(ColumnQueryCodec.encode(ColumnQuery.of("person")));
+        assertEquals("person", decoded.getColumnFamily());
+        assertFalse(decoded.getCondition().isPresent());
+    }
+
+    @Test
+    public void shouldEncodeDeleteQuery() {
+        ColumnDeleteQuery query = ColumnDeleteQuery.of("person", ColumnCondition.eq(Column.of("id", 10L)));
+        query.add("name");
+
+        ColumnDeleteQuery decoded = ColumnQueryCodec.decodeDeleteQuery(ColumnQueryCodec.encode(query));
+
+        assertEquals(query.getColumnFamily(), decoded.getColumnFamily());
+        assertEquals(query.getColumns(), decoded.getColumns());
+        assertEquals(query.getCondition(), decoded.getCondition());
+    }
+
+    @Test
+    public void shouldEncodeConditions() {
+        ColumnCondition condition = ColumnCondition.between(Column.of("age", Arrays.asList(10, 20)))
+                .and(ColumnCondition.like(Column.of("name", "Ad%")).negate())
+                .or(ColumnCondition.lt(Column.of("salary", new BigDecimal("10.50"))))
+                .or(ColumnCondition.gt(Column.of("birthday", LocalDate.of(2000, 1, 1))));
+
+        assertEquals(condition, ColumnQueryCodec.decodeCondition(ColumnQueryCodec.encode(condition)));
+    }
+
+    @Test
+    public void shouldEncodeSubColumns() {
+        ColumnCondition condition = ColumnCondition.eq(Column.of("address",
+                Arrays.asList(Column.of("city", "Salvador"), Column.of("zip", 40000))))
+                .and(ColumnCondition.eq(Column.of("phone", Column.of("mobile", "55"))));
+
+        assertEquals(condition, ColumnQueryCodec.decodeCondition(ColumnQueryCodec.encode(condition)));
+    }
+
+    @Test
+    public void shouldEncodeSubquery() {
+        ColumnQuery subquery = ColumnQuery.of("address");
+        subquery.and(ColumnCondition.eq(Column.of("city", "Salvador")));
+        subquery.setLimit(1);
+
+        ColumnCondition decoded = ColumnQueryCodec.decodeCondition(ColumnQueryCodec
+                .encode(ColumnCondition.subquery(subquery)));
+
+        assertEquals(Condition.SUBQUERY, decoded.getCondition());
+        ColumnQuery query = decoded.getColumn().get(ColumnQuery.class);
+        assertEquals("address", query.getColumnFamily());
+        assertEquals(subquery.getCondition(), query.getCondition());
+        assertEquals(1L, query.getLimit());
+    }
+
+    @Test
+    public void shouldEncodeSorts() {
+        List<Sort> sorts = Arrays.asList(Sort.of("name", ASC), Sort.of("age", DESC), Sort.of("name", DESC));
+        assertEquals(sorts, ColumnQueryCodec.decodeSorts(ColumnQueryCodec.encode(sorts)));
+    }
+}
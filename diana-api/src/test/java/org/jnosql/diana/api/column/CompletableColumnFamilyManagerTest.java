@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api.column;
+
+import org.jnosql.diana.api.CompletableFutures;
+import org.jnosql.diana.api.NonUniqueResultException;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class CompletableColumnFamilyManagerTest {
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenManagerIsNull() {
+        CompletableColumnFamilyManager.of(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenTimeoutIsZero() {
+        CompletableColumnFamilyManager.of(new CallBackManager(), Duration.ZERO);
+    }
+
+    @Test
+    public void shouldCompleteFind() {
+        ColumnEntity entity = ColumnEntity.of("person", Collections.singletonList(Column.of("name", "Ada")));
+        CallBackManager async = new CallBackManager();
+        CompletableFuture<List<ColumnEntity>> future = CompletableColumnFamilyManager.of(async)
+                .find(ColumnQuery.of("person")).toCompletableFuture();
+
+        assertFalse(future.isDone());
+        async.finds.get(0).accept(Collections.singletonList(entity));
+        assertEquals(Collections.singletonList(entity), future.join());
+    }
+
+    @Test
+    public void shouldCompleteExceptionallyWhenThereIsMoreThanOneResult() {
+        ColumnEntity entity = ColumnEntity.of("person");
+        CallBackManager async = new CallBackManager();
+        CompletableFuture<Optional<ColumnEntity>> future = CompletableColumnFamilyManager.of(async)
+                .singleResult(ColumnQuery.of("person")).toCompletableFuture();
+        async.finds.get(0).accept(Arrays.asList(entity, entity));
+
+        try {
+            future.join();
+            fail("It should complete exceptionally");
+        } catch (CompletionException exception) {
+            assertTrue(exception.getCause() instanceof NonUniqueResultException);
+        }
+    }
+
+    @Test
+    public void shouldCompleteExceptionallyWhenOperationThrows() {
+        CallBackManager async = new CallBackManager();
+        CompletableFuture<ColumnEntity> future = CompletableColumnFamilyManager.of(async)
+                .save(ColumnEntity.of("person"), Duration.ofSeconds(1)).toCompletableFuture();
+
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    public void shouldTimeout() {
+        CallBackManager async = new CallBackManager();
+        CompletableFuture<List<ColumnEntity>> future = CompletableColumnFamilyManager.of(async, Duration.ofMillis(10))
+                .find(ColumnQuery.of("person")).toCompletableFuture();
+        try {
+            future.join();
+            fail("It should time out");
+        } catch (CompletionException exception) {
+            assertTrue(exception.getCause() instanceof TimeoutException);
+        }
+        async.finds.get(0).accept(Collections.emptyList());
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    public void shouldIgnoreCallBackAfterCancel() {
+        CallBackManager async = new CallBackManager();
+        CompletableFuture<List<ColumnEntity>> future = CompletableColumnFamilyManager.of(async)
+                .find(ColumnQuery.of("person")).toCompletableFuture();
+
+        assertTrue(future.cancel(true));
+        async.finds.get(0).accept(Collections.emptyList());
+        assertTrue(future.isCancelled());
+    }
+
+    @Test
+    public void shouldAdaptBackToCallBack() {
+        ColumnEntity entity = ColumnEntity.of("person");
+        CallBackManager async = new CallBackManager();
+        AtomicReference<List<ColumnEntity>> result = new AtomicReference<>();
+        CompletableColumnFamilyManager.of(async).toAsync().find(ColumnQuery.of("person"), result::set);
+
+        async.finds.get(0).accept(Collections.singletonList(entity));
+        assertEquals(Collections.singletonList(entity), result.get());
+    }
+
+    @Test
+    public void shouldDeliverFailureToErrorConsumer() {
+        CompletableFuture<ColumnEntity> future = new CompletableFuture<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CompletableFutures.callBack(future.thenApply(e -> e), e -> fail("It should not call back"), error::set);
+
+        IllegalStateException exception = new IllegalStateException("error");
+        future.completeExceptionally(exception);
+        assertEquals(exception, error.get());
+    }
+
+    private static class CallBackManager implements ColumnFamilyManagerAsync {
+
+        private final List<Consumer<List<ColumnEntity>>> finds = new ArrayList<>();
+
+        @Override
+        public void save(ColumnEntity entity) {
+            save(entity, e -> {
+            });
+        }
+
+        @Override
+        public void save(ColumnEntity entity, Duration ttl) {
+            save(entity, ttl, e -> {
+            });
+        }
+
+        @Override
+        public void save(ColumnEntity entity, Consumer<ColumnEntity> callBack) {
+            callBack.accept(entity);
+        }
+
+        @Override
+        public void save(ColumnEntity entity, Duration ttl, Consumer<ColumnEntity> callBack) {
+            throw new UnsupportedOperationException("ttl is not supported");
+        }
+
+        @Override
+        public void update(ColumnEntity entity) {
+            save(entity);
+        }
+
+        @Override
+        public void update(ColumnEntity entity, Consumer<ColumnEntity> callBack) {
+            save(entity, callBack);
+        }
+
+        @Override
+        public void delete(ColumnDeleteQuery query) {
+        }
+
+        @Override
+        public void delete(ColumnDeleteQuery query, Consumer<Void> callBack) {
+            callBack.accept(null);
+        }
+
+        @Override
+        public void find(ColumnQuery query, Consumer<List<ColumnEntity>> callBack) {
+            finds.add(callBack);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api.column;
+
+import org.jnosql.diana.api.Sort;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+
+public class SortColumnFamilyManagerTest {
+
+    private List<ColumnQuery> queries;
+
+    private AtomicBoolean closed;
+
+    private ColumnFamilyManager manager;
+
+    @Before
+    public void setUp() {
+        queries = new ArrayList<>();
+        closed = new AtomicBoolean();
+        List<ColumnEntity> entities = new ArrayList<>();
+        for (int age : new int[]{40, 10, 30, 20, 50}) {
+            ColumnEntity entity = ColumnEntity.of("person");
+            entity.add(Column.of("name", "person" + age));
+            entity.add(Column.of("age", age));
+            entities.add(entity);
+        }
+        manager = SortColumnFamilyManager.of(new ColumnFamilyManager() {
+            @Override
+            public ColumnEntity save(ColumnEntity entity) {
+                return entity;
+            }
+
+            @Override
+            public ColumnEntity update(ColumnEntity entity) {
+                return entity;
+            }
+
+            @Override
+            public ColumnEntity save(ColumnEntity entity, Duration ttl) {
+                return entity;
+            }
+
+            @Override
+            public void delete(ColumnDeleteQuery query) {
+            }
+
+            @Override
+            public List<ColumnEntity> find(ColumnQuery query) {
+                queries.add(query);
+                return entities;
+            }
+
+            @Override
+            public Stream<ColumnEntity> select(ColumnQuery query) {
+                return find(query).stream().map(ColumnEntity::copy).onClose(() -> closed.set(true));
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenManagerIsNull() {
+        SortColumnFamilyManager.of(null);
+    }
+
+    @Test
+    public void shouldSortInClient() {
+        ColumnQuery query = ColumnQuery.of("person");
+        query.addSort(Sort.of("age", Sort.SortType.DESC));
+        query.setStart(1);
+        query.setLimit(2);
+
+        List<Integer> ages = manager.find(query).stream()
+                .map(e -> e.find("age").get().get(Integer.class)).collect(Collectors.toList());
+
+        assertThat(ages, contains(40, 30));
+        ColumnQuery sent = queries.get(0);
+        assertTrue(sent.getSorts().isEmpty());
+        assertEquals(0L, sent.getStart());
+        assertEquals(-1L, sent.getLimit());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void shouldNotSortWhenThereIsNoSort() {
+        ColumnQuery query = ColumnQuery.of("person");
+        assertEquals(5, manager.find(query).size());
+        assertFalse(queries.isEmpty());
+        assertEquals(query, queries.get(0));
+    }
+
+    @Test
+    public void shouldSelectSorted() {
+        ColumnQuery query = ColumnQuery.of("person");
+        query.addSort(Sort.of("age", Sort.SortType.ASC));
+        query.setLimit(3);
+
+        try (Stream<ColumnEntity> entities = manager.select(query)) {
+            List<Integer> ages = entities.map(e -> e.find("age").get().get(Integer.class))
+                    .collect(Collectors.toList());
+            assertThat(ages, contains(10, 20, 30));
+        }
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void shouldSelectTheSortColumnsOutOfTheProjection() {
+        ColumnQuery query = ColumnQuery.of("person");
+        query.addColumn("name");
+        query.addSort(Sort.of("age", Sort.SortType.DESC));
+        query.setLimit(2);
+
+        List<ColumnEntity> entities = manager.find(query);
+
+        assertThat(queries.get(0).getColumns(), contains("name", "age"));
+        assertThat(entities.stream().map(e -> e.find("name").get().get(String.class))
+                .collect(Collectors.toList()), contains("person50", "person40"));
+        assertTrue(entities.stream().noneMatch(e -> e.find("age").isPresent()));
+    }
+}
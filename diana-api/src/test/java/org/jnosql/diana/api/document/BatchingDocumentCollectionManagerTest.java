@@ -0,0 +1,154 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api.document;
+
+import org.jnosql.diana.api.Condition;
+import org.jnosql.diana.api.Sort;
+import org.jnosql.diana.api.TypeReference;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class BatchingDocumentCollectionManagerTest {
+
+    private final List<DocumentEntity> entities = Arrays.asList(person(1L, "Ada"), person(2L, "Grace"),
+            person(3L, "Ada"));
+
+    @Test
+    public void shouldCollapseEqualityQueriesIntoIn() {
+        InMemoryManager memory = new InMemoryManager();
+        BatchingDocumentCollectionManager manager = 
+                BatchingDocumentCollectionManager.of(memory, Duration.ofMillis(20), 100);
+
+        CompletableFuture<List<DocumentEntity>> ada = manager.find(query("name", "Ada")).toCompletableFuture();
+        CompletableFuture<List<DocumentEntity>> grace = manager.find(query("name", "Grace")).toCompletableFuture();
+        CompletableFuture<List<DocumentEntity>> linus = manager.find(query("name", "Linus")).toCompletableFuture();
+
+        assertEquals(2, ada.join().size());
+        assertEquals(1, grace.join().size());
+        assertTrue(linus.join().isEmpty());
+        assertEquals(1, memory.queries.size());
+        assertEquals(Condition.IN, memory.queries.get(0).getCondition().get().getCondition());
+    }
+
+    @Test
+    public void shouldReturnCopiesToEachQuery() {
+        InMemoryManager memory = new InMemoryManager();
+        BatchingDocumentCollectionManager manager = 
+                BatchingDocumentCollectionManager.of(memory, Duration.ofMillis(20), 100);
+
+        CompletableFuture<List<DocumentEntity>> first = manager.find(query("name", "Grace")).toCompletableFuture();
+        CompletableFuture<List<DocumentEntity>> second = manager.find(query("name", "Grace")).toCompletableFuture();
+
+        first.join().get(0).add(Document.of("age", 30));
+        assertEquals(1, memory.queries.size());
+        assertFalse(second.join().get(0).find("age").isPresent());
+        assertEquals(2, entities.get(1).size());
+    }
+
+    @Test
+    public void shouldMatchNumbersOfDifferentTypes() {
+        InMemoryManager memory = new InMemoryManager();
+        BatchingDocumentCollectionManager manager = 
+                BatchingDocumentCollectionManager.of(memory, Duration.ofMillis(5), 100);
+
+        List<DocumentEntity> result = manager.find(query("id", 2)).toCompletableFuture().join();
+        assertEquals(1, result.size());
+        assertEquals("Grace", result.get(0).find("name").get().get());
+    }
+
+    @Test
+    public void shouldNotCollapseSortedQuery() {
+        InMemoryManager memory = new InMemoryManager();
+        BatchingDocumentCollectionManager manager = 
+                BatchingDocumentCollectionManager.of(memory, Duration.ofMillis(5), 100);
+        DocumentQuery query = query("name", "Ada");
+        query.addSort(Sort.of("id", Sort.SortType.ASC));
+
+        manager.find(query).toCompletableFuture().join();
+        assertEquals(Condition.EQUALS, memory.queries.get(0).getCondition().get().getCondition());
+    }
+
+    private DocumentQuery query(String name, Object value) {
+        DocumentQuery query = DocumentQuery.of("person");
+        query.and(DocumentCondition.eq(Document.of(name, value)));
+        return query;
+    }
+
+    private static DocumentEntity person(long id, String name) {
+        return DocumentEntity.of("person", Arrays.asList(Document.of("id", id), Document.of("name", name)));
+    }
+
+    private class InMemoryManager implements CompletableDocumentCollectionManager {
+
+        private final List<DocumentQuery> queries = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletionStage<List<DocumentEntity>> find(DocumentQuery query) {
+            queries.add(query);
+            DocumentCondition condition = query.getCondition().get();
+            Document document = condition.getDocument();
+            List<Object> values = Condition.IN.equals(condition.getCondition()) ?
+                    document.get(new TypeReference<List<Object>>() {
+                    }) : Arrays.asList(document.get());
+            List<DocumentEntity> result = entities.stream()
+                    .filter(e -> values.stream().map(Object::toString).anyMatch(v -> v.equals(e.find(document.getName())
+                            .get().get().toString())))
+                    .collect(Collectors.toList());
+            return CompletableFuture.completedFuture(new ArrayList<>(result));
+        }
+
+        @Override
+        public CompletionStage<DocumentEntity> save(DocumentEntity entity) {
+            return CompletableFuture.completedFuture(entity);
+        }
+
+        @Override
+        public CompletionStage<DocumentEntity> save(DocumentEntity entity, Duration ttl) {
+            return save(entity);
+        }
+
+        @Override
+        public CompletionStage<DocumentEntity> update(DocumentEntity entity) {
+            return save(entity);
+        }
+
+        @Override
+        public CompletionStage<Void> delete(DocumentDeleteQuery query) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
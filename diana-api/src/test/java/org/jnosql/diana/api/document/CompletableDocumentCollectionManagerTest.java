@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api.document;
+
+import org.jnosql.diana.api.CompletableFutures;
+import org.jnosql.diana.api.NonUniqueResultException;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class CompletableDocumentCollectionManagerTest {
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenManagerIsNull() {
+        CompletableDocumentCollectionManager.of(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenTimeoutIsZero() {
+        CompletableDocumentCollectionManager.of(new CallBackManager(), Duration.ZERO);
+    }
+
+    @Test
+    public void shouldCompleteFind() {
+        DocumentEntity entity = DocumentEntity.of("person", Collections.singletonList(Document.of("name", "Ada")));
+        CallBackManager async = new CallBackManager();
+        CompletableFuture<List<DocumentEntity>> future = CompletableDocumentCollectionManager.of(async)
+                .find(DocumentQuery.of("person")).toCompletableFuture();
+
+        assertFalse(future.isDone());
+        async.finds.get(0).accept(Collections.singletonList(entity));
+        assertEquals(Collections.singletonList(entity), future.join());
+    }
+
+    @Test
+    public void shouldCompleteExceptionallyWhenThereIsMoreThanOneResult() {
+        DocumentEntity entity = DocumentEntity.of("person");
+        CallBackManager async = new CallBackManager();
+        CompletableFuture<Optional<DocumentEntity>> future = CompletableDocumentCollectionManager.of(async)
+                .singleResult(DocumentQuery.of("person")).toCompletableFuture();
+        async.finds.get(0).accept(Arrays.asList(entity, entity));
+
+        try {
+            future.join();
+            fail("It should complete exceptionally");
+        } catch (CompletionException exception) {
+            assertTrue(exception.getCause() instanceof NonUniqueResultException);
+        }
+    }
+
+    @Test
+    public void shouldCompleteExceptionallyWhenOperationThrows() {
+        CallBackManager async = new CallBackManager();
+        CompletableFuture<DocumentEntity> future = CompletableDocumentCollectionManager.of(async)
+                .save(DocumentEntity.of("person"), Duration.ofSeconds(1)).toCompletableFuture();
+
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    public void shouldTimeout() {
+        CallBackManager async = new CallBackManager();
+        CompletableFuture<List<DocumentEntity>> future = CompletableDocumentCollectionManager
+                .of(async, Duration.ofMillis(10)).find(DocumentQuery.of("person")).toCompletableFuture();
+        try {
+            future.join();
+            fail("It should time out");
+        } catch (CompletionException exception) {
+            assertTrue(exception.getCause() instanceof TimeoutException);
+        }
+        async.finds.get(0).accept(Collections.emptyList());
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    public void shouldIgnoreCallBackAfterCancel() {
+        CallBackManager async = new CallBackManager();
+        CompletableFuture<List<DocumentEntity>> future = CompletableDocumentCollectionManager.of(async)
+                .find(DocumentQuery.of("person")).toCompletableFuture();
+
+        assertTrue(future.cancel(true));
+        async.finds.get(0).accept(Collections.emptyList());
+        assertTrue(future.isCancelled());
+    }
+
+    @Test
+    public void shouldAdaptBackToCallBack() {
+        DocumentEntity entity = DocumentEntity.of("person");
+        CallBackManager async = new CallBackManager();
+        AtomicReference<List<DocumentEntity>> result = new AtomicReference<>();
+        CompletableDocumentCollectionManager.of(async).toAsync().find(DocumentQuery.of("person"), result::set);
+
+        async.finds.get(0).accept(Collections.singletonList(entity));
+        assertEquals(Collections.singletonList(entity), result.get());
+    }
+
+    @Test
+    public void shouldDeliverFailureToErrorConsumer() {
+        CompletableFuture<DocumentEntity> future = new CompletableFuture<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CompletableFutures.callBack(future.thenApply(e -> e), e -> fail("It should not call back"), error::set);
+
+        IllegalStateException exception = new IllegalStateException("error");
+        future.completeExceptionally(exception);
+        assertEquals(exception, error.get());
+    }
+
+    private static class CallBackManager implements DocumentCollectionManagerAsync {
+
+        private final List<Consumer<List<DocumentEntity>>> finds = new ArrayList<>();
+
+        @Override
+        public void save(DocumentEntity entity) {
+            save(entity, e -> {
+            });
+        }
+
+        @Override
+        public void save(DocumentEntity entity, Duration ttl) {
+            save(entity, ttl, e -> {
+            });
+        }
+
+        @Override
+        public void save(DocumentEntity entity, Consumer<DocumentEntity> callBack) {
+            callBack.accept(entity);
+        }
+
+        @Override
+        public void save(DocumentEntity entity, Duration ttl, Consumer<DocumentEntity> callBack) {
+            throw new UnsupportedOperationException("ttl is not supported");
+        }
+
+        @Override
+        public void update(DocumentEntity entity) {
+            save(entity);
+        }
+
+        @Override
+        public void update(DocumentEntity entity, Consumer<DocumentEntity> callBack) {
+            save(entity, callBack);
+        }
+
+        @Override
+        public void delete(DocumentDeleteQuery query) {
+        }
+
+        @Override
+        public void delete(DocumentDeleteQuery query, Consumer<Void> callBack) {
+            callBack.accept(null);
+        }
+
+        @Override
+        public void find(DocumentQuery query, Consumer<List<DocumentEntity>> callBack) {
+            finds.add(callBack);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
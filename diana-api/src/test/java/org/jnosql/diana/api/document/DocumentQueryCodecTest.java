@@ -0,0 +1,169 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api.document;
+
+import org.jnosql.diana.api.Condition;
+import org.jnosql.diana.api.Sort;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.jnosql.diana.api.Sort.SortType.ASC;
+import static org.jnosql.diana.api.Sort.SortType.DESC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+
+public class DocumentQueryCodecTest {
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenQueryIsNull() {
+        DocumentQueryCodec.encode((DocumentQuery) null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenBytesAreInvalid() {
+        DocumentQueryCodec.decodeQuery(new byte[]{1, 2, 3});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenTypeIsDifferent() {
+        DocumentQueryCodec.decodeQuery(DocumentQueryCodec.encode(DocumentDeleteQuery.of("person")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenBytesAreTruncated() {
+        DocumentQuery query = DocumentQuery.of("person");
+        query.and(DocumentCondition.eq(Document.of("name", "Ada")));
+        byte[] bytes = DocumentQueryCodec.encode(query);
+        DocumentQueryCodec.decodeQuery(Arrays.copyOf(bytes, bytes.length - 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenValueIsNotSupported() {
+        DocumentQuery query = DocumentQuery.of("person");
+        query.and(DocumentCondition.eq(Document.of("name", new Name("Ada"))));
+        DocumentQueryCodec.encode(query);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenTagIsUnknown() {
+        DocumentCondition condition = DocumentCondition.eq(Document.of("age", 5));
+        byte[] bytes = DocumentQueryCodec.encode(condition);
+        bytes[bytes.length - 2] = 99;
+        DocumentQueryCodec.decodeCondition(bytes);
+    }
+
+    @Test
+    public void shouldEncodeQuery() {
+        DocumentQuery query = DocumentQuery.of("person");
+        query.addColumn("name").addColumn("age");
+        query.and(DocumentCondition.eq(Document.of("name", "Ada")))
+                .and(DocumentCondition.gte(Document.of("age", 10)))
+                .or(DocumentCondition.in(Document.of("city", Arrays.asList("Salvador", "Lisbon"))));
+        query.addSort(Sort.of("name", ASC)).addSort(Sort.of("age", DESC));
+        query.setStart(10);
+        query.setLimit(20);
+
+        DocumentQuery decoded = DocumentQueryCodec.decodeQuery(DocumentQueryCodec.encode(query));
+
+        assertEquals(query.getCollection(), decoded.getCollection());
+        assertEquals(query.getDocuments(), decoded.getDocuments());
+        assertEquals(query.getCondition(), decoded.getCondition());
+        assertEquals(query.getSorts(), decoded.getSorts());
+        assertEquals(10L, decoded.getStart());
+        assertEquals(20L, decoded.getLimit());
+    }
+
+    @Test
+    public void shouldEncodeQueryWithoutCondition() {
+        DocumentQuery decoded = DocumentQueryCodec.decodeQuery(DocumentQueryCodec.encode(DocumentQuery.of("person")));
+        assertEquals("person", decoded.getCollection());
+        assertFalse(decoded.getCondition().isPresent());
+    }
+
+    @Test
+    public void shouldEncodeDeleteQuery() {
+        DocumentDeleteQuery query = DocumentDeleteQuery.of("person", DocumentCondition.eq(Document.of("id", 10L)));
+        query.add("name");
+
+        DocumentDeleteQuery decoded = DocumentQueryCodec.decodeDeleteQuery(DocumentQueryCodec.encode(query));
+
+        assertEquals(query.getCollection(), decoded.getCollection());
+        assertEquals(query.getDocuments(), decoded.getDocuments());
+        assertEquals(query.getCondition(), decoded.getCondition());
+    }
+
+    @Test
+    public void shouldEncodeConditions() {
+        DocumentCondition condition = DocumentCondition.between(Document.of("age", Arrays.asList(10, 20)))
+                .and(DocumentCondition.like(Document.of("name", "Ad%")).negate())
+                .or(DocumentCondition.lt(Document.of("salary", new BigDecimal("10.50"))))
+                .or(DocumentCondition.gt(Document.of("birthday", LocalDate.of(2000, 1, 1))));
+
+        assertEquals(condition, DocumentQueryCodec.decodeCondition(DocumentQueryCodec.encode(condition)));
+    }
+
+    @Test
+    public void shouldEncodeSubDocuments() {
+        DocumentCondition condition = DocumentCondition.eq(Document.of("address",
+                Arrays.asList(Document.of("city", "Salvador"), Document.of("zip", 40000))))
+                .and(DocumentCondition.eq(Document.of("phone", Document.of("mobile", "55"))));
+
+        assertEquals(condition, DocumentQueryCodec.decodeCondition(DocumentQueryCodec.encode(condition)));
+    }
+
+    @Test
+    public void shouldEncodeSubquery() {
+        DocumentQuery subquery = DocumentQuery.of("address");
+        subquery.and(DocumentCondition.eq(Document.of("city", "Salvador")));
+        subquery.setLimit(1);
+
+        DocumentCondition decoded = DocumentQueryCodec.decodeCondition(DocumentQueryCodec
+                .encode(DocumentCondition.subquery(subquery)));
+
+        assertEquals(Condition.SUBQUERY, decoded.getCondition());
+        DocumentQuery query = decoded.getDocument().get(DocumentQuery.class);
+        assertEquals("address", query.getCollection());
+        assertEquals(subquery.getCondition(), query.getCondition());
+        assertEquals(1L, query.getLimit());
+    }
+
+    @Test
+    public void shouldEncodeSorts() {
+        List<Sort> sorts = Arrays.asList(Sort.of("name", ASC), Sort.of("age", DESC), Sort.of("name", DESC));
+        assertEquals(sorts, DocumentQueryCodec.decodeSorts(DocumentQueryCodec.encode(sorts)));
+    }
+
+    private static final class Name implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String value;
+
+        private Name(String value) {
+            this.value = value;
+        }
+    }
+}
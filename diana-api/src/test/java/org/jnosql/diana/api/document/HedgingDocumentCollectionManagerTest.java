@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api.document;
+
+import org.jnosql.diana.api.HedgingPolicy;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class HedgingDocumentCollectionManagerTest {
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenPolicyIsNull() {
+        HedgingDocumentCollectionManager.of(new Slow(), null);
+    }
+
+    @Test
+    public void shouldHedgeTheSlowQuery() {
+        Slow slow = new Slow();
+        HedgingDocumentCollectionManager manager = HedgingDocumentCollectionManager.of(slow,
+                HedgingPolicy.of(0.95, Duration.ofMillis(5), 1));
+
+        List<DocumentEntity> entities = manager.find(DocumentQuery.of("person")).toCompletableFuture().join();
+
+        assertEquals("hedge", entities.get(0).find("name").get().get());
+        assertEquals(2, slow.finds.size());
+        assertTrue(slow.finds.get(0).isCancelled());
+        assertEquals(1L, manager.getPolicy().getHedges());
+    }
+
+    @Test
+    public void shouldNotHedgeTheWrites() throws InterruptedException {
+        Slow slow = new Slow();
+        HedgingDocumentCollectionManager manager = HedgingDocumentCollectionManager.of(slow,
+                HedgingPolicy.of(0.95, Duration.ofMillis(5), 1));
+
+        manager.save(DocumentEntity.of("person"));
+        Thread.sleep(50);
+
+        assertEquals(1, slow.saves.size());
+        assertEquals(0L, manager.getPolicy().getHedges());
+    }
+
+    private static class Slow implements CompletableDocumentCollectionManager {
+
+        private final List<CompletableFuture<List<DocumentEntity>>> finds = new CopyOnWriteArrayList<>();
+
+        private final List<CompletableFuture<DocumentEntity>> saves = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletionStage<List<DocumentEntity>> find(DocumentQuery query) {
+            CompletableFuture<List<DocumentEntity>> find = new CompletableFuture<>();
+            if (!finds.isEmpty()) {
+                find.complete(Collections.singletonList(DocumentEntity.of("person",
+                        Collections.singletonList(Document.of("name", "hedge")))));
+            }
+            finds.add(find);
+            return find;
+        }
+
+        @Override
+        public CompletionStage<DocumentEntity> save(DocumentEntity entity) {
+            CompletableFuture<DocumentEntity> save = new CompletableFuture<>();
+            saves.add(save);
+            return save;
+        }
+
+        @Override
+        public CompletionStage<DocumentEntity> save(DocumentEntity entity, Duration ttl) {
+            return save(entity);
+        }
+
+        @Override
+        public CompletionStage<DocumentEntity> update(DocumentEntity entity) {
+            return save(entity);
+        }
+
+        @Override
+        public CompletionStage<Void> delete(DocumentDeleteQuery query) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api.document;
+
+import org.jnosql.diana.api.ReplicaPolicy;
+import org.junit.Test;
+
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class ReplicaDocumentCollectionManagerTest {
+
+    private final ReplicaPolicy policy = ReplicaPolicy.of(Duration.ofSeconds(1), 2, Duration.ofMinutes(1), 2, true);
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenThereIsNoReplica() {
+        ReplicaDocumentCollectionManager.of(new Node(), Collections.emptyList());
+    }
+
+    @Test
+    public void shouldWriteToPrimaryAndReadFromReplicas() {
+        Node primary = new Node();
+        Node replica = new Node();
+        ReplicaDocumentCollectionManager manager = ReplicaDocumentCollectionManager.of(primary,
+                Collections.singletonList(replica), policy);
+
+        manager.save(DocumentEntity.of("person"));
+        manager.update(DocumentEntity.of("person"));
+        manager.delete(DocumentDeleteQuery.of("person"));
+        manager.find(DocumentQuery.of("person"));
+
+        assertEquals(3, primary.writes.get());
+        assertEquals(0, primary.reads.get());
+        assertEquals(0, replica.writes.get());
+        assertEquals(1, replica.reads.get());
+    }
+
+    @Test
+    public void shouldFailOverAndEjectFailingReplica() {
+        Node primary = new Node();
+        Node broken = new Node();
+        broken.failing = true;
+        Node replica = new Node();
+        ReplicaDocumentCollectionManager manager = ReplicaDocumentCollectionManager.of(primary,
+                Arrays.asList(broken, replica), ReplicaPolicy.of(Duration.ofSeconds(1), 1, Duration.ofMinutes(1),
+                        2, true));
+
+        for (int index = 0; index < 20; index++) {
+            manager.find(DocumentQuery.of("person"));
+        }
+
+        assertEquals(20, replica.reads.get());
+        assertEquals(0, primary.reads.get());
+        assertEquals(1, broken.reads.get());
+        assertEquals(1L, manager.getBalancer().getFailovers());
+        assertEquals(1L, manager.getBalancer().getEjections());
+        assertFalse(manager.getBalancer().isHealthy(0));
+        assertTrue(manager.getBalancer().isHealthy(1));
+    }
+
+    @Test
+    public void shouldFallBackToPrimaryWhenEveryReplicaFails() {
+        Node primary = new Node();
+        Node replica = new Node();
+        replica.failing = true;
+        ReplicaDocumentCollectionManager manager = ReplicaDocumentCollectionManager.of(primary,
+                Collections.singletonList(replica), policy);
+
+        manager.find(DocumentQuery.of("person"));
+        assertEquals(1, primary.reads.get());
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void shouldReturnErrorWhenFallbackIsDisabled() {
+        Node replica = new Node();
+        replica.failing = true;
+        ReplicaDocumentCollectionManager manager = ReplicaDocumentCollectionManager.of(new Node(),
+                Collections.singletonList(replica),
+                ReplicaPolicy.of(Duration.ofSeconds(1), 2, Duration.ofMinutes(1), 2, false));
+        manager.find(DocumentQuery.of("person"));
+    }
+
+    @Test
+    public void shouldNotRetryErrorThatIsNotRetryable() {
+        Node primary = new Node();
+        Node replica = new Node();
+        replica.error = new IllegalArgumentException("The query is invalid");
+        Node other = new Node();
+        other.error = replica.error;
+        ReplicaDocumentCollectionManager manager = ReplicaDocumentCollectionManager.of(primary,
+                Arrays.asList(replica, other), policy);
+
+        try {
+            manager.find(DocumentQuery.of("person"));
+            fail("It should throw the error of the replica");
+        } catch (IllegalArgumentException exception) {
+            assertEquals(1, replica.reads.get() + other.reads.get());
+            assertEquals(0, primary.reads.get());
+            assertEquals(0L, manager.getBalancer().getFailovers());
+            assertTrue(manager.getBalancer().isHealthy(0));
+            assertTrue(manager.getBalancer().isHealthy(1));
+        }
+    }
+
+    @Test
+    public void shouldRetryErrorsOfCustomPredicate() {
+        Node primary = new Node();
+        Node replica = new Node();
+        replica.error = new IllegalStateException("The node is busy");
+        ReplicaDocumentCollectionManager manager = ReplicaDocumentCollectionManager.of(primary,
+                Collections.singletonList(replica), ReplicaPolicy.of(Duration.ofSeconds(1), 2, Duration.ofMinutes(1),
+                        2, true, e -> e instanceof IllegalStateException));
+
+        manager.find(DocumentQuery.of("person"));
+        assertEquals(1, primary.reads.get());
+    }
+
+    @Test
+    public void shouldPreferFasterReplica() throws InterruptedException {
+        Node slow = new Node();
+        slow.delay = 20;
+        Node fast = new Node();
+        ReplicaDocumentCollectionManager manager = ReplicaDocumentCollectionManager.of(new Node(),
+                Arrays.asList(slow, fast), policy);
+
+        for (int index = 0; index < 30; index++) {
+            manager.find(DocumentQuery.of("person"));
+        }
+        assertTrue(fast.reads.get() > slow.reads.get());
+    }
+
+    @Test
+    public void shouldSendReadsToReplicaThatRecovered() throws InterruptedException {
+        Node broken = new Node();
+        broken.failing = true;
+        Node replica = new Node();
+        ReplicaDocumentCollectionManager manager = ReplicaDocumentCollectionManager.of(new Node(),
+                Arrays.asList(broken, replica),
+                ReplicaPolicy.of(Duration.ofMillis(10), 1, Duration.ofMillis(50), 2, true));
+        while (broken.reads.get() == 0) {
+            manager.find(DocumentQuery.of("person"));
+        }
+        assertFalse(manager.getBalancer().isHealthy(0));
+
+        broken.failing = false;
+        Thread.sleep(100);
+        for (int index = 0; index < 100; index++) {
+            manager.find(DocumentQuery.of("person"));
+            Thread.sleep(1);
+        }
+        assertTrue(broken.reads.get() > 10);
+    }
+
+    @Test
+    public void shouldSendReadsToReplicaThatWasSlow() throws InterruptedException {
+        Node slow = new Node();
+        slow.delay = 20;
+        Node replica = new Node();
+        ReplicaDocumentCollectionManager manager = ReplicaDocumentCollectionManager.of(new Node(),
+                Arrays.asList(slow, replica),
+                ReplicaPolicy.of(Duration.ofMillis(10), 2, Duration.ofMinutes(1), 2, true));
+        while (slow.reads.get() == 0) {
+            manager.find(DocumentQuery.of("person"));
+        }
+
+        slow.delay = 0;
+        Thread.sleep(200);
+        for (int index = 0; index < 100; index++) {
+            manager.find(DocumentQuery.of("person"));
+            Thread.sleep(1);
+        }
+        assertTrue(slow.reads.get() > 10);
+    }
+
+    @Test
+    public void shouldCreateManagerFromConfiguration() {
+        Node primary = new Node();
+        Node replica = new Node();
+        ReplicaDocumentConfiguration configuration = ReplicaDocumentConfiguration.of(() -> factory(primary),
+                Collections.singletonList(() -> factory(replica)), policy);
+
+        ReplicaDocumentCollectionManager manager = configuration.get().get("database");
+        manager.find(DocumentQuery.of("person"));
+        assertEquals(1, replica.reads.get());
+        assertEquals(policy, manager.getBalancer().getPolicy());
+    }
+
+    private static DocumentCollectionManagerFactory<Node> factory(Node node) {
+        return new DocumentCollectionManagerFactory<Node>() {
+            @Override
+            public Node get(String database) {
+                return node;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static class Node implements DocumentCollectionManager {
+
+        private final AtomicInteger writes = new AtomicInteger();
+
+        private final AtomicInteger reads = new AtomicInteger();
+
+        private volatile boolean failing;
+
+        private volatile RuntimeException error;
+
+        private volatile long delay;
+
+        @Override
+        public DocumentEntity save(DocumentEntity entity) {
+            writes.incrementAndGet();
+            return entity;
+        }
+
+        @Override
+        public DocumentEntity update(DocumentEntity entity) {
+            return save(entity);
+        }
+
+        @Override
+        public DocumentEntity save(DocumentEntity entity, Duration ttl) {
+            return save(entity);
+        }
+
+        @Override
+        public void delete(DocumentDeleteQuery query) {
+            writes.incrementAndGet();
+        }
+
+        @Override
+        public List<DocumentEntity> find(DocumentQuery query) {
+            reads.incrementAndGet();
+            if (failing) {
+                throw new UncheckedIOException(new ConnectException("The node is down"));
+            }
+            if (error != null) {
+                throw error;
+            }
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api.document;
+
+import org.jnosql.diana.api.Partitioner;
+import org.jnosql.diana.api.Sort;
+import org.jnosql.diana.api.SortComparator;
+import org.jnosql.diana.api.Value;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+
+public class ShardedDocumentCollectionManagerTest {
+
+    private List<Shard> shards;
+
+    private ShardedDocumentCollectionManager manager;
+
+    @Before
+    public void setUp() {
+        shards = Arrays.asList(new Shard(), new Shard(), new Shard());
+        List<DocumentCollectionManager> managers = new ArrayList<>(shards);
+        manager = ShardedDocumentCollectionManager.of(managers, "id", Partitioner.consistent(3, 64));
+        IntStream.rangeClosed(1, 30).forEach(i -> manager.save(person(i)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenShardsDoNotMatchPartitioner() {
+        ShardedDocumentCollectionManager.of(Arrays.asList(new Shard(), new Shard()), "id", Partitioner.hash(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenEntityHasNoKey() {
+        manager.save(DocumentEntity.of("person"));
+    }
+
+    @Test
+    public void shouldSpreadEntitiesByKey() {
+        assertEquals(30, shards.stream().mapToInt(s -> s.entities.size()).sum());
+        shards.forEach(s -> assertTrue(s.entities.size() > 0));
+        for (int index = 0; index < shards.size(); index++) {
+            for (DocumentEntity entity : shards.get(index).entities) {
+                assertEquals(index, manager.partition(entity.find("id").get().get()));
+            }
+        }
+    }
+
+    @Test
+    public void shouldSendKeyQueryToOneShard() {
+        shards.forEach(s -> s.queries.clear());
+        DocumentQuery query = DocumentQuery.of("person");
+        query.and(DocumentCondition.eq(Document.of("id", 7)));
+
+        List<DocumentEntity> result = manager.find(query);
+
+        assertEquals(1, result.size());
+        assertEquals(1, shards.stream().mapToInt(s -> s.queries.size()).sum());
+        assertEquals(1, shards.get(manager.partition(7)).queries.size());
+    }
+
+    @Test
+    public void shouldMergeSortedPage() {
+        shards.forEach(s -> s.queries.clear());
+        DocumentQuery query = DocumentQuery.of("person");
+        query.addSort(Sort.of("id", Sort.SortType.DESC));
+        query.setStart(2);
+        query.setLimit(4);
+
+        List<Integer> ids = manager.find(query).stream().map(e -> e.find("id").get().get(Integer.class))
+                .collect(Collectors.toList());
+
+        assertThat(ids, contains(28, 27, 26, 25));
+        shards.forEach(s -> assertEquals(6L, s.queries.get(0).getLimit()));
+    }
+
+    @Test
+    public void shouldSaveIterableInOrder() {
+        List<DocumentEntity> entities = IntStream.rangeClosed(31, 40).mapToObj(this::person)
+                .collect(Collectors.toList());
+        List<DocumentEntity> saved = new ArrayList<>();
+        manager.save(entities).forEach(saved::add);
+        assertEquals(entities, saved);
+    }
+
+    @Test
+    public void shouldDeleteInEveryShard() {
+        manager.delete(DocumentDeleteQuery.of("person"));
+        shards.forEach(s -> assertTrue(s.entities.isEmpty()));
+    }
+
+    @Test
+    public void shouldHashNumbersByValue() {
+        Partitioner partitioner = Partitioner.hash(16);
+        assertEquals(partitioner.partition(Value.of(10)), partitioner.partition(Value.of(10L)));
+        assertEquals(partitioner.partition(Value.of(10)), partitioner.partition(Value.of(10.0)));
+    }
+
+    @Test
+    public void shouldMoveFewKeysWhenShardIsAdded() {
+        Partitioner four = Partitioner.consistent(4, 128);
+        Partitioner five = Partitioner.consistent(5, 128);
+        long moved = IntStream.range(0, 10_000)
+                .filter(i -> four.partition(Value.of(i)) != five.partition(Value.of(i))).count();
+        assertTrue(moved < 3_000);
+    }
+
+    private DocumentEntity person(int id) {
+        DocumentEntity entity = DocumentEntity.of("person");
+        entity.add(Document.of("id", id));
+        return entity;
+    }
+
+    private static class Shard implements DocumentCollectionManager {
+
+        private final List<DocumentEntity> entities = new CopyOnWriteArrayList<>();
+
+        private final List<DocumentQuery> queries = new CopyOnWriteArrayList<>();
+
+        @Override
+        public DocumentEntity save(DocumentEntity entity) {
+            entities.add(entity);
+            return entity;
+        }
+
+        @Override
+        public DocumentEntity update(DocumentEntity entity) {
+            return save(entity);
+        }
+
+        @Override
+        public DocumentEntity save(DocumentEntity entity, Duration ttl) {
+            return save(entity);
+        }
+
+        @Override
+        public void delete(DocumentDeleteQuery query) {
+            entities.clear();
+        }
+
+        @Override
+        public List<DocumentEntity> find(DocumentQuery query) {
+            queries.add(query);
+            SortComparator<DocumentEntity> comparator = SortComparator.of(query.getSorts(),
+                    (entity, name) -> entity.find(name).map(Document::getValue));
+            return entities.stream().filter(e -> query.getCondition()
+                    .map(c -> e.find(c.getDocument().getName()).equals(Optional.of(c.getDocument())))
+                    .orElse(true)).sorted(comparator)
+                    .limit(query.getLimit() > 0 ? query.getLimit() : Long.MAX_VALUE)
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
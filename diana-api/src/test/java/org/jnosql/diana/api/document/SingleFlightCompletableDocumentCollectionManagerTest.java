@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api.document;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+
+
+public class SingleFlightCompletableDocumentCollectionManagerTest {
+
+    @Test
+    public void shouldShareTheQueryAndCopyTheEntities() {
+        Pending pending = new Pending();
+        SingleFlightCompletableDocumentCollectionManager manager =
+                SingleFlightCompletableDocumentCollectionManager.of(pending);
+
+        CompletableFuture<List<DocumentEntity>> first = manager.find(query()).toCompletableFuture();
+        CompletableFuture<List<DocumentEntity>> second = manager.find(query()).toCompletableFuture();
+        pending.result.complete(Collections.singletonList(DocumentEntity.of("person",
+                Collections.singletonList(Document.of("name", "Ada")))));
+
+        assertEquals(1, pending.calls.get());
+        assertNotSame(first.join().get(0), second.join().get(0));
+        first.join().get(0).add(Document.of("age", 36));
+        assertFalse(second.join().get(0).find("age").isPresent());
+    }
+
+    @Test
+    public void shouldShareTheQueryOnASubDocument() {
+        Pending pending = new Pending();
+        SingleFlightCompletableDocumentCollectionManager manager =
+                SingleFlightCompletableDocumentCollectionManager.of(pending);
+
+        manager.find(subDocumentQuery());
+        manager.find(subDocumentQuery());
+
+        assertEquals(1, pending.calls.get());
+    }
+
+    private static DocumentQuery subDocumentQuery() {
+        DocumentQuery query = DocumentQuery.of("person");
+        query.and(DocumentCondition.eq(Document.of("address", Document.of("city", "Salvador"))));
+        return query;
+    }
+
+    private static DocumentQuery query() {
+        DocumentQuery query = DocumentQuery.of("person");
+        query.and(DocumentCondition.eq(Document.of("name", "Ada")));
+        return query;
+    }
+
+    private static class Pending implements CompletableDocumentCollectionManager {
+
+        private final CompletableFuture<List<DocumentEntity>> result = new CompletableFuture<>();
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public CompletionStage<List<DocumentEntity>> find(DocumentQuery query) {
+            calls.incrementAndGet();
+            return result;
+        }
+
+        @Override
+        public CompletionStage<DocumentEntity> save(DocumentEntity entity) {
+            return CompletableFuture.completedFuture(entity);
+        }
+
+        @Override
+        public CompletionStage<DocumentEntity> save(DocumentEntity entity, Duration ttl) {
+            return save(entity);
+        }
+
+        @Override
+        public CompletionStage<DocumentEntity> update(DocumentEntity entity) {
+            return save(entity);
+        }
+
+        @Override
+        public CompletionStage<Void> delete(DocumentDeleteQuery query) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api.document;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+
+
+public class SingleFlightDocumentCollectionManagerTest {
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenManagerIsNull() {
+        SingleFlightDocumentCollectionManager.of(null);
+    }
+
+    @Test
+    public void shouldShareTheQueryAndCopyTheEntities() throws Exception {
+        Blocking blocking = new Blocking();
+        SingleFlightDocumentCollectionManager manager = SingleFlightDocumentCollectionManager.of(blocking);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<DocumentEntity>> first = executor.submit(() -> manager.find(query()));
+            blocking.started.await(5, TimeUnit.SECONDS);
+            Future<List<DocumentEntity>> second = executor.submit(() -> manager.find(query()));
+            while (manager.getFlight().getCollapsed() < 1) {
+                Thread.yield();
+            }
+            blocking.release.countDown();
+
+            DocumentEntity firstEntity = first.get(5, TimeUnit.SECONDS).get(0);
+            DocumentEntity secondEntity = second.get(5, TimeUnit.SECONDS).get(0);
+            assertEquals(1, blocking.calls.get());
+            assertNotSame(firstEntity, secondEntity);
+            firstEntity.add(Document.of("age", 36));
+            assertFalse(secondEntity.find("age").isPresent());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldCallAgainAfterTheQueryFinishes() {
+        Blocking blocking = new Blocking();
+        blocking.release.countDown();
+        SingleFlightDocumentCollectionManager manager = SingleFlightDocumentCollectionManager.of(blocking);
+
+        manager.find(query());
+        manager.find(query());
+
+        assertEquals(2, blocking.calls.get());
+    }
+
+    private static DocumentQuery query() {
+        DocumentQuery query = DocumentQuery.of("person");
+        query.and(DocumentCondition.eq(Document.of("name", "Ada")));
+        return query;
+    }
+
+    private static class Blocking implements DocumentCollectionManager {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public List<DocumentEntity> find(DocumentQuery query) {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections.singletonList(DocumentEntity.of("person",
+                    Collections.singletonList(Document.of("name", "Ada"))));
+        }
+
+        @Override
+        public DocumentEntity save(DocumentEntity entity) {
+            return entity;
+        }
+
+        @Override
+        public DocumentEntity save(DocumentEntity entity, Duration ttl) {
+            return entity;
+        }
+
+        @Override
+        public DocumentEntity update(DocumentEntity entity) {
+            return entity;
+        }
+
+        @Override
+        public void delete(DocumentDeleteQuery query) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
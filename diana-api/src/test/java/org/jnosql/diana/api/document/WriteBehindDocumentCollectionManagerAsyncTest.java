@@ -0,0 +1,141 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api.document;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class WriteBehindDocumentCollectionManagerAsyncTest {
+
+    private final RecordingManager manager = new RecordingManager();
+
+    private final WriteBehindDocumentCollectionManagerAsync async = WriteBehindDocumentCollectionManagerAsync
+            .of(manager, e -> e.find("id").get().get(), 10, 10, Duration.ZERO);
+
+    @Test
+    public void shouldWriteUpdatesWithUpdate() {
+        async.save(person(1L, "Ada"));
+        async.update(person(2L, "Grace"));
+        async.flush().join();
+
+        assertEquals(Collections.singletonList("save:Ada"), manager.saves);
+        assertEquals(Collections.singletonList("update:Grace"), manager.updates);
+    }
+
+    @Test
+    public void shouldKeepSaveWhenUpdateReplacesIt() {
+        async.save(person(1L, "Ada"));
+        async.update(person(1L, "Grace"));
+        async.flush().join();
+
+        assertEquals(Collections.singletonList("save:Grace"), manager.saves);
+        assertTrue(manager.updates.isEmpty());
+    }
+
+    @Test
+    public void shouldDeleteWhenFlushFails() {
+        manager.fail = true;
+        async.save(person(1L, "Ada"));
+        List<Void> callBacks = new ArrayList<>();
+        async.delete(DocumentDeleteQuery.of("person"), callBacks::add);
+
+        assertEquals(1, callBacks.size());
+        assertEquals(1L, async.getBuffer().getFailed());
+    }
+
+    @Test
+    public void shouldSaveWithTTLWhenFlushFails() {
+        manager.fail = true;
+        async.save(person(1L, "Ada"));
+        List<DocumentEntity> callBacks = new ArrayList<>();
+        async.save(person(2L, "Grace"), Duration.ofSeconds(1), callBacks::add);
+
+        assertEquals(1, callBacks.size());
+        assertEquals(Collections.singletonList("ttl:Grace"), manager.saves);
+    }
+
+    private static DocumentEntity person(long id, String name) {
+        DocumentEntity entity = DocumentEntity.of("person");
+        entity.add(Document.of("id", id));
+        entity.add(Document.of("name", name));
+        return entity;
+    }
+
+    private static String name(DocumentEntity entity) {
+        return entity.find("name").get().get(String.class);
+    }
+
+    private static class RecordingManager implements CompletableDocumentCollectionManager {
+
+        private final List<String> saves = new CopyOnWriteArrayList<>();
+
+        private final List<String> updates = new CopyOnWriteArrayList<>();
+
+        private volatile boolean fail;
+
+        @Override
+        public CompletionStage<DocumentEntity> save(DocumentEntity entity) {
+            if (fail) {
+                CompletableFuture<DocumentEntity> future = new CompletableFuture<>();
+                future.completeExceptionally(new IllegalStateException("error"));
+                return future;
+            }
+            saves.add("save:" + name(entity));
+            return CompletableFuture.completedFuture(entity);
+        }
+
+        @Override
+        public CompletionStage<DocumentEntity> save(DocumentEntity entity, Duration ttl) {
+            saves.add("ttl:" + name(entity));
+            return CompletableFuture.completedFuture(entity);
+        }
+
+        @Override
+        public CompletionStage<DocumentEntity> update(DocumentEntity entity) {
+            updates.add("update:" + name(entity));
+            return CompletableFuture.completedFuture(entity);
+        }
+
+        @Override
+        public CompletionStage<Void> delete(DocumentDeleteQuery query) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletionStage<List<DocumentEntity>> find(DocumentQuery query) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.api.key;
+
+import org.jnosql.diana.api.AsyncExecutor;
+import org.jnosql.diana.api.Value;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class BatchingBucketManagerAsyncTest {
+
+    private final AsyncExecutor executor = AsyncExecutor.of(4, Duration.ofSeconds(5));
+
+    @Test
+    public void shouldCollapseGetsWhenGetAllIsBulk() {
+        Store store = new Store(true);
+        BatchingBucketManagerAsync manager = BatchingBucketManagerAsync.of(BucketManagerAsync.of(store, executor),
+                Duration.ofMillis(20), 100);
+
+        List<CompletableFuture<Optional<Value>>> values = IntStream.range(0, 3)
+                .mapToObj(i -> manager.get("key-" + i).toCompletableFuture()).collect(Collectors.toList());
+
+        assertTrue(manager.isBatching());
+        assertEquals("value-2", values.get(2).join().get().get());
+        assertEquals(1, store.getAlls.get());
+        assertEquals(0, store.gets.get());
+    }
+
+    @Test
+    public void shouldNotCollapseGetsWhenGetAllRunsAGetForEachKey() {
+        Store store = new Store(false);
+        BatchingBucketManagerAsync manager = BatchingBucketManagerAsync.of(BucketManagerAsync.of(store, executor),
+                Duration.ofMillis(20), 100);
+
+        List<CompletableFuture<Optional<Value>>> values = IntStream.range(0, 3)
+                .mapToObj(i -> manager.get("key-" + i).toCompletableFuture()).collect(Collectors.toList());
+
+        assertFalse(manager.isBatching());
+        assertEquals("value-2", values.get(2).join().get().get());
+        assertEquals(0, store.getAlls.get());
+        assertEquals(3, store.gets.get());
+    }
+
+    private static class Store implements BucketManager {
+
+        private final Map<Object, Value> values = new ConcurrentHashMap<>();
+
+        private final AtomicInteger gets = new AtomicInteger();
+
+        private final AtomicInteger getAlls = new AtomicInteger();
+
+        private final boolean bulk;
+
+        private Store(boolean bulk) {
+            this.bulk = bulk;
+            IntStream.range(0, 3).forEach(i -> values.put("key-" + i, Value.of("value-" + i)));
+        }
+
+        @Override
+        public <K> Optional<Value> get(K key) {
+            gets.incrementAndGet();
+            return Optional.ofNullable(values.get(key));
+        }
+
+        @Override
+        public <K> Map<K, Value> getAll(Iterable<K> keys) {
+            if (!bulk) {
+                return BucketManager.super.getAll(keys);
+            }
+            getAlls.incrementAndGet();
+            Map<K, Value> result = new LinkedHashMap<>();
+            keys.forEach(key -> Optional.ofNullable(values.get(key)).ifPresent(v -> result.put(key, v)));
+            return result;
+        }
+
+        @Override
+        public boolean isBulkGet() {
+            return bulk;
+        }
+
+        @Override
+        public <K> Iterable<Value> get(Iterable<K> keys) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <K, V> void put(K key, V value) {
+            values.put(key, Value.of(value));
+        }
+
+        @Override
+        public <K> void put(KeyValueEntity<K> entity) {
+            values.put(entity.getKey(), entity.getValue());
+        }
+
+        @Override
+        public <K> void put(KeyValueEntity<K> entity, Duration ttl) {
+            put(entity);
+        }
+
+        @Override
+        public <K> void put(Iterable<KeyValueEntity<K>> entities) {
+            entities.forEach(this::put);
+        }
+
+        @Override
+        public <K> void put(Iterable<KeyValueEntity<K>> entities, Duration ttl) {
+            put(entities);
+        }
+
+        @Override
+        public <K> void remove(K key) {
+            values.remove(key);
+        }
+
+        @Override
+        public <K> void remove(Iterable<K> keys) {
+            keys.forEach(values::remove);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+/**
+ * A doubly linked queue of {@link CacheNode} that uses the links of the nodes, so adding, moving and removing a
+ * node do not allocate. The head is the least recently added node.
+ */
+final class AccessOrder {
+
+    private CacheNode head;
+
+    private CacheNode tail;
+
+    private long weight;
+
+    void add(CacheNode node) {
+        node.previous = tail;
+        node.next = null;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+        }
+        tail = node;
+        weight += node.getWeight();
+    }
+
+    void remove(CacheNode node) {
+        if (node.previous == null) {
+            head = node.next;
+        } else {
+            node.previous.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.previous;
+        } else {
+            node.next.previous = node.previous;
+        }
+        node.previous = null;
+        node.next = null;
+        weight -= node.getWeight();
+    }
+
+    void moveToTail(CacheNode node) {
+        if (node != tail) {
+            remove(node);
+            add(node);
+        }
+    }
+
+    CacheNode head() {
+        return head;
+    }
+
+    long weight() {
+        return weight;
+    }
+
+    boolean isEmpty() {
+        return head == null;
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import org.jnosql.diana.api.Value;
+import org.jnosql.diana.api.key.BucketManager;
+import org.jnosql.diana.api.key.KeyValueEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link BucketManager} in memory with a maximum weight, when a put goes beyond it the entries chosen by the
+ * {@link EvictionPolicy} are evicted and sent to the {@link EvictionListener}. The weight of each entry comes
+ * from a {@link Weigher}, one by entry by default. The entries with time to live are evicted when they are read
+ * after it, and the hits, misses and evictions are counted in {@link CacheBucketManager#getStats()}.
+ * <p>The keys are spread among segments with their own lock and share of the maximum weight, so a small cache
+ * has a single segment and the eviction order is exact, and a large one has up to sixteen segments.</p>
+ */
+public final class CacheBucketManager implements BucketManager {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private static final long MIN_SEGMENT_WEIGHT = 1024;
+
+    private static final Duration MAX_TTL = Duration.ofNanos(Long.MAX_VALUE / 2);
+
+    private final CacheSegment[] segments;
+
+    private final EvictionPolicy policy;
+
+    private final long maximumWeight;
+
+    private final Weigher weigher;
+
+    private final EvictionListener listener;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder evictionWeight = new LongAdder();
+
+    private CacheBucketManager(EvictionPolicy policy, long maximumWeight, Weigher weigher,
+                               EvictionListener listener) {
+        this.policy = policy;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.listener = listener;
+        int count = 1;
+        while (count < MAX_SEGMENTS && maximumWeight / (count * 2) >= MIN_SEGMENT_WEIGHT) {
+            count *= 2;
+        }
+        this.segments = new CacheSegment[count];
+        for (int segment = 0; segment < count; segment++) {
+            long share = maximumWeight / count + (segment < maximumWeight % count ? 1 : 0);
+            segments[segment] = new CacheSegment(policy, share);
+        }
+    }
+
+    /**
+     * Creates a {@link CacheBucketManager} that keeps up to maximumSize entries
+     *
+     * @param policy      the eviction policy
+     * @param maximumSize the maximum number of entries
+     * @return a {@link CacheBucketManager} instance
+     * @throws NullPointerException     when policy is null
+     * @throws IllegalArgumentException when maximumSize is lesser than one
+     */
+    public static CacheBucketManager of(EvictionPolicy policy, long maximumSize) throws NullPointerException,
+            IllegalArgumentException {
+        return of(policy, maximumSize, Weigher.unit(), EvictionListener.none());
+    }
+
+    /**
+     * Creates a {@link CacheBucketManager}
+     *
+     * @param policy        the eviction policy
+     * @param maximumWeight the maximum sum of the weights of the entries
+     * @param weigher       the weigher of the entries, e.g. {@link Weigher#bytes()} to bound the memory
+     * @param listener      the listener of the evictions
+     * @return a {@link CacheBucketManager} instance
+     * @throws NullPointerException     when either policy, weigher or listener are null
+     * @throws IllegalArgumentException when maximumWeight is lesser than one
+     */
+    public static CacheBucketManager of(EvictionPolicy policy, long maximumWeight, Weigher weigher,
+                                        EvictionListener listener) throws NullPointerException,
+            IllegalArgumentException {
+        Objects.requireNonNull(policy, "policy is required");
+        Objects.requireNonNull(weigher, "weigher is required");
+        Objects.requireNonNull(listener, "listener is required");
+        if (maximumWeight < 1) {
+            throw new IllegalArgumentException("The maximum weight must be greater than zero");
+        }
+        return new CacheBucketManager(policy, maximumWeight, weigher, listener);
+    }
+
+    @Override
+    public <K, V> void put(K key, V value) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(value, "value is required");
+        write(key, Value.of(value), CacheNode.NO_EXPIRATION);
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        write(entity.getKey(), entity.getValue(), CacheNode.NO_EXPIRATION);
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity, Duration ttl) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        write(entity.getKey(), entity.getValue(), expiresAt(ttl));
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities) throws NullPointerException {
+        Objects.requireNonNull(entities, "entities is required");
+        entities.forEach(this::put);
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities, Duration ttl) throws NullPointerException {
+        Objects.requireNonNull(entities, "entities is required");
+        long expiresAt = expiresAt(ttl);
+        for (KeyValueEntity<K> entity : entities) {
+            Objects.requireNonNull(entity, "entity is required");
+            write(entity.getKey(), entity.getValue(), expiresAt);
+        }
+    }
+
+    @Override
+    public <K> Optional<Value> get(K key) throws NullPointerException {
+        return Optional.ofNullable(read(key, System.nanoTime()));
+    }
+
+    @Override
+    public <K> Iterable<Value> get(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        List<Value> values = new ArrayList<>();
+        long now = System.nanoTime();
+        for (K key : keys) {
+            Value value = read(key, now);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public <K> Map<K, Value> getAll(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        Map<K, Value> values = new LinkedHashMap<>();
+        long now = System.nanoTime();
+        for (K key : keys) {
+            Value value = read(key, now);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public <K> void remove(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        segment(hash(key)).remove(key);
+    }
+
+    @Override
+    public <K> void remove(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        keys.forEach(this::remove);
+    }
+
+    /**
+     * @return a snapshot of the counters
+     */
+    public CacheStats getStats() {
+        return CacheStats.of(hits.sum(), misses.sum(), evictions.sum(), evictionWeight.sum());
+    }
+
+    /**
+     * @return the number of entries, it might count the expired entries that were not read yet
+     */
+    public long size() {
+        long size = 0;
+        for (CacheSegment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return the sum of the weights of the entries
+     */
+    public long getWeight() {
+        long weight = 0;
+        for (CacheSegment segment : segments) {
+            weight += segment.getWeight();
+        }
+        return weight;
+    }
+
+    /**
+     * @return the maximum sum of the weights of the entries
+     */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * @return the eviction policy
+     */
+    public EvictionPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Removes every entry, the listener is not called
+     */
+    public void clear() {
+        for (CacheSegment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    private Value read(Object key, long now) {
+        Objects.requireNonNull(key, "key is required");
+        List<CacheNode> evicted = new ArrayList<>(0);
+        CacheNode node = segment(hash(key)).get(key, now, evicted);
+        notify(evicted, now);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return node.getValue();
+    }
+
+    private void write(Object key, Value value, long expiresAt) {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(value, "value is required");
+        long weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("The weight cannot be negative: " + weight);
+        }
+        int hash = hash(key);
+        List<CacheNode> evicted = new ArrayList<>(1);
+        segment(hash).put(new CacheNode(key, hash, value, weight, expiresAt), evicted);
+        notify(evicted, System.nanoTime());
+    }
+
+    private void notify(List<CacheNode> evicted, long now) {
+        if (evicted.isEmpty()) {
+            return;
+        }
+        for (CacheNode node : evicted) {
+            evictions.increment();
+            evictionWeight.add(node.getWeight());
+            listener.onEviction(node.getKey(), node.getValue(),
+                    node.isExpired(now) ? EvictionCause.EXPIRED : EvictionCause.SIZE);
+        }
+    }
+
+    private CacheSegment segment(int hash) {
+        return segments[(hash >>> 16) & (segments.length - 1)];
+    }
+
+    private static int hash(Object key) {
+        int hash = key.hashCode() * 0x9e3779b9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static long expiresAt(Duration ttl) {
+        Objects.requireNonNull(ttl, "ttl is required");
+        if (ttl.isNegative()) {
+            throw new IllegalArgumentException("The ttl cannot be negative");
+        }
+        long nanos = ttl.compareTo(MAX_TTL) > 0 ? MAX_TTL.toNanos() : ttl.toNanos();
+        long expiresAt = System.nanoTime() + nanos;
+        return expiresAt == CacheNode.NO_EXPIRATION ? expiresAt - 1 : expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("CacheBucketManager{");
+        sb.append("policy=").append(policy);
+        sb.append(", maximumWeight=").append(maximumWeight);
+        sb.append(", segments=").append(segments.length);
+        sb.append(", stats=").append(getStats());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import org.jnosql.diana.api.Value;
+
+/**
+ * An entry of {@link CacheBucketManager}, it is linked in the queues of the {@link CachePolicy}, which is
+ * guarded by the lock of its {@link CacheSegment}.
+ */
+final class CacheNode {
+
+    static final long NO_EXPIRATION = Long.MAX_VALUE;
+
+    static final int WINDOW = 0;
+
+    static final int PROBATION = 1;
+
+    static final int PROTECTED = 2;
+
+    private final Object key;
+
+    private final int hash;
+
+    private final Value value;
+
+    private final long weight;
+
+    private final long expiresAt;
+
+    CacheNode previous;
+
+    CacheNode next;
+
+    int frequency;
+
+    int queue;
+
+    CacheNode(Object key, int hash, Value value, long weight, long expiresAt) {
+        this.key = key;
+        this.hash = hash;
+        this.value = value;
+        this.weight = weight;
+        this.expiresAt = expiresAt;
+    }
+
+    Object getKey() {
+        return key;
+    }
+
+    int getHash() {
+        return hash;
+    }
+
+    Value getValue() {
+        return value;
+    }
+
+    long getWeight() {
+        return weight;
+    }
+
+    long getExpiresAt() {
+        return expiresAt;
+    }
+
+    boolean isExpired(long now) {
+        return expiresAt != NO_EXPIRATION && now - expiresAt >= 0;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+/**
+ * The order in which a {@link CacheSegment} evicts its nodes, it is called with the lock of the segment held
+ */
+interface CachePolicy {
+
+    /**
+     * A node was added
+     *
+     * @param node the node
+     */
+    void onInsert(CacheNode node);
+
+    /**
+     * A node was read
+     *
+     * @param node the node
+     */
+    void onAccess(CacheNode node);
+
+    /**
+     * A node was removed or replaced
+     *
+     * @param node the node
+     */
+    void onRemove(CacheNode node);
+
+    /**
+     * Chooses the next node to evict and removes it from the policy
+     *
+     * @return the node, or null when there is no node
+     */
+    CacheNode evict();
+
+    static CachePolicy of(EvictionPolicy policy, long maximumWeight) {
+        switch (policy) {
+            case LRU:
+                return new LruPolicy();
+            case LFU:
+                return new LfuPolicy();
+            case TINY_LFU:
+                return new TinyLfuPolicy(maximumWeight);
+            default:
+                throw new UnsupportedOperationException("The policy " + policy + " is not supported");
+        }
+    }
+}
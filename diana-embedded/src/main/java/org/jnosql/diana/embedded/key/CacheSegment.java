@@ -0,0 +1,147 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A segment of {@link CacheBucketManager}: a hash map and a {@link CachePolicy} guarded by a lock, with its own
+ * share of the maximum weight. The evicted nodes are added to a list, so the listener is called after the lock is
+ * released. The room is made before the node is inserted, so a new node is never its own victim.
+ */
+final class CacheSegment {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Map<Object, CacheNode> nodes = new HashMap<>();
+
+    private final CachePolicy policy;
+
+    private final long maximumWeight;
+
+    private long weight;
+
+    CacheSegment(EvictionPolicy policy, long maximumWeight) {
+        this.policy = CachePolicy.of(policy, maximumWeight);
+        this.maximumWeight = maximumWeight;
+    }
+
+    CacheNode get(Object key, long now, List<CacheNode> evicted) {
+        lock.lock();
+        try {
+            CacheNode node = nodes.get(key);
+            if (node == null) {
+                return null;
+            }
+            if (node.isExpired(now)) {
+                unlink(node);
+                evicted.add(node);
+                return null;
+            }
+            policy.onAccess(node);
+            return node;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void put(CacheNode node, List<CacheNode> evicted) {
+        lock.lock();
+        try {
+            CacheNode old = nodes.remove(node.getKey());
+            if (old != null) {
+                policy.onRemove(old);
+                weight -= old.getWeight();
+                node.frequency = old.frequency;
+            }
+            if (node.getWeight() > maximumWeight) {
+                evicted.add(node);
+                return;
+            }
+            while (weight + node.getWeight() > maximumWeight) {
+                CacheNode victim = policy.evict();
+                if (victim == null) {
+                    break;
+                }
+                nodes.remove(victim.getKey());
+                weight -= victim.getWeight();
+                evicted.add(victim);
+            }
+            nodes.put(node.getKey(), node);
+            policy.onInsert(node);
+            weight += node.getWeight();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    CacheNode remove(Object key) {
+        lock.lock();
+        try {
+            CacheNode node = nodes.get(key);
+            if (node != null) {
+                unlink(node);
+            }
+            return node;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void clear() {
+        lock.lock();
+        try {
+            nodes.values().forEach(policy::onRemove);
+            nodes.clear();
+            weight = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return nodes.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getWeight() {
+        lock.lock();
+        try {
+            return weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void unlink(CacheNode node) {
+        nodes.remove(node.getKey());
+        policy.onRemove(node);
+        weight -= node.getWeight();
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import java.util.Objects;
+
+/**
+ * A snapshot of the counters of a {@link CacheBucketManager}
+ */
+public final class CacheStats {
+
+    private final long hits;
+
+    private final long misses;
+
+    private final long evictions;
+
+    private final long evictionWeight;
+
+    private CacheStats(long hits, long misses, long evictions, long evictionWeight) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.evictionWeight = evictionWeight;
+    }
+
+    static CacheStats of(long hits, long misses, long evictions, long evictionWeight) {
+        return new CacheStats(hits, misses, evictions, evictionWeight);
+    }
+
+    /**
+     * @return the number of reads that found the key
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of reads that did not find the key, the expired entries included
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of entries evicted, by size or by expiration
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the sum of the weights of the entries evicted
+     */
+    public long getEvictionWeight() {
+        return evictionWeight;
+    }
+
+    /**
+     * @return the ratio of reads that found the key, it is one when there was no read
+     */
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 1D : (double) hits / requests;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CacheStats)) {
+            return false;
+        }
+        CacheStats that = (CacheStats) o;
+        return hits == that.hits
+                && misses == that.misses
+                && evictions == that.evictions
+                && evictionWeight == that.evictionWeight;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(hits, misses, evictions, evictionWeight);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("CacheStats{");
+        sb.append("hits=").append(hits);
+        sb.append(", misses=").append(misses);
+        sb.append(", evictions=").append(evictions);
+        sb.append(", evictionWeight=").append(evictionWeight);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import org.jnosql.diana.api.BinaryDecoder;
+import org.jnosql.diana.api.TypeSupplier;
+import org.jnosql.diana.api.Value;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A {@link Value} read from the bytes written by {@link org.jnosql.diana.api.BinaryEncoder#writeValue(Value)},
+ * e.g. copied from the direct memory of {@link OffHeapBucketManager} or from a file of {@link LogBucketManager}.
+ * It decodes them only in the first get.
+ */
+final class EncodedValue implements Value {
+
+    private static final long serialVersionUID = 1L;
+
+    private final byte[] bytes;
+
+    private transient volatile Value value;
+
+    EncodedValue(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    @Override
+    public Object get() {
+        return decode().get();
+    }
+
+    @Override
+    public <T> T get(Class<T> clazz) throws NullPointerException, UnsupportedOperationException {
+        return decode().get(clazz);
+    }
+
+    @Override
+    public <T> T get(TypeSupplier<T> typeSupplier) throws NullPointerException, UnsupportedOperationException {
+        return decode().get(typeSupplier);
+    }
+
+    boolean isDecoded() {
+        return value != null;
+    }
+
+    private Value decode() {
+        Value decoded = value;
+        if (decoded == null) {
+            decoded = BinaryDecoder.of(bytes).readValue();
+            value = decoded;
+        }
+        return decoded;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof EncodedValue) {
+            return Arrays.equals(bytes, ((EncodedValue) o).bytes);
+        }
+        if (!(o instanceof Value)) {
+            return false;
+        }
+        return Objects.equals(get(), ((Value) o).get());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(get());
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("EncodedValue{");
+        sb.append("bytes=").append(bytes.length);
+        sb.append(", decoded=").append(isDecoded());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import org.jnosql.diana.api.Value;
+
+/**
+ * Receives the entries evicted from a {@link CacheBucketManager}. It is called in the thread of the operation
+ * that caused the eviction, after the lock of the cache was released.
+ */
+@FunctionalInterface
+public interface EvictionListener {
+
+    /**
+     * An entry was evicted
+     *
+     * @param key   the key
+     * @param value the value
+     * @param cause the reason of the eviction
+     */
+    void onEviction(Object key, Value value, EvictionCause cause);
+
+    /**
+     * Returns a listener that does nothing
+     *
+     * @return a {@link EvictionListener} instance
+     */
+    static EvictionListener none() {
+        return (key, value, cause) -> {
+        };
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+/**
+ * The policies that {@link CacheBucketManager} uses to choose the entry to evict when the maximum weight is
+ * reached
+ */
+public enum EvictionPolicy {
+    /**
+     * Evicts the least recently used entry, it fits the workloads where the recent keys are read again soon
+     */
+    LRU,
+    /**
+     * Evicts the least frequently used entry, it fits the workloads with stable popular keys, but a key that was
+     * popular in the past takes a long time to leave
+     */
+    LFU,
+    /**
+     * Window TinyLFU, it combines recency and an estimate of the frequency of the recent past, so it resists to
+     * scans and to changes of the popular keys; it is the best choice for most workloads
+     */
+    TINY_LFU
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+/**
+ * A count-min sketch that estimates how often a key was seen in the recent past. Each key has a counter in each
+ * of the four rows, the counters saturate at fifteen and the estimate is the smallest one. After ten increments
+ * by counter of a row, every counter is halved, so the old accesses fade away. The rows grow with the number of
+ * keys, and growing resets the counters.
+ */
+final class FrequencySketch {
+
+    private static final int ROWS = 4;
+
+    private static final int MAX_COUNT = 15;
+
+    private static final int MAX_WIDTH = 1 << 24;
+
+    private static final long[] SEEDS = {0x97cb3127L, 0xb1e3a4f5L, 0xc3a5c85cL, 0x9ae16a3bL};
+
+    private byte[][] table;
+
+    private int mask;
+
+    private int additions;
+
+    private int sampleSize;
+
+    FrequencySketch(long expectedKeys) {
+        resize(expectedKeys);
+    }
+
+    /**
+     * Grows the rows when there are more keys than counters by row
+     *
+     * @param keys the number of keys
+     */
+    void ensureCapacity(long keys) {
+        if (keys > table[0].length && table[0].length < MAX_WIDTH) {
+            resize(keys);
+        }
+    }
+
+    int frequency(int hash) {
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < ROWS; row++) {
+            frequency = Math.min(frequency, table[row][index(hash, row)]);
+        }
+        return frequency;
+    }
+
+    void increment(int hash) {
+        boolean added = false;
+        for (int row = 0; row < ROWS; row++) {
+            int index = index(hash, row);
+            if (table[row][index] < MAX_COUNT) {
+                table[row][index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            age();
+        }
+    }
+
+    private void age() {
+        for (byte[] row : table) {
+            for (int index = 0; index < row.length; index++) {
+                row[index] = (byte) (row[index] >>> 1);
+            }
+        }
+        additions >>>= 1;
+    }
+
+    private int index(int hash, int row) {
+        long mixed = (hash + SEEDS[row]) * SEEDS[row];
+        mixed += mixed >>> 32;
+        return (int) mixed & mask;
+    }
+
+    private void resize(long keys) {
+        int width = (int) Math.min(MAX_WIDTH, Math.max(16, Long.highestOneBit(Math.max(keys, 1) - 1) << 1));
+        table = new byte[ROWS][width];
+        mask = width - 1;
+        sampleSize = 10 * width;
+        additions = 0;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * When {@link LogBucketManager} forces the written records to the disk, which trades the throughput of the writes
+ * for the records that a crash of the machine may lose.
+ */
+public final class FsyncPolicy {
+
+    private static final int DEFAULT_MAX_BATCH = 1024;
+
+    private static final FsyncPolicy ALWAYS = new FsyncPolicy(Mode.ALWAYS, Duration.ZERO, 1);
+
+    private static final FsyncPolicy GROUP = new FsyncPolicy(Mode.GROUP, Duration.ZERO, DEFAULT_MAX_BATCH);
+
+    private final Mode mode;
+
+    private final Duration duration;
+
+    private final int maxBatch;
+
+    private FsyncPolicy(Mode mode, Duration duration, int maxBatch) {
+        this.mode = mode;
+        this.duration = duration;
+        this.maxBatch = maxBatch;
+    }
+
+    /**
+     * Each write forces its own records before it returns: nothing is lost, but the writes are serialized behind
+     * the latency of the disk
+     *
+     * @return the {@link FsyncPolicy} instance
+     */
+    public static FsyncPolicy always() {
+        return ALWAYS;
+    }
+
+    /**
+     * Group commit without waiting: the writes are queued and a single thread writes every write queued while the
+     * previous batch was forced, up to 1024 records, with one write and one force; each write returns once its
+     * batch was forced. A lone writer pays a single force, many writers share them.
+     *
+     * @return the {@link FsyncPolicy} instance
+     */
+    public static FsyncPolicy group() {
+        return GROUP;
+    }
+
+    /**
+     * Group commit: the writes are queued and a single thread writes them in batches with one write and one
+     * force, each write returns once its batch was forced. A batch waits up to maxLatency after its first write for
+     * more writes, unless it reaches maxBatch records before, so a longer latency makes larger batches under a
+     * moderate load at the cost of the latency of each write.
+     *
+     * @param maxLatency the maximum time a batch waits for more writes, zero to only take the writes queued
+     * @param maxBatch   the maximum number of records of a batch, a bulk put is never split
+     * @return a {@link FsyncPolicy} instance
+     * @throws NullPointerException     when maxLatency is null
+     * @throws IllegalArgumentException when maxLatency is negative or maxBatch is lesser than one
+     */
+    public static FsyncPolicy group(Duration maxLatency, int maxBatch) throws NullPointerException,
+            IllegalArgumentException {
+        Objects.requireNonNull(maxLatency, "maxLatency is required");
+        if (maxLatency.isNegative()) {
+            throw new IllegalArgumentException("The maximum latency cannot be negative");
+        }
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("The maximum batch must be greater than zero");
+        }
+        return new FsyncPolicy(Mode.GROUP, maxLatency, maxBatch);
+    }
+
+    /**
+     * The writes return once their records were written to the file, and a background task forces them at a fixed
+     * interval, so a crash of the machine loses up to an interval of writes, a crash of the process loses none
+     *
+     * @param interval the interval between the forces
+     * @return a {@link FsyncPolicy} instance
+     * @throws NullPointerException     when interval is null
+     * @throws IllegalArgumentException when interval is zero or negative
+     */
+    public static FsyncPolicy periodic(Duration interval) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(interval, "interval is required");
+        if (interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("The interval must be positive");
+        }
+        return new FsyncPolicy(Mode.PERIODIC, interval, 1);
+    }
+
+    /**
+     * @return the mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return the interval between the forces of {@link Mode#PERIODIC}, otherwise {@link Duration#ZERO}
+     */
+    public Duration getInterval() {
+        return Mode.PERIODIC.equals(mode) ? duration : Duration.ZERO;
+    }
+
+    /**
+     * @return the maximum time a batch of {@link Mode#GROUP} waits for more writes, otherwise {@link Duration#ZERO}
+     */
+    public Duration getMaxLatency() {
+        return Mode.GROUP.equals(mode) ? duration : Duration.ZERO;
+    }
+
+    /**
+     * @return the maximum number of records of a batch of {@link Mode#GROUP}, otherwise one
+     */
+    public int getMaxBatch() {
+        return maxBatch;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FsyncPolicy)) {
+            return false;
+        }
+        FsyncPolicy that = (FsyncPolicy) o;
+        return mode == that.mode
+                && maxBatch == that.maxBatch
+                && Objects.equals(duration, that.duration);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(mode, duration, maxBatch);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("FsyncPolicy{");
+        sb.append("mode=").append(mode);
+        sb.append(", duration=").append(duration);
+        sb.append(", maxBatch=").append(maxBatch);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * The modes of {@link FsyncPolicy}
+     */
+    public enum Mode {
+        ALWAYS, GROUP, PERIODIC
+    }
+}
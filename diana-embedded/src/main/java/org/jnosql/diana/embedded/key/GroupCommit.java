@@ -0,0 +1,235 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A group commit pipeline: the writers queue their requests and wait, a single thread takes every request in
+ * the queue, up to a maximum number of records and waiting up to a maximum latency for more, and writes them with
+ * one call of the {@link Writer}, a single write and a single force; then it releases the writers of the batch.
+ *
+ * @param <T> the type of the requests
+ */
+final class GroupCommit<T> {
+
+    private final BlockingQueue<Request<T>> queue = new LinkedBlockingQueue<>();
+
+    private final Writer<T> writer;
+
+    private final long maxLatency;
+
+    private final int maxBatch;
+
+    private final Thread thread;
+
+    private final LongAdder batches = new LongAdder();
+
+    private final LongAdder requests = new LongAdder();
+
+    private boolean closed;
+
+    GroupCommit(Writer<T> writer, Duration maxLatency, int maxBatch, String name) {
+        this.writer = writer;
+        this.maxLatency = maxLatency.toNanos();
+        this.maxBatch = maxBatch;
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues the request and waits until the batch that contains it was written
+     *
+     * @param request the request
+     * @param records the number of records of the request, that counts for the maximum batch
+     * @throws IllegalStateException when the pipeline is closed
+     * @throws UncheckedIOException  when the batch could not be written
+     */
+    void commit(T request, int records) throws IllegalStateException, UncheckedIOException {
+        Request<T> pending = new Request<>(request, records);
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("The manager is closed");
+            }
+            queue.add(pending);
+        }
+        try {
+            pending.future.join();
+        } catch (CompletionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Writes the requests already queued and stops the thread
+     */
+    void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(Request.end());
+        }
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException exception) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the number of batches written
+     */
+    long getBatches() {
+        return batches.sum();
+    }
+
+    /**
+     * @return the number of requests written
+     */
+    long getRequests() {
+        return requests.sum();
+    }
+
+    private void run() {
+        boolean running = true;
+        while (running) {
+            List<Request<T>> batch = new ArrayList<>();
+            try {
+                Request<T> first = queue.take();
+                if (first.isEnd()) {
+                    return;
+                }
+                batch.add(first);
+                running = gather(batch, first.records, System.nanoTime() + maxLatency);
+            } catch (InterruptedException exception) {
+                Thread.interrupted();
+            }
+            write(batch);
+        }
+    }
+
+    /**
+     * Adds the queued requests to the batch, returns false when the pipeline was closed
+     */
+    private boolean gather(List<Request<T>> batch, int records, long deadline) throws InterruptedException {
+        int size = records;
+        while (size < maxBatch) {
+            long remaining = deadline - System.nanoTime();
+            Request<T> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) {
+                return true;
+            }
+            if (next.isEnd()) {
+                return false;
+            }
+            batch.add(next);
+            size += next.records;
+        }
+        return true;
+    }
+
+    private void write(List<Request<T>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<T> values = new ArrayList<>(batch.size());
+        batch.forEach(request -> values.add(request.value));
+        try {
+            writer.write(values);
+            batches.increment();
+            requests.add(batch.size());
+            batch.forEach(request -> request.future.complete(null));
+        } catch (IOException exception) {
+            UncheckedIOException error = new UncheckedIOException(exception);
+            batch.forEach(request -> request.future.completeExceptionally(error));
+        } catch (RuntimeException | Error exception) {
+            batch.forEach(request -> request.future.completeExceptionally(exception));
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("GroupCommit{");
+        sb.append("maxLatency=").append(maxLatency);
+        sb.append(", maxBatch=").append(maxBatch);
+        sb.append(", batches=").append(batches);
+        sb.append(", requests=").append(requests);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * Writes a batch of requests and forces them
+     *
+     * @param <T> the type of the requests
+     */
+    @FunctionalInterface
+    interface Writer<T> {
+
+        void write(List<T> batch) throws IOException;
+    }
+
+    private static final class Request<T> {
+
+        private final T value;
+
+        private final int records;
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Request(T value, int records) {
+            this.value = value;
+            this.records = records;
+        }
+
+        private boolean isEnd() {
+            return value == null;
+        }
+
+        private static <T> Request<T> end() {
+            return new Request<>(null, 0);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+/**
+ * Receives the keys changed in a remote store by other clients, so a near cache drops its stale copies
+ *
+ * @see InvalidationSource
+ */
+@FunctionalInterface
+public interface InvalidationListener {
+
+    /**
+     * The key was changed or removed in the remote store
+     *
+     * @param key the key
+     */
+    void onInvalidation(Object key);
+
+    /**
+     * Every key may have changed, e.g. the store was flushed or the notifications were lost on a reconnection
+     */
+    default void onInvalidationAll() {
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import java.util.Objects;
+
+/**
+ * The SPI of the remote stores that publish their changes, e.g. through keyspace notifications or a message
+ * topic. A {@link NearCacheBucketManager} subscribes when it is created and cancels the subscription when it is
+ * closed.
+ */
+@FunctionalInterface
+public interface InvalidationSource {
+
+    /**
+     * Subscribes a listener to the changes of the store
+     *
+     * @param listener the listener
+     * @return the action that cancels the subscription
+     * @throws NullPointerException when listener is null
+     */
+    Runnable subscribe(InvalidationListener listener) throws NullPointerException;
+
+    /**
+     * Returns a source that never publishes, for the stores without notifications; the near cache then relies
+     * on its time to live to bound the staleness
+     *
+     * @return a {@link InvalidationSource} instance
+     */
+    static InvalidationSource none() {
+        return listener -> {
+            Objects.requireNonNull(listener, "listener is required");
+            return () -> {
+            };
+        };
+    }
+}
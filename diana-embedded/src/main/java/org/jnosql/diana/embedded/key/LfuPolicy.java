@@ -0,0 +1,73 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Evicts the least frequently used node, the least recently used among the nodes of the same frequency.
+ * The nodes are kept in a queue by frequency, so an access moves the node to the next queue.
+ */
+final class LfuPolicy implements CachePolicy {
+
+    private final TreeMap<Integer, AccessOrder> frequencies = new TreeMap<>();
+
+    @Override
+    public void onInsert(CacheNode node) {
+        node.frequency = Math.max(node.frequency, 0) + 1;
+        frequencies.computeIfAbsent(node.frequency, f -> new AccessOrder()).add(node);
+    }
+
+    @Override
+    public void onAccess(CacheNode node) {
+        unlink(node);
+        if (node.frequency < Integer.MAX_VALUE) {
+            node.frequency++;
+        }
+        frequencies.computeIfAbsent(node.frequency, f -> new AccessOrder()).add(node);
+    }
+
+    @Override
+    public void onRemove(CacheNode node) {
+        unlink(node);
+    }
+
+    @Override
+    public CacheNode evict() {
+        Map.Entry<Integer, AccessOrder> lowest = frequencies.firstEntry();
+        if (lowest == null) {
+            return null;
+        }
+        CacheNode victim = lowest.getValue().head();
+        unlink(victim);
+        return victim;
+    }
+
+    private void unlink(CacheNode node) {
+        AccessOrder order = frequencies.get(node.frequency);
+        order.remove(node);
+        if (order.isEmpty()) {
+            frequencies.remove(node.frequency);
+        }
+    }
+}
@@ -0,0 +1,868 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import org.jnosql.diana.api.BinaryEncoder;
+import org.jnosql.diana.api.Value;
+import org.jnosql.diana.api.key.BucketManager;
+import org.jnosql.diana.api.key.KeyValueEntity;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A durable {@link BucketManager} in the style of Bitcask: every put and remove is appended as a record to the
+ * active segment file of a directory, and a key directory in memory keeps where the live record of each key is, so
+ * a get is a single read, from a memory mapping once the segment is sealed. The keys are encoded with
+ * {@link BinaryEncoder#writeObject(Object)} and the values with {@link BinaryEncoder#writeValue(Value)}; the time
+ * to live is stored in the record, so it survives a restart.
+ * <p>On startup the segments are read in order to rebuild the key directory, and a record torn by a crash in the
+ * newest segment is truncated with the records after it. An older segment with a corrupted record, e.g. the output
+ * of a compaction that a crash interrupted, is renamed with the {@code .corrupted} suffix and not replayed.
+ * When at least half of the bytes of the sealed segments are dead, the records overwritten, removed or expired,
+ * a background compaction copies the live records to new segments and deletes the old ones.
+ * The durability of the writes is set by the {@link FsyncPolicy}.</p>
+ * <p>A directory is used by a single manager at a time, it is locked until the manager is closed.</p>
+ */
+public final class LogBucketManager implements BucketManager {
+
+    static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+    static final long MIN_SEGMENT_SIZE = 1024;
+
+    static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+    private static final int ID_SHIFT = 16;
+
+    private static final double COMPACTION_RATIO = 0.5;
+
+    private static final Duration COMPACTION_INTERVAL = Duration.ofSeconds(30);
+
+    private static final int COMPACTION_BUFFER = 1024 * 1024;
+
+    private static final String LOCK = "LOCK";
+
+    private static final String CORRUPTED = ".corrupted";
+
+    private static final Logger LOGGER = Logger.getLogger(LogBucketManager.class.getName());
+
+    private final Path directory;
+
+    private final FsyncPolicy policy;
+
+    private final long segmentSize;
+
+    private final Map<LogKey, LogLocation> keys = new ConcurrentHashMap<>();
+
+    private final ConcurrentSkipListMap<Long, LogSegment> segments = new ConcurrentSkipListMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Object syncLock = new Object();
+
+    private final Object compactionLock = new Object();
+
+    private final FileChannel lockChannel;
+
+    private final ScheduledExecutorService maintenance;
+
+    private final GroupCommit<Write> commit;
+
+    private LogSegment active;
+
+    private long appended;
+
+    private volatile long synced;
+
+    private volatile boolean closed;
+
+    private volatile IOException failure;
+
+    private LogBucketManager(Path directory, FsyncPolicy policy, long segmentSize) throws IOException {
+        this.directory = directory;
+        this.policy = policy;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        this.lockChannel = FileChannel.open(directory.resolve(LOCK), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        FileLock fileLock = lockChannel.tryLock();
+        if (fileLock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("The directory is used by another manager: " + directory);
+        }
+        try {
+            recover();
+        } catch (IOException | RuntimeException exception) {
+            segments.values().forEach(LogBucketManager::closeQuietly);
+            lockChannel.close();
+            throw exception;
+        }
+        this.commit = FsyncPolicy.Mode.GROUP.equals(policy.getMode()) ? new GroupCommit<>(this::commit,
+                policy.getMaxLatency(), policy.getMaxBatch(), "diana-embedded-log-commit") : null;
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "diana-embedded-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (FsyncPolicy.Mode.PERIODIC.equals(policy.getMode())) {
+            long interval = policy.getInterval().toNanos();
+            maintenance.scheduleWithFixedDelay(this::syncInBackground, interval, interval, TimeUnit.NANOSECONDS);
+        }
+        long interval = COMPACTION_INTERVAL.toNanos();
+        maintenance.scheduleWithFixedDelay(this::compactInBackground, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Opens a {@link LogBucketManager} with {@link FsyncPolicy#group()} and segments of 64 MiB, the directory is
+     * created when it does not exist
+     *
+     * @param directory the directory of the segments
+     * @return a {@link LogBucketManager} instance
+     * @throws NullPointerException  when directory is null
+     * @throws IllegalStateException when the directory is used by another manager
+     * @throws UncheckedIOException  when the directory cannot be read
+     */
+    public static LogBucketManager of(Path directory) throws NullPointerException, IllegalStateException,
+            UncheckedIOException {
+        return of(directory, FsyncPolicy.group(), DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens a {@link LogBucketManager}, the directory is created when it does not exist
+     *
+     * @param directory   the directory of the segments
+     * @param policy      when the writes are forced to the disk
+     * @param segmentSize the size from which the active segment is sealed and a new one is started
+     * @return a {@link LogBucketManager} instance
+     * @throws NullPointerException     when either directory or policy are null
+     * @throws IllegalArgumentException when segmentSize is lesser than 1 KiB or greater than 1 GiB
+     * @throws IllegalStateException    when the directory is used by another manager
+     * @throws UncheckedIOException     when the directory cannot be read
+     */
+    public static LogBucketManager of(Path directory, FsyncPolicy policy, long segmentSize)
+            throws NullPointerException, IllegalArgumentException, IllegalStateException, UncheckedIOException {
+        Objects.requireNonNull(directory, "directory is required");
+        Objects.requireNonNull(policy, "policy is required");
+        if (segmentSize < MIN_SEGMENT_SIZE || segmentSize > MAX_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("The segment size must be between 1 KiB and 1 GiB: " + segmentSize);
+        }
+        try {
+            return new LogBucketManager(directory, policy, segmentSize);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    @Override
+    public <K, V> void put(K key, V value) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(value, "value is required");
+        put(KeyValueEntity.of(key, value));
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity) throws NullPointerException {
+        put(Collections.singletonList(entity));
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity, Duration ttl) throws NullPointerException {
+        put(Collections.singletonList(entity), ttl);
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities) throws NullPointerException {
+        write(entities, LogSegment.NO_EXPIRATION);
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities, Duration ttl) throws NullPointerException {
+        write(entities, expiresAt(ttl));
+    }
+
+    @Override
+    public <K> Optional<Value> get(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        return Optional.ofNullable(read(new LogKey(encodeKey(key)), System.currentTimeMillis()));
+    }
+
+    @Override
+    public <K> Iterable<Value> get(Iterable<K> keys) throws NullPointerException {
+        return new ArrayList<>(getAll(keys).values());
+    }
+
+    @Override
+    public <K> Map<K, Value> getAll(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        Map<K, Value> values = new LinkedHashMap<>();
+        long now = System.currentTimeMillis();
+        for (K key : keys) {
+            Objects.requireNonNull(key, "key is required");
+            Value value = read(new LogKey(encodeKey(key)), now);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public <K> void remove(K key) throws NullPointerException {
+        remove(Collections.singletonList(key));
+    }
+
+    @Override
+    public <K> void remove(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        List<LogKey> removed = new ArrayList<>();
+        for (K key : keys) {
+            Objects.requireNonNull(key, "key is required");
+            removed.add(new LogKey(encodeKey(key)));
+        }
+        append(removed, Collections.nCopies(removed.size(), null), LogSegment.NO_EXPIRATION);
+    }
+
+    /**
+     * Copies the live records of the sealed segments to new segments and deletes the old ones, it runs in
+     * background when at least half of the sealed bytes are dead
+     *
+     * @throws IllegalStateException when the manager is closed
+     * @throws UncheckedIOException  when the segments cannot be written
+     */
+    public void compact() throws IllegalStateException, UncheckedIOException {
+        synchronized (compactionLock) {
+            checkOpen();
+            List<LogSegment> inputs = new ArrayList<>(segments.headMap(activeId()).values());
+            if (inputs.isEmpty()) {
+                return;
+            }
+            Compaction compaction = new Compaction(inputs.get(inputs.size() - 1).getId());
+            try {
+                for (LogSegment input : inputs) {
+                    if (closed) {
+                        compaction.abort();
+                        return;
+                    }
+                    compaction.copy(input);
+                }
+                compaction.finish();
+            } catch (IOException | RuntimeException exception) {
+                compaction.abort();
+                throw exception instanceof IOException ? new UncheckedIOException((IOException) exception)
+                        : (RuntimeException) exception;
+            }
+            compaction.outputs.forEach(output -> segments.put(output.getId(), output));
+            for (int index = 0; index < compaction.keys.size(); index++) {
+                LogLocation target = compaction.targets.get(index);
+                if (!keys.replace(compaction.keys.get(index), compaction.sources.get(index), target)) {
+                    target.kill();
+                }
+            }
+            for (LogSegment input : inputs) {
+                segments.remove(input.getId());
+                try {
+                    input.delete();
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of keys, it might count the expired keys that were not read yet
+     */
+    public long size() {
+        return keys.size();
+    }
+
+    /**
+     * @return the number of segment files
+     */
+    public int getSegments() {
+        return segments.size();
+    }
+
+    /**
+     * @return the bytes of the segment files
+     */
+    public long getFileBytes() {
+        return segments.values().stream().mapToLong(LogSegment::getSize).sum();
+    }
+
+    /**
+     * @return the bytes of the records overwritten, removed or expired, that a compaction would free
+     */
+    public long getDeadBytes() {
+        return segments.values().stream().mapToLong(LogSegment::getDead).sum();
+    }
+
+    /**
+     * @return the fsync policy
+     */
+    public FsyncPolicy getPolicy() {
+        return policy;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return the group commit pipeline, null unless the policy is {@link FsyncPolicy#group()}
+     */
+    GroupCommit<?> getGroupCommit() {
+        return commit;
+    }
+
+    /**
+     * @return the directory of the segments
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Forces the pending writes, closes the segments and unlocks the directory
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            maintenance.shutdown();
+        } finally {
+            lock.unlock();
+        }
+        if (commit != null) {
+            commit.close();
+        }
+        synchronized (compactionLock) {
+            IOException error = null;
+            try {
+                active.force();
+            } catch (IOException exception) {
+                error = exception;
+            }
+            for (LogSegment segment : segments.values()) {
+                try {
+                    segment.close();
+                } catch (IOException exception) {
+                    error = error == null ? exception : error;
+                }
+            }
+            try {
+                lockChannel.close();
+            } catch (IOException exception) {
+                error = error == null ? exception : error;
+            }
+            if (error != null) {
+                throw new UncheckedIOException(error);
+            }
+        }
+    }
+
+    private <K> void write(Iterable<KeyValueEntity<K>> entities, long expiresAt) {
+        Objects.requireNonNull(entities, "entities is required");
+        List<LogKey> written = new ArrayList<>();
+        List<byte[]> values = new ArrayList<>();
+        for (KeyValueEntity<K> entity : entities) {
+            Objects.requireNonNull(entity, "entity is required");
+            written.add(new LogKey(encodeKey(entity.getKey())));
+            values.add(BinaryEncoder.of().writeValue(entity.getValue()).toByteArray());
+        }
+        append(written, values, expiresAt);
+    }
+
+    /**
+     * Appends the records of a write, a null value is a removal
+     */
+    private void append(List<LogKey> written, List<byte[]> values, long expiresAt) {
+        if (written.isEmpty()) {
+            return;
+        }
+        Write write = new Write(written, values, expiresAt);
+        if (commit != null) {
+            checkOpen();
+            commit.commit(write, written.size());
+            return;
+        }
+        lock.lock();
+        try {
+            checkOpen();
+            appendLocked(Collections.singletonList(write));
+            if (FsyncPolicy.Mode.ALWAYS.equals(policy.getMode())) {
+                active.force();
+            }
+        } catch (IOException exception) {
+            failure = exception;
+            throw new UncheckedIOException(exception);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes a batch of the group commit with one write and one force
+     */
+    private void commit(List<Write> batch) throws IOException {
+        LogSegment segment;
+        lock.lock();
+        try {
+            checkFailure();
+            appendLocked(batch);
+            segment = active;
+        } catch (IOException exception) {
+            failure = exception;
+            throw exception;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            segment.force();
+        } catch (IOException exception) {
+            failure = exception;
+            throw exception;
+        }
+    }
+
+    /**
+     * Appends the records of the writes with a single write and updates the key directory, the lock must be held.
+     * A removal of a key that does not exist writes nothing.
+     */
+    private void appendLocked(List<Write> batch) throws IOException {
+        List<ByteBuffer> buffers = new ArrayList<>();
+        Map<LogKey, Boolean> present = new HashMap<>();
+        long length = 0;
+        for (Write write : batch) {
+            for (int index = 0; index < write.keys.size(); index++) {
+                LogKey key = write.keys.get(index);
+                ByteBuffer record = write.records.get(index);
+                if (record == null) {
+                    Boolean exists = present.get(key);
+                    if (exists == null ? keys.containsKey(key) : exists) {
+                        record = LogSegment.encode(key.getBytes(), null, LogSegment.NO_EXPIRATION);
+                        write.records.set(index, record);
+                    }
+                }
+                present.put(key, write.values.get(index) != null);
+                if (record != null) {
+                    buffers.add(record);
+                    length += record.remaining();
+                }
+            }
+        }
+        if (length == 0) {
+            return;
+        }
+        if (active.getSize() > 0 && active.getSize() + length > segmentSize) {
+            roll();
+        }
+        long offset = active.append(buffers.toArray(new ByteBuffer[buffers.size()]));
+        for (Write write : batch) {
+            for (int index = 0; index < write.keys.size(); index++) {
+                ByteBuffer record = write.records.get(index);
+                if (record == null) {
+                    continue;
+                }
+                LogKey key = write.keys.get(index);
+                byte[] value = write.values.get(index);
+                LogLocation old;
+                if (value == null) {
+                    old = keys.remove(key);
+                    active.addDead(record.capacity());
+                } else {
+                    old = keys.put(key, new LogLocation(active, offset, record.capacity(), key.getBytes().length,
+                            value.length, write.expiresAt));
+                }
+                if (old != null) {
+                    old.kill();
+                }
+                offset += record.capacity();
+            }
+        }
+        appended += length;
+    }
+
+    private Value read(LogKey key, long now) {
+        LogLocation location = keys.get(key);
+        if (location == null) {
+            return null;
+        }
+        if (location.isExpired(now)) {
+            if (keys.remove(key, location)) {
+                location.kill();
+            }
+            return null;
+        }
+        return new EncodedValue(location.readValue());
+    }
+
+    /**
+     * Forces the active segment unless a force that started after the target was appended already ran
+     */
+    private void sync(long target) {
+        if (synced >= target) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced >= target) {
+                return;
+            }
+            long upTo;
+            LogSegment segment;
+            lock.lock();
+            try {
+                checkOpen();
+                upTo = appended;
+                segment = active;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                segment.force();
+            } catch (IOException exception) {
+                failure = exception;
+                throw new UncheckedIOException(exception);
+            }
+            synced = upTo;
+        }
+    }
+
+    private void roll() throws IOException {
+        long id = active.getId() + (1L << ID_SHIFT);
+        active.seal();
+        active = LogSegment.create(directory, id);
+        segments.put(id, active);
+    }
+
+    private long activeId() {
+        lock.lock();
+        try {
+            return active.getId();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recover() throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.log")) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                try {
+                    files.put(Long.parseUnsignedLong(name.substring(0, name.length() - 4), 16), file);
+                } catch (NumberFormatException exception) {
+                    LOGGER.log(Level.WARNING, "Ignoring the file " + file);
+                }
+            }
+        }
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, Path> file : files.entrySet()) {
+            Optional<LogSegment> opened = LogSegment.open(file.getValue(), file.getKey(),
+                    file.getKey().equals(files.lastKey()));
+            if (!opened.isPresent()) {
+                quarantine(file.getValue());
+                continue;
+            }
+            LogSegment segment = opened.get();
+            if (segment.getSize() == 0) {
+                segment.delete();
+                continue;
+            }
+            segments.put(segment.getId(), segment);
+            segment.forEach((key, offset, length, valueLength, expiresAt) -> {
+                LogKey logKey = new LogKey(key);
+                LogLocation location = new LogLocation(segment, offset, length, key.length, valueLength,
+                        expiresAt);
+                LogLocation old;
+                if (valueLength == LogSegment.TOMBSTONE || location.isExpired(now)) {
+                    old = keys.remove(logKey);
+                    location.kill();
+                } else {
+                    old = keys.put(logKey, location);
+                }
+                if (old != null) {
+                    old.kill();
+                }
+            });
+        }
+        long id = segments.isEmpty() ? 1L << ID_SHIFT : ((segments.lastKey() >>> ID_SHIFT) + 1) << ID_SHIFT;
+        active = LogSegment.create(directory, id);
+        segments.put(id, active);
+    }
+
+    private void quarantine(Path file) throws IOException {
+        Path target = file.resolveSibling(file.getFileName() + CORRUPTED);
+        Files.move(file, target);
+        LOGGER.log(Level.SEVERE, "The segment " + file + " has a corrupted record, it was moved to " + target
+                + " and its records were not loaded");
+    }
+
+    private void syncInBackground() {
+        try {
+            long target;
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                target = appended;
+            } finally {
+                lock.unlock();
+            }
+            sync(target);
+        } catch (RuntimeException exception) {
+            LOGGER.log(Level.SEVERE, "The periodic fsync failed in " + directory, exception);
+        }
+    }
+
+    private void compactInBackground() {
+        try {
+            long size = 0;
+            long dead = 0;
+            for (LogSegment segment : segments.headMap(activeId()).values()) {
+                size += segment.getSize();
+                dead += segment.getDead();
+            }
+            if (size > 0 && dead >= size * COMPACTION_RATIO) {
+                compact();
+            }
+        } catch (RuntimeException exception) {
+            if (!closed) {
+                LOGGER.log(Level.WARNING, "The compaction failed in " + directory, exception);
+            }
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The manager is closed");
+        }
+        checkFailure();
+    }
+
+    private void checkFailure() {
+        IOException error = failure;
+        if (error != null) {
+            throw new IllegalStateException("The manager failed to write, it must be reopened", error);
+        }
+    }
+
+    private void forceDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException exception) {
+            LOGGER.log(Level.FINE, "The directory cannot be forced on this platform", exception);
+        }
+    }
+
+    private static long expiresAt(Duration ttl) {
+        Objects.requireNonNull(ttl, "ttl is required");
+        if (ttl.isNegative()) {
+            throw new IllegalArgumentException("The ttl cannot be negative");
+        }
+        long now = System.currentTimeMillis();
+        long millis = ttl.getSeconds() >= (Long.MAX_VALUE - now) / 1000 ? Long.MAX_VALUE - now : ttl.toMillis();
+        return Math.max(now + millis, 1L);
+    }
+
+    private static byte[] encodeKey(Object key) {
+        Objects.requireNonNull(key, "key is required");
+        return BinaryEncoder.of().writeObject(key).toByteArray();
+    }
+
+    private static void closeQuietly(LogSegment segment) {
+        try {
+            segment.close();
+        } catch (IOException exception) {
+            LOGGER.log(Level.FINE, "The segment cannot be closed", exception);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("LogBucketManager{");
+        sb.append("directory=").append(directory);
+        sb.append(", policy=").append(policy);
+        sb.append(", segmentSize=").append(segmentSize);
+        sb.append(", keys=").append(keys.size());
+        sb.append(", segments=").append(segments.size());
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * The records of a put or a remove, encoded by the thread of the caller
+     */
+    private static final class Write {
+
+        private final List<LogKey> keys;
+
+        private final List<byte[]> values;
+
+        private final List<ByteBuffer> records;
+
+        private final long expiresAt;
+
+        private Write(List<LogKey> keys, List<byte[]> values, long expiresAt) {
+            this.keys = keys;
+            this.values = values;
+            this.expiresAt = expiresAt;
+            this.records = new ArrayList<>(keys.size());
+            for (int index = 0; index < keys.size(); index++) {
+                byte[] value = values.get(index);
+                records.add(value == null ? null : LogSegment.encode(keys.get(index).getBytes(), value, expiresAt));
+            }
+        }
+    }
+
+    /**
+     * Copies the live records of the inputs to segments numbered after the last input and before the next
+     * active segment, so a restart reads them after the records they replace and before the newer ones.
+     */
+    private final class Compaction {
+
+        private final List<LogSegment> outputs = new ArrayList<>();
+
+        private final List<LogKey> keys = new ArrayList<>();
+
+        private final List<LogLocation> sources = new ArrayList<>();
+
+        private final List<LogLocation> targets = new ArrayList<>();
+
+        private final List<ByteBuffer> pending = new ArrayList<>();
+
+        private final long limit;
+
+        private long nextId;
+
+        private long pendingBytes;
+
+        private LogSegment output;
+
+        private Compaction(long lastInput) {
+            this.nextId = lastInput + 1;
+            this.limit = ((lastInput >>> ID_SHIFT) + 1) << ID_SHIFT;
+        }
+
+        private void copy(LogSegment input) throws IOException {
+            long now = System.currentTimeMillis();
+            List<LogKey> live = new ArrayList<>();
+            List<LogLocation> locations = new ArrayList<>();
+            input.forEach((key, offset, length, valueLength, expiresAt) -> {
+                if (valueLength == LogSegment.TOMBSTONE) {
+                    return;
+                }
+                LogKey logKey = new LogKey(key);
+                LogLocation location = LogBucketManager.this.keys.get(logKey);
+                if (location != null && location.getSegment() == input && location.getOffset() == offset
+                        && !location.isExpired(now)) {
+                    live.add(logKey);
+                    locations.add(location);
+                }
+            });
+            for (int index = 0; index < live.size(); index++) {
+                LogLocation source = locations.get(index);
+                long size = output == null ? 0 : output.getSize() + pendingBytes;
+                if (output == null || size > 0 && size + source.getLength() > segmentSize) {
+                    next();
+                    size = 0;
+                }
+                pending.add(input.slice(source.getOffset(), source.getLength()));
+                pendingBytes += source.getLength();
+                keys.add(live.get(index));
+                sources.add(source);
+                targets.add(source.moveTo(output, size));
+                if (pendingBytes >= COMPACTION_BUFFER) {
+                    flush();
+                }
+            }
+        }
+
+        private void next() throws IOException {
+            if (output != null) {
+                flush();
+                output.seal();
+            }
+            if (nextId >= limit) {
+                throw new IllegalStateException("There are no segment numbers left for the compaction");
+            }
+            output = LogSegment.create(directory, nextId++);
+            outputs.add(output);
+        }
+
+        private void flush() throws IOException {
+            if (!pending.isEmpty()) {
+                output.append(pending.toArray(new ByteBuffer[pending.size()]));
+                pending.clear();
+                pendingBytes = 0;
+            }
+        }
+
+        private void finish() throws IOException {
+            if (output != null) {
+                flush();
+                output.seal();
+                forceDirectory();
+            }
+        }
+
+        private void abort() {
+            for (LogSegment segment : outputs) {
+                try {
+                    segment.delete();
+                } catch (IOException exception) {
+                    LOGGER.log(Level.WARNING, "The compaction output cannot be deleted", exception);
+                }
+            }
+        }
+    }
+}
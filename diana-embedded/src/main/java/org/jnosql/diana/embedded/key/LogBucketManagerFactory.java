@@ -0,0 +1,153 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import org.jnosql.diana.api.key.BucketList;
+import org.jnosql.diana.api.key.BucketManagerFactory;
+import org.jnosql.diana.api.key.BucketMap;
+import org.jnosql.diana.api.key.BucketQueue;
+import org.jnosql.diana.api.key.BucketSet;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * The {@link BucketManagerFactory} of {@link LogBucketManager}, each bucket is a subdirectory named after it and
+ * the same bucket name returns the same bucket until it is closed. The lists, sets, queues and maps are the
+ * chunked structures of {@link BucketList}, {@link BucketSet}, {@link BucketQueue} and {@link BucketMap} stored in
+ * the bucket of the same name, so they survive a restart.
+ */
+public final class LogBucketManagerFactory implements BucketManagerFactory<LogBucketManager> {
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_\\-][A-Za-z0-9_.\\-]*");
+
+    private final Path directory;
+
+    private final FsyncPolicy policy;
+
+    private final long segmentSize;
+
+    private final ConcurrentMap<String, LogBucketManager> buckets = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Structure> structures = new ConcurrentHashMap<>();
+
+    LogBucketManagerFactory(Path directory, FsyncPolicy policy, long segmentSize) {
+        this.directory = directory;
+        this.policy = policy;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Opens the bucket, the name must be a valid directory name with letters, digits, '_', '-' and '.'
+     *
+     * @param bucketName the bucket name
+     * @return the {@link LogBucketManager} of the bucket
+     * @throws NullPointerException     when bucketName is null
+     * @throws IllegalArgumentException when bucketName is not a valid directory name
+     */
+    @Override
+    public LogBucketManager getBucketManager(String bucketName) throws NullPointerException,
+            IllegalArgumentException {
+        Objects.requireNonNull(bucketName, "bucketName is required");
+        if (!NAME.matcher(bucketName).matches()) {
+            throw new IllegalArgumentException("The bucket name must be a valid directory name: " + bucketName);
+        }
+        return buckets.compute(bucketName, (name, bucket) -> bucket == null || bucket.isClosed() ?
+                LogBucketManager.of(directory.resolve(name), policy, segmentSize) : bucket);
+    }
+
+    @Override
+    public <T> List<T> getList(String bucketName, Class<T> clazz) throws NullPointerException {
+        Objects.requireNonNull(clazz, "clazz is required");
+        return structure("list", bucketName, manager -> BucketList.of(manager, bucketName, clazz));
+    }
+
+    @Override
+    public <T> Set<T> getSet(String bucketName, Class<T> clazz) throws NullPointerException {
+        Objects.requireNonNull(clazz, "clazz is required");
+        return structure("set", bucketName, manager -> BucketSet.of(manager, bucketName, clazz));
+    }
+
+    @Override
+    public <T> Queue<T> getQueue(String bucketName, Class<T> clazz) throws NullPointerException {
+        Objects.requireNonNull(clazz, "clazz is required");
+        return structure("queue", bucketName, manager -> BucketQueue.of(manager, bucketName, clazz));
+    }
+
+    @Override
+    public <K, V> Map<K, V> getMap(String bucketName, Class<K> keyValue, Class<V> valueValue)
+            throws NullPointerException {
+        Objects.requireNonNull(keyValue, "keyValue is required");
+        Objects.requireNonNull(valueValue, "valueValue is required");
+        return structure("map", bucketName, manager -> BucketMap.of(manager, bucketName, keyValue, valueValue));
+    }
+
+    @Override
+    public void close() {
+        buckets.values().forEach(LogBucketManager::close);
+        buckets.clear();
+        structures.clear();
+    }
+
+    /**
+     * Returns the structure of the bucket, the same instance while the bucket is open, since the structures
+     * keep their locks in memory
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T structure(String kind, String bucketName, Function<LogBucketManager, T> creator) {
+        Objects.requireNonNull(bucketName, "bucketName is required");
+        LogBucketManager manager = getBucketManager(bucketName);
+        return (T) structures.compute(kind + ':' + bucketName, (name, structure) ->
+                structure == null || structure.manager != manager ?
+                        new Structure(manager, creator.apply(manager)) : structure).value;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("LogBucketManagerFactory{");
+        sb.append("directory=").append(directory);
+        sb.append(", policy=").append(policy);
+        sb.append(", buckets=").append(buckets.keySet());
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private static final class Structure {
+
+        private final LogBucketManager manager;
+
+        private final Object value;
+
+        private Structure(LogBucketManager manager, Object value) {
+            this.manager = manager;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import org.jnosql.diana.api.key.KeyValueConfiguration;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * The {@link KeyValueConfiguration} of the durable embedded engine, {@link LogBucketManager}
+ */
+public final class LogKeyValueConfiguration implements KeyValueConfiguration<LogBucketManagerFactory> {
+
+    private final Path directory;
+
+    private final FsyncPolicy policy;
+
+    private final long segmentSize;
+
+    /**
+     * Creates a configuration with {@link FsyncPolicy#group()} and segments of 64 MiB
+     *
+     * @param directory the directory of the buckets
+     * @throws NullPointerException when directory is null
+     */
+    public LogKeyValueConfiguration(Path directory) throws NullPointerException {
+        this(directory, FsyncPolicy.group(), LogBucketManager.DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates a configuration
+     *
+     * @param directory   the directory of the buckets
+     * @param policy      when the writes are forced to the disk
+     * @param segmentSize the size from which a segment is sealed
+     * @throws NullPointerException     when either directory or policy are null
+     * @throws IllegalArgumentException when segmentSize is lesser than 1 KiB or greater than 1 GiB
+     */
+    public LogKeyValueConfiguration(Path directory, FsyncPolicy policy, long segmentSize)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(directory, "directory is required");
+        Objects.requireNonNull(policy, "policy is required");
+        if (segmentSize < LogBucketManager.MIN_SEGMENT_SIZE || segmentSize > LogBucketManager.MAX_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("The segment size must be between 1 KiB and 1 GiB: " + segmentSize);
+        }
+        this.directory = directory;
+        this.policy = policy;
+        this.segmentSize = segmentSize;
+    }
+
+    @Override
+    public LogBucketManagerFactory get() {
+        return new LogBucketManagerFactory(directory, policy, segmentSize);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("LogKeyValueConfiguration{");
+        sb.append("directory=").append(directory);
+        sb.append(", policy=").append(policy);
+        sb.append(", segmentSize=").append(segmentSize);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+/**
+ * Where the live record of a key is in the files of {@link LogBucketManager}. A location is replaced, never
+ * changed, so the key directory compares them by identity.
+ */
+final class LogLocation {
+
+    private final LogSegment segment;
+
+    private final long offset;
+
+    private final int length;
+
+    private final int keyLength;
+
+    private final int valueLength;
+
+    private final long expiresAt;
+
+    LogLocation(LogSegment segment, long offset, int length, int keyLength, int valueLength, long expiresAt) {
+        this.segment = segment;
+        this.offset = offset;
+        this.length = length;
+        this.keyLength = keyLength;
+        this.valueLength = valueLength;
+        this.expiresAt = expiresAt;
+    }
+
+    LogSegment getSegment() {
+        return segment;
+    }
+
+    long getOffset() {
+        return offset;
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    long getExpiresAt() {
+        return expiresAt;
+    }
+
+    boolean isExpired(long now) {
+        return expiresAt != LogSegment.NO_EXPIRATION && expiresAt <= now;
+    }
+
+    byte[] readValue() {
+        return segment.read(offset + LogSegment.HEADER + keyLength, valueLength);
+    }
+
+    /**
+     * Returns the location of a copy of the record at the offset of another segment
+     */
+    LogLocation moveTo(LogSegment target, long position) {
+        return new LogLocation(target, position, length, keyLength, valueLength, expiresAt);
+    }
+
+    /**
+     * Marks the record as garbage for the compaction
+     */
+    void kill() {
+        segment.addDead(length);
+    }
+}
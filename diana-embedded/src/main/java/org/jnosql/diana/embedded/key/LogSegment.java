@@ -0,0 +1,332 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * A file of {@link LogBucketManager}. The active segment is appended with a {@link FileChannel} and read with
+ * positional reads; once it is full it is sealed: forced, mapped in memory and only read from then on.
+ * <p>A record has a header of {@link #HEADER} bytes: the CRC32 of the rest of the record, the expiration in epoch
+ * milliseconds, or zero, the length of the key and the length of the value, {@link #TOMBSTONE} for a removal;
+ * then the key and the value bytes.</p>
+ */
+final class LogSegment {
+
+    static final int HEADER = 20;
+
+    static final int TOMBSTONE = -1;
+
+    static final long NO_EXPIRATION = 0L;
+
+    private static final int EXPIRES_AT = 4;
+
+    private static final int KEY_LENGTH = 12;
+
+    private static final int VALUE_LENGTH = 16;
+
+    private final long id;
+
+    private final Path path;
+
+    private final AtomicLong dead = new AtomicLong();
+
+    private volatile FileChannel channel;
+
+    private volatile FileChannel reader;
+
+    private volatile MappedByteBuffer mapped;
+
+    private volatile long size;
+
+    private LogSegment(long id, Path path) {
+        this.id = id;
+        this.path = path;
+    }
+
+    /**
+     * Creates an empty active segment
+     */
+    static LogSegment create(Path directory, long id) throws IOException {
+        LogSegment segment = new LogSegment(id, directory.resolve(name(id)));
+        segment.channel = FileChannel.open(segment.path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segment.reader = FileChannel.open(segment.path, StandardOpenOption.READ);
+        return segment;
+    }
+
+    /**
+     * Opens a sealed segment after a restart. When newest, the records after the first one that is torn or
+     * corrupted are truncated, they are the writes that a crash interrupted. The older segments were forced before
+     * a newer one was created, so a bad record there is not a torn write: the file is left as it is and the result
+     * is empty, the caller must not replay it
+     */
+    static Optional<LogSegment> open(Path path, long id, boolean newest) throws IOException {
+        LogSegment segment = new LogSegment(id, path);
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long length = file.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("The segment is too large: " + path);
+            }
+            MappedByteBuffer buffer = file.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            int valid = validLength(buffer);
+            if (valid < length) {
+                if (!newest) {
+                    return Optional.empty();
+                }
+                file.truncate(valid);
+                file.force(true);
+                buffer = file.map(FileChannel.MapMode.READ_ONLY, 0, valid);
+            }
+            segment.mapped = buffer;
+            segment.size = valid;
+        }
+        return Optional.of(segment);
+    }
+
+    static String name(long id) {
+        return String.format("%016x.log", id);
+    }
+
+    /**
+     * Encodes a record, value is null for a tombstone
+     */
+    static ByteBuffer encode(byte[] key, byte[] value, long expiresAt) {
+        int valueLength = value == null ? TOMBSTONE : value.length;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + key.length + Math.max(valueLength, 0));
+        buffer.putInt(0).putLong(expiresAt).putInt(key.length).putInt(valueLength).put(key);
+        if (value != null) {
+            buffer.put(value);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), EXPIRES_AT, buffer.capacity() - EXPIRES_AT);
+        buffer.putInt(0, (int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Appends the records and returns the offset of the first one, a failed append is truncated so the next
+     * records do not follow a torn one
+     */
+    long append(ByteBuffer[] records) throws IOException {
+        long offset = size;
+        long length = 0;
+        for (ByteBuffer record : records) {
+            length += record.remaining();
+        }
+        long written = 0;
+        try {
+            while (written < length) {
+                written += channel.write(records);
+            }
+        } catch (IOException exception) {
+            if (written > 0 && channel.isOpen()) {
+                channel.truncate(offset);
+                channel.position(offset);
+            }
+            throw exception;
+        }
+        size = offset + length;
+        return offset;
+    }
+
+    /**
+     * Forces the appended records to the disk; a sealed segment was forced when it was sealed
+     */
+    void force() throws IOException {
+        FileChannel current = channel;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.force(false);
+        } catch (ClosedChannelException exception) {
+            if (channel != null) {
+                throw exception;
+            }
+        }
+    }
+
+    /**
+     * Forces the segment, maps it in memory and closes its channels
+     */
+    void seal() throws IOException {
+        FileChannel current = channel;
+        current.force(false);
+        mapped = reader.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        channel = null;
+        current.close();
+        reader.close();
+    }
+
+    boolean isSealed() {
+        return mapped != null;
+    }
+
+    /**
+     * Reads length bytes at the position
+     */
+    byte[] read(long position, int length) {
+        byte[] bytes = new byte[length];
+        MappedByteBuffer buffer = mapped;
+        if (buffer != null) {
+            ByteBuffer view = buffer.duplicate();
+            view.position((int) position);
+            view.get(bytes);
+            return bytes;
+        }
+        ByteBuffer target = ByteBuffer.wrap(bytes);
+        try {
+            while (target.hasRemaining()) {
+                if (reader.read(target, position + target.position()) < 0) {
+                    throw new IOException("Unexpected end of the segment " + path);
+                }
+            }
+        } catch (ClosedChannelException exception) {
+            if (mapped != null) {
+                return read(position, length);
+            }
+            throw new UncheckedIOException(exception);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns a view of the bytes of a sealed segment
+     */
+    ByteBuffer slice(long position, int length) {
+        ByteBuffer view = mapped.duplicate();
+        view.position((int) position);
+        view.limit((int) position + length);
+        return view.slice();
+    }
+
+    /**
+     * Visits the records of a sealed segment in the order they were written
+     */
+    void forEach(Visitor visitor) {
+        ByteBuffer view = mapped.duplicate();
+        int position = 0;
+        while (position < size) {
+            long expiresAt = view.getLong(position + EXPIRES_AT);
+            int keyLength = view.getInt(position + KEY_LENGTH);
+            int valueLength = view.getInt(position + VALUE_LENGTH);
+            byte[] key = new byte[keyLength];
+            view.position(position + HEADER);
+            view.get(key);
+            int length = HEADER + keyLength + Math.max(valueLength, 0);
+            visitor.visit(key, position, length, valueLength, expiresAt);
+            position += length;
+        }
+    }
+
+    void addDead(long bytes) {
+        dead.addAndGet(bytes);
+    }
+
+    long getDead() {
+        return dead.get();
+    }
+
+    long getId() {
+        return id;
+    }
+
+    long getSize() {
+        return size;
+    }
+
+    void close() throws IOException {
+        FileChannel current = channel;
+        channel = null;
+        if (current != null) {
+            current.close();
+        }
+        if (reader != null) {
+            reader.close();
+        }
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+
+    private static int validLength(ByteBuffer buffer) {
+        int position = 0;
+        int limit = buffer.limit();
+        CRC32 crc = new CRC32();
+        while (limit - position >= HEADER) {
+            int keyLength = buffer.getInt(position + KEY_LENGTH);
+            int valueLength = buffer.getInt(position + VALUE_LENGTH);
+            if (keyLength < 0 || valueLength < TOMBSTONE) {
+                return position;
+            }
+            long length = (long) HEADER + keyLength + Math.max(valueLength, 0);
+            if (length > limit - position) {
+                return position;
+            }
+            ByteBuffer record = buffer.duplicate();
+            record.position(position + EXPIRES_AT);
+            record.limit((int) (position + length));
+            crc.reset();
+            crc.update(record);
+            if ((int) crc.getValue() != buffer.getInt(position)) {
+                return position;
+            }
+            position += (int) length;
+        }
+        return position;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("LogSegment{");
+        sb.append("id=").append(id);
+        sb.append(", size=").append(size);
+        sb.append(", dead=").append(dead);
+        sb.append(", sealed=").append(isSealed());
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * Receives the records of a segment
+     */
+    interface Visitor {
+
+        void visit(byte[] key, long offset, int length, int valueLength, long expiresAt);
+    }
+}
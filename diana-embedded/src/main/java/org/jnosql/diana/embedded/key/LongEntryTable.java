@@ -0,0 +1,271 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * The entries of {@link MemoryBucketManager} with a long key, an open addressing table of primitive keys with
+ * linear probing, so neither a put nor a get creates a {@link Long}. It is split in segments, each one with a
+ * {@link StampedLock}: a get reads optimistically and only takes the read lock when a write ran meanwhile, a
+ * write locks its segment. A removal shifts back the entries after it, so there are no tombstones.
+ */
+final class LongEntryTable {
+
+    private static final int SEGMENT_BITS = 6;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+    LongEntryTable() {
+        for (int index = 0; index < segments.length; index++) {
+            segments[index] = new Segment();
+        }
+    }
+
+    MemoryEntry get(long key) {
+        long hash = hash(key);
+        Segment segment = segment(hash);
+        StampedLock lock = segment.lock;
+        long stamp = lock.tryOptimisticRead();
+        MemoryEntry entry = segment.find(key, hash);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                entry = segment.find(key, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * @return the entry it replaced, or null
+     */
+    MemoryEntry put(long key, MemoryEntry entry) {
+        long hash = hash(key);
+        Segment segment = segment(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.put(key, hash, entry);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return the entry it removed, or null
+     */
+    MemoryEntry remove(long key) {
+        return remove(key, null);
+    }
+
+    /**
+     * Removes the key when it maps to the expected entry, or to any entry when expected is null
+     *
+     * @return the entry it removed, or null
+     */
+    MemoryEntry remove(long key, MemoryEntry expected) {
+        long hash = hash(key);
+        Segment segment = segment(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.remove(key, hash, expected);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Replaces the entry of the key with the result of the function while the segment is locked, a null result
+     * removes the key
+     *
+     * @return the new entry, or null
+     */
+    MemoryEntry compute(long key, UnaryOperator<MemoryEntry> function) {
+        long hash = hash(key);
+        Segment segment = segment(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            MemoryEntry entry = function.apply(segment.find(key, hash));
+            if (entry == null) {
+                segment.remove(key, hash, null);
+            } else {
+                segment.put(key, hash, entry);
+            }
+            return entry;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    void clear() {
+        for (Segment segment : segments) {
+            long stamp = segment.lock.writeLock();
+            try {
+                segment.table = new Table(INITIAL_CAPACITY);
+                segment.size = 0;
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    private Segment segment(long hash) {
+        return segments[(int) (hash >>> (Long.SIZE - SEGMENT_BITS))];
+    }
+
+    private static long hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+
+    private static final class Table {
+
+        private final long[] keys;
+
+        private final MemoryEntry[] entries;
+
+        private final int mask;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.entries = new MemoryEntry[capacity];
+            this.mask = capacity - 1;
+        }
+    }
+
+    private static final class Segment {
+
+        private final StampedLock lock = new StampedLock();
+
+        private Table table = new Table(INITIAL_CAPACITY);
+
+        private volatile int size;
+
+        /**
+         * Probes at most the whole table, since an optimistic read may see a table that a write is changing
+         */
+        private MemoryEntry find(long key, long hash) {
+            Table table = this.table;
+            int mask = table.mask;
+            int index = (int) hash & mask;
+            for (int probe = 0; probe <= mask; probe++) {
+                MemoryEntry entry = table.entries[index];
+                if (entry == null) {
+                    return null;
+                }
+                if (table.keys[index] == key) {
+                    return entry;
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        private MemoryEntry put(long key, long hash, MemoryEntry entry) {
+            Table table = this.table;
+            int index = (int) hash & table.mask;
+            while (table.entries[index] != null) {
+                if (table.keys[index] == key) {
+                    MemoryEntry old = table.entries[index];
+                    table.entries[index] = entry;
+                    return old;
+                }
+                index = (index + 1) & table.mask;
+            }
+            table.keys[index] = key;
+            table.entries[index] = entry;
+            size = size + 1;
+            if (size > table.entries.length - (table.entries.length >>> 2)) {
+                resize();
+            }
+            return null;
+        }
+
+        private MemoryEntry remove(long key, long hash, MemoryEntry expected) {
+            Table table = this.table;
+            int mask = table.mask;
+            int index = (int) hash & mask;
+            while (table.entries[index] != null) {
+                if (table.keys[index] == key) {
+                    MemoryEntry old = table.entries[index];
+                    if (expected != null && old != expected) {
+                        return null;
+                    }
+                    shift(table, index);
+                    size = size - 1;
+                    return old;
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        /**
+         * Fills the hole with the next entries of the run that may move to it without passing their own slot
+         */
+        private void shift(Table table, int hole) {
+            int mask = table.mask;
+            int next = (hole + 1) & mask;
+            while (table.entries[next] != null) {
+                int slot = (int) hash(table.keys[next]) & mask;
+                if (((next - slot) & mask) >= ((next - hole) & mask)) {
+                    table.keys[hole] = table.keys[next];
+                    table.entries[hole] = table.entries[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            table.keys[hole] = 0L;
+            table.entries[hole] = null;
+        }
+
+        private void resize() {
+            Table old = this.table;
+            Table table = new Table(old.entries.length << 1);
+            for (int index = 0; index < old.entries.length; index++) {
+                MemoryEntry entry = old.entries[index];
+                if (entry != null) {
+                    int slot = (int) hash(old.keys[index]) & table.mask;
+                    while (table.entries[slot] != null) {
+                        slot = (slot + 1) & table.mask;
+                    }
+                    table.keys[slot] = old.keys[index];
+                    table.entries[slot] = entry;
+                }
+            }
+            this.table = table;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+/**
+ * Evicts the least recently used node
+ */
+final class LruPolicy implements CachePolicy {
+
+    private final AccessOrder order = new AccessOrder();
+
+    @Override
+    public void onInsert(CacheNode node) {
+        order.add(node);
+    }
+
+    @Override
+    public void onAccess(CacheNode node) {
+        order.moveToTail(node);
+    }
+
+    @Override
+    public void onRemove(CacheNode node) {
+        order.remove(node);
+    }
+
+    @Override
+    public CacheNode evict() {
+        CacheNode victim = order.head();
+        if (victim != null) {
+            order.remove(victim);
+        }
+        return victim;
+    }
+}
@@ -0,0 +1,482 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import org.jnosql.diana.api.Value;
+import org.jnosql.diana.api.key.BucketManager;
+import org.jnosql.diana.api.key.KeyValueEntity;
+import org.jnosql.diana.api.key.LongKeyValueEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * A {@link BucketManager} in memory. The entries live in a {@link ConcurrentHashMap}, so the reads do not lock
+ * and the writes lock only a bin of the table. The entries with time to live are checked when they are read, and
+ * a {@link TimingWheel} advanced by a background thread every tick removes the ones that are never read again,
+ * the writes just add them to a lock-free queue that the background thread drains. An entry with time to live
+ * that is replaced or removed goes to another queue, so the background thread unlinks it from the wheel and the
+ * wheel holds only the live entries.
+ * The {@link Long} keys, boxed or given to {@link #putLong(long, Object)}, {@link #getLong(long)} and
+ * {@link LongKeyValueEntity}, live apart in a {@link LongEntryTable} of primitive keys, so these methods do not
+ * create a {@link Long} and both forms of a key find the same entry.
+ * The values are kept by reference, a change to a mutable value is seen by the next get.
+ * {@link #putIfAbsent(Object, Object)}, {@link #replace(Object, Object, Object)}, {@link #compute(Object, Function)}
+ * and {@link #increment(Object, long)} are atomic, they run while the bin or the segment of the key is locked and
+ * keep the time to live of the entry they replace.
+ * A time to live is capped to about 146 years.
+ */
+public final class MemoryBucketManager implements BucketManager {
+
+    /**
+     * The default tick of the timing wheel
+     */
+    public static final Duration DEFAULT_TICK = Duration.ofMillis(100);
+
+    private static final Duration MAX_TTL = Duration.ofNanos(Long.MAX_VALUE / 2);
+
+    private final ConcurrentHashMap<Object, MemoryEntry> entries = new ConcurrentHashMap<>();
+
+    private final LongEntryTable longEntries = new LongEntryTable();
+
+    private final Queue<MemoryEntry> pending = new ConcurrentLinkedQueue<>();
+
+    private final Queue<MemoryEntry> cancelled = new ConcurrentLinkedQueue<>();
+
+    private final TimingWheel wheel;
+
+    private final ScheduledFuture<?> expiration;
+
+    private volatile boolean closed;
+
+    private MemoryBucketManager(Duration tick) {
+        this.wheel = new TimingWheel(tick.toNanos(), System.nanoTime());
+        this.expiration = Expirations.schedule(this::expire, tick);
+    }
+
+    /**
+     * Creates a {@link MemoryBucketManager} with {@link MemoryBucketManager#DEFAULT_TICK}
+     *
+     * @return a {@link MemoryBucketManager} instance
+     */
+    public static MemoryBucketManager of() {
+        return of(DEFAULT_TICK);
+    }
+
+    /**
+     * Creates a {@link MemoryBucketManager}
+     *
+     * @param tick the precision of the expiration, an expired entry that is not read is removed up to a tick
+     *             after its time to live
+     * @return a {@link MemoryBucketManager} instance
+     * @throws NullPointerException     when tick is null
+     * @throws IllegalArgumentException when tick is not positive
+     */
+    public static MemoryBucketManager of(Duration tick) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(tick, "tick is required");
+        if (tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("The tick must be positive");
+        }
+        return new MemoryBucketManager(tick);
+    }
+
+    @Override
+    public <K, V> void put(K key, V value) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(value, "value is required");
+        store(entry(key, Value.of(value), MemoryEntry.NO_EXPIRATION));
+    }
+
+    @Override
+    public <V> void putLong(long key, V value) throws NullPointerException {
+        Objects.requireNonNull(value, "value is required");
+        cancel(longEntries.put(key, new MemoryEntry(key, Value.of(value), MemoryEntry.NO_EXPIRATION)));
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        store(entry(entity, MemoryEntry.NO_EXPIRATION));
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity, Duration ttl) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        MemoryEntry entry = entry(entity, expiresAt(ttl));
+        store(entry);
+        pending.offer(entry);
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities) throws NullPointerException {
+        Objects.requireNonNull(entities, "entities is required");
+        for (KeyValueEntity<K> entity : entities) {
+            put(entity);
+        }
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities, Duration ttl) throws NullPointerException {
+        Objects.requireNonNull(entities, "entities is required");
+        long expiresAt = expiresAt(ttl);
+        List<MemoryEntry> scheduled = new ArrayList<>();
+        for (KeyValueEntity<K> entity : entities) {
+            Objects.requireNonNull(entity, "entity is required");
+            MemoryEntry entry = entry(entity, expiresAt);
+            store(entry);
+            scheduled.add(entry);
+        }
+        pending.addAll(scheduled);
+    }
+
+    @Override
+    public <K> Optional<Value> get(K key) throws NullPointerException {
+        return find(key, System.nanoTime());
+    }
+
+    @Override
+    public Optional<Value> getLong(long key) {
+        return findLong(key, System.nanoTime());
+    }
+
+    @Override
+    public Value[] getLong(long[] keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        Value[] values = new Value[keys.length];
+        long now = System.nanoTime();
+        for (int index = 0; index < keys.length; index++) {
+            MemoryEntry entry = longEntries.get(keys[index]);
+            if (entry != null && !entry.isExpired(now)) {
+                values[index] = entry.getValue();
+            } else if (entry != null) {
+                longEntries.remove(keys[index], entry);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public <K> Iterable<Value> get(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        List<Value> values = new ArrayList<>();
+        long now = System.nanoTime();
+        for (K key : keys) {
+            find(key, now).ifPresent(values::add);
+        }
+        return values;
+    }
+
+    @Override
+    public <K> Map<K, Value> getAll(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        Map<K, Value> values = new LinkedHashMap<>();
+        long now = System.nanoTime();
+        for (K key : keys) {
+            find(key, now).ifPresent(v -> values.put(key, v));
+        }
+        return values;
+    }
+
+    @Override
+    public <K> void remove(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        if (key instanceof Long) {
+            cancel(longEntries.remove((Long) key));
+        } else {
+            cancel(entries.remove(key));
+        }
+    }
+
+    @Override
+    public void removeLong(long key) {
+        cancel(longEntries.remove(key));
+    }
+
+    @Override
+    public <K> void remove(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        for (K key : keys) {
+            remove(key);
+        }
+    }
+
+    @Override
+    public <K, V> Optional<Value> putIfAbsent(K key, V value) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(value, "value is required");
+        Value[] current = new Value[1];
+        long now = System.nanoTime();
+        update(key, entry -> {
+            if (entry == null || entry.isExpired(now)) {
+                return entry(key, Value.of(value), MemoryEntry.NO_EXPIRATION);
+            }
+            current[0] = entry.getValue();
+            return entry;
+        });
+        return Optional.ofNullable(current[0]);
+    }
+
+    @Override
+    public <K, V> boolean replace(K key, V expected, V value) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(expected, "expected is required");
+        Objects.requireNonNull(value, "value is required");
+        Object match = expected instanceof Value ? ((Value) expected).get() : expected;
+        boolean[] replaced = new boolean[1];
+        long now = System.nanoTime();
+        update(key, entry -> {
+            if (entry == null || entry.isExpired(now) || !match.equals(entry.getValue().get())) {
+                return entry;
+            }
+            replaced[0] = true;
+            return replacement(entry, key, Value.of(value));
+        });
+        return replaced[0];
+    }
+
+    @Override
+    public <K> Optional<Value> compute(K key, Function<Optional<Value>, ?> remapping) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(remapping, "remapping is required");
+        long now = System.nanoTime();
+        MemoryEntry result = update(key, entry -> {
+            boolean live = entry != null && !entry.isExpired(now);
+            Object value = remapping.apply(live ? Optional.of(entry.getValue()) : Optional.empty());
+            if (value == null) {
+                return null;
+            }
+            Value computed = value instanceof Value ? (Value) value : Value.of(value);
+            return live ? replacement(entry, key, computed) : entry(key, computed, MemoryEntry.NO_EXPIRATION);
+        });
+        return result == null ? Optional.empty() : Optional.of(result.getValue());
+    }
+
+    @Override
+    public <K> long increment(K key, long delta) throws NullPointerException, UnsupportedOperationException,
+            ArithmeticException {
+        Objects.requireNonNull(key, "key is required");
+        long[] result = new long[1];
+        long now = System.nanoTime();
+        update(key, entry -> {
+            if (entry == null || entry.isExpired(now)) {
+                result[0] = delta;
+                return entry(key, Value.of(delta), MemoryEntry.NO_EXPIRATION);
+            }
+            result[0] = Math.addExact(entry.getValue().get(Long.class), delta);
+            return replacement(entry, key, Value.of(result[0]));
+        });
+        return result[0];
+    }
+
+    /**
+     * Returns the number of entries, it might count the expired entries that were not removed yet
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return entries.size() + longEntries.size();
+    }
+
+    /**
+     * Removes every entry
+     */
+    public void clear() {
+        entries.clear();
+        longEntries.clear();
+        synchronized (wheel) {
+            cancelled.clear();
+            wheel.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        expiration.cancel(false);
+        entries.clear();
+        longEntries.clear();
+        pending.clear();
+        cancelled.clear();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return the number of entries in the timing wheel
+     */
+    int scheduled() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    private Optional<Value> find(Object key, long now) {
+        Objects.requireNonNull(key, "key is required");
+        if (key instanceof Long) {
+            return findLong((Long) key, now);
+        }
+        MemoryEntry entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.isExpired(now)) {
+            entries.remove(key, entry);
+            return Optional.empty();
+        }
+        return Optional.of(entry.getValue());
+    }
+
+    private Optional<Value> findLong(long key, long now) {
+        MemoryEntry entry = longEntries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.isExpired(now)) {
+            longEntries.remove(key, entry);
+            return Optional.empty();
+        }
+        return Optional.of(entry.getValue());
+    }
+
+    /**
+     * Replaces the entry of the key with the result of the function while the key is locked, a null result
+     * removes it; a new entry with a time to live is scheduled and the one it replaces is cancelled, since the wheel
+     * only expires the entry it holds
+     */
+    private MemoryEntry update(Object key, UnaryOperator<MemoryEntry> function) {
+        MemoryEntry[] previous = new MemoryEntry[1];
+        MemoryEntry result;
+        if (key instanceof Long) {
+            result = longEntries.compute((Long) key, entry -> {
+                previous[0] = entry;
+                return function.apply(entry);
+            });
+        } else {
+            result = entries.compute(key, (k, entry) -> {
+                previous[0] = entry;
+                return function.apply(entry);
+            });
+        }
+        if (result != previous[0]) {
+            cancel(previous[0]);
+            if (result != null && result.isExpirable()) {
+                pending.offer(result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A new entry of the key with the value, it keeps the expiration of the entry it replaces
+     */
+    private static MemoryEntry replacement(MemoryEntry entry, Object key, Value value) {
+        return entry(key, value, entry.getExpiresAt());
+    }
+
+    private static MemoryEntry entry(Object key, Value value, long expiresAt) {
+        return key instanceof Long ? new MemoryEntry(((Long) key).longValue(), value, expiresAt) :
+                new MemoryEntry(key, value, expiresAt);
+    }
+
+    private static MemoryEntry entry(KeyValueEntity<?> entity, long expiresAt) {
+        if (entity instanceof LongKeyValueEntity) {
+            return new MemoryEntry(((LongKeyValueEntity) entity).getLongKey(), entity.getValue(), expiresAt);
+        }
+        return entry(entity.getKey(), entity.getValue(), expiresAt);
+    }
+
+    private void store(MemoryEntry entry) {
+        if (entry.isLongKey()) {
+            cancel(longEntries.put(entry.getLongKey(), entry));
+        } else {
+            cancel(entries.put(entry.getKey(), entry));
+        }
+    }
+
+    /**
+     * Asks the background thread to unlink an entry that was replaced or removed from the wheel
+     */
+    private void cancel(MemoryEntry entry) {
+        if (entry != null && entry.isExpirable()) {
+            cancelled.offer(entry);
+        }
+    }
+
+    /**
+     * Removes the entry when it is still the one of its key
+     */
+    private void discard(MemoryEntry entry) {
+        if (entry.isLongKey()) {
+            longEntries.remove(entry.getLongKey(), entry);
+        } else {
+            entries.remove(entry.getKey(), entry);
+        }
+    }
+
+    private long expiresAt(Duration ttl) {
+        Objects.requireNonNull(ttl, "ttl is required");
+        if (ttl.isNegative()) {
+            throw new IllegalArgumentException("The ttl cannot be negative");
+        }
+        long nanos = ttl.compareTo(MAX_TTL) > 0 ? MAX_TTL.toNanos() : ttl.toNanos();
+        long expiresAt = System.nanoTime() + nanos;
+        return expiresAt == MemoryEntry.NO_EXPIRATION ? expiresAt - 1 : expiresAt;
+    }
+
+    private void expire() {
+        synchronized (wheel) {
+            MemoryEntry entry;
+            while ((entry = pending.poll()) != null) {
+                if (!wheel.schedule(entry)) {
+                    discard(entry);
+                }
+            }
+            while ((entry = cancelled.poll()) != null) {
+                wheel.cancel(entry);
+            }
+            wheel.advance(System.nanoTime(), this::discard);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MemoryBucketManager{");
+        sb.append("size=").append(size());
+        sb.append(", scheduled=").append(wheel.size());
+        sb.append(", closed=").append(closed);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import org.jnosql.diana.api.key.BucketManagerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * The {@link BucketManagerFactory} of {@link MemoryBucketManager}, the same bucket name returns the same bucket
+ * until it is closed. The lists, sets, queues and maps are thread safe structures kept in memory by bucket name,
+ * the queues are {@link java.util.concurrent.BlockingQueue}.
+ */
+public final class MemoryBucketManagerFactory implements BucketManagerFactory<MemoryBucketManager> {
+
+    private final Duration tick;
+
+    private final ConcurrentMap<String, MemoryBucketManager> buckets = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, List<?>> lists = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Set<?>> sets = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Queue<?>> queues = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Map<?, ?>> maps = new ConcurrentHashMap<>();
+
+    MemoryBucketManagerFactory(Duration tick) {
+        this.tick = tick;
+    }
+
+    @Override
+    public MemoryBucketManager getBucketManager(String bucketName) throws NullPointerException {
+        Objects.requireNonNull(bucketName, "bucketName is required");
+        return buckets.compute(bucketName, (name, bucket) -> bucket == null || bucket.isClosed() ?
+                MemoryBucketManager.of(tick) : bucket);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getList(String bucketName, Class<T> clazz) throws NullPointerException {
+        Objects.requireNonNull(bucketName, "bucketName is required");
+        Objects.requireNonNull(clazz, "clazz is required");
+        return (List<T>) lists.computeIfAbsent(bucketName, name -> Collections.synchronizedList(new ArrayList<>()));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Set<T> getSet(String bucketName, Class<T> clazz) throws NullPointerException {
+        Objects.requireNonNull(bucketName, "bucketName is required");
+        Objects.requireNonNull(clazz, "clazz is required");
+        return (Set<T>) sets.computeIfAbsent(bucketName, name -> ConcurrentHashMap.newKeySet());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Queue<T> getQueue(String bucketName, Class<T> clazz) throws NullPointerException {
+        Objects.requireNonNull(bucketName, "bucketName is required");
+        Objects.requireNonNull(clazz, "clazz is required");
+        return (Queue<T>) queues.computeIfAbsent(bucketName, name -> new LinkedBlockingQueue<>());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> getMap(String bucketName, Class<K> keyValue, Class<V> valueValue)
+            throws NullPointerException {
+        Objects.requireNonNull(bucketName, "bucketName is required");
+        Objects.requireNonNull(keyValue, "keyValue is required");
+        Objects.requireNonNull(valueValue, "valueValue is required");
+        return (Map<K, V>) maps.computeIfAbsent(bucketName, name -> new ConcurrentHashMap<>());
+    }
+
+    @Override
+    public void close() {
+        buckets.values().forEach(MemoryBucketManager::close);
+        buckets.clear();
+        lists.clear();
+        sets.clear();
+        queues.clear();
+        maps.clear();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MemoryBucketManagerFactory{");
+        sb.append("tick=").append(tick);
+        sb.append(", buckets=").append(buckets.keySet());
+        sb.append('}');
+        return sb.toString();
+    }
+}
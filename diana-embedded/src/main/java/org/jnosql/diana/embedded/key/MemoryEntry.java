@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import org.jnosql.diana.api.Value;
+
+/**
+ * An entry of {@link MemoryBucketManager}, it is immutable but its links in the {@link TimingWheel}, which only
+ * the thread of the wheel touches. A new entry replaces the old one in every put, so the wheel just compares the
+ * identity to know whether an expired entry is still in the bucket, and the replaced entry is cancelled in the
+ * wheel. An entry of {@link LongEntryTable} keeps its
+ * key as a primitive and has no key object.
+ */
+final class MemoryEntry {
+
+    static final long NO_EXPIRATION = Long.MAX_VALUE;
+
+    static final int UNSCHEDULED = -1;
+
+    static final int CANCELLED = -2;
+
+    private final Object key;
+
+    private final long longKey;
+
+    private final Value value;
+
+    private final long expiresAt;
+
+    MemoryEntry next;
+
+    MemoryEntry previous;
+
+    /**
+     * The slot of the wheel that holds the entry, {@link #UNSCHEDULED} or {@link #CANCELLED}
+     */
+    int slot = UNSCHEDULED;
+
+    MemoryEntry(Object key, Value value, long expiresAt) {
+        this.key = key;
+        this.longKey = 0L;
+        this.value = value;
+        this.expiresAt = expiresAt;
+    }
+
+    MemoryEntry(long key, Value value, long expiresAt) {
+        this.key = null;
+        this.longKey = key;
+        this.value = value;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * @return the key, or null when it is a long key
+     */
+    Object getKey() {
+        return key;
+    }
+
+    boolean isLongKey() {
+        return key == null;
+    }
+
+    long getLongKey() {
+        return longKey;
+    }
+
+    Value getValue() {
+        return value;
+    }
+
+    long getExpiresAt() {
+        return expiresAt;
+    }
+
+    boolean isExpirable() {
+        return expiresAt != NO_EXPIRATION;
+    }
+
+    boolean isExpired(long now) {
+        return isExpirable() && now - expiresAt >= 0;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import org.jnosql.diana.api.key.KeyValueConfiguration;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The {@link KeyValueConfiguration} of the embedded engine in memory
+ */
+public final class MemoryKeyValueConfiguration implements KeyValueConfiguration<MemoryBucketManagerFactory> {
+
+    private final Duration tick;
+
+    /**
+     * Creates a configuration with {@link MemoryBucketManager#DEFAULT_TICK}
+     */
+    public MemoryKeyValueConfiguration() {
+        this(MemoryBucketManager.DEFAULT_TICK);
+    }
+
+    /**
+     * Creates a configuration
+     *
+     * @param tick the precision of the expiration of the buckets
+     * @throws NullPointerException     when tick is null
+     * @throws IllegalArgumentException when tick is not positive
+     */
+    public MemoryKeyValueConfiguration(Duration tick) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(tick, "tick is required");
+        if (tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("The tick must be positive");
+        }
+        this.tick = tick;
+    }
+
+    @Override
+    public MemoryBucketManagerFactory get() {
+        return new MemoryBucketManagerFactory(tick);
+    }
+
+    @Override
+    public String toString() {
+        return "MemoryKeyValueConfiguration{" + "tick=" + tick + '}';
+    }
+}
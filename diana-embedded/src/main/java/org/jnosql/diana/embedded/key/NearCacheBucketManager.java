@@ -0,0 +1,451 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import org.jnosql.diana.api.Value;
+import org.jnosql.diana.api.key.BucketManager;
+import org.jnosql.diana.api.key.KeyValueEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * A {@link BucketManager} decorator that keeps a local copy of the values read from a remote manager in a
+ * {@link CacheBucketManager}, so the hot keys are read without a round trip. The writes go to the remote manager
+ * and then either update or invalidate the local copy, see {@link NearCacheMode}, and the bulk gets read the local
+ * hits and fetch only the misses in a single call.
+ * <p>A value is kept locally up to the time to live of the near cache, or up to the time to live of the put when
+ * it is shorter. The changes made by other clients are only seen after that time, unless the remote store
+ * publishes them through an {@link InvalidationSource}.</p>
+ * <p>A read that races with a write or an invalidation of the same key does not keep the value it fetched, so
+ * a stale value is not cached after the write. In {@link NearCacheMode#WRITE_THROUGH} a write keeps its value
+ * only when no other write or invalidation of its stripe ran while it went to the remote manager, otherwise it
+ * invalidates the local copy, since it cannot know which write the remote manager applied last. The keys must be
+ * immutable.</p>
+ */
+public final class NearCacheBucketManager implements BucketManager {
+
+    private static final int STRIPES = 256;
+
+    private final BucketManager manager;
+
+    private final CacheBucketManager cache;
+
+    private final NearCacheMode mode;
+
+    private final Duration timeToLive;
+
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+
+    private final Runnable subscription;
+
+    private NearCacheBucketManager(BucketManager manager, CacheBucketManager cache, NearCacheMode mode,
+                                   Duration timeToLive, InvalidationSource source) {
+        this.manager = manager;
+        this.cache = cache;
+        this.mode = mode;
+        this.timeToLive = timeToLive;
+        this.subscription = Objects.requireNonNull(source.subscribe(new Listener()),
+                "The subscription is required");
+    }
+
+    /**
+     * Creates a {@link NearCacheBucketManager} that invalidates the local copy on writes and keeps the values
+     * until they are evicted or invalidated
+     *
+     * @param manager the remote manager
+     * @param cache   the local copy
+     * @return a {@link NearCacheBucketManager} instance
+     * @throws NullPointerException when either manager or cache are null
+     */
+    public static NearCacheBucketManager of(BucketManager manager, CacheBucketManager cache)
+            throws NullPointerException {
+        Objects.requireNonNull(manager, "manager is required");
+        Objects.requireNonNull(cache, "cache is required");
+        return new NearCacheBucketManager(manager, cache, NearCacheMode.INVALIDATE, null, InvalidationSource.none());
+    }
+
+    /**
+     * Creates a {@link NearCacheBucketManager}
+     *
+     * @param manager    the remote manager
+     * @param cache      the local copy
+     * @param mode       how the writes update the local copy
+     * @param timeToLive the maximum time a value is kept locally
+     * @param source     the changes of the remote store, {@link InvalidationSource#none()} when it has none
+     * @return a {@link NearCacheBucketManager} instance
+     * @throws NullPointerException     when either manager, cache, mode, timeToLive or source are null
+     * @throws IllegalArgumentException when timeToLive is zero or negative
+     */
+    public static NearCacheBucketManager of(BucketManager manager, CacheBucketManager cache, NearCacheMode mode,
+                                            Duration timeToLive, InvalidationSource source)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(manager, "manager is required");
+        Objects.requireNonNull(cache, "cache is required");
+        Objects.requireNonNull(mode, "mode is required");
+        Objects.requireNonNull(timeToLive, "timeToLive is required");
+        Objects.requireNonNull(source, "source is required");
+        if (timeToLive.isZero() || timeToLive.isNegative()) {
+            throw new IllegalArgumentException("The time to live must be positive");
+        }
+        return new NearCacheBucketManager(manager, cache, mode, timeToLive, source);
+    }
+
+    @Override
+    public <K, V> void put(K key, V value) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(value, "value is required");
+        long version = writing(key);
+        manager.put(key, value);
+        written(KeyValueEntity.of(key, value), null, version);
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        long version = writing(entity.getKey());
+        manager.put(entity);
+        written(entity, null, version);
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        long version = writing(entity.getKey());
+        manager.put(entity, ttl);
+        written(entity, ttl, version);
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities) throws NullPointerException {
+        Objects.requireNonNull(entities, "entities is required");
+        List<KeyValueEntity<K>> copy = toList(entities);
+        Map<Integer, Long> written = writing(copy);
+        manager.put(copy);
+        written(copy, null, written);
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        Objects.requireNonNull(entities, "entities is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        List<KeyValueEntity<K>> copy = toList(entities);
+        Map<Integer, Long> written = writing(copy);
+        manager.put(copy, ttl);
+        written(copy, ttl, written);
+    }
+
+    @Override
+    public <K> Optional<Value> get(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        Optional<Value> local = cache.get(key);
+        if (local.isPresent()) {
+            return local;
+        }
+        long version = version(key);
+        Optional<Value> value = manager.get(key);
+        value.ifPresent(v -> fill(key, v, version));
+        return value;
+    }
+
+    @Override
+    public <K> Iterable<Value> get(Iterable<K> keys) throws NullPointerException {
+        return new ArrayList<>(getAll(keys).values());
+    }
+
+    @Override
+    public <K> Map<K, Value> getAll(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        List<K> copy = toList(keys);
+        Map<K, Value> hits = cache.getAll(copy);
+        if (hits.size() == copy.size()) {
+            return hits;
+        }
+        List<K> misses = new ArrayList<>(copy.size() - hits.size());
+        List<Long> missVersions = new ArrayList<>(copy.size() - hits.size());
+        for (K key : copy) {
+            if (!hits.containsKey(key)) {
+                misses.add(key);
+                missVersions.add(version(key));
+            }
+        }
+        Map<K, Value> fetched = manager.getAll(misses);
+        for (int index = 0; index < misses.size(); index++) {
+            K key = misses.get(index);
+            Value value = fetched.get(key);
+            if (value != null) {
+                fill(key, value, missVersions.get(index));
+            }
+        }
+        Map<K, Value> values = new LinkedHashMap<>();
+        for (K key : copy) {
+            Value value = hits.containsKey(key) ? hits.get(key) : fetched.get(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public <K> void remove(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        manager.remove(key);
+        invalidate(key);
+    }
+
+    @Override
+    public <K> void remove(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        List<K> copy = toList(keys);
+        manager.remove(copy);
+        copy.forEach(this::invalidate);
+    }
+
+    @Override
+    public <K, V> Optional<Value> putIfAbsent(K key, V value) throws NullPointerException {
+        long version = writing(key);
+        Optional<Value> current = manager.putIfAbsent(key, value);
+        if (!current.isPresent()) {
+            written(KeyValueEntity.of(key, value), null, version);
+        }
+        return current;
+    }
+
+    @Override
+    public <K, V> boolean replace(K key, V expected, V value) throws NullPointerException {
+        long version = writing(key);
+        boolean replaced = manager.replace(key, expected, value);
+        if (replaced) {
+            written(KeyValueEntity.of(key, value), null, version);
+        }
+        return replaced;
+    }
+
+    @Override
+    public <K> Optional<Value> compute(K key, Function<Optional<Value>, ?> remapping) throws NullPointerException {
+        long version = writing(key);
+        Optional<Value> value = manager.compute(key, remapping);
+        if (value.isPresent()) {
+            written(KeyValueEntity.of(key, value.get()), null, version);
+        } else {
+            invalidate(key);
+        }
+        return value;
+    }
+
+    @Override
+    public <K> long increment(K key, long delta) throws NullPointerException, UnsupportedOperationException,
+            ArithmeticException {
+        long version = writing(key);
+        long value = manager.increment(key, delta);
+        written(KeyValueEntity.of(key, value), null, version);
+        return value;
+    }
+
+    /**
+     * Removes the local copy of the key, the next read goes to the remote manager
+     *
+     * @param key the key
+     * @throws NullPointerException when key is null
+     */
+    public void invalidate(Object key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        advance(key);
+        cache.remove(key);
+    }
+
+    /**
+     * Removes every local copy
+     */
+    public void invalidateAll() {
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            versions.incrementAndGet(stripe);
+        }
+        cache.clear();
+    }
+
+    /**
+     * @return the local copy, e.g. to read its {@link CacheStats}
+     */
+    public CacheBucketManager getCache() {
+        return cache;
+    }
+
+    /**
+     * @return how the writes update the local copy
+     */
+    public NearCacheMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Cancels the subscription to the invalidations, clears the local copy and closes the remote manager
+     */
+    @Override
+    public boolean isBulkGet() {
+        return manager.isBulkGet();
+    }
+
+    @Override
+    public void close() {
+        subscription.run();
+        cache.close();
+        manager.close();
+    }
+
+    /**
+     * Advances the version of the key before a write goes to the remote manager, so the reads that run meanwhile
+     * do not keep what they fetch
+     *
+     * @return the version of the write
+     */
+    private long writing(Object key) {
+        Objects.requireNonNull(key, "key is required");
+        return versions.incrementAndGet(stripe(key));
+    }
+
+    /**
+     * Advances once the version of each stripe of the entities, so the entities of a stripe do not race with
+     * each other
+     *
+     * @return the version of the write by stripe
+     */
+    private <K> Map<Integer, Long> writing(List<KeyValueEntity<K>> entities) {
+        Map<Integer, Long> written = new HashMap<>();
+        for (KeyValueEntity<K> entity : entities) {
+            Objects.requireNonNull(entity, "entity is required");
+            written.computeIfAbsent(stripe(entity.getKey()), versions::incrementAndGet);
+        }
+        return written;
+    }
+
+    private <K> void written(List<KeyValueEntity<K>> entities, Duration ttl, Map<Integer, Long> written) {
+        Map<Integer, Long> current = new HashMap<>();
+        written.keySet().forEach(stripe -> current.put(stripe, versions.incrementAndGet(stripe)));
+        for (KeyValueEntity<K> entity : entities) {
+            int stripe = stripe(entity.getKey());
+            update(entity, ttl, written.get(stripe), current.get(stripe));
+        }
+    }
+
+    /**
+     * Updates the local copy after the remote write. The version is advanced again, which drops the reads that
+     * started during the write; when it is not the next one of the write, another write or invalidation ran
+     * meanwhile, so the local copy is removed instead of stored, as in {@link #fill(Object, Value, long)}.
+     */
+    private void written(KeyValueEntity<?> entity, Duration ttl, long version) {
+        update(entity, ttl, version, versions.incrementAndGet(stripe(entity.getKey())));
+    }
+
+    private void update(KeyValueEntity<?> entity, Duration ttl, long version, long current) {
+        Object key = entity.getKey();
+        if (NearCacheMode.INVALIDATE.equals(mode) || current != version + 1) {
+            cache.remove(key);
+            return;
+        }
+        store(key, entity.getValue(), ttl);
+        if (version(key) != current) {
+            cache.remove(key);
+        }
+    }
+
+    /**
+     * Keeps a value fetched from the remote manager, then checks the version again: a write or an invalidation
+     * that ran meanwhile may have happened before the value was stored, so it is dropped.
+     */
+    private void fill(Object key, Value value, long version) {
+        if (version(key) != version) {
+            return;
+        }
+        store(key, value, null);
+        if (version(key) != version) {
+            cache.remove(key);
+        }
+    }
+
+    private void store(Object key, Value value, Duration ttl) {
+        Duration local = ttl;
+        if (timeToLive != null && (local == null || timeToLive.compareTo(local) < 0)) {
+            local = timeToLive;
+        }
+        if (local == null) {
+            cache.put(KeyValueEntity.of(key, value));
+        } else {
+            cache.put(KeyValueEntity.of(key, value), local);
+        }
+    }
+
+    private long version(Object key) {
+        return versions.get(stripe(key));
+    }
+
+    private void advance(Object key) {
+        versions.incrementAndGet(stripe(key));
+    }
+
+    private static int stripe(Object key) {
+        int hash = key.hashCode() * 0x9e3779b9;
+        return (hash >>> 24) & (STRIPES - 1);
+    }
+
+    private static <T> List<T> toList(Iterable<T> iterable) {
+        List<T> list = new ArrayList<>();
+        iterable.forEach(list::add);
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("NearCacheBucketManager{");
+        sb.append("manager=").append(manager);
+        sb.append(", cache=").append(cache);
+        sb.append(", mode=").append(mode);
+        sb.append(", timeToLive=").append(timeToLive);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private class Listener implements InvalidationListener {
+
+        @Override
+        public void onInvalidation(Object key) {
+            invalidate(key);
+        }
+
+        @Override
+        public void onInvalidationAll() {
+            invalidateAll();
+        }
+    }
+}
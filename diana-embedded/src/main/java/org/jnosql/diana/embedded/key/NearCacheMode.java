@@ -0,0 +1,37 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+/**
+ * How a {@link NearCacheBucketManager} updates its local copy when it writes to the remote manager
+ */
+public enum NearCacheMode {
+    /**
+     * The value written is kept in the local copy, so the next read is a hit
+     */
+    WRITE_THROUGH,
+    /**
+     * The key is removed from the local copy, so the next read goes to the remote manager; it fits the keys that
+     * are written more often than read
+     */
+    INVALIDATE
+}
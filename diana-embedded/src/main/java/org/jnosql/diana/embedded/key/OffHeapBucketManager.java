@@ -0,0 +1,422 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import org.jnosql.diana.api.BinaryEncoder;
+import org.jnosql.diana.api.Value;
+import org.jnosql.diana.api.key.BucketManager;
+import org.jnosql.diana.api.key.KeyValueEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A {@link BucketManager} that keeps the keys and the values out of the Java heap, serialized by
+ * {@link BinaryEncoder} into direct memory, so the heap and the garbage collection pauses do not grow with the
+ * number of entries. The entries are spread among segments by the hash of the key bytes, each one with its own
+ * lock, slab allocator and open addressing index, see {@link OffHeapSegment}. When the capacity is reached, a put
+ * evicts the entries of the same size that were not read recently.
+ * <p>The keys are compared by their serialized bytes, so the key types follow the rules of
+ * {@link BinaryEncoder#writeObject(Object)}. A get copies the value bytes to the heap and decodes them only when
+ * the value is read. The expired entries are removed when they are read or when their memory is needed.</p>
+ * <p>The direct memory is released by the garbage collector after {@link OffHeapBucketManager#close()}.</p>
+ */
+public final class OffHeapBucketManager implements BucketManager {
+
+    /**
+     * The default number of segments
+     */
+    public static final int DEFAULT_SEGMENTS = 16;
+
+    private static final int MIN_PAGE_SIZE = 4 * 1024;
+
+    private static final int MAX_PAGE_SIZE = 1024 * 1024;
+
+    private static final Duration MAX_TTL = Duration.ofNanos(Long.MAX_VALUE / 2);
+
+    private static final long OFFSET = 0xcbf29ce484222325L;
+
+    private static final long PRIME = 0x100000001b3L;
+
+    private final OffHeapSegment[] segments;
+
+    private final int segmentBits;
+
+    private final long capacity;
+
+    private final int pageSize;
+
+    private OffHeapBucketManager(long capacity, int segments, int pageSize) {
+        this.capacity = capacity;
+        this.pageSize = pageSize;
+        this.segmentBits = Integer.numberOfTrailingZeros(segments);
+        this.segments = new OffHeapSegment[segments];
+        int maxPages = (int) Math.min(Integer.MAX_VALUE, capacity / segments / pageSize);
+        for (int segment = 0; segment < segments; segment++) {
+            this.segments[segment] = new OffHeapSegment(pageSize, maxPages);
+        }
+    }
+
+    /**
+     * Creates a {@link OffHeapBucketManager} with {@link OffHeapBucketManager#DEFAULT_SEGMENTS}. The key and the
+     * value bytes of an entry must fit in a page less its 32 bytes header, so the largest entry is 4 KiB minus
+     * 32 bytes below 2 MiB of capacity and grows up to 1 MiB minus 32 bytes from 256 MiB of capacity, see
+     * {@link OffHeapBucketManager#of(long, int)}
+     *
+     * @param capacity the maximum bytes of the entries
+     * @return a {@link OffHeapBucketManager} instance
+     * @throws IllegalArgumentException when the capacity is lesser than 16 pages of 4 KiB by segment
+     */
+    public static OffHeapBucketManager of(long capacity) throws IllegalArgumentException {
+        return of(capacity, DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * Creates a {@link OffHeapBucketManager}. Each segment gets at least 16 pages, and the page size is the
+     * largest power of two up to a sixteenth of the capacity of a segment, from 4 KiB to 1 MiB. The key and the
+     * value bytes of an entry must fit in a page less its 32 bytes header, so small capacities only take entries
+     * up to 4 KiB minus 32 bytes, and no capacity takes entries over 1 MiB minus 32 bytes. A put of a larger
+     * entry throws {@link IllegalArgumentException}, see {@link OffHeapBucketManager#getPageSize()}
+     *
+     * @param capacity the maximum bytes of the entries
+     * @param segments the number of segments, a power of two, more segments means less contention
+     * @return a {@link OffHeapBucketManager} instance
+     * @throws IllegalArgumentException when segments is not a positive power of two or the capacity is lesser
+     *                                  than 16 pages of 4 KiB by segment
+     */
+    public static OffHeapBucketManager of(long capacity, int segments) throws IllegalArgumentException {
+        if (segments < 1 || Integer.bitCount(segments) != 1) {
+            throw new IllegalArgumentException("The number of segments must be a positive power of two");
+        }
+        long perSegment = capacity / segments;
+        if (perSegment < 16L * MIN_PAGE_SIZE) {
+            throw new IllegalArgumentException("The capacity must have at least " + 16L * MIN_PAGE_SIZE * segments
+                    + " bytes");
+        }
+        int pageSize = (int) Math.min(MAX_PAGE_SIZE, Long.highestOneBit(perSegment / 16));
+        return new OffHeapBucketManager(capacity, segments, pageSize);
+    }
+
+    @Override
+    public <K, V> void put(K key, V value) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(value, "value is required");
+        write(key, Value.of(value), OffHeapSegment.NO_EXPIRATION);
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        write(entity.getKey(), entity.getValue(), OffHeapSegment.NO_EXPIRATION);
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity, Duration ttl) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        write(entity.getKey(), entity.getValue(), expiresAt(ttl));
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities) throws NullPointerException {
+        writeAll(entities, OffHeapSegment.NO_EXPIRATION);
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities, Duration ttl) throws NullPointerException {
+        writeAll(entities, expiresAt(ttl));
+    }
+
+    @Override
+    public <K> Optional<Value> get(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        byte[] bytes = encodeKey(key);
+        long hash = hash(bytes);
+        long now = System.nanoTime();
+        OffHeapSegment segment = segment(hash);
+        byte[] value = segment.get(bytes, hash, now);
+        if (value == null) {
+            segment.removeExpired(bytes, hash, now);
+            return Optional.empty();
+        }
+        return Optional.of(new EncodedValue(value));
+    }
+
+    @Override
+    public <K> Iterable<Value> get(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        List<K> all = new ArrayList<>();
+        keys.forEach(all::add);
+        List<Value> result = new ArrayList<>(all.size());
+        for (byte[] value : read(all)) {
+            if (value != null) {
+                result.add(new EncodedValue(value));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public <K> Map<K, Value> getAll(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        List<K> all = new ArrayList<>();
+        keys.forEach(all::add);
+        byte[][] values = read(all);
+        Map<K, Value> result = new LinkedHashMap<>();
+        for (int position = 0; position < values.length; position++) {
+            if (values[position] != null) {
+                result.put(all.get(position), new EncodedValue(values[position]));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public <K> void remove(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        byte[] bytes = encodeKey(key);
+        long hash = hash(bytes);
+        segment(hash).remove(bytes, hash);
+    }
+
+    @Override
+    public <K> void remove(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        Batch batch = new Batch(16);
+        for (K key : keys) {
+            Objects.requireNonNull(key, "key is required");
+            batch.add(encodeKey(key), null);
+        }
+        for (int segment = 0; segment < segments.length; segment++) {
+            if (!batch.positions.get(segment).isEmpty()) {
+                segments[segment].remove(batch.keys(segment), batch.hashes(segment));
+            }
+        }
+    }
+
+    /**
+     * @return the number of entries, it might count the expired entries that were not removed yet
+     */
+    public long size() {
+        return Arrays.stream(segments).mapToLong(OffHeapSegment::size).sum();
+    }
+
+    /**
+     * @return the configured capacity in bytes
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the page size, which is also the maximum size of an entry with its header
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @return the bytes of the chunks that hold entries, it is the memory used by the entries rounded up to the
+     * chunk sizes
+     */
+    public long getUsedBytes() {
+        return Arrays.stream(segments).mapToLong(OffHeapSegment::getUsedBytes).sum();
+    }
+
+    /**
+     * @return the direct memory allocated by the pages and the indexes
+     */
+    public long getAllocatedBytes() {
+        return Arrays.stream(segments).mapToLong(OffHeapSegment::getAllocatedBytes).sum();
+    }
+
+    /**
+     * @return the number of entries evicted to make room for other entries
+     */
+    public long getEvictions() {
+        return Arrays.stream(segments).mapToLong(OffHeapSegment::getEvictions).sum();
+    }
+
+    /**
+     * Removes every entry and releases the pages
+     */
+    public void clear() {
+        Arrays.stream(segments).forEach(OffHeapSegment::clear);
+    }
+
+    @Override
+    public boolean isBulkGet() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    private void write(Object key, Value value, long expiresAt) {
+        byte[] bytes = encodeKey(key);
+        long hash = hash(bytes);
+        segment(hash).put(bytes, hash, encodeValue(value), expiresAt);
+    }
+
+    private <K> void writeAll(Iterable<KeyValueEntity<K>> entities, long expiresAt) {
+        Objects.requireNonNull(entities, "entities is required");
+        Batch batch = new Batch(16);
+        for (KeyValueEntity<K> entity : entities) {
+            Objects.requireNonNull(entity, "entity is required");
+            batch.add(encodeKey(entity.getKey()), encodeValue(entity.getValue()));
+        }
+        for (int segment = 0; segment < segments.length; segment++) {
+            if (!batch.positions.get(segment).isEmpty()) {
+                segments[segment].put(batch.keys(segment), batch.hashes(segment), batch.values(segment),
+                        expiresAt);
+            }
+        }
+    }
+
+    private byte[][] read(List<?> keys) {
+        Batch batch = new Batch(keys.size());
+        for (Object key : keys) {
+            batch.add(encodeKey(key), null);
+        }
+        byte[][] values = new byte[keys.size()][];
+        long now = System.nanoTime();
+        for (int segment = 0; segment < segments.length; segment++) {
+            List<Integer> positions = batch.positions.get(segment);
+            if (positions.isEmpty()) {
+                continue;
+            }
+            byte[][] found = segments[segment].get(batch.keys(segment), batch.hashes(segment), now);
+            for (int position = 0; position < found.length; position++) {
+                values[positions.get(position)] = found[position];
+            }
+        }
+        return values;
+    }
+
+    private OffHeapSegment segment(long hash) {
+        return segments[segmentIndex(hash)];
+    }
+
+    private int segmentIndex(long hash) {
+        return segmentBits == 0 ? 0 : (int) (hash >>> (64 - segmentBits));
+    }
+
+    private long expiresAt(Duration ttl) {
+        Objects.requireNonNull(ttl, "ttl is required");
+        if (ttl.isNegative()) {
+            throw new IllegalArgumentException("The ttl cannot be negative");
+        }
+        long nanos = ttl.compareTo(MAX_TTL) > 0 ? MAX_TTL.toNanos() : ttl.toNanos();
+        long expiresAt = System.nanoTime() + nanos;
+        return expiresAt == OffHeapSegment.NO_EXPIRATION ? expiresAt - 1 : expiresAt;
+    }
+
+    private static byte[] encodeKey(Object key) {
+        Objects.requireNonNull(key, "key is required");
+        return BinaryEncoder.of().writeObject(key).toByteArray();
+    }
+
+    private static byte[] encodeValue(Value value) {
+        Objects.requireNonNull(value, "value is required");
+        return BinaryEncoder.of().writeValue(value).toByteArray();
+    }
+
+    static long hash(byte[] bytes) {
+        long hash = OFFSET;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("OffHeapBucketManager{");
+        sb.append("capacity=").append(capacity);
+        sb.append(", segments=").append(segments.length);
+        sb.append(", pageSize=").append(pageSize);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private final class Batch {
+
+        private final List<List<Integer>> positions;
+
+        private final List<List<byte[]>> keys;
+
+        private final List<List<Long>> hashes;
+
+        private final List<List<byte[]>> values;
+
+        private int count;
+
+        private Batch(int expected) {
+            int length = segments.length;
+            positions = new ArrayList<>(length);
+            keys = new ArrayList<>(length);
+            hashes = new ArrayList<>(length);
+            values = new ArrayList<>(length);
+            int perSegment = Math.max(1, expected / length);
+            for (int segment = 0; segment < length; segment++) {
+                positions.add(new ArrayList<>(perSegment));
+                keys.add(new ArrayList<>(perSegment));
+                hashes.add(new ArrayList<>(perSegment));
+                values.add(new ArrayList<>(perSegment));
+            }
+        }
+
+        private void add(byte[] key, byte[] value) {
+            long hash = hash(key);
+            int segment = segmentIndex(hash);
+            positions.get(segment).add(count++);
+            keys.get(segment).add(key);
+            hashes.get(segment).add(hash);
+            values.get(segment).add(value);
+        }
+
+        private List<byte[]> keys(int segment) {
+            return keys.get(segment);
+        }
+
+        private List<Long> hashes(int segment) {
+            return hashes.get(segment);
+        }
+
+        private List<byte[]> values(int segment) {
+            return values.get(segment);
+        }
+    }
+}
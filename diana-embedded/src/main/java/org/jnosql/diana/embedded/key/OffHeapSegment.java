@@ -0,0 +1,649 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A segment of {@link OffHeapBucketManager}, every byte of its entries lives in direct memory.
+ * <p>The entries are kept by a slab allocator: the memory is split in pages, each page belongs to a size class
+ * and is cut in chunks of the size of the class, the powers of two from 64 bytes to the page size. A chunk has a
+ * header with the flags, the lengths, the hash and the expiration, followed by the key and the value bytes, and
+ * the free chunks of a class are linked in a list kept in the chunks themselves. When there is neither a free
+ * chunk nor room for a new page, a chunk of the class is evicted by the clock algorithm, which gives a second
+ * chance to the chunks read since the last pass, and a class without pages takes the last page of the class with
+ * more pages.</p>
+ * <p>The index is an open addressing table with linear probing, also in direct memory, each slot has the hash of
+ * the key and the address of its chunk, and the removals shift the next slots back, so there are no tombstones.
+ * </p>
+ * <p>The reads hold the read lock and the writes hold the write lock.</p>
+ */
+final class OffHeapSegment {
+
+    static final int HEADER = 32;
+
+    static final long NONE = -1;
+
+    static final long NO_EXPIRATION = Long.MAX_VALUE;
+
+    private static final int MIN_CHUNK_BITS = 6;
+
+    private static final int FLAGS = 0;
+
+    private static final int KEY_LENGTH = 4;
+
+    private static final int VALUE_LENGTH = 8;
+
+    private static final int HASH = 16;
+
+    private static final int EXPIRES_AT = 24;
+
+    private static final int PREVIOUS = 8;
+
+    private static final int NEXT = 16;
+
+    private static final byte FREE = 0;
+
+    private static final byte USED = 1;
+
+    private static final byte REFERENCED = 2;
+
+    private static final int SLOT = 16;
+
+    private static final int INITIAL_SLOTS = 256;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final int pageSize;
+
+    private final int pageBits;
+
+    private final ByteBuffer[] pages;
+
+    private final int[] pageClasses;
+
+    private int pageCount;
+
+    private final long[] freeHeads;
+
+    private final List<List<Integer>> classPages;
+
+    private final int[] clockPages;
+
+    private final int[] clockOffsets;
+
+    private ByteBuffer index;
+
+    private int slots;
+
+    private int count;
+
+    private long used;
+
+    private long evictions;
+
+    OffHeapSegment(int pageSize, int maxPages) {
+        this.pageSize = pageSize;
+        this.pageBits = Integer.numberOfTrailingZeros(pageSize);
+        this.pages = new ByteBuffer[maxPages];
+        this.pageClasses = new int[maxPages];
+        int classes = pageBits - MIN_CHUNK_BITS + 1;
+        this.freeHeads = new long[classes];
+        this.classPages = new ArrayList<>(classes);
+        this.clockPages = new int[classes];
+        this.clockOffsets = new int[classes];
+        for (int cls = 0; cls < classes; cls++) {
+            freeHeads[cls] = NONE;
+            classPages.add(new ArrayList<>());
+        }
+        this.slots = INITIAL_SLOTS;
+        this.index = ByteBuffer.allocateDirect(slots * SLOT);
+    }
+
+    /**
+     * Returns the largest entry, key and value bytes, that fits in a chunk
+     *
+     * @param pageSize the page size
+     * @return the size
+     */
+    static int maxEntrySize(int pageSize) {
+        return pageSize - HEADER;
+    }
+
+    /**
+     * Reads the value bytes of a key
+     *
+     * @param key  the key bytes
+     * @param hash the key hash
+     * @param now  the current time in nanoseconds
+     * @return the value bytes, or null when the key is absent or expired
+     */
+    byte[] get(byte[] key, long hash, long now) {
+        lock.readLock().lock();
+        try {
+            return read(key, hash, now);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the value bytes of many keys holding the lock once
+     *
+     * @param keys   the key bytes
+     * @param hashes the key hashes
+     * @param now    the current time in nanoseconds
+     * @return the values in the order of the keys, null when a key is absent or expired
+     */
+    byte[][] get(List<byte[]> keys, List<Long> hashes, long now) {
+        byte[][] values = new byte[keys.size()][];
+        lock.readLock().lock();
+        try {
+            for (int position = 0; position < keys.size(); position++) {
+                values[position] = read(keys.get(position), hashes.get(position), now);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return values;
+    }
+
+    /**
+     * Writes an entry, evicting other entries when there is no memory left
+     *
+     * @param key       the key bytes
+     * @param hash      the key hash
+     * @param value     the value bytes
+     * @param expiresAt the expiration time in nanoseconds or {@link OffHeapSegment#NO_EXPIRATION}
+     */
+    void put(byte[] key, long hash, byte[] value, long expiresAt) {
+        lock.writeLock().lock();
+        try {
+            write(key, hash, value, expiresAt);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes many entries holding the lock once
+     *
+     * @param keys      the key bytes
+     * @param hashes    the key hashes
+     * @param values    the value bytes
+     * @param expiresAt the expiration time of every entry
+     */
+    void put(List<byte[]> keys, List<Long> hashes, List<byte[]> values, long expiresAt) {
+        lock.writeLock().lock();
+        try {
+            for (int position = 0; position < keys.size(); position++) {
+                write(keys.get(position), hashes.get(position), values.get(position), expiresAt);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a key
+     *
+     * @param key  the key bytes
+     * @param hash the key hash
+     */
+    void remove(byte[] key, long hash) {
+        lock.writeLock().lock();
+        try {
+            delete(key, hash);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes many keys holding the lock once
+     *
+     * @param keys   the key bytes
+     * @param hashes the key hashes
+     */
+    void remove(List<byte[]> keys, List<Long> hashes) {
+        lock.writeLock().lock();
+        try {
+            for (int position = 0; position < keys.size(); position++) {
+                delete(keys.get(position), hashes.get(position));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a key when it is expired
+     *
+     * @param key  the key bytes
+     * @param hash the key hash
+     * @param now  the current time in nanoseconds
+     */
+    void removeExpired(byte[] key, long hash, long now) {
+        lock.writeLock().lock();
+        try {
+            int slot = find(key, hash);
+            if (slot >= 0 && isExpired(address(slot), now)) {
+                release(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every entry and releases the pages
+     */
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            for (int page = 0; page < pageCount; page++) {
+                pages[page] = null;
+            }
+            pageCount = 0;
+            for (int cls = 0; cls < freeHeads.length; cls++) {
+                freeHeads[cls] = NONE;
+                classPages.get(cls).clear();
+                clockPages[cls] = 0;
+                clockOffsets[cls] = 0;
+            }
+            slots = INITIAL_SLOTS;
+            index = ByteBuffer.allocateDirect(slots * SLOT);
+            count = 0;
+            used = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long getUsedBytes() {
+        lock.readLock().lock();
+        try {
+            return used;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long getAllocatedBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) pageCount * pageSize + (long) slots * SLOT;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long getEvictions() {
+        lock.readLock().lock();
+        try {
+            return evictions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private byte[] read(byte[] key, long hash, long now) {
+        int slot = find(key, hash);
+        if (slot < 0) {
+            return null;
+        }
+        long address = address(slot);
+        if (isExpired(address, now)) {
+            return null;
+        }
+        ByteBuffer page = page(address);
+        int offset = offset(address);
+        page.put(offset + FLAGS, (byte) (USED | REFERENCED));
+        byte[] value = new byte[page.getInt(offset + VALUE_LENGTH)];
+        copy(page, offset + HEADER + key.length, value);
+        return value;
+    }
+
+    private void write(byte[] key, long hash, byte[] value, long expiresAt) {
+        int size = HEADER + key.length + value.length;
+        if (size > pageSize) {
+            throw new IllegalArgumentException("The entry has " + (key.length + value.length)
+                    + " bytes but the maximum is " + maxEntrySize(pageSize));
+        }
+        int cls = sizeClass(size);
+        int slot = find(key, hash);
+        if (slot >= 0) {
+            long address = address(slot);
+            if (pageClasses[pageIndex(address)] == cls) {
+                store(address, key, hash, value, expiresAt);
+                return;
+            }
+            release(slot);
+        }
+        long address = allocate(cls);
+        store(address, key, hash, value, expiresAt);
+        used += chunkSize(cls);
+        count++;
+        insert(hash, address);
+    }
+
+    private void delete(byte[] key, long hash) {
+        int slot = find(key, hash);
+        if (slot >= 0) {
+            release(slot);
+        }
+    }
+
+    private void release(int slot) {
+        long address = address(slot);
+        int cls = pageClasses[pageIndex(address)];
+        deleteSlot(slot);
+        push(cls, address);
+        used -= chunkSize(cls);
+        count--;
+    }
+
+    private void store(long address, byte[] key, long hash, byte[] value, long expiresAt) {
+        ByteBuffer page = page(address);
+        int offset = offset(address);
+        page.put(offset + FLAGS, USED);
+        page.putInt(offset + KEY_LENGTH, key.length);
+        page.putInt(offset + VALUE_LENGTH, value.length);
+        page.putLong(offset + HASH, hash);
+        page.putLong(offset + EXPIRES_AT, expiresAt);
+        ByteBuffer target = page.duplicate();
+        target.position(offset + HEADER);
+        target.put(key);
+        target.put(value);
+    }
+
+    private boolean isExpired(long address, long now) {
+        long expiresAt = page(address).getLong(offset(address) + EXPIRES_AT);
+        return expiresAt != NO_EXPIRATION && now - expiresAt >= 0;
+    }
+
+    private long allocate(int cls) {
+        if (freeHeads[cls] != NONE) {
+            long address = freeHeads[cls];
+            unlink(cls, address);
+            return address;
+        }
+        if (pageCount < pages.length) {
+            int page = pageCount++;
+            pages[page] = ByteBuffer.allocateDirect(pageSize);
+            assign(page, cls);
+            long address = freeHeads[cls];
+            unlink(cls, address);
+            return address;
+        }
+        if (!classPages.get(cls).isEmpty()) {
+            return clock(cls);
+        }
+        steal(cls);
+        long address = freeHeads[cls];
+        unlink(cls, address);
+        return address;
+    }
+
+    private void assign(int page, int cls) {
+        pageClasses[page] = cls;
+        classPages.get(cls).add(page);
+        int chunk = chunkSize(cls);
+        for (int offset = pageSize - chunk; offset >= 0; offset -= chunk) {
+            push(cls, address(page, offset));
+        }
+    }
+
+    private long clock(int cls) {
+        List<Integer> owned = classPages.get(cls);
+        int chunk = chunkSize(cls);
+        long now = System.nanoTime();
+        long chunks = (long) owned.size() * (pageSize / chunk);
+        for (long step = 0; step <= chunks * 2; step++) {
+            if (clockPages[cls] >= owned.size()) {
+                clockPages[cls] = 0;
+                clockOffsets[cls] = 0;
+            }
+            long address = address(owned.get(clockPages[cls]), clockOffsets[cls]);
+            clockOffsets[cls] += chunk;
+            if (clockOffsets[cls] >= pageSize) {
+                clockOffsets[cls] = 0;
+                clockPages[cls]++;
+            }
+            ByteBuffer page = page(address);
+            int offset = offset(address);
+            byte flags = page.get(offset + FLAGS);
+            if ((flags & USED) == 0) {
+                continue;
+            }
+            if ((flags & REFERENCED) != 0 && !isExpired(address, now)) {
+                page.put(offset + FLAGS, USED);
+                continue;
+            }
+            evict(address);
+            return address;
+        }
+        throw new IllegalStateException("There is no chunk to evict in the class " + cls);
+    }
+
+    private void steal(int cls) {
+        int victim = -1;
+        for (int candidate = 0; candidate < classPages.size(); candidate++) {
+            if (candidate != cls && (victim < 0
+                    || classPages.get(candidate).size() > classPages.get(victim).size())) {
+                victim = candidate;
+            }
+        }
+        List<Integer> owned = classPages.get(victim);
+        int page = owned.remove(owned.size() - 1);
+        int chunk = chunkSize(victim);
+        for (int offset = 0; offset < pageSize; offset += chunk) {
+            long address = address(page, offset);
+            if ((pages[page].get(offset + FLAGS) & USED) == 0) {
+                unlink(victim, address);
+            } else {
+                evict(address);
+            }
+        }
+        if (clockPages[victim] >= owned.size()) {
+            clockPages[victim] = 0;
+            clockOffsets[victim] = 0;
+        }
+        assign(page, cls);
+    }
+
+    private void evict(long address) {
+        ByteBuffer page = page(address);
+        int offset = offset(address);
+        long hash = page.getLong(offset + HASH);
+        for (int slot = home(hash); ; slot = (slot + 1) & (slots - 1)) {
+            long stored = index.getLong(slot * SLOT + 8);
+            if (stored == 0) {
+                throw new IllegalStateException("The chunk is not in the index");
+            }
+            if (stored - 1 == address) {
+                deleteSlot(slot);
+                break;
+            }
+        }
+        page.put(offset + FLAGS, FREE);
+        used -= chunkSize(pageClasses[pageIndex(address)]);
+        count--;
+        evictions++;
+    }
+
+    private void push(int cls, long address) {
+        ByteBuffer page = page(address);
+        int offset = offset(address);
+        long head = freeHeads[cls];
+        page.put(offset + FLAGS, FREE);
+        page.putLong(offset + PREVIOUS, NONE);
+        page.putLong(offset + NEXT, head);
+        if (head != NONE) {
+            page(head).putLong(offset(head) + PREVIOUS, address);
+        }
+        freeHeads[cls] = address;
+    }
+
+    private void unlink(int cls, long address) {
+        ByteBuffer page = page(address);
+        int offset = offset(address);
+        long previous = page.getLong(offset + PREVIOUS);
+        long next = page.getLong(offset + NEXT);
+        if (previous == NONE) {
+            freeHeads[cls] = next;
+        } else {
+            page(previous).putLong(offset(previous) + NEXT, next);
+        }
+        if (next != NONE) {
+            page(next).putLong(offset(next) + PREVIOUS, previous);
+        }
+    }
+
+    private int find(byte[] key, long hash) {
+        for (int slot = home(hash); ; slot = (slot + 1) & (slots - 1)) {
+            long stored = index.getLong(slot * SLOT + 8);
+            if (stored == 0) {
+                return -1;
+            }
+            if (index.getLong(slot * SLOT) == hash && keyEquals(stored - 1, key)) {
+                return slot;
+            }
+        }
+    }
+
+    private void insert(long hash, long address) {
+        if ((count + 1) * 4L > slots * 3L) {
+            resize();
+        }
+        put(index, slots, hash, address);
+    }
+
+    private void resize() {
+        int newSlots = slots * 2;
+        ByteBuffer resized = ByteBuffer.allocateDirect(newSlots * SLOT);
+        for (int slot = 0; slot < slots; slot++) {
+            long stored = index.getLong(slot * SLOT + 8);
+            if (stored != 0) {
+                put(resized, newSlots, index.getLong(slot * SLOT), stored - 1);
+            }
+        }
+        index = resized;
+        slots = newSlots;
+    }
+
+    private static void put(ByteBuffer table, int size, long hash, long address) {
+        for (int slot = (int) hash & (size - 1); ; slot = (slot + 1) & (size - 1)) {
+            if (table.getLong(slot * SLOT + 8) == 0) {
+                table.putLong(slot * SLOT, hash);
+                table.putLong(slot * SLOT + 8, address + 1);
+                return;
+            }
+        }
+    }
+
+    private void deleteSlot(int slot) {
+        int mask = slots - 1;
+        int hole = slot;
+        int current = slot;
+        while (true) {
+            current = (current + 1) & mask;
+            long stored = index.getLong(current * SLOT + 8);
+            if (stored == 0) {
+                break;
+            }
+            int home = home(index.getLong(current * SLOT));
+            if (((current - home) & mask) >= ((current - hole) & mask)) {
+                index.putLong(hole * SLOT, index.getLong(current * SLOT));
+                index.putLong(hole * SLOT + 8, stored);
+                hole = current;
+            }
+        }
+        index.putLong(hole * SLOT, 0);
+        index.putLong(hole * SLOT + 8, 0);
+    }
+
+    private boolean keyEquals(long address, byte[] key) {
+        ByteBuffer page = page(address);
+        int offset = offset(address);
+        if (page.getInt(offset + KEY_LENGTH) != key.length) {
+            return false;
+        }
+        for (int position = 0; position < key.length; position++) {
+            if (page.get(offset + HEADER + position) != key[position]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long address(int slot) {
+        return index.getLong(slot * SLOT + 8) - 1;
+    }
+
+    private int home(long hash) {
+        return (int) hash & (slots - 1);
+    }
+
+    private ByteBuffer page(long address) {
+        return pages[pageIndex(address)];
+    }
+
+    private int pageIndex(long address) {
+        return (int) (address >>> pageBits);
+    }
+
+    private int offset(long address) {
+        return (int) (address & (pageSize - 1));
+    }
+
+    private long address(int page, int offset) {
+        return ((long) page << pageBits) | offset;
+    }
+
+    private int sizeClass(int size) {
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(size, 1 << MIN_CHUNK_BITS) - 1);
+        return bits - MIN_CHUNK_BITS;
+    }
+
+    private int chunkSize(int cls) {
+        return 1 << (cls + MIN_CHUNK_BITS);
+    }
+
+    private static void copy(ByteBuffer page, int offset, byte[] target) {
+        ByteBuffer source = page.duplicate();
+        source.position(offset);
+        source.get(target);
+    }
+}
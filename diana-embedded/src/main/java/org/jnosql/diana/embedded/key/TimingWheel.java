@@ -0,0 +1,225 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel: four levels of 64 slots, the slots of the first level last one tick and the slots
+ * of each next level last 64 times the slots of the previous one. Scheduling an entry is O(1), and when the time
+ * reaches a slot of an upper level its entries cascade to the lower levels, so each entry moves at most once per
+ * level. The entries beyond the last level wait in an overflow list. The slots are doubly linked lists, so an
+ * entry replaced or removed before it expires is unlinked in O(1) by {@link #cancel(MemoryEntry)} instead of
+ * waiting in the wheel until its deadline. It is not thread safe, a single thread must schedule, cancel and
+ * advance it.
+ */
+final class TimingWheel {
+
+    private static final int BITS = 6;
+
+    private static final int SLOTS = 1 << BITS;
+
+    private static final int MASK = SLOTS - 1;
+
+    private static final int LEVELS = 4;
+
+    private static final int OVERFLOW = LEVELS * SLOTS;
+
+    private final long tick;
+
+    private final long origin;
+
+    private final MemoryEntry[][] wheels = new MemoryEntry[LEVELS][SLOTS];
+
+    private MemoryEntry overflow;
+
+    private long current;
+
+    private int size;
+
+    TimingWheel(long tick, long origin) {
+        this.tick = tick;
+        this.origin = origin;
+    }
+
+    /**
+     * Schedules an entry
+     *
+     * @param entry the entry
+     * @return false when the entry is already expired, so it was not scheduled; a cancelled entry is ignored
+     */
+    boolean schedule(MemoryEntry entry) {
+        if (entry.slot == MemoryEntry.CANCELLED) {
+            return true;
+        }
+        long ticks = ticks(entry.getExpiresAt());
+        if (ticks - current <= 0) {
+            return false;
+        }
+        insert(entry, ticks);
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes an entry from the wheel, when it is not scheduled yet it will be ignored by
+     * {@link #schedule(MemoryEntry)}
+     *
+     * @param entry the entry
+     */
+    void cancel(MemoryEntry entry) {
+        if (entry.slot == MemoryEntry.UNSCHEDULED) {
+            entry.slot = MemoryEntry.CANCELLED;
+            return;
+        }
+        if (entry.slot == MemoryEntry.CANCELLED) {
+            return;
+        }
+        if (entry.previous != null) {
+            entry.previous.next = entry.next;
+        } else if (entry.slot == OVERFLOW) {
+            overflow = entry.next;
+        } else {
+            wheels[entry.slot / SLOTS][entry.slot % SLOTS] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.previous = entry.previous;
+        }
+        entry.next = null;
+        entry.previous = null;
+        entry.slot = MemoryEntry.CANCELLED;
+        size--;
+    }
+
+    /**
+     * Removes every entry
+     */
+    void clear() {
+        for (MemoryEntry[] wheel : wheels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                release(wheel[slot]);
+                wheel[slot] = null;
+            }
+        }
+        release(overflow);
+        overflow = null;
+        size = 0;
+    }
+
+    /**
+     * Advances the wheel until the time given
+     *
+     * @param now     the current time in nanoseconds
+     * @param expired receives each expired entry
+     */
+    void advance(long now, Consumer<MemoryEntry> expired) {
+        long target = Math.floorDiv(now - origin, tick);
+        if (size == 0) {
+            current = Math.max(current, target);
+            return;
+        }
+        while (current < target && size > 0) {
+            current++;
+            if ((current & ((1L << (BITS * LEVELS)) - 1)) == 0) {
+                MemoryEntry entries = overflow;
+                overflow = null;
+                reschedule(entries, expired);
+            }
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((current & ((1L << (BITS * level)) - 1)) == 0) {
+                    int slot = (int) (current >>> (BITS * level)) & MASK;
+                    MemoryEntry entries = wheels[level][slot];
+                    wheels[level][slot] = null;
+                    reschedule(entries, expired);
+                }
+            }
+            int slot = (int) current & MASK;
+            MemoryEntry entries = wheels[0][slot];
+            wheels[0][slot] = null;
+            reschedule(entries, expired);
+        }
+        current = Math.max(current, target);
+    }
+
+    /**
+     * @return the number of scheduled entries
+     */
+    int size() {
+        return size;
+    }
+
+    private void reschedule(MemoryEntry entries, Consumer<MemoryEntry> expired) {
+        MemoryEntry entry = entries;
+        while (entry != null) {
+            MemoryEntry next = entry.next;
+            entry.next = null;
+            entry.previous = null;
+            long ticks = ticks(entry.getExpiresAt());
+            if (ticks - current <= 0) {
+                size--;
+                entry.slot = MemoryEntry.CANCELLED;
+                expired.accept(entry);
+            } else {
+                insert(entry, ticks);
+            }
+            entry = next;
+        }
+    }
+
+    private void insert(MemoryEntry entry, long ticks) {
+        long delta = ticks - current;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (BITS * (level + 1))) {
+                int slot = (int) (ticks >>> (BITS * level)) & MASK;
+                wheels[level][slot] = link(entry, wheels[level][slot], level * SLOTS + slot);
+                return;
+            }
+        }
+        overflow = link(entry, overflow, OVERFLOW);
+    }
+
+    private static MemoryEntry link(MemoryEntry entry, MemoryEntry head, int slot) {
+        entry.slot = slot;
+        entry.previous = null;
+        entry.next = head;
+        if (head != null) {
+            head.previous = entry;
+        }
+        return entry;
+    }
+
+    private static void release(MemoryEntry entries) {
+        MemoryEntry entry = entries;
+        while (entry != null) {
+            MemoryEntry next = entry.next;
+            entry.next = null;
+            entry.previous = null;
+            entry.slot = MemoryEntry.CANCELLED;
+            entry = next;
+        }
+    }
+
+    private long ticks(long time) {
+        long elapsed = time - origin;
+        return elapsed <= 0 ? 0 : (elapsed - 1) / tick + 1;
+    }
+}
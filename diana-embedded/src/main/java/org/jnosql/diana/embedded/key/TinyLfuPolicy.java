@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+/**
+ * The W-TinyLFU policy: the new nodes enter a small LRU window with one percent of the weight, and the nodes
+ * that leave the window compete to enter the main space, a segmented LRU with a probation and a protected queue.
+ * A candidate from the window is admitted only when the {@link FrequencySketch} says that its key is more
+ * frequent than the key that would be evicted from probation, so a burst of keys read once does not flush the
+ * popular ones. A node read in probation moves to the protected queue, which keeps up to eighty percent of the
+ * main space.
+ */
+final class TinyLfuPolicy implements CachePolicy {
+
+    private final AccessOrder window = new AccessOrder();
+
+    private final AccessOrder probation = new AccessOrder();
+
+    private final AccessOrder protect = new AccessOrder();
+
+    private final FrequencySketch sketch;
+
+    private final long windowMaximum;
+
+    private final long mainMaximum;
+
+    private final long protectedMaximum;
+
+    private long nodes;
+
+    TinyLfuPolicy(long maximumWeight) {
+        this.windowMaximum = Math.max(1, maximumWeight / 100);
+        this.mainMaximum = Math.max(0, maximumWeight - windowMaximum);
+        this.protectedMaximum = mainMaximum * 8 / 10;
+        this.sketch = new FrequencySketch(Math.min(maximumWeight, 1024));
+    }
+
+    @Override
+    public void onInsert(CacheNode node) {
+        nodes++;
+        sketch.ensureCapacity(nodes);
+        sketch.increment(node.getHash());
+        node.queue = CacheNode.WINDOW;
+        window.add(node);
+    }
+
+    @Override
+    public void onAccess(CacheNode node) {
+        sketch.increment(node.getHash());
+        switch (node.queue) {
+            case CacheNode.WINDOW:
+                window.moveToTail(node);
+                return;
+            case CacheNode.PROBATION:
+                probation.remove(node);
+                node.queue = CacheNode.PROTECTED;
+                protect.add(node);
+                while (protect.weight() > protectedMaximum && protect.head() != node) {
+                    CacheNode demoted = protect.head();
+                    protect.remove(demoted);
+                    demoted.queue = CacheNode.PROBATION;
+                    probation.add(demoted);
+                }
+                return;
+            default:
+                protect.moveToTail(node);
+        }
+    }
+
+    @Override
+    public void onRemove(CacheNode node) {
+        nodes--;
+        queue(node).remove(node);
+    }
+
+    @Override
+    public CacheNode evict() {
+        while (window.weight() > windowMaximum) {
+            CacheNode candidate = window.head();
+            if (probation.weight() + protect.weight() + candidate.getWeight() > mainMaximum) {
+                return compete(candidate);
+            }
+            admit(candidate);
+        }
+        CacheNode candidate = window.head();
+        if (candidate != null) {
+            return compete(candidate);
+        }
+        CacheNode victim = mainVictim();
+        return victim == null ? null : remove(victim);
+    }
+
+    private CacheNode compete(CacheNode candidate) {
+        CacheNode victim = mainVictim();
+        if (victim == null || sketch.frequency(candidate.getHash()) <= sketch.frequency(victim.getHash())) {
+            return remove(candidate);
+        }
+        remove(victim);
+        admit(candidate);
+        return victim;
+    }
+
+    private void admit(CacheNode candidate) {
+        window.remove(candidate);
+        candidate.queue = CacheNode.PROBATION;
+        probation.add(candidate);
+    }
+
+    private CacheNode mainVictim() {
+        return probation.isEmpty() ? protect.head() : probation.head();
+    }
+
+    private CacheNode remove(CacheNode node) {
+        nodes--;
+        queue(node).remove(node);
+        return node;
+    }
+
+    private AccessOrder queue(CacheNode node) {
+        switch (node.queue) {
+            case CacheNode.WINDOW:
+                return window;
+            case CacheNode.PROBATION:
+                return probation;
+            default:
+                return protect;
+        }
+    }
+}
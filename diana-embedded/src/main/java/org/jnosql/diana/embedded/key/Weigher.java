@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jnosql.diana.embedded.key;
+
+
+import org.jnosql.diana.api.BinaryEncoder;
+import org.jnosql.diana.api.Value;
+
+/**
+ * Calculates the weight of an entry of {@link CacheBucketManager}, the cache keeps the sum of the weights within
+ * its maximum weight
+ */
+@FunctionalInterface
+public interface Weigher {
+
+    /**
+     * The bytes of the entry header, the references and the object headers, added by {@link Weigher#bytes()}
+     */
+    int ENTRY_OVERHEAD = 64;
+
+    /**
+     * Returns the weight of an entry
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the weight, it must not be negative
+     */
+    long weigh(Object key, Value value);
+
+    /**
+     * Returns a weigher where every entry weighs one, so the maximum weight is the maximum number of entries
+     *
+     * @return a {@link Weigher} instance
+     */
+    static Weigher unit() {
+        return (key, value) -> 1L;
+    }
+
+    /**
+     * Returns a weigher that estimates the bytes of an entry, the size of the key and the value written by
+     * {@link BinaryEncoder} plus {@link Weigher#ENTRY_OVERHEAD}. It encodes each entry written, so it costs about
+     * as much as serializing the entry.
+     *
+     * @return a {@link Weigher} instance
+     */
+    static Weigher bytes() {
+        return (key, value) -> ENTRY_OVERHEAD + BinaryEncoder.of().writeObject(key).writeValue(value)
+                .toByteArray().length;
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * An embedded key-value engine, the buckets live in the memory of the application, or in files of a local
+ * directory with {@link org.jnosql.diana.embedded.key.LogBucketManager}, and need no database server.
+ * It is useful to tests and local caches, and as a reference implementation of
+ * {@link org.jnosql.diana.api.key.BucketManager}.
+ */
+package org.jnosql.diana.embedded.key;
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.embedded.key;
+
+import org.jnosql.diana.api.key.BucketManager;
+import org.jnosql.diana.api.key.BucketQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The sustained throughput of {@link BucketQueue} with four producers and four consumers, one element or a batch
+ * at a time, over {@link MemoryBucketManager} and {@link LogBucketManager}, run it with
+ * {@code java -cp target/test-classes:<test classpath> org.openjdk.jmh.Main BucketQueueBenchmark}; the queue is
+ * bounded, so a producer fails its offer instead of growing the queue when the consumers fall behind
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BucketQueueBenchmark {
+
+    private static final int BATCH = 64;
+
+    @Param({"MEMORY", "LOG"})
+    private String engine;
+
+    @Param({"65536"})
+    private int capacity;
+
+    private Path directory;
+
+    private BucketManager manager;
+
+    private BucketQueue<Long> queue;
+
+    private List<Long> batch;
+
+    @Setup
+    public void setUp() throws IOException {
+        if ("LOG".equals(engine)) {
+            directory = Files.createTempDirectory("queue-benchmark");
+            manager = LogBucketManager.of(directory);
+        } else {
+            manager = MemoryBucketManager.of();
+        }
+        queue = BucketQueue.of(manager, "work", Long.class, capacity);
+        batch = IntStream.range(0, BATCH).mapToObj(Long::valueOf).collect(Collectors.toList());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        manager.close();
+        if (directory != null) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("single")
+    @GroupThreads(4)
+    public boolean offer() {
+        return queue.offer(1L);
+    }
+
+    @Benchmark
+    @Group("single")
+    @GroupThreads(4)
+    public Long poll() {
+        return queue.poll();
+    }
+
+    @Benchmark
+    @Group("batch")
+    @GroupThreads(4)
+    @OperationsPerInvocation(BATCH)
+    public int offerAll() {
+        return queue.offerAll(batch);
+    }
+
+    @Benchmark
+    @Group("batch")
+    @GroupThreads(4)
+    @OperationsPerInvocation(BATCH)
+    public List<Long> drainTo() {
+        List<Long> elements = new ArrayList<>(BATCH);
+        queue.drainTo(elements, BATCH);
+        return elements;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.embedded.key;
+
+import org.jnosql.diana.api.key.BucketQueue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+
+public class BucketQueueTest {
+
+    private MemoryBucketManager manager;
+
+    @Before
+    public void setUp() {
+        manager = MemoryBucketManager.of();
+    }
+
+    @After
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenCapacityIsNotPositive() {
+        BucketQueue.of(manager, "queue", String.class, 0);
+    }
+
+    @Test
+    public void shouldAddAllAndDrainAcrossChunks() {
+        BucketQueue<Integer> queue = BucketQueue.of(manager, "queue", Integer.class);
+        List<Integer> elements = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        assertTrue(queue.addAll(elements));
+        assertEquals(1000, queue.size());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(300, queue.drainTo(drained, 300));
+        assertEquals(elements.subList(0, 300), drained);
+        assertEquals(Integer.valueOf(300), queue.poll());
+        assertEquals(699, queue.drainTo(drained));
+        assertEquals(IntStream.range(0, 1000).filter(i -> i != 300).boxed().collect(Collectors.toList()), drained);
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.drainTo(drained));
+    }
+
+    @Test
+    public void shouldBoundCapacity() throws InterruptedException {
+        BucketQueue<String> queue = BucketQueue.of(manager, "queue", String.class, 3);
+        assertEquals(2, queue.offerAll(Arrays.asList("a", "b")));
+        assertEquals(1, queue.remainingCapacity());
+        assertEquals(1, queue.offerAll(Arrays.asList("c", "d")));
+        assertFalse(queue.offer("e"));
+        assertFalse(queue.offer("e", 10, TimeUnit.MILLISECONDS));
+        assertEquals(0, queue.remainingCapacity());
+        assertThat(queue, contains("a", "b", "c"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldReturnErrorWhenAddAllIsFull() {
+        BucketQueue<String> queue = BucketQueue.of(manager, "queue", String.class, 1);
+        queue.addAll(Arrays.asList("a", "b"));
+    }
+
+    @Test
+    public void shouldTimeOutWhenEmpty() throws InterruptedException {
+        BucketQueue<String> queue = BucketQueue.of(manager, "queue", String.class);
+        assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+        assertEquals(0, queue.drainTo(new ArrayList<>(), 10, 10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void shouldWakeUpBlockedConsumerAndProducer() throws Exception {
+        BucketQueue<String> queue = BucketQueue.of(manager, "queue", String.class, 1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> taken = executor.submit(queue::take);
+            Thread.sleep(20);
+            queue.put("first");
+            assertEquals("first", taken.get(5, TimeUnit.SECONDS));
+
+            queue.put("second");
+            Future<?> put = executor.submit(() -> {
+                queue.put("third");
+                return null;
+            });
+            Thread.sleep(20);
+            assertFalse(put.isDone());
+            assertEquals("second", queue.take());
+            put.get(5, TimeUnit.SECONDS);
+            assertEquals("third", queue.poll(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldDeliverEachElementOnceToConcurrentConsumers() throws Exception {
+        BucketQueue<Integer> queue = BucketQueue.of(manager, "queue", Integer.class, 256);
+        int producers = 4;
+        int consumers = 4;
+        int perProducer = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+        try {
+            List<Future<List<Integer>>> consumed = new ArrayList<>();
+            for (int consumer = 0; consumer < consumers; consumer++) {
+                consumed.add(executor.submit(() -> {
+                    List<Integer> elements = new ArrayList<>();
+                    while (queue.drainTo(elements, 32, 200, TimeUnit.MILLISECONDS) > 0) {
+                        continue;
+                    }
+                    return elements;
+                }));
+            }
+            List<Future<?>> produced = new ArrayList<>();
+            for (int producer = 0; producer < producers; producer++) {
+                int first = producer * perProducer;
+                produced.add(executor.submit(() -> {
+                    for (int index = first; index < first + perProducer; index += 10) {
+                        if (index % 20 == 0) {
+                            for (int element = index; element < index + 10; element++) {
+                                queue.put(element);
+                            }
+                        } else {
+                            List<Integer> batch = IntStream.range(index, index + 10).boxed()
+                                    .collect(Collectors.toList());
+                            while (!batch.isEmpty()) {
+                                batch = batch.subList(queue.offerAll(batch), batch.size());
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : produced) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            List<Integer> all = new ArrayList<>();
+            for (Future<List<Integer>> future : consumed) {
+                all.addAll(future.get(30, TimeUnit.SECONDS));
+            }
+            Collections.sort(all);
+            assertEquals(IntStream.range(0, producers * perProducer).boxed().collect(Collectors.toList()), all);
+            assertTrue(queue.isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.embedded.key;
+
+import org.jnosql.diana.api.Value;
+import org.jnosql.diana.api.key.KeyValueEntity;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+
+public class CacheBucketManagerTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenMaximumWeightIsZero() {
+        CacheBucketManager.of(EvictionPolicy.LRU, 0);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenPolicyIsNull() {
+        CacheBucketManager.of(null, 10);
+    }
+
+    @Test
+    public void shouldPutAndGet() {
+        CacheBucketManager manager = CacheBucketManager.of(EvictionPolicy.TINY_LFU, 10);
+        manager.put("otavio", "Otavio");
+        manager.put(KeyValueEntity.of("poliana", "Poliana"));
+        assertEquals("Otavio", manager.get("otavio").map(Value::get).orElse(null));
+        Map<String, Value> values = manager.getAll(Arrays.asList("otavio", "ada", "poliana"));
+        assertThat(values.keySet(), contains("otavio", "poliana"));
+        manager.remove("otavio");
+        assertFalse(manager.get("otavio").isPresent());
+        assertEquals(1L, manager.size());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsed() {
+        List<Object> evicted = new ArrayList<>();
+        CacheBucketManager manager = CacheBucketManager.of(EvictionPolicy.LRU, 3, Weigher.unit(),
+                (key, value, cause) -> evicted.add(key));
+        manager.put(1, "one");
+        manager.put(2, "two");
+        manager.put(3, "three");
+        manager.get(1);
+        manager.put(4, "four");
+        manager.put(5, "five");
+        assertThat(evicted, contains(2, 3));
+        assertTrue(manager.get(1).isPresent());
+        assertEquals(3L, manager.size());
+    }
+
+    @Test
+    public void shouldEvictLeastFrequentlyUsed() {
+        List<Object> evicted = new ArrayList<>();
+        CacheBucketManager manager = CacheBucketManager.of(EvictionPolicy.LFU, 3, Weigher.unit(),
+                (key, value, cause) -> evicted.add(key));
+        manager.put(1, "one");
+        manager.put(2, "two");
+        manager.put(3, "three");
+        for (int index = 0; index < 3; index++) {
+            manager.get(1);
+            manager.get(3);
+        }
+        manager.get(2);
+        manager.put(4, "four");
+        manager.put(5, "five");
+        assertThat(evicted, contains(2, 4));
+        assertTrue(manager.get(1).isPresent());
+        assertTrue(manager.get(3).isPresent());
+    }
+
+    @Test
+    public void shouldKeepFrequentKeysDuringScan() {
+        CacheBucketManager manager = CacheBucketManager.of(EvictionPolicy.TINY_LFU, 100);
+        for (int round = 0; round < 10; round++) {
+            for (int key = 0; key < 50; key++) {
+                if (!manager.get(key).isPresent()) {
+                    manager.put(key, key);
+                }
+            }
+        }
+        for (int key = 1000; key < 1500; key++) {
+            manager.put(key, key);
+        }
+        long hot = 0;
+        for (int key = 0; key < 50; key++) {
+            hot += manager.get(key).isPresent() ? 1 : 0;
+        }
+        assertTrue("hot keys kept: " + hot, hot >= 40);
+        assertTrue(manager.size() <= 100);
+    }
+
+    @Test
+    public void shouldFlushHotKeysDuringScanWithLru() {
+        CacheBucketManager manager = CacheBucketManager.of(EvictionPolicy.LRU, 100);
+        for (int key = 0; key < 50; key++) {
+            manager.put(key, key);
+            manager.get(key);
+        }
+        for (int key = 1000; key < 1500; key++) {
+            manager.put(key, key);
+        }
+        for (int key = 0; key < 50; key++) {
+            assertFalse(manager.get(key).isPresent());
+        }
+    }
+
+    @Test
+    public void shouldBoundWeight() {
+        CacheBucketManager manager = CacheBucketManager.of(EvictionPolicy.LRU, 10, (key, value) -> 4,
+                EvictionListener.none());
+        manager.put("a", "a");
+        manager.put("b", "b");
+        manager.put("c", "c");
+        assertEquals(8L, manager.getWeight());
+        assertEquals(2L, manager.size());
+        assertFalse(manager.get("a").isPresent());
+    }
+
+    @Test
+    public void shouldNotStoreEntryHeavierThanMaximum() {
+        List<EvictionCause> causes = new ArrayList<>();
+        CacheBucketManager manager = CacheBucketManager.of(EvictionPolicy.LFU, 10, Weigher.bytes(),
+                (key, value, cause) -> causes.add(cause));
+        manager.put("key", "a value heavier than ten bytes");
+        assertEquals(0L, manager.size());
+        assertThat(causes, contains(EvictionCause.SIZE));
+    }
+
+    @Test
+    public void shouldExpireEntry() throws InterruptedException {
+        List<EvictionCause> causes = new ArrayList<>();
+        CacheBucketManager manager = CacheBucketManager.of(EvictionPolicy.TINY_LFU, 10, Weigher.unit(),
+                (key, value, cause) -> causes.add(cause));
+        manager.put(KeyValueEntity.of("temp", "value"), Duration.ofMillis(10));
+        manager.put(KeyValueEntity.of("long", "value"), Duration.ofDays(365_000_000));
+        Thread.sleep(30L);
+        assertFalse(manager.get("temp").isPresent());
+        assertTrue(manager.get("long").isPresent());
+        assertThat(causes, contains(EvictionCause.EXPIRED));
+        assertEquals(1L, manager.size());
+    }
+
+    @Test
+    public void shouldCountStats() {
+        CacheBucketManager manager = CacheBucketManager.of(EvictionPolicy.LRU, 1);
+        manager.put("a", 1);
+        manager.get("a");
+        manager.get("b");
+        manager.put("b", 2);
+        manager.get(Arrays.asList("a", "b"));
+        CacheStats stats = manager.getStats();
+        assertEquals(2L, stats.getHits());
+        assertEquals(2L, stats.getMisses());
+        assertEquals(1L, stats.getEvictions());
+        assertEquals(1L, stats.getEvictionWeight());
+        assertEquals(0.5, stats.getHitRate(), 0.0001);
+    }
+
+    @Test
+    public void shouldReplaceEntryWithoutChangingSize() {
+        CacheBucketManager manager = CacheBucketManager.of(EvictionPolicy.TINY_LFU, 2048 * 16);
+        for (int key = 0; key < 1000; key++) {
+            manager.put(key, key);
+            manager.put(key, key + 1);
+        }
+        assertEquals(1000L, manager.size());
+        assertEquals(1000L, manager.getWeight());
+        assertEquals(11, manager.get(10).map(v -> v.get(Integer.class)).orElse(0).intValue());
+        manager.clear();
+        assertEquals(0L, manager.size());
+    }
+}
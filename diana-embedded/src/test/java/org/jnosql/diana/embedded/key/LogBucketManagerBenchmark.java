@@ -0,0 +1,139 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.embedded.key;
+
+import org.jnosql.diana.api.Value;
+import org.jnosql.diana.api.key.KeyValueEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The throughput and the latency of {@link LogBucketManager} with each {@link FsyncPolicy}, with and without
+ * waiting for larger group commits, run it with
+ * {@code java -cp target/test-classes:<test classpath> org.openjdk.jmh.Main LogBucketManagerBenchmark}; the
+ * directory is created in {@code java.io.tmpdir}, which should be on the disk to measure
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogBucketManagerBenchmark {
+
+    @Param({"ALWAYS", "GROUP", "GROUP_1MS", "PERIODIC"})
+    private String policy;
+
+    @Param({"100000"})
+    private int size;
+
+    @Param({"128"})
+    private int valueSize;
+
+    private Path directory;
+
+    private LogBucketManager manager;
+
+    private Long[] keys;
+
+    private byte[] value;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("log-benchmark");
+        manager = LogBucketManager.of(directory, policy(), LogBucketManager.DEFAULT_SEGMENT_SIZE);
+        keys = new Long[size];
+        value = new byte[valueSize];
+        Arrays.fill(value, (byte) 'v');
+        List<KeyValueEntity<Long>> entities = new ArrayList<>(size);
+        for (int index = 0; index < size; index++) {
+            keys[index] = (long) index;
+            entities.add(KeyValueEntity.of(keys[index], value));
+        }
+        manager.put(entities);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        manager.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void put() {
+        manager.put(key(), value);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void concurrentPut() {
+        manager.put(key(), value);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<Value> get() {
+        return manager.get(key());
+    }
+
+    private FsyncPolicy policy() {
+        switch (policy) {
+            case "ALWAYS":
+                return FsyncPolicy.always();
+            case "GROUP":
+                return FsyncPolicy.group();
+            case "GROUP_1MS":
+                return FsyncPolicy.group(Duration.ofMillis(1), 1024);
+            default:
+                return FsyncPolicy.periodic(Duration.ofMillis(100));
+        }
+    }
+
+    private Long key() {
+        return keys[ThreadLocalRandom.current().nextInt(size)];
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.embedded.key;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+
+public class LogBucketManagerFactoryTest {
+
+    private Path root;
+
+    private LogKeyValueConfiguration configuration;
+
+    private LogBucketManagerFactory factory;
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("log-factory");
+        configuration = new LogKeyValueConfiguration(root, FsyncPolicy.group(), 64 * 1024);
+        factory = configuration.get();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        factory.close();
+        try (Stream<Path> files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void shouldReturnSameBucket() {
+        assertSame(factory.getBucketManager("bucket"), factory.getBucketManager("bucket"));
+        assertSame(factory.getList("bucket", String.class), factory.getList("bucket", String.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenBucketNameIsNotDirectory() {
+        factory.getBucketManager("../bucket");
+    }
+
+    @Test
+    public void shouldAddAcrossChunks() {
+        List<Integer> list = factory.getList("list", Integer.class);
+        List<Integer> expected = new ArrayList<>();
+        for (int index = 0; index < 300; index++) {
+            list.add(index);
+            expected.add(index);
+        }
+        list.add(5, -1);
+        expected.add(5, -1);
+        list.remove(200);
+        expected.remove(200);
+        list.set(130, -2);
+        expected.set(130, -2);
+        assertEquals(expected.size(), list.size());
+        assertEquals(expected, new ArrayList<>(list));
+        assertEquals(Integer.valueOf(-1), list.get(5));
+    }
+
+    @Test
+    public void shouldRemoveWithIterator() {
+        List<Integer> list = factory.getList("list", Integer.class);
+        IntStream.range(0, 200).forEach(list::add);
+        Iterator<Integer> iterator = list.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() % 2 == 0) {
+                iterator.remove();
+            }
+        }
+        assertEquals(100, list.size());
+        assertEquals(Integer.valueOf(1), list.get(0));
+        assertEquals(Integer.valueOf(199), list.get(99));
+    }
+
+    @Test
+    public void shouldOfferAndPoll() {
+        Queue<String> queue = factory.getQueue("queue", String.class);
+        IntStream.range(0, 500).forEach(index -> queue.offer("item" + index));
+        assertEquals("item0", queue.peek());
+        for (int index = 0; index < 300; index++) {
+            assertEquals("item" + index, queue.poll());
+        }
+        assertEquals(200, queue.size());
+        queue.clear();
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void shouldPutAndSplitMap() {
+        Map<String, Integer> map = factory.getMap("map", String.class, Integer.class);
+        for (int index = 0; index < 1000; index++) {
+            map.put("key" + index, index);
+        }
+        assertEquals(1000, map.size());
+        for (int index = 0; index < 1000; index++) {
+            assertEquals(Integer.valueOf(index), map.get("key" + index));
+        }
+        assertEquals(Integer.valueOf(10), map.remove("key10"));
+        assertNull(map.get("key10"));
+        assertFalse(map.containsKey("key10"));
+        assertEquals(999, map.entrySet().stream().count());
+    }
+
+    @Test
+    public void shouldSplitMapWithLongKeysAfterReopen() {
+        Map<Long, String> map = factory.getMap("map", Long.class, String.class);
+        for (long index = 0; index < 500; index++) {
+            map.put(index, "value" + index);
+        }
+        factory.close();
+
+        factory = configuration.get();
+        map = factory.getMap("map", Long.class, String.class);
+        for (long index = 500; index < 1000; index++) {
+            map.put(index, "value" + index);
+        }
+        assertEquals(1000, map.size());
+        for (long index = 0; index < 1000; index++) {
+            assertEquals("value" + index, map.get(index));
+        }
+    }
+
+    @Test
+    public void shouldAddToSet() {
+        Set<String> set = factory.getSet("set", String.class);
+        assertTrue(set.add("a"));
+        assertFalse(set.add("a"));
+        assertTrue(set.add("b"));
+        assertThat(set, containsInAnyOrder("a", "b"));
+        assertTrue(set.remove("a"));
+        assertThat(set, contains("b"));
+    }
+
+    @Test
+    public void shouldKeepStructuresAfterReopen() {
+        List<String> list = factory.getList("bucket", String.class);
+        list.addAll(IntStream.range(0, 150).mapToObj(String::valueOf).collect(Collectors.toList()));
+        factory.getMap("bucket", String.class, String.class).put("name", "diana");
+        factory.getQueue("bucket", String.class).offer("job");
+        factory.close();
+
+        factory = configuration.get();
+        List<String> reopened = factory.getList("bucket", String.class);
+        assertEquals(150, reopened.size());
+        assertEquals("149", reopened.get(149));
+        assertEquals("diana", factory.getMap("bucket", String.class, String.class).get("name"));
+        assertEquals("job", factory.getQueue("bucket", String.class).poll());
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.embedded.key;
+
+import org.jnosql.diana.api.Value;
+import org.jnosql.diana.api.key.KeyValueEntity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+
+public class LogBucketManagerTest {
+
+    private Path root;
+
+    private Path directory;
+
+    private LogBucketManager manager;
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("log-bucket");
+        directory = root.resolve("log");
+        manager = LogBucketManager.of(directory, FsyncPolicy.group(), 4096);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        manager.close();
+        try (Stream<Path> files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenSegmentSizeIsTooSmall() {
+        LogBucketManager.of(directory.resolve("other"), FsyncPolicy.always(), 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenIntervalIsZero() {
+        FsyncPolicy.periodic(Duration.ZERO);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldLockDirectory() {
+        LogBucketManager.of(directory);
+    }
+
+    @Test
+    public void shouldPutGetAndRemove() {
+        manager.put("otavio", "Otavio");
+        manager.put(Arrays.asList(KeyValueEntity.of(1L, 10), KeyValueEntity.of(2L, 20)));
+        assertEquals("Otavio", manager.get("otavio").map(Value::get).orElse(null));
+        Map<Long, Value> values = manager.getAll(Arrays.asList(2L, 3L, 1L));
+        assertThat(values.keySet(), contains(2L, 1L));
+        assertEquals(20, values.get(2L).get(Integer.class).intValue());
+        manager.remove("otavio");
+        manager.remove("missing");
+        assertFalse(manager.get("otavio").isPresent());
+        assertEquals(2L, manager.size());
+    }
+
+    @Test
+    public void shouldRecoverAfterRestart() {
+        manager.put("kept", "value");
+        manager.put("overwritten", "old");
+        manager.put("overwritten", "new");
+        manager.put("removed", "value");
+        manager.remove("removed");
+        manager.close();
+        manager = LogBucketManager.of(directory, FsyncPolicy.group(), 4096);
+        assertEquals("value", manager.get("kept").map(Value::get).orElse(null));
+        assertEquals("new", manager.get("overwritten").map(Value::get).orElse(null));
+        assertFalse(manager.get("removed").isPresent());
+        assertEquals(2L, manager.size());
+    }
+
+    @Test
+    public void shouldStoreTimeToLive() throws InterruptedException {
+        manager.put(KeyValueEntity.of("short", "value"), Duration.ofMillis(50));
+        manager.put(KeyValueEntity.of("long", "value"), Duration.ofDays(365_000_000));
+        assertTrue(manager.get("short").isPresent());
+        manager.close();
+        manager = LogBucketManager.of(directory, FsyncPolicy.group(), 4096);
+        assertTrue(manager.get("long").isPresent());
+        Thread.sleep(60L);
+        assertFalse(manager.get("short").isPresent());
+        manager.close();
+        manager = LogBucketManager.of(directory, FsyncPolicy.group(), 4096);
+        assertEquals(1L, manager.size());
+    }
+
+    @Test
+    public void shouldTruncateTornRecord() throws IOException {
+        manager.put("first", "value");
+        manager.put("second", "value");
+        manager.close();
+        Path file = segmentFiles().get(0);
+        long size = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18,
+                    19, 20, 21, 22}), size);
+        }
+        manager = LogBucketManager.of(directory, FsyncPolicy.group(), 4096);
+        assertTrue(manager.get("first").isPresent());
+        assertTrue(manager.get("second").isPresent());
+        assertEquals(size, Files.size(file));
+    }
+
+    @Test
+    public void shouldDropCorruptedRecordAndTheRecordsAfterIt() throws IOException {
+        manager.put("first", "value");
+        long size = Files.size(segmentFiles().get(0));
+        manager.put("second", "value");
+        manager.put("third", "value");
+        manager.close();
+        Path file = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), Files.size(file) - 20);
+        }
+        manager = LogBucketManager.of(directory, FsyncPolicy.group(), 4096);
+        assertTrue(manager.get("first").isPresent());
+        assertTrue(manager.get("second").isPresent());
+        assertFalse(manager.get("third").isPresent());
+        assertTrue(Files.size(file) > size);
+    }
+
+    @Test
+    public void shouldQuarantineCorruptedOlderSegment() throws IOException {
+        manager.put("old", "value");
+        for (int key = 0; key < 200; key++) {
+            manager.put(key, "value-" + key);
+        }
+        manager.close();
+        List<Path> files = segmentFiles();
+        assertTrue(files.size() > 1);
+        Path file = files.get(0);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), LogSegment.HEADER);
+        }
+        manager = LogBucketManager.of(directory, FsyncPolicy.group(), 4096);
+        assertFalse(manager.get("old").isPresent());
+        assertTrue(manager.get(199).isPresent());
+        assertFalse(Files.exists(file));
+        assertTrue(Files.exists(file.resolveSibling(file.getFileName() + ".corrupted")));
+    }
+
+    @Test
+    public void shouldRollAndCompactSegments() throws IOException {
+        for (int round = 0; round < 20; round++) {
+            for (int key = 0; key < 100; key++) {
+                manager.put(key, "value-" + round + '-' + key);
+            }
+        }
+        for (int key = 50; key < 100; key++) {
+            manager.remove(key);
+        }
+        int before = manager.getSegments();
+        long bytes = manager.getFileBytes();
+        assertTrue(before > 10);
+        assertTrue(manager.getDeadBytes() > bytes / 2);
+        manager.compact();
+        assertTrue(manager.getSegments() < before);
+        assertTrue(manager.getFileBytes() < bytes / 4);
+        assertEquals(manager.getSegments(), segmentFiles().size());
+        assertEquals("value-19-10", manager.get(10).map(Value::get).orElse(null));
+        manager.put(10, "after");
+        manager.close();
+        manager = LogBucketManager.of(directory, FsyncPolicy.group(), 4096);
+        assertEquals(50L, manager.size());
+        assertEquals("after", manager.get(10).map(Value::get).orElse(null));
+        assertEquals("value-19-49", manager.get(49).map(Value::get).orElse(null));
+        assertFalse(manager.get(50).isPresent());
+    }
+
+    @Test
+    public void shouldKeepOrderWhenCompactionRunsTwice() {
+        for (int key = 0; key < 200; key++) {
+            manager.put(key % 20, "value-" + key);
+        }
+        manager.compact();
+        for (int key = 0; key < 200; key++) {
+            manager.put(key % 10, "other-" + key);
+        }
+        manager.remove(0);
+        manager.compact();
+        manager.close();
+        manager = LogBucketManager.of(directory, FsyncPolicy.group(), 4096);
+        assertFalse(manager.get(0).isPresent());
+        assertEquals("other-199", manager.get(9).map(Value::get).orElse(null));
+        assertEquals("value-199", manager.get(19).map(Value::get).orElse(null));
+        assertEquals(19L, manager.size());
+    }
+
+    @Test
+    public void shouldWriteConcurrentlyWithEachPolicy() throws Exception {
+        List<FsyncPolicy> policies = Arrays.asList(FsyncPolicy.always(), FsyncPolicy.group(),
+                FsyncPolicy.periodic(Duration.ofMillis(5)));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (FsyncPolicy policy : policies) {
+                Path path = root.resolve(policy.getMode().name());
+                LogBucketManager log = LogBucketManager.of(path, policy, 64 * 1024);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int thread = 0; thread < 4; thread++) {
+                    int base = thread * 100;
+                    futures.add(executor.submit(() -> IntStream.range(base, base + 100)
+                            .forEach(key -> log.put(key, key))));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                log.close();
+                LogBucketManager reopened = LogBucketManager.of(path, policy, 64 * 1024);
+                assertEquals(400L, reopened.size());
+                assertEquals(399, reopened.get(399).map(v -> v.get(Integer.class)).orElse(0).intValue());
+                reopened.close();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenMaxBatchIsZero() {
+        FsyncPolicy.group(Duration.ofMillis(1), 0);
+    }
+
+    @Test
+    public void shouldGroupConcurrentWrites() throws Exception {
+        manager.close();
+        manager = LogBucketManager.of(directory, FsyncPolicy.group(Duration.ofMillis(20), 64), 64 * 1024);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 16; thread++) {
+                int base = thread * 20;
+                futures.add(executor.submit(() -> IntStream.range(base, base + 20)
+                        .forEach(key -> manager.put(key, key))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        GroupCommit<?> commit = manager.getGroupCommit();
+        assertEquals(320L, commit.getRequests());
+        assertTrue("batches: " + commit.getBatches(), commit.getBatches() < 160L);
+        assertEquals(320L, manager.size());
+    }
+
+    @Test
+    public void shouldKeepOrderOfPutAndRemoveInTheSameBatch() throws Exception {
+        manager.close();
+        manager = LogBucketManager.of(directory, FsyncPolicy.group(Duration.ofMillis(50), 1024), 64 * 1024);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> put = executor.submit(() -> manager.put("key", "value"));
+            Thread.sleep(10L);
+            manager.remove("key");
+            put.get();
+        } finally {
+            executor.shutdown();
+        }
+        assertFalse(manager.get("key").isPresent());
+        manager.close();
+        manager = LogBucketManager.of(directory, FsyncPolicy.group(), 64 * 1024);
+        assertFalse(manager.get("key").isPresent());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldReturnErrorWhenClosed() {
+        manager.close();
+        manager.put("key", "value");
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".log")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void shouldReadModifyWriteWithDefaultMethods() {
+        assertEquals(5L, manager.increment("counter", 5));
+        assertEquals(3L, manager.increment("counter", -2));
+        assertFalse(manager.putIfAbsent("name", "diana").isPresent());
+        assertEquals("diana", manager.putIfAbsent("name", "other").get().get());
+        assertTrue(manager.replace("name", "diana", "artemis"));
+        assertFalse(manager.replace("name", "diana", "other"));
+        assertFalse(manager.compute("name", v -> null).isPresent());
+        assertFalse(manager.get("name").isPresent());
+        assertEquals(3L, (long) manager.get("counter").get().get(Long.class));
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.embedded.key;
+
+import org.jnosql.diana.api.Value;
+import org.jnosql.diana.api.key.KeyValueEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The throughput of {@link MemoryBucketManager} under concurrent load, run it with
+ * {@code java -cp target/test-classes:<test classpath> org.openjdk.jmh.Main MemoryBucketManagerBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryBucketManagerBenchmark {
+
+    private static final int BATCH = 64;
+
+    @Param({"100000"})
+    private int size;
+
+    private MemoryBucketManager manager;
+
+    private Long[] keys;
+
+    @Setup
+    public void setUp() {
+        manager = MemoryBucketManager.of();
+        keys = new Long[size];
+        for (int index = 0; index < size; index++) {
+            keys[index] = (long) index;
+            manager.put(keys[index], "value-" + index);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<Value> get() {
+        return manager.get(key());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void put() {
+        manager.put(key(), "value");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void putWithTtl() {
+        manager.put(KeyValueEntity.of(key(), "value"), Duration.ofSeconds(1));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Iterable<Value> getBatch() {
+        List<Long> batch = new ArrayList<>(BATCH);
+        for (int index = 0; index < BATCH; index++) {
+            batch.add(key());
+        }
+        return manager.get(batch);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<Value> getLong() {
+        return manager.getLong(ThreadLocalRandom.current().nextInt(size));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void putLong() {
+        manager.putLong(ThreadLocalRandom.current().nextInt(size), "value");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Value[] getLongBatch() {
+        long[] batch = new long[BATCH];
+        for (int index = 0; index < BATCH; index++) {
+            batch[index] = ThreadLocalRandom.current().nextInt(size);
+        }
+        return manager.getLong(batch);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(6)
+    public Optional<Value> mixedGet() {
+        return manager.get(key());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public void mixedPut() {
+        manager.put(key(), "value");
+    }
+
+    private Long key() {
+        return keys[ThreadLocalRandom.current().nextInt(size)];
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.embedded.key;
+
+import org.jnosql.diana.api.Value;
+import org.jnosql.diana.api.key.BucketManagerFactory;
+import org.jnosql.diana.api.key.KeyValueEntity;
+import org.jnosql.diana.api.key.LongKeyValueEntity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+
+public class MemoryBucketManagerTest {
+
+    private MemoryBucketManager manager;
+
+    @Before
+    public void setUp() {
+        manager = MemoryBucketManager.of(Duration.ofMillis(5));
+    }
+
+    @After
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenTickIsZero() {
+        MemoryBucketManager.of(Duration.ZERO);
+    }
+
+    @Test
+    public void shouldPutAndGet() {
+        manager.put("otavio", "Otavio");
+        manager.put(KeyValueEntity.of(10L, 23));
+
+        assertEquals("Otavio", manager.get("otavio").get().get());
+        assertEquals(Integer.valueOf(23), manager.get(10L).get().get(Integer.class));
+        assertFalse(manager.get("ada").isPresent());
+    }
+
+    @Test
+    public void shouldPutAndGetInBatch() {
+        List<KeyValueEntity<String>> entities = Arrays.asList(KeyValueEntity.of("a", 1), KeyValueEntity.of("b", 2),
+                KeyValueEntity.of("c", 3));
+        manager.put(entities);
+
+        List<Object> values = new ArrayList<>();
+        manager.get(Arrays.asList("a", "x", "c")).forEach(v -> values.add(v.get()));
+        assertThat(values, contains(1, 3));
+
+        Map<String, Value> all = manager.getAll(Arrays.asList("c", "b"));
+        assertThat(new ArrayList<>(all.keySet()), contains("c", "b"));
+    }
+
+    @Test
+    public void shouldRemove() {
+        manager.put("a", 1);
+        manager.put("b", 2);
+        manager.put("c", 3);
+
+        manager.remove("a");
+        manager.remove(Arrays.asList("b", "x"));
+
+        assertEquals(1, manager.size());
+        assertTrue(manager.get("c").isPresent());
+    }
+
+    @Test
+    public void shouldExpireOnRead() {
+        manager.put(KeyValueEntity.of("a", 1), Duration.ZERO);
+        assertFalse(manager.get("a").isPresent());
+        assertEquals(0, manager.size());
+    }
+
+    @Test
+    public void shouldExpireWithoutRead() throws InterruptedException {
+        manager.put(Arrays.asList(KeyValueEntity.of("a", 1), KeyValueEntity.of("b", 2)), Duration.ofMillis(20));
+        manager.put("c", 3);
+        assertEquals(3, manager.size());
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (manager.size() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, manager.size());
+        assertTrue(manager.get("c").isPresent());
+    }
+
+    @Test
+    public void shouldUnlinkReplacedEntriesFromWheel() throws InterruptedException {
+        for (int index = 0; index < 1_000; index++) {
+            manager.put(KeyValueEntity.of("a", index), Duration.ofHours(1));
+            manager.increment("counter", 1);
+        }
+        manager.put(KeyValueEntity.of("b", 1), Duration.ofHours(1));
+        manager.remove("b");
+        manager.put(LongKeyValueEntity.of(1L, "a"), Duration.ofHours(1));
+        manager.putLong(1L, "b");
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (manager.scheduled() != 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, manager.scheduled());
+        assertEquals(999, manager.get("a").get().get());
+    }
+
+    @Test
+    public void shouldKeepEntryOverwrittenWithoutTtl() throws InterruptedException {
+        manager.put(KeyValueEntity.of("a", 1), Duration.ofMillis(10));
+        manager.put("a", 2);
+        Thread.sleep(50);
+        assertEquals(2, manager.get("a").get().get());
+    }
+
+    @Test
+    public void shouldShareBucketByName() {
+        BucketManagerFactory<MemoryBucketManager> factory = new MemoryKeyValueConfiguration().get();
+        MemoryBucketManager bucket = factory.getBucketManager("users");
+        bucket.put("a", 1);
+
+        assertSame(bucket, factory.getBucketManager("users"));
+        assertTrue(factory.getBucketManager("users").get("a").isPresent());
+        assertFalse(factory.getBucketManager("orders").get("a").isPresent());
+        factory.getList("names", String.class).add("Ada");
+        assertThat(factory.getList("names", String.class).stream().collect(Collectors.toList()), contains("Ada"));
+        factory.close();
+    }
+
+    @Test
+    public void shouldPutAndGetLongKeys() {
+        manager.putLong(1L, "one");
+        manager.put(LongKeyValueEntity.of(2L, "two"));
+        manager.put(3L, "three");
+
+        assertEquals("one", manager.get(1L).get().get());
+        assertEquals("two", manager.getLong(2L).get().get());
+        assertEquals("three", manager.getLong(3L).get().get());
+        assertFalse(manager.getLong(4L).isPresent());
+        Value[] values = manager.getLong(new long[]{3L, 4L, 1L});
+        assertEquals("three", values[0].get());
+        assertEquals(null, values[1]);
+        assertEquals("one", values[2].get());
+        assertEquals(3, manager.size());
+
+        manager.removeLong(1L);
+        manager.remove(2L);
+        assertFalse(manager.getLong(1L).isPresent());
+        assertFalse(manager.get(2L).isPresent());
+        assertEquals(1, manager.size());
+    }
+
+    @Test
+    public void shouldKeepLongKeysApartFromOtherKeys() {
+        manager.putLong(1L, "long");
+        manager.put(1, "integer");
+        manager.put("1", "string");
+        assertEquals("long", manager.getLong(1L).get().get());
+        assertEquals("integer", manager.get(1).get().get());
+        assertEquals("string", manager.get("1").get().get());
+    }
+
+    @Test
+    public void shouldExpireLongKeys() throws InterruptedException {
+        manager.put(LongKeyValueEntity.of(1L, "a"), Duration.ofMillis(10));
+        manager.put(LongKeyValueEntity.of(2L, "b"), Duration.ofMillis(10));
+        Thread.sleep(50);
+        assertFalse(manager.getLong(1L).isPresent());
+        assertEquals(0, manager.size());
+    }
+
+    @Test
+    public void shouldMatchMapWithLongKeys() {
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int operation = 0; operation < 100_000; operation++) {
+            long key = random.nextInt(5_000) * 31L - 70_000L;
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                manager.removeLong(key);
+            } else {
+                expected.put(key, operation);
+                manager.putLong(key, operation);
+            }
+        }
+        assertEquals(expected.size(), manager.size());
+        for (long key = -70_000L; key < 90_000L; key += 31L) {
+            assertEquals(expected.get(key), manager.getLong(key).map(Value::get).orElse(null));
+        }
+    }
+
+    @Test
+    public void shouldPutIfAbsent() {
+        assertFalse(manager.putIfAbsent("a", 1).isPresent());
+        assertEquals(1, manager.putIfAbsent("a", 2).get().get());
+        assertEquals(1, manager.get("a").get().get());
+    }
+
+    @Test
+    public void shouldReplaceWhenExpected() {
+        manager.put("a", "first");
+        assertFalse(manager.replace("a", "other", "second"));
+        assertTrue(manager.replace("a", "first", "second"));
+        assertEquals("second", manager.get("a").get().get());
+        assertFalse(manager.replace("b", "first", "second"));
+        assertFalse(manager.get("b").isPresent());
+    }
+
+    @Test
+    public void shouldCompute() {
+        assertEquals("a", manager.compute("key", v -> v.map(c -> c.get() + "b").orElse("a")).get().get());
+        assertEquals("ab", manager.compute("key", v -> v.map(c -> c.get() + "b").orElse("a")).get().get());
+        assertFalse(manager.compute("key", v -> null).isPresent());
+        assertFalse(manager.get("key").isPresent());
+    }
+
+    @Test
+    public void shouldKeepTtlWhenIncrementing() throws InterruptedException {
+        manager.put(KeyValueEntity.of("counter", 10L), Duration.ofMillis(20));
+        assertEquals(15L, manager.increment("counter", 5));
+        Thread.sleep(60);
+        assertFalse(manager.get("counter").isPresent());
+        assertEquals(0, manager.size());
+        assertEquals(-1L, manager.increment("counter", -1));
+    }
+
+    @Test
+    public void shouldIncrementAtomically() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int index = 0; index < 10_000; index++) {
+                        manager.increment("counter", 1);
+                        manager.increment(7L, 2);
+                        manager.compute(index % 10, v -> v.map(c -> c.get(Integer.class) + 1).orElse(1));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(80_000L, (long) manager.get("counter").get().get(Long.class));
+        assertEquals(160_000L, (long) manager.getLong(7L).get().get(Long.class));
+        assertEquals(8_000, manager.get(3).get().get());
+    }
+}
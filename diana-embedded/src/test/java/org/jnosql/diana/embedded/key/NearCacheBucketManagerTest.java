@@ -0,0 +1,269 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.embedded.key;
+
+import org.jnosql.diana.api.Value;
+import org.jnosql.diana.api.key.BucketManager;
+import org.jnosql.diana.api.key.KeyValueEntity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+
+public class NearCacheBucketManagerTest {
+
+    private MemoryBucketManager remote;
+
+    private CountingBucketManager counting;
+
+    @Before
+    public void setUp() {
+        remote = MemoryBucketManager.of();
+        counting = new CountingBucketManager(remote);
+    }
+
+    @After
+    public void tearDown() {
+        remote.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenTimeToLiveIsZero() {
+        NearCacheBucketManager.of(counting, CacheBucketManager.of(EvictionPolicy.LRU, 10),
+                NearCacheMode.INVALIDATE, Duration.ZERO, InvalidationSource.none());
+    }
+
+    @Test
+    public void shouldReadHotKeyLocally() {
+        remote.put("otavio", "Otavio");
+        NearCacheBucketManager manager = NearCacheBucketManager.of(counting,
+                CacheBucketManager.of(EvictionPolicy.TINY_LFU, 10));
+        for (int index = 0; index < 100; index++) {
+            assertEquals("Otavio", manager.get("otavio").map(Value::get).orElse(null));
+        }
+        assertEquals(1, counting.reads.size());
+        assertEquals(99L, manager.getCache().getStats().getHits());
+    }
+
+    @Test
+    public void shouldFetchOnlyMissesInOneCall() {
+        remote.put("a", 1);
+        remote.put("b", 2);
+        remote.put("c", 3);
+        NearCacheBucketManager manager = NearCacheBucketManager.of(counting,
+                CacheBucketManager.of(EvictionPolicy.LRU, 10));
+        manager.get("b");
+        counting.reads.clear();
+        Map<String, Value> values = manager.getAll(Arrays.asList("a", "b", "c", "d"));
+        assertThat(values.keySet(), contains("a", "b", "c"));
+        assertThat(counting.reads, contains(Arrays.asList("a", "c", "d")));
+        Iterable<Value> cached = manager.get(Arrays.asList("c", "a"));
+        assertEquals(1, counting.reads.size());
+        List<Object> numbers = new ArrayList<>();
+        cached.forEach(v -> numbers.add(v.get(Integer.class)));
+        assertThat(numbers, contains(3, 1));
+    }
+
+    @Test
+    public void shouldInvalidateOnWrite() {
+        NearCacheBucketManager manager = NearCacheBucketManager.of(counting,
+                CacheBucketManager.of(EvictionPolicy.LRU, 10));
+        manager.put("key", "first");
+        manager.get("key");
+        manager.put("key", "second");
+        assertFalse(manager.getCache().get("key").isPresent());
+        assertEquals("second", manager.get("key").map(Value::get).orElse(null));
+        manager.remove("key");
+        assertFalse(manager.get("key").isPresent());
+        assertFalse(remote.get("key").isPresent());
+    }
+
+    @Test
+    public void shouldWriteThrough() {
+        NearCacheBucketManager manager = NearCacheBucketManager.of(counting,
+                CacheBucketManager.of(EvictionPolicy.LRU, 10), NearCacheMode.WRITE_THROUGH, Duration.ofHours(1),
+                InvalidationSource.none());
+        manager.put(Arrays.asList(KeyValueEntity.of("a", 1), KeyValueEntity.of("b", 2)));
+        assertEquals(2L, manager.getCache().size());
+        assertEquals(2, manager.get("b").map(v -> v.get(Integer.class)).orElse(0).intValue());
+        assertTrue(counting.reads.isEmpty());
+        assertTrue(remote.get("a").isPresent());
+    }
+
+    @Test
+    public void shouldHonorTimeToLive() throws InterruptedException {
+        NearCacheBucketManager manager = NearCacheBucketManager.of(counting,
+                CacheBucketManager.of(EvictionPolicy.LRU, 10), NearCacheMode.WRITE_THROUGH, Duration.ofMillis(20),
+                InvalidationSource.none());
+        manager.put(KeyValueEntity.of("short", "value"), Duration.ofMillis(5));
+        manager.put("bounded", "value");
+        Thread.sleep(10L);
+        assertFalse(manager.getCache().get("short").isPresent());
+        assertTrue(manager.getCache().get("bounded").isPresent());
+        Thread.sleep(20L);
+        assertFalse(manager.getCache().get("bounded").isPresent());
+        assertTrue(manager.get("bounded").isPresent());
+    }
+
+    @Test
+    public void shouldInvalidateFromSource() {
+        AtomicReference<InvalidationListener> listener = new AtomicReference<>();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        InvalidationSource source = l -> {
+            listener.set(l);
+            return () -> cancelled.set(true);
+        };
+        remote.put("a", 1);
+        remote.put("b", 2);
+        NearCacheBucketManager manager = NearCacheBucketManager.of(counting,
+                CacheBucketManager.of(EvictionPolicy.LRU, 10), NearCacheMode.WRITE_THROUGH, Duration.ofHours(1),
+                source);
+        manager.getAll(Arrays.asList("a", "b"));
+        remote.put("a", 10);
+        assertEquals(1, manager.get("a").map(v -> v.get(Integer.class)).orElse(0).intValue());
+        listener.get().onInvalidation("a");
+        assertEquals(10, manager.get("a").map(v -> v.get(Integer.class)).orElse(0).intValue());
+        listener.get().onInvalidationAll();
+        assertEquals(0L, manager.getCache().size());
+        manager.close();
+        assertTrue(cancelled.get());
+    }
+
+    @Test
+    public void shouldNotCacheValueReadDuringWrite() {
+        remote.put("key", "old");
+        AtomicReference<NearCacheBucketManager> reference = new AtomicReference<>();
+        BucketManager racing = new CountingBucketManager(remote) {
+            @Override
+            public <K> Optional<Value> get(K key) {
+                Optional<Value> value = super.get(key);
+                reference.get().put(key, "new");
+                return value;
+            }
+        };
+        reference.set(NearCacheBucketManager.of(racing, CacheBucketManager.of(EvictionPolicy.LRU, 10)));
+        assertEquals("old", reference.get().get("key").map(Value::get).orElse(null));
+        assertFalse(reference.get().getCache().get("key").isPresent());
+    }
+
+    @Test
+    public void shouldNotKeepStaleValueWhenWritesRace() {
+        AtomicReference<NearCacheBucketManager> reference = new AtomicReference<>();
+        AtomicBoolean raced = new AtomicBoolean();
+        BucketManager racing = new CountingBucketManager(remote) {
+            @Override
+            public <K> void put(KeyValueEntity<K> entity) {
+                super.put(entity);
+                if (raced.compareAndSet(false, true)) {
+                    reference.get().put(KeyValueEntity.of(entity.getKey(), "second"));
+                }
+            }
+        };
+        reference.set(NearCacheBucketManager.of(racing, CacheBucketManager.of(EvictionPolicy.LRU, 10),
+                NearCacheMode.WRITE_THROUGH, Duration.ofHours(1), InvalidationSource.none()));
+        reference.get().put(KeyValueEntity.of("key", "first"));
+
+        assertFalse(reference.get().getCache().get("key").isPresent());
+        assertEquals("second", reference.get().get("key").map(Value::get).orElse(null));
+    }
+
+    private static class CountingBucketManager implements BucketManager {
+
+        private final BucketManager manager;
+
+        private final List<Object> reads = new ArrayList<>();
+
+        CountingBucketManager(BucketManager manager) {
+            this.manager = manager;
+        }
+
+        @Override
+        public <K, V> void put(K key, V value) {
+            manager.put(key, value);
+        }
+
+        @Override
+        public <K> void put(KeyValueEntity<K> entity) {
+            manager.put(entity);
+        }
+
+        @Override
+        public <K> void put(KeyValueEntity<K> entity, Duration ttl) {
+            manager.put(entity, ttl);
+        }
+
+        @Override
+        public <K> void put(Iterable<KeyValueEntity<K>> entities) {
+            manager.put(entities);
+        }
+
+        @Override
+        public <K> void put(Iterable<KeyValueEntity<K>> entities, Duration ttl) {
+            manager.put(entities, ttl);
+        }
+
+        @Override
+        public <K> Optional<Value> get(K key) {
+            reads.add(key);
+            return manager.get(key);
+        }
+
+        @Override
+        public <K> Iterable<Value> get(Iterable<K> keys) {
+            reads.add(keys);
+            return manager.get(keys);
+        }
+
+        @Override
+        public <K> Map<K, Value> getAll(Iterable<K> keys) {
+            reads.add(keys);
+            return manager.getAll(keys);
+        }
+
+        @Override
+        public <K> void remove(K key) {
+            manager.remove(key);
+        }
+
+        @Override
+        public <K> void remove(Iterable<K> keys) {
+            manager.remove(keys);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
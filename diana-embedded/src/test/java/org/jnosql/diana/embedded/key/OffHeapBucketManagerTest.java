@@ -0,0 +1,196 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.embedded.key;
+
+import org.jnosql.diana.api.Value;
+import org.jnosql.diana.api.key.KeyValueEntity;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+
+public class OffHeapBucketManagerTest {
+
+    private static final int CAPACITY = 64 * 1024;
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenCapacityIsTooSmall() {
+        OffHeapBucketManager.of(1024);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenSegmentsIsNotPowerOfTwo() {
+        OffHeapBucketManager.of(16 * 1024 * 1024, 3);
+    }
+
+    @Test
+    public void shouldPutAndGet() {
+        OffHeapBucketManager manager = OffHeapBucketManager.of(CAPACITY, 1);
+        manager.put("otavio", "Otavio");
+        manager.put(KeyValueEntity.of(10L, 23));
+        manager.put("birthday", LocalDate.of(2017, 4, 1));
+
+        assertEquals("Otavio", manager.get("otavio").get().get());
+        assertEquals(Integer.valueOf(23), manager.get(10L).get().get(Integer.class));
+        assertEquals("23", manager.get(10L).get().get(String.class));
+        assertEquals(LocalDate.of(2017, 4, 1), manager.get("birthday").get().get());
+        assertFalse(manager.get(10).isPresent());
+        assertFalse(manager.get("ada").isPresent());
+        assertEquals(3, manager.size());
+    }
+
+    @Test
+    public void shouldDecodeLazily() {
+        OffHeapBucketManager manager = OffHeapBucketManager.of(CAPACITY, 1);
+        manager.put("key", "value");
+        EncodedValue value = (EncodedValue) manager.get("key").get();
+        assertFalse(value.isDecoded());
+        assertEquals("value", value.get(String.class));
+        assertTrue(value.isDecoded());
+        assertEquals(Value.of("value"), value);
+    }
+
+    @Test
+    public void shouldOverwriteWithValuesOfOtherSizes() {
+        OffHeapBucketManager manager = OffHeapBucketManager.of(CAPACITY, 1);
+        manager.put("key", "small");
+        manager.put("key", repeat('x', 1000));
+        manager.put("key", "tiny");
+
+        assertEquals("tiny", manager.get("key").get().get());
+        assertEquals(1, manager.size());
+        assertEquals(64, manager.getUsedBytes());
+    }
+
+    @Test
+    public void shouldGetAndRemoveInBatch() {
+        OffHeapBucketManager manager = OffHeapBucketManager.of(1024 * 1024);
+        manager.put(IntStream.range(0, 100).mapToObj(i -> KeyValueEntity.of(i, "value-" + i))
+                .collect(Collectors.toList()));
+
+        List<Object> values = new ArrayList<>();
+        manager.get(Arrays.asList(3, 500, 7)).forEach(v -> values.add(v.get()));
+        assertThat(values, contains("value-3", "value-7"));
+        Map<Integer, Value> all = manager.getAll(Arrays.asList(9, 8));
+        assertThat(new ArrayList<>(all.keySet()), contains(9, 8));
+
+        manager.remove(IntStream.range(0, 50).boxed().collect(Collectors.toList()));
+        manager.remove(99);
+        assertEquals(49, manager.size());
+        assertFalse(manager.get(10).isPresent());
+        assertTrue(manager.get(60).isPresent());
+    }
+
+    @Test
+    public void shouldExpire() throws InterruptedException {
+        OffHeapBucketManager manager = OffHeapBucketManager.of(CAPACITY, 1);
+        manager.put(Arrays.asList(KeyValueEntity.of("a", 1), KeyValueEntity.of("b", 2)), Duration.ofMillis(10));
+        manager.put(KeyValueEntity.of("c", 3), Duration.ofMinutes(1));
+        Thread.sleep(20);
+
+        assertFalse(manager.get("a").isPresent());
+        assertTrue(manager.get("c").isPresent());
+        assertEquals(2, manager.size());
+    }
+
+    @Test
+    public void shouldEvictWhenCapacityIsReached() {
+        OffHeapBucketManager manager = OffHeapBucketManager.of(CAPACITY, 1);
+        for (int index = 0; index < 1_000; index++) {
+            manager.put(index, repeat('v', 100));
+        }
+        assertTrue(manager.getEvictions() > 0);
+        assertTrue(manager.getUsedBytes() <= CAPACITY);
+        assertEquals(1_000 - manager.getEvictions(), manager.size());
+        assertTrue(manager.get(999).isPresent());
+    }
+
+    @Test
+    public void shouldKeepEntriesThatAreRead() {
+        OffHeapBucketManager manager = OffHeapBucketManager.of(CAPACITY, 1);
+        manager.put("hot", repeat('h', 100));
+        for (int index = 0; index < 2_000; index++) {
+            manager.put(index, repeat('v', 100));
+            assertTrue(manager.get("hot").isPresent());
+        }
+    }
+
+    @Test
+    public void shouldMovePagesToOtherSizes() {
+        OffHeapBucketManager manager = OffHeapBucketManager.of(CAPACITY, 1);
+        for (int index = 0; index < 1_000; index++) {
+            manager.put(index, index);
+        }
+        manager.put("large", repeat('l', 3_000));
+        assertEquals(3_000, manager.get("large").get().get(String.class).length());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenEntryIsLargerThanPage() {
+        OffHeapBucketManager manager = OffHeapBucketManager.of(CAPACITY, 1);
+        manager.put("large", repeat('l', manager.getPageSize()));
+    }
+
+    @Test
+    public void shouldKeepIndexConsistentUnderConcurrentLoad() {
+        OffHeapBucketManager manager = OffHeapBucketManager.of(256 * 1024, 4);
+        List<CompletableFuture<Void>> workers = IntStream.range(0, 4).mapToObj(worker ->
+                CompletableFuture.runAsync(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int index = 0; index < 20_000; index++) {
+                        int key = random.nextInt(3_000);
+                        int operation = random.nextInt(10);
+                        if (operation < 5) {
+                            manager.put(key, repeat((char) ('a' + key % 26), 10 + key % 300));
+                        } else if (operation < 9) {
+                            Optional<Value> value = manager.get(key);
+                            value.ifPresent(v -> assertEquals(repeat((char) ('a' + key % 26), 10 + key % 300),
+                                    v.get()));
+                        } else {
+                            manager.remove(key);
+                        }
+                    }
+                })).collect(Collectors.toList());
+        workers.forEach(CompletableFuture::join);
+        assertTrue(manager.getUsedBytes() <= 256 * 1024);
+    }
+
+    private static String repeat(char character, int times) {
+        char[] chars = new char[times];
+        Arrays.fill(chars, character);
+        return new String(chars);
+    }
+}
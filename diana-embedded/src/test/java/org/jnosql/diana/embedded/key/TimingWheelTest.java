@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 Otavio Santana and others
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jnosql.diana.embedded.key;
+
+import org.jnosql.diana.api.Value;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class TimingWheelTest {
+
+    private final TimingWheel wheel = new TimingWheel(10, 0);
+
+    @Test
+    public void shouldNotScheduleExpiredEntry() {
+        assertFalse(wheel.schedule(entry(0)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void shouldExpireInTheTickOfTheEntry() {
+        List<MemoryEntry> expired = new ArrayList<>();
+        assertTrue(wheel.schedule(entry(25)));
+
+        wheel.advance(20, expired::add);
+        assertTrue(expired.isEmpty());
+        wheel.advance(30, expired::add);
+        assertEquals(1, expired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void shouldCascadeEntriesOfEveryLevel() {
+        Random random = new Random(7);
+        long[] times = new long[2_000];
+        for (int index = 0; index < times.length; index++) {
+            times[index] = 1 + (long) (random.nextDouble() * 10L * (1L << 26));
+            wheel.schedule(entry(times[index]));
+        }
+        long now = 0;
+        int total = 0;
+        while (total < times.length) {
+            long next = now + 1 + random.nextInt(1 << 20);
+            List<MemoryEntry> expired = new ArrayList<>();
+            wheel.advance(next, expired::add);
+            for (MemoryEntry entry : expired) {
+                assertTrue(entry.getExpiresAt() <= next);
+                assertTrue(entry.getExpiresAt() > now);
+            }
+            total += expired.size();
+            now = next;
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void shouldKeepEntriesBeyondTheLastLevel() {
+        List<MemoryEntry> expired = new ArrayList<>();
+        long far = 10L * (1L << 25);
+        wheel.schedule(entry(far));
+
+        wheel.advance(far - 10, expired::add);
+        assertTrue(expired.isEmpty());
+        wheel.advance(far, expired::add);
+        assertEquals(1, expired.size());
+    }
+
+    @Test
+    public void shouldCancelScheduledEntries() {
+        List<MemoryEntry> expired = new ArrayList<>();
+        MemoryEntry first = entry(25);
+        MemoryEntry second = entry(25);
+        MemoryEntry third = entry(25);
+        MemoryEntry far = entry(10L * (1L << 25));
+        wheel.schedule(first);
+        wheel.schedule(second);
+        wheel.schedule(third);
+        wheel.schedule(far);
+
+        wheel.cancel(second);
+        wheel.cancel(far);
+        wheel.cancel(far);
+        assertEquals(2, wheel.size());
+        wheel.advance(30, expired::add);
+        assertEquals(2, expired.size());
+        assertTrue(expired.contains(first));
+        assertTrue(expired.contains(third));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void shouldIgnoreEntryCancelledBeforeSchedule() {
+        MemoryEntry entry = entry(25);
+        wheel.cancel(entry);
+        assertTrue(wheel.schedule(entry));
+        assertEquals(0, wheel.size());
+    }
+
+    private MemoryEntry entry(long expiresAt) {
+        return new MemoryEntry("key", Value.of(expiresAt), expiresAt);
+    }
+}